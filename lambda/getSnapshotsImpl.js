@@ -3,49 +3,42 @@ var axios = require("axios");
 var request = require("request");
 const config = require("./config");
 
+const PAGE_SIZE = 500;
+
+// the server expects the indicators as comma separated name:color pairs
+function toFilterParams(indicatorsFilter) {
+  if (!indicatorsFilter || Object.keys(indicatorsFilter).length === 0) {
+    return {};
+  }
+  const { match, ...indicators } = indicatorsFilter;
+  return {
+    match: match || "all",
+    indicators: Object.keys(indicators)
+      .map(key => `${key}:${indicators[key]}`)
+      .join(",")
+  };
+}
+
 function getSnapshotsBySurvey(accessToken, surveyId, indictarosFilter) {
   const instance = axios.create({
     baseURL: config.BASE_URL,
     headers: { Authorization: `Bearer ${accessToken}` }
   });
+  const filterParams = toFilterParams(indictarosFilter);
 
-  return instance
-    .get(`/api/v1/snapshots/survey/${surveyId}`)
-    .then(resp => filter(resp.data, indictarosFilter))
-    .catch(error => Promise.reject(error));
-}
-
-function isNumeric(num) {
-  return !isNaN(num);
-}
-
-function areValuesEqual(value1, value2) {
-  if (isNumeric(value1) && isNumeric(value2)) {
-    return parseFloat(value1) === parseFloat(value2);
+  // the server filters the snapshots, so every page only has matching ones
+  function getPage(cursor, snapshots) {
+    return instance
+      .get(`/api/v1/snapshots/survey/${surveyId}/page`, {
+        params: Object.assign({ cursor, size: PAGE_SIZE }, filterParams)
+      })
+      .then(resp => {
+        const all = snapshots.concat(resp.data.list);
+        return resp.data.next ? getPage(resp.data.next, all) : all;
+      });
   }
-  return value1 === value2;
-}
 
-function filter(snapshots, indicatorsFilter) {
-  if (!indicatorsFilter || Object.keys(indicatorsFilter).length === 0) {
-    return snapshots;
-  }
-  const { match, ...indicators } = indicatorsFilter;
-  const matchAll = !match || match === "all";
-  return snapshots.filter(snapshot => {
-    const totalIndicatorsEqual = Object.keys(snapshot)
-      .filter(key => Object.keys(indicators).includes(key))
-      .reduce((totalEqual, key) => {
-        if (areValuesEqual(indicators[key], snapshot[key])) {
-          return totalEqual + 1;
-        }
-        return 0;
-      }, 0);
-    if (matchAll) {
-      return totalIndicatorsEqual === Object.keys(indicators).length;
-    }
-    return totalIndicatorsEqual > 0;
-  });
+  return getPage(undefined, []).catch(error => Promise.reject(error));
 }
 
 function getCreds() {
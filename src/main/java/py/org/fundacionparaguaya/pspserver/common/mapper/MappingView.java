@@ -0,0 +1,18 @@
+package py.org.fundacionparaguaya.pspserver.common.mapper;
+
+/**
+ * How much of an entity a mapper copies to its DTO.
+ */
+public enum MappingView {
+
+    /**
+     * The fields of the entity itself and summaries of the entities it belongs
+     * to, enough to list or reference it.
+     */
+    SUMMARY,
+
+    /**
+     * Everything the DTO has.
+     */
+    FULL
+}
@@ -0,0 +1,72 @@
+package py.org.fundacionparaguaya.pspserver.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in a listing sorted by creation date and
+ * id. Clients get it as an opaque token and send it back to get the rows that
+ * follow, which the database finds with an index seek however deep the page is.
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+
+    private final Long id;
+
+    public KeysetCursor(LocalDateTime createdAt, Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("A cursor needs the id of the last row");
+        }
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * @return the cursor in the token, or null for a null or empty token, which
+     * stands for the first page.
+     * @throws IllegalArgumentException if the token was not made by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            String createdAt = value.substring(0, separator);
+            return new KeysetCursor(
+                    createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt, DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + token + "'", e);
+        }
+    }
+
+    public String encode() {
+        String value = (createdAt != null ? createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : "")
+                + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+                "createdAt=" + createdAt +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,39 @@
+package py.org.fundacionparaguaya.pspserver.common.pagination;
+
+import java.util.List;
+
+/**
+ * A page of a listing read with a {@link KeysetCursor}. It carries no totals, as
+ * counting the rows would cost as much as reading all of them.
+ *
+ * @param <T> the type of the rows
+ */
+public class KeysetPage<T> {
+
+    private final List<T> list;
+
+    private final int pageSize;
+
+    private final String next;
+
+    public KeysetPage(List<T> list, int pageSize, String next) {
+        this.list = list;
+        this.pageSize = pageSize;
+        this.next = next;
+    }
+
+    public List<T> getList() {
+        return list;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return the token to request the following page with, or null if this is the last one.
+     */
+    public String getNext() {
+        return next;
+    }
+}
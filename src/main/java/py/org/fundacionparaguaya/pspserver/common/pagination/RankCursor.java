@@ -0,0 +1,69 @@
+package py.org.fundacionparaguaya.pspserver.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in a listing sorted by relevance and id,
+ * like the results of a search. As with {@link KeysetCursor}, clients get it as
+ * an opaque token and send it back to get the rows that follow.
+ *
+ * The rank is kept as the database computed it, so that comparing the rows
+ * against it gives exactly the same order.
+ */
+public final class RankCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final float rank;
+
+    private final Long id;
+
+    public RankCursor(float rank, Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("A cursor needs the id of the last row");
+        }
+        this.rank = rank;
+        this.id = id;
+    }
+
+    /**
+     * @return the cursor in the token, or null for a null or empty token, which
+     * stands for the first page.
+     * @throws IllegalArgumentException if the token was not made by {@link #encode()}
+     */
+    public static RankCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new RankCursor(Float.parseFloat(value.substring(0, separator)),
+                    Long.valueOf(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + token + "'", e);
+        }
+    }
+
+    public String encode() {
+        String value = Float.toString(rank) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "RankCursor{" +
+                "rank=" + rank +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package py.org.fundacionparaguaya.pspserver.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the change log up to which a client is synchronized: the
+ * transaction and id of the last change it got. Clients get it as an opaque
+ * token and send it back to get the changes made after it.
+ */
+public final class SyncWatermark {
+
+    private static final char SEPARATOR = '|';
+
+    private final long txid;
+
+    private final long changeId;
+
+    public SyncWatermark(long txid, long changeId) {
+        this.txid = txid;
+        this.changeId = changeId;
+    }
+
+    /**
+     * @return the watermark in the token, or null for a null or empty token,
+     * which stands for a client that has not synchronized yet.
+     * @throws IllegalArgumentException if the token was not made by {@link #encode()}
+     */
+    public static SyncWatermark decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new SyncWatermark(Long.parseLong(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid watermark '" + token + "'", e);
+        }
+    }
+
+    public String encode() {
+        String value = Long.toString(txid) + SEPARATOR + changeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getTxid() {
+        return txid;
+    }
+
+    public long getChangeId() {
+        return changeId;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncWatermark{" +
+                "txid=" + txid +
+                ", changeId=" + changeId +
+                '}';
+    }
+}
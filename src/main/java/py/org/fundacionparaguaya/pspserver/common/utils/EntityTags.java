@@ -0,0 +1,57 @@
+package py.org.fundacionparaguaya.pspserver.common.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds the entity tags the controllers answer conditional requests with.
+ *
+ * A tag is a hash of the versions of whatever a response is built from, like
+ * the ids and <code>last_modified_at</code> of its entities, so it can be
+ * worked out, and compared with the one the client has, without building the
+ * response itself.
+ */
+public final class EntityTags {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the tag of the given parts, in order. Null parts count, so the
+     * tags of <code>(a, null)</code> and <code>(a)</code> differ.
+     */
+    public static String of(Object... parts) {
+        Hasher hasher = HASH.newHasher();
+        for (Object part : parts) {
+            hasher.putString(String.valueOf(part), StandardCharsets.UTF_8);
+            // keeps ("ab", "c") apart from ("a", "bc")
+            hasher.putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return a hash of the JSON of the given value, with its properties and map
+     * entries sorted so the same content always hashes the same.
+     */
+    public static String contentHash(Object value) {
+        try {
+            return HASH.hashBytes(MAPPER.writeValueAsBytes(value)).toString();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash the content of " + value, e);
+        }
+    }
+}
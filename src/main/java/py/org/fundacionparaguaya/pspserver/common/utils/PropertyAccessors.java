@@ -0,0 +1,199 @@
+package py.org.fundacionparaguaya.pspserver.common.utils;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Getters and setters of a bean class, resolved once with {@link LambdaMetafactory}
+ * so that reading or writing a property by name costs a map lookup and a plain
+ * method call instead of a reflective invocation.
+ *
+ * It follows the JavaBeans conventions, so the properties it finds are the same
+ * ones commons-beanutils <code>PropertyUtils</code> would use.
+ *
+ * @param <T> the bean type
+ */
+public final class PropertyAccessors<T> {
+
+    private static final Map<Class<?>, PropertyAccessors<?>> REGISTRY = new ConcurrentHashMap<>();
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<T> type;
+
+    private final Map<String, Accessor> accessors;
+
+    private PropertyAccessors(Class<T> type) {
+        this.type = type;
+        this.accessors = introspect(type);
+    }
+
+    /**
+     * @return the accessors of the given type, built on first use and shared afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PropertyAccessors<T> of(Class<T> type) {
+        return (PropertyAccessors<T>) REGISTRY.computeIfAbsent(type, PropertyAccessors::new);
+    }
+
+    public Object get(T bean, String property) {
+        Function<Object, Object> getter = accessor(property).getter;
+        if (getter == null) {
+            throw new IllegalArgumentException(
+                    "Property '" + property + "' has no getter method in class '" + type.getName() + "'");
+        }
+        return getter.apply(bean);
+    }
+
+    public void set(T bean, String property, Object value) {
+        BiConsumer<Object, Object> setter = accessor(property).setter;
+        if (setter == null) {
+            throw new IllegalArgumentException(
+                    "Property '" + property + "' has no setter method in class '" + type.getName() + "'");
+        }
+        setter.accept(bean, value);
+    }
+
+    public Class<?> getType(String property) {
+        return accessor(property).type;
+    }
+
+    public boolean hasProperty(String property) {
+        return accessors.containsKey(property);
+    }
+
+    public Set<String> getPropertyNames() {
+        return accessors.keySet();
+    }
+
+    private Accessor accessor(String property) {
+        Accessor accessor = accessors.get(property);
+        if (accessor == null) {
+            throw new IllegalArgumentException(
+                    "Unknown property '" + property + "' on class '" + type.getName() + "'");
+        }
+        return accessor;
+    }
+
+    private static Map<String, Accessor> introspect(Class<?> type) {
+        BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(type, Object.class);
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("Could not introspect class '" + type.getName() + "'", e);
+        }
+
+        ImmutableMap.Builder<String, Accessor> builder = ImmutableMap.builder();
+        for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            if (descriptor.getPropertyType() == null) {
+                // indexed properties are not supported
+                continue;
+            }
+            builder.put(descriptor.getName(), new Accessor(descriptor.getPropertyType(),
+                    getter(type, descriptor.getReadMethod()),
+                    setter(type, descriptor.getWriteMethod())));
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Class<?> type, Method method) {
+        if (method == null) {
+            return null;
+        }
+        MethodHandle handle = unreflect(method);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(Primitives.wrap(method.getReturnType()), type));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // classes we can not link against still get a method handle, which is slower
+            // than a generated lambda but far cheaper than reflection
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return generic.invokeExact(bean);
+                } catch (Throwable t) {
+                    throw propagate(t);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> type, Method method) {
+        if (method == null) {
+            return null;
+        }
+        MethodHandle handle = unreflect(method);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, Primitives.wrap(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    generic.invokeExact(bean, value);
+                } catch (Throwable t) {
+                    throw propagate(t);
+                }
+            };
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Could not access method '" + method + "'", e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+
+    private static final class Accessor {
+
+        private final Class<?> type;
+
+        private final Function<Object, Object> getter;
+
+        private final BiConsumer<Object, Object> setter;
+
+        private Accessor(Class<?> type, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
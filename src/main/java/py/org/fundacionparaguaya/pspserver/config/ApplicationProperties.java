@@ -3,6 +3,10 @@ package py.org.fundacionparaguaya.pspserver.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @Component
 @ConfigurationProperties("application")
 public class ApplicationProperties {
@@ -73,6 +77,18 @@ public class ApplicationProperties {
 
     private Sender sender = new Sender();
 
+    private TokenCache tokenCache = new TokenCache();
+
+    private SurveyCache surveyCache = new SurveyCache();
+
+    private ActivityFeed activityFeed = new ActivityFeed();
+
+    private StoplightAggregates stoplightAggregates = new StoplightAggregates();
+
+    private Compression compression = new Compression();
+
+    private BlobStore blobStore = new BlobStore();
+
     public Client getClient() {
         return client;
     }
@@ -97,6 +113,54 @@ public class ApplicationProperties {
         this.sender = sender;
     }
 
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public void setTokenCache(TokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
+    public SurveyCache getSurveyCache() {
+        return surveyCache;
+    }
+
+    public void setSurveyCache(SurveyCache surveyCache) {
+        this.surveyCache = surveyCache;
+    }
+
+    public ActivityFeed getActivityFeed() {
+        return activityFeed;
+    }
+
+    public void setActivityFeed(ActivityFeed activityFeed) {
+        this.activityFeed = activityFeed;
+    }
+
+    public StoplightAggregates getStoplightAggregates() {
+        return stoplightAggregates;
+    }
+
+    public void setStoplightAggregates(StoplightAggregates stoplightAggregates) {
+        this.stoplightAggregates = stoplightAggregates;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    public BlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    public void setBlobStore(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
     public static class Client {
         private String loginUrl;
 
@@ -135,4 +199,172 @@ public class ApplicationProperties {
         }
 
     }
+
+    public static class TokenCache {
+        private long maxSize = 10000;
+        private long ttlSeconds = 60;
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+    }
+
+    public static class SurveyCache {
+        private long maxSize = 500;
+        private long ttlSeconds = 60;
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+    }
+
+    public static class StoplightAggregates {
+        private String moveFamiliesCron = "0 30 3 * * *";
+
+        public String getMoveFamiliesCron() {
+            return moveFamiliesCron;
+        }
+
+        public void setMoveFamiliesCron(String moveFamiliesCron) {
+            this.moveFamiliesCron = moveFamiliesCron;
+        }
+
+    }
+
+    public static class ActivityFeed {
+        private int retentionDays = 365;
+        private String archiveCron = "0 0 3 * * *";
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+
+        public String getArchiveCron() {
+            return archiveCron;
+        }
+
+        public void setArchiveCron(String archiveCron) {
+            this.archiveCron = archiveCron;
+        }
+
+    }
+
+    public static class Compression {
+        private boolean enabled = true;
+        private List<String> mimeTypes = new ArrayList<>(Arrays.asList("application/json", "text/csv"));
+        private int minResponseSize = 2048;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getMimeTypes() {
+            return mimeTypes;
+        }
+
+        public void setMimeTypes(List<String> mimeTypes) {
+            this.mimeTypes = mimeTypes;
+        }
+
+        public int getMinResponseSize() {
+            return minResponseSize;
+        }
+
+        public void setMinResponseSize(int minResponseSize) {
+            this.minResponseSize = minResponseSize;
+        }
+
+    }
+
+    public static class BlobStore {
+        private String type = "s3";
+        private int maxConnections = 50;
+        private String directory;
+        private String baseUrl;
+        private int uploadThreads = 2;
+        private int uploadQueueCapacity = 100;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public int getUploadThreads() {
+            return uploadThreads;
+        }
+
+        public void setUploadThreads(int uploadThreads) {
+            this.uploadThreads = uploadThreads;
+        }
+
+        public int getUploadQueueCapacity() {
+            return uploadQueueCapacity;
+        }
+
+        public void setUploadQueueCapacity(int uploadQueueCapacity) {
+            this.uploadQueueCapacity = uploadQueueCapacity;
+        }
+
+    }
 }
\ No newline at end of file
@@ -36,6 +36,9 @@ public class AuthServerOAuth2Config extends AuthorizationServerConfigurerAdapter
     @Qualifier("authenticationManagerBean")
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     // Password encryptor
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -80,10 +83,11 @@ public class AuthServerOAuth2Config extends AuthorizationServerConfigurerAdapter
         clients.jdbc(dataSource);
     }
 
-    // JDBC token store configuration
+    // JDBC token store configuration, with the tokens in use cached in memory
     @Bean
     public TokenStore tokenStore() {
-        return new JdbcTokenStore(dataSource);
+        ApplicationProperties.TokenCache cache = applicationProperties.getTokenCache();
+        return new CachingTokenStore(new JdbcTokenStore(dataSource), cache.getMaxSize(), cache.getTtlSeconds());
     }
 
     @Bean
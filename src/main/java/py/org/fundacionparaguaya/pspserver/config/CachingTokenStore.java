@@ -0,0 +1,163 @@
+package py.org.fundacionparaguaya.pspserver.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TokenStore} that keeps the access tokens read from another store,
+ * and their authentications, in a bounded in-memory cache. Every request reads
+ * both, so requests no longer go to the database, nor deserialize the stored
+ * authentication, while their token is cached.
+ *
+ * An authentication is only cached along with its access token, so the tokens
+ * of a removed refresh token are found and evicted with their authentications.
+ * Removed tokens are evicted at once, and a token read from the store while
+ * tokens are stored or removed is not kept, as it may be one of them. Tokens
+ * removed through another server keep being accepted here until they expire
+ * from the cache, which is why entries only live for a short time.
+ */
+public class CachingTokenStore implements TokenStore {
+
+    private final TokenStore delegate;
+
+    private final Cache<String, CachedToken> tokens;
+
+    /**
+     * Counts the stores and removals, so a read can tell whether one ended
+     * while it read from the store.
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    public CachingTokenStore(TokenStore delegate, long maxSize, long ttlSeconds) {
+        this.delegate = delegate;
+        this.tokens = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        CachedToken cached = tokens.getIfPresent(tokenValue);
+        if (cached != null) {
+            return cached.token;
+        }
+        long changesBeforeRead = changes.get();
+        OAuth2AccessToken token = delegate.readAccessToken(tokenValue);
+        if (token != null) {
+            CachedToken read = new CachedToken(token);
+            tokens.asMap().putIfAbsent(tokenValue, read);
+            // a removal that ended after the read may have evicted before the token was cached
+            if (changes.get() != changesBeforeRead) {
+                tokens.asMap().remove(tokenValue, read);
+            }
+        }
+        return token;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        CachedToken cached = tokens.getIfPresent(token);
+        if (cached != null && cached.authentication != null) {
+            return cached.authentication;
+        }
+        OAuth2Authentication authentication = delegate.readAuthentication(token);
+        // requests read the token first, which is what the authentication is cached with
+        if (cached != null && authentication != null) {
+            cached.authentication = authentication;
+        }
+        return authentication;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        tokens.invalidate(token.getValue());
+        delegate.storeAccessToken(token, authentication);
+        changes.incrementAndGet();
+        // a read between both may have cached the token it replaces
+        tokens.invalidate(token.getValue());
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        tokens.invalidate(token.getValue());
+        delegate.removeAccessToken(token);
+        changes.incrementAndGet();
+        tokens.invalidate(token.getValue());
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        evictByRefreshToken(refreshToken);
+        delegate.removeAccessTokenUsingRefreshToken(refreshToken);
+        changes.incrementAndGet();
+        evictByRefreshToken(refreshToken);
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        delegate.storeRefreshToken(refreshToken, authentication);
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        return delegate.readRefreshToken(tokenValue);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        return delegate.readAuthenticationForRefreshToken(token);
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        delegate.removeRefreshToken(token);
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        return delegate.getAccessToken(authentication);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+        return delegate.findTokensByClientIdAndUserName(clientId, userName);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return delegate.findTokensByClientId(clientId);
+    }
+
+    private void evictByRefreshToken(OAuth2RefreshToken refreshToken) {
+        // the store removes them by their refresh token, so the cache is searched for it
+        tokens.asMap().values().removeIf(cached -> {
+            OAuth2RefreshToken tokenRefresh = cached.token.getRefreshToken();
+            return tokenRefresh != null && tokenRefresh.getValue().equals(refreshToken.getValue());
+        });
+    }
+
+    private static final class CachedToken {
+
+        private final OAuth2AccessToken token;
+
+        private volatile OAuth2Authentication authentication;
+
+        CachedToken(OAuth2AccessToken token) {
+            this.token = token;
+        }
+    }
+}
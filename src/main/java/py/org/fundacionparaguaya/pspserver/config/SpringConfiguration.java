@@ -1,10 +1,15 @@
 package py.org.fundacionparaguaya.pspserver.config;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import py.org.fundacionparaguaya.pspserver.config.filters.CompressionFilter;
 
 @Configuration
+@EnableScheduling
 public class SpringConfiguration {
 
     @Bean
@@ -12,4 +17,14 @@ public class SpringConfiguration {
         return new ModelMapper();
     }
 
+    @Bean
+    public FilterRegistrationBean compressionFilter(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Compression compression = applicationProperties.getCompression();
+        FilterRegistrationBean registration = new FilterRegistrationBean(new CompressionFilter(compression));
+        registration.setEnabled(compression.isEnabled());
+        // right after the CORS filter, so everything written by the rest of the chain goes through it
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
 }
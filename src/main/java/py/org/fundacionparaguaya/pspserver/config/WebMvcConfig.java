@@ -8,12 +8,14 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.support.RequestContextUtils;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
 
 /**
  *
@@ -32,6 +34,12 @@ public class WebMvcConfig extends WebMvcConfigurerAdapter {
         registry.addInterceptor(localeChangeInterceptor());
     }
 
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        // request parameters name periods in any case
+        registry.addConverter(String.class, SnapshotPeriodEnum.class, SnapshotPeriodEnum::fromValue);
+    }
+
     @Bean
     public I18n i18n () {
         return new I18n(messageSource());
@@ -0,0 +1,374 @@
+package py.org.fundacionparaguaya.pspserver.config.filters;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the responses of the configured content types with gzip or
+ * deflate, whichever the client accepts, preferring gzip.
+ *
+ * The application is also deployed as a war, where the compression settings of
+ * the embedded container do not apply, so it is done here. The body is
+ * compressed as it is written, so streamed responses like the CSV reports are
+ * still sent as they are generated.
+ *
+ * The entity tags of responses that may be compressed are marked as weak, as
+ * the compressed body is not byte for byte the one the tag was set for.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    static final String GZIP = "gzip";
+
+    static final String DEFLATE = "deflate";
+
+    private static final List<String> ENCODINGS = Arrays.asList(GZIP, DEFLATE);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private final List<MediaType> mimeTypes;
+
+    private final int minResponseSize;
+
+    public CompressionFilter(ApplicationProperties.Compression compression) {
+        this.mimeTypes = compression.getMimeTypes().stream()
+                .map(MediaType::parseMediaType)
+                .collect(Collectors.toList());
+        this.minResponseSize = compression.getMinResponseSize();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null || "HEAD".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressingResponse = new CompressingResponse(response, encoding);
+        try {
+            filterChain.doFilter(request, compressingResponse);
+        } finally {
+            compressingResponse.finish();
+        }
+    }
+
+    /**
+     * @return the encoding to compress with for the given <code>Accept-Encoding</code>
+     * header, or null if the client accepts neither gzip nor deflate.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        Map<String, Double> qualities = new HashMap<>();
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.trim().split(";");
+            double quality = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            qualities.put(params[0].trim().toLowerCase(Locale.ROOT), quality);
+        }
+
+        for (String encoding : ENCODINGS) {
+            Double quality = qualities.containsKey(encoding) ? qualities.get(encoding) : qualities.get("*");
+            if (quality != null && quality > 0) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return mimeTypes.stream().anyMatch(type -> type.includes(mediaType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decides whether to compress when the body is first asked for, once the
+     * status and headers are known. Headers set by the application that no
+     * longer hold for the compressed body, the content length, are held back
+     * until then.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+
+        private long contentLength = -1;
+
+        private Boolean compressing;
+
+        private CompressingOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (compressing == null) {
+                contentLength = length;
+            } else if (!compressing) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(parseLength(value));
+            } else {
+                super.setHeader(name, weakenTag(name, value));
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(parseLength(value));
+            } else {
+                super.addHeader(name, weakenTag(name, value));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            if (!isCompressing()) {
+                return super.getOutputStream();
+            }
+            if (outputStream == null) {
+                outputStream = new CompressingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (!isCompressing()) {
+                return super.getWriter();
+            }
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called for this response");
+                }
+                outputStream = new CompressingOutputStream(super.getOutputStream(), this);
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (outputStream != null) {
+                outputStream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            // whatever was compressed so far is gone with the buffer, so the next body starts a new stream
+            outputStream = null;
+            writer = null;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            contentLength = -1;
+            compressing = null;
+            outputStream = null;
+            writer = null;
+        }
+
+        private boolean isCompressing() {
+            if (compressing == null) {
+                int status = getStatus();
+                boolean hasBody = status != SC_NO_CONTENT && status != SC_NOT_MODIFIED;
+                boolean compressible = hasBody && isCompressible(getContentType())
+                        && getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+                if (compressible) {
+                    super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                compressing = compressible && (contentLength < 0 || contentLength >= minResponseSize);
+                if (!compressing && contentLength >= 0) {
+                    super.setContentLengthLong(contentLength);
+                }
+            }
+            return compressing;
+        }
+
+        private void startCompressing() {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.finish();
+            } else if (compressing == null && contentLength >= 0 && !isCommitted()) {
+                // no body was written, so the length set for it still holds
+                super.setContentLengthLong(contentLength);
+            }
+        }
+
+        /**
+         * The tag is set before the body is written, when it is not yet known
+         * whether it will be compressed. A 304, which is never compressed, has
+         * to send the same tag as the 200 it stands for, so the tags of every
+         * response that may be compressed are weakened.
+         */
+        private String weakenTag(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name) && value != null && !value.startsWith(WEAK_PREFIX)) {
+                return WEAK_PREFIX + value;
+            }
+            return value;
+        }
+
+        private long parseLength(String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Starts the compressed stream, and marks the response as compressed, with
+     * the first byte of the body, so that a response which ends up with no body,
+     * or is turned into an error before writing one, is sent as it is.
+     */
+    private static final class CompressingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream target;
+
+        private final CompressingResponse response;
+
+        private DeflaterOutputStream compressor;
+
+        private boolean finished;
+
+        CompressingOutputStream(ServletOutputStream target, CompressingResponse response) {
+            this.target = target;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            compressor().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                compressor().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // sending anything commits the headers, so the compressed stream has to be started by then
+            compressor().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (compressor == null) {
+                target.close();
+            } else {
+                finish();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+
+        void finish() throws IOException {
+            if (compressor != null && !finished) {
+                finished = true;
+                // also releases the native memory of the deflater
+                compressor.close();
+            }
+        }
+
+        private DeflaterOutputStream compressor() throws IOException {
+            if (compressor == null) {
+                response.startCompressing();
+                compressor = GZIP.equals(response.encoding)
+                        ? new GZIPOutputStream(target, BUFFER_SIZE, true)
+                        : new DeflaterOutputStream(target, new Deflater(), BUFFER_SIZE, true) {
+                            @Override
+                            public void close() throws IOException {
+                                super.close();
+                                def.end();
+                            }
+                        };
+            }
+            return compressor;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.google.common.base.MoreObjects;
 import py.org.fundacionparaguaya.pspserver.network.dtos.ApplicationDTO;
 import py.org.fundacionparaguaya.pspserver.network.dtos.OrganizationDTO;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDTO;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.dtos.CityDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.CountryDTO;
 
@@ -44,6 +45,8 @@ public class FamilyDTO implements Serializable {
 
     private String imageURL;
 
+    private ImageStatus imageStatus;
+
     private UserDTO user;
 
     public FamilyDTO() {
@@ -259,6 +262,14 @@ public class FamilyDTO implements Serializable {
         this.imageURL = imageURL;
     }
 
+    public ImageStatus getImageStatus() {
+        return imageStatus;
+    }
+
+    public void setImageStatus(ImageStatus imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).add("familyId", familyId)
@@ -7,11 +7,14 @@ import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Convert;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
@@ -27,6 +30,7 @@ import py.org.fundacionparaguaya.pspserver.network.constants.Status;
 import py.org.fundacionparaguaya.pspserver.network.entities.ApplicationEntity;
 import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
 import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.entities.CityEntity;
 import py.org.fundacionparaguaya.pspserver.system.entities.CountryEntity;
 
@@ -40,7 +44,8 @@ public class FamilyEntity extends BaseEntity {
             @Parameter(name = SequenceStyleGenerator.SCHEMA, value = "ps_families"),
             @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "family_family_id_seq"),
             @Parameter(name = SequenceStyleGenerator.INITIAL_PARAM, value = "1"),
-            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "1") })
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled") })
     @GeneratedValue(generator = "familySequenceGenerator")
     @Column(name = "family_id")
     private Long familyId;
@@ -82,6 +87,10 @@ public class FamilyEntity extends BaseEntity {
     @Column(name = "image_url")
     private String imageURL;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "image_status")
+    private ImageStatus imageStatus;
+
     @ManyToOne(targetEntity = UserEntity.class)
     @JoinColumn(name = "user_id")
     private UserEntity user;
@@ -200,6 +209,14 @@ public class FamilyEntity extends BaseEntity {
         this.imageURL = imageURL;
     }
 
+    public ImageStatus getImageStatus() {
+        return imageStatus;
+    }
+
+    public void setImageStatus(ImageStatus imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+
     public UserEntity getUser() {
         return user;
     }
@@ -209,6 +226,7 @@ public class FamilyEntity extends BaseEntity {
     }
 
     @PrePersist
+    @PreUpdate
     public void preSave() {
         this.lastModifiedAt = LocalDateTime.now();
     }
@@ -2,6 +2,7 @@ package py.org.fundacionparaguaya.pspserver.families.entities;
 
 import py.org.fundacionparaguaya.pspserver.network.entities.ApplicationEntity;
 import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
+import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
 import py.org.fundacionparaguaya.pspserver.system.entities.CityEntity;
 import py.org.fundacionparaguaya.pspserver.system.entities.CountryEntity;
 
@@ -21,6 +22,8 @@ public class FamilyEntity_ {
     private static volatile SingularAttribute<FamilyEntity, CountryEntity> country;
     private static volatile SingularAttribute<FamilyEntity, CityEntity> city;
     private static volatile SingularAttribute<FamilyEntity, String> name;
+    private static volatile SingularAttribute<FamilyEntity, String> code;
+    private static volatile SingularAttribute<FamilyEntity, UserEntity> user;
     private static volatile SingularAttribute<FamilyEntity, Boolean> isActive;
     private static volatile SingularAttribute<FamilyEntity, LocalDateTime> lastModifiedAt;
 
@@ -44,6 +47,14 @@ public class FamilyEntity_ {
         return name;
     }
 
+    public static SingularAttribute<FamilyEntity, String> getCode() {
+        return code;
+    }
+
+    public static SingularAttribute<FamilyEntity, UserEntity> getUser() {
+        return user;
+    }
+
     public static SingularAttribute<FamilyEntity, Boolean> getIsActive() {
         return isActive;
     }
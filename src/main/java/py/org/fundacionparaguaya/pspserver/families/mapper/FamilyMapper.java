@@ -8,8 +8,14 @@ import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import py.org.fundacionparaguaya.pspserver.common.mapper.BaseMapper;
+import py.org.fundacionparaguaya.pspserver.common.mapper.MappingView;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+import py.org.fundacionparaguaya.pspserver.network.mapper.ApplicationMapper;
+import py.org.fundacionparaguaya.pspserver.network.mapper.OrganizationMapper;
+import py.org.fundacionparaguaya.pspserver.security.mapper.UserMapper;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CityMapper;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CountryMapper;
 
 
 
@@ -20,23 +26,74 @@ import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 public class FamilyMapper implements BaseMapper<FamilyEntity, FamilyDTO> {
 
 	private final ModelMapper modelMapper;
-	 
-	public FamilyMapper(ModelMapper modelMapper) {
+
+	private final CountryMapper countryMapper;
+
+	private final CityMapper cityMapper;
+
+	private final PersonMapper personMapper;
+
+	private final ApplicationMapper applicationMapper;
+
+	private final OrganizationMapper organizationMapper;
+
+	private final UserMapper userMapper;
+
+	public FamilyMapper(ModelMapper modelMapper, CountryMapper countryMapper, CityMapper cityMapper,
+			PersonMapper personMapper, ApplicationMapper applicationMapper,
+			OrganizationMapper organizationMapper, UserMapper userMapper) {
 		this.modelMapper = modelMapper;
+		this.countryMapper = countryMapper;
+		this.cityMapper = cityMapper;
+		this.personMapper = personMapper;
+		this.applicationMapper = applicationMapper;
+		this.organizationMapper = organizationMapper;
+		this.userMapper = userMapper;
 	}
 
 	@Override
 	public List<FamilyDTO> entityListToDtoList(List<FamilyEntity> entityList) {
-		 return entityList.stream()
-	                .filter(Objects::nonNull)
-	                .map(this::entityToDto)
-	                .collect(Collectors.toList());
+		return entityListToDtoList(entityList, MappingView.FULL);
+	}
+
+	public List<FamilyDTO> entityListToDtoList(List<FamilyEntity> entityList, MappingView view) {
+		return entityList.stream()
+				.filter(Objects::nonNull)
+				.map(entity -> entityToDto(entity, view))
+				.collect(Collectors.toList());
 	}
 
 	@Override
 	public FamilyDTO entityToDto(FamilyEntity entity) {
-		FamilyDTO dto = modelMapper.map(entity, FamilyDTO.class);
-	    return dto;
+		return entityToDto(entity, MappingView.FULL);
+	}
+
+	/**
+	 * In the summary view the organization and application of the family are
+	 * summaries too, and its country, city, person and user are left out.
+	 */
+	public FamilyDTO entityToDto(FamilyEntity entity, MappingView view) {
+		if (entity == null) {
+			return null;
+		}
+		FamilyDTO dto = new FamilyDTO();
+		dto.setFamilyId(entity.getFamilyId());
+		dto.setName(entity.getName());
+		dto.setCode(entity.getCode());
+		dto.setLocationType(entity.getLocationType());
+		dto.setLocationPositionGps(entity.getLocationPositionGps());
+		dto.setActive(entity.isActive());
+		dto.setImageURL(entity.getImageURL());
+		dto.setImageStatus(entity.getImageStatus());
+		dto.setOrganization(organizationMapper.entityToDto(entity.getOrganization(), view));
+		dto.setApplicationId(applicationMapper.entityToDto(entity.getApplication(), view));
+		if (view == MappingView.FULL) {
+			dto.setCountry(countryMapper.entityToDto(entity.getCountry()));
+			dto.setCity(cityMapper.entityToDto(entity.getCity()));
+			dto.setPerson(personMapper.entityToDto(entity.getPerson()));
+			dto.setUser(userMapper.entityToSummaryDto(entity.getUser()));
+		}
+		return dto;
 	}
 
 	@Override
@@ -10,6 +10,8 @@ import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.PropertyAttributeSupport;
 import py.org.fundacionparaguaya.pspserver.system.entities.CountryEntity;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CityMapper;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CountryMapper;
 import py.org.fundacionparaguaya.pspserver.system.repositories.CountryRepository;
 
 import java.time.LocalDate;
@@ -31,11 +33,17 @@ public class PersonMapper implements BaseMapper<PersonEntity, PersonDTO> {
 
     private final PropertyAttributeSupport propertyAttributeSupport;
 
+    private final CountryMapper countryMapper;
+
+    private final CityMapper cityMapper;
+
     public PersonMapper(ModelMapper modelMapper, PropertyAttributeSupport propertyAttributeSupport,
-            CountryRepository countryRepository) {
+            CountryRepository countryRepository, CountryMapper countryMapper, CityMapper cityMapper) {
         this.modelMapper = modelMapper;
         this.propertyAttributeSupport = propertyAttributeSupport;
         this.countryRepository = countryRepository;
+        this.countryMapper = countryMapper;
+        this.cityMapper = cityMapper;
     }
 
     @Override
@@ -45,7 +53,28 @@ public class PersonMapper implements BaseMapper<PersonEntity, PersonDTO> {
 
     @Override
     public PersonDTO entityToDto(PersonEntity entity) {
-        PersonDTO dto = modelMapper.map(entity, PersonDTO.class);
+        if (entity == null) {
+            return null;
+        }
+        // the family is left out, it is the one holding this person
+        PersonDTO dto = new PersonDTO();
+        dto.setPersonId(entity.getPersonId());
+        dto.setFirstName(entity.getFirstName());
+        dto.setLastName(entity.getLastName());
+        dto.setIdentificationType(entity.getIdentificationType());
+        dto.setIdentificationNumber(entity.getIdentificationNumber());
+        dto.setPersonRole(entity.getPersonRole());
+        dto.setGender(entity.getGender());
+        dto.setActivityPrimary(entity.getActivityPrimary());
+        dto.setActivitySecundary(entity.getActivitySecundary());
+        dto.setPhoneNumber(entity.getPhoneNumber());
+        dto.setEmail(entity.getEmail());
+        dto.setCountryOfBirth(countryMapper.entityToDto(entity.getCountryOfBirth()));
+        dto.setCity(cityMapper.entityToDto(entity.getCity()));
+        if (entity.getBirthdate() != null) {
+            dto.setBirthdate(entity.getBirthdate().toString());
+        }
+        dto.setPostCode(entity.getPostCode());
         return dto;
     }
 
@@ -1,5 +1,7 @@
 package py.org.fundacionparaguaya.pspserver.families.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -7,13 +9,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 
-public interface FamilyRepository extends JpaRepository<FamilyEntity, Long>, JpaSpecificationExecutor<FamilyEntity> {
+public interface FamilyRepository extends JpaRepository<FamilyEntity, Long>, JpaSpecificationExecutor<FamilyEntity>,
+        FamilyRepositoryCustom {
 
     Optional<FamilyEntity> findByCode(String code);
 
+    List<FamilyEntity> findByCodeIn(Collection<String> codes);
+
     Page<FamilyEntity> findAll(Pageable page);
 
     List<FamilyEntity> findByNameContainingIgnoreCase(String freeText);
@@ -21,4 +30,32 @@ public interface FamilyRepository extends JpaRepository<FamilyEntity, Long>, Jpa
     List<FamilyEntity> findByOrganizationId(Long organizationId);
 
     List<FamilyEntity> findDistinctByUserId(Long userId);
+
+    @Query("select f.lastModifiedAt from FamilyEntity f where f.familyId = :familyId")
+    List<LocalDateTime> findLastModifiedAtById(@Param("familyId") Long familyId);
+
+    /**
+     * @return the number of families updated, none if the family has another image by now
+     */
+    @Modifying
+    @Query("update FamilyEntity f set f.imageURL = :url, f.imageStatus = :status, "
+            + "f.lastModifiedAt = current_timestamp "
+            + "where f.familyId = :familyId and f.imageURL = :expectedUrl")
+    int updateImage(@Param("familyId") Long familyId, @Param("expectedUrl") String expectedUrl,
+            @Param("url") String url, @Param("status") ImageStatus status);
+
+    /**
+     * @return the id and image URL of each family whose image has the status
+     */
+    @Query("select f.familyId, f.imageURL from FamilyEntity f where f.imageStatus = :status")
+    List<Object[]> findImagesByStatus(@Param("status") ImageStatus status);
+
+    /**
+     * @return the number of families updated, none if the family has another image, or another status, by now
+     */
+    @Modifying
+    @Query("update FamilyEntity f set f.imageStatus = :status, f.lastModifiedAt = current_timestamp "
+            + "where f.familyId = :familyId and f.imageURL = :url and f.imageStatus = :expectedStatus")
+    int updateImageStatus(@Param("familyId") Long familyId, @Param("url") String url,
+            @Param("expectedStatus") ImageStatus expectedStatus, @Param("status") ImageStatus status);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package py.org.fundacionparaguaya.pspserver.families.repositories;
+
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.common.pagination.RankCursor;
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+
+import java.util.List;
+
+/**
+ * Queries over families that can not be expressed with the derived
+ * Spring Data methods.
+ */
+public interface FamilyRepositoryCustom {
+
+    /**
+     * Searches the families matching the specification whose name or code is
+     * similar to, or contains, the given text, best matches first and then
+     * newest first, seeking past the given cursor.
+     *
+     * @param text the text to search, or null or empty for all the families
+     *             matching the specification, newest first
+     * @param after the last family of the previous page, or null for the first page
+     * @param limit the maximum number of families to return
+     */
+    List<RankedFamily> search(Specification<FamilyEntity> spec, String text, RankCursor after, int limit);
+}
@@ -0,0 +1,109 @@
+package py.org.fundacionparaguaya.pspserver.families.repositories;
+
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.common.pagination.RankCursor;
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity_;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.dialect.JSONBPostgreSQLDialect;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link FamilyRepositoryCustom}, picked up by
+ * Spring Data through the <code>Impl</code> postfix.
+ */
+public class FamilyRepositoryImpl implements FamilyRepositoryCustom {
+
+    private static final String ID_ATTRIBUTE = "familyId";
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RankedFamily> search(Specification<FamilyEntity> spec, String text, RankCursor after,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<FamilyEntity> root = query.from(FamilyEntity.class);
+
+        Path<Long> id = root.get(ID_ATTRIBUTE);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate byFilter = spec.toPredicate(root, query, cb);
+        if (byFilter != null) {
+            predicates.add(byFilter);
+        }
+
+        if (text == null || text.trim().isEmpty()) {
+            if (after != null) {
+                predicates.add(cb.lessThan(id, after.getId()));
+            }
+            query.multiselect(root)
+                    .where(predicates.toArray(new Predicate[predicates.size()]))
+                    .orderBy(cb.desc(id));
+            return entityManager.createQuery(query)
+                    .setMaxResults(limit)
+                    .getResultList()
+                    .stream()
+                    .map(tuple -> new RankedFamily(tuple.get(0, FamilyEntity.class), 0f))
+                    .collect(Collectors.toList());
+        }
+
+        // both sides lower cased, as the trigram indexes are on lower(name) and lower(code)
+        String lowerText = text.trim().toLowerCase();
+        Expression<String> name = cb.lower(root.get(FamilyEntity_.getName()));
+        Expression<String> code = cb.lower(root.get(FamilyEntity_.getCode()));
+        String contains = "%" + escapeLike(lowerText) + "%";
+
+        // similarity finds misspelled names, and like finds the short texts that
+        // are too unlike the whole name, such as part of a code
+        predicates.add(cb.or(
+                matches(cb, name, lowerText),
+                matches(cb, code, lowerText),
+                cb.like(name, contains, LIKE_ESCAPE),
+                cb.like(code, contains, LIKE_ESCAPE)));
+
+        Expression<Float> rank = cb.function(JSONBPostgreSQLDialect.GREATEST, Float.class,
+                similarity(cb, name, lowerText), similarity(cb, code, lowerText));
+        if (after != null) {
+            predicates.add(cb.or(cb.lessThan(rank, after.getRank()),
+                    cb.and(cb.equal(rank, after.getRank()), cb.lessThan(id, after.getId()))));
+        }
+
+        query.multiselect(root, rank)
+                .where(predicates.toArray(new Predicate[predicates.size()]))
+                .orderBy(cb.desc(rank), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> new RankedFamily(tuple.get(0, FamilyEntity.class), tuple.get(1, Float.class)))
+                .collect(Collectors.toList());
+    }
+
+    private static Predicate matches(CriteriaBuilder cb, Expression<String> column, String text) {
+        return cb.isTrue(cb.function(JSONBPostgreSQLDialect.TRGM_MATCH, Boolean.class, column, cb.literal(text)));
+    }
+
+    private static Expression<Float> similarity(CriteriaBuilder cb, Expression<String> column, String text) {
+        return cb.function(JSONBPostgreSQLDialect.SIMILARITY, Float.class, column, cb.literal(text));
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
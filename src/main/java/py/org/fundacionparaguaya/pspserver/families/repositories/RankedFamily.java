@@ -0,0 +1,27 @@
+package py.org.fundacionparaguaya.pspserver.families.repositories;
+
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+
+/**
+ * A family found by a search, with how well its name or code matched the
+ * searched text.
+ */
+public final class RankedFamily {
+
+    private final FamilyEntity family;
+
+    private final float rank;
+
+    public RankedFamily(FamilyEntity family, float rank) {
+        this.family = family;
+        this.rank = rank;
+    }
+
+    public FamilyEntity getFamily() {
+        return family;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+}
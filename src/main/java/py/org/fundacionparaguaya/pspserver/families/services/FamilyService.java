@@ -3,6 +3,7 @@ package py.org.fundacionparaguaya.pspserver.families.services;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyFilterDTO;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
@@ -15,6 +16,8 @@ import java.util.List;
 
 public interface FamilyService {
 
+    int MAX_SEARCH_PAGE_SIZE = 100;
+
     FamilyDTO updateFamily(Long familyId, FamilyDTO familyDTO);
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -29,6 +32,18 @@ public interface FamilyService {
     List<FamilyDTO> listFamilies(FamilyFilterDTO filter,
             UserDetailsDTO userDetails);
 
+    /**
+     * Searches the families of the filter and user by name or code, one page at
+     * a time, best matches first. Names and codes match when they are similar
+     * to the text, so misspelled names are found, or when they contain it.
+     *
+     * @param text the text to search, or null for all the families of the filter, newest first
+     * @param cursor the token of the previous page, or null for the first one
+     * @param size the number of families in the page, at most {@link #MAX_SEARCH_PAGE_SIZE}
+     */
+    KeysetPage<FamilyDTO> searchFamilies(FamilyFilterDTO filter, String text, UserDetailsDTO userDetails,
+            String cursor, int size);
+
     Long countFamiliesByDetails(UserDetailsDTO userDetails);
 
     Long countFamiliesByFilter(FamilyFilterDTO filter);
@@ -38,6 +53,16 @@ public interface FamilyService {
     FamilyEntity getOrCreateFamilyFromSnapshot(UserDetailsDTO details,
             NewSnapshot snapshot, PersonEntity personEntity);
 
+    /**
+     * Same as {@link #getOrCreateFamilyFromSnapshot} for many snapshots, looking
+     * up their families with a single query and saving the new ones together.
+     *
+     * @param personEntities the person of each snapshot, in the same order
+     * @return the family of each snapshot, in the same order
+     */
+    List<FamilyEntity> getOrCreateFamiliesFromSnapshots(UserDetailsDTO details,
+            List<NewSnapshot> snapshots, List<PersonEntity> personEntities);
+
     List<FamilyDTO> listDistinctFamiliesByUser(UserDetailsDTO details, String name);
 
     FamilyDTO updateFamily(Long familyId);
@@ -5,6 +5,12 @@ import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyMapDTO;
 public interface FamilySnapshotsManager {
 
 	FamilyMapDTO getFamilyMapById(Long familyId);
+
+	/**
+	 * @return the entity tag of the family map, worked out from the family and
+	 * the versions of its last snapshot without building the map.
+	 */
+	String getFamilyMapTag(Long familyId);
 	
 	void deleteSnapshotByFamily(Long familyId);
 	
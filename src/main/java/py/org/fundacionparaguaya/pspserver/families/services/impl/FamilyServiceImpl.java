@@ -1,6 +1,5 @@
 package py.org.fundacionparaguaya.pspserver.families.services.impl;
 
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
@@ -10,6 +9,8 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
+import py.org.fundacionparaguaya.pspserver.common.pagination.RankCursor;
 import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
 import py.org.fundacionparaguaya.pspserver.config.I18n;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
@@ -20,6 +21,7 @@ import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.families.entities.PersonEntity;
 import py.org.fundacionparaguaya.pspserver.families.mapper.FamilyMapper;
 import py.org.fundacionparaguaya.pspserver.families.repositories.FamilyRepository;
+import py.org.fundacionparaguaya.pspserver.families.repositories.RankedFamily;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyLocationService;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyOrganizationService;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyService;
@@ -30,6 +32,7 @@ import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
 import py.org.fundacionparaguaya.pspserver.security.repositories.UserRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageParser;
 import py.org.fundacionparaguaya.pspserver.system.services.ActivityFeedManager;
@@ -37,13 +40,19 @@ import py.org.fundacionparaguaya.pspserver.system.services.ImageUploadService;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.springframework.data.jpa.domain.Specifications.where;
 import static py.org.fundacionparaguaya.pspserver.families.specifications.FamilySpecification.byFilter;
+import static py.org.fundacionparaguaya.pspserver.families.specifications.FamilySpecification.byUser;
 
 @Service
 public class FamilyServiceImpl implements FamilyService {
@@ -123,6 +132,7 @@ public class FamilyServiceImpl implements FamilyService {
     }
 
     @Override
+    @Transactional
     public String imageUpload(Long idFamily, MultipartFile multipartFile) throws IOException {
 
         FamilyEntity familyEntity= familyRepository.findOne(idFamily);
@@ -135,14 +145,12 @@ public class FamilyServiceImpl implements FamilyService {
 
         ImageDTO image = ImageParser.parse(multipartFile, familiesImageDirectory);
 
-        //control if image already exists: if so, deletes the old image
-        if (familyEntity.getImageURL()!= null){
-            imageUploadService.deleteImage(familyEntity.getImageURL(), familiesImageDirectory);
-        }
-
-        //uploads the image and obtains its URL
-        String url = imageUploadService.uploadImage(image);
+        //uploads the image once the family is saved with its URL, and then deletes the old image
+        String url = imageUploadService.uploadImageInBackground(image, familyEntity.getImageURL(),
+                (expectedUrl, imageUrl, status) ->
+                        familyRepository.updateImage(idFamily, expectedUrl, imageUrl, status) > 0);
         familyEntity.setImageURL(url);
+        familyEntity.setImageStatus(ImageStatus.PENDING);
 
         LOG.debug("Updating family {} with image {}", familyEntity.getFamilyId(),
                 familyEntity.getImageURL());
@@ -209,6 +217,30 @@ public class FamilyServiceImpl implements FamilyService {
         return familyMapper.entityListToDtoList(entityList);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<FamilyDTO> searchFamilies(FamilyFilterDTO filter, String text, UserDetailsDTO userDetails,
+            String cursor, int size) {
+        checkArgument(size > 0 && size <= MAX_SEARCH_PAGE_SIZE,
+                "The page size must be between 1 and %s", MAX_SEARCH_PAGE_SIZE);
+
+        // one extra row tells whether there is a page after this one
+        List<RankedFamily> families = familyRepository.search(
+                byFilter(buildFilterFromFilterAndUser(filter, userDetails)), text, RankCursor.decode(cursor),
+                size + 1);
+
+        String next = null;
+        if (families.size() > size) {
+            families = families.subList(0, size);
+            RankedFamily last = families.get(size - 1);
+            next = new RankCursor(last.getRank(), last.getFamily().getFamilyId()).encode();
+        }
+
+        return new KeysetPage<>(families.stream()
+                .map(family -> familyMapper.entityToDto(family.getFamily()))
+                .collect(Collectors.toList()), size, next);
+    }
+
     @Override
     public Long countFamiliesByDetails(UserDetailsDTO userDetails) {
         return familyRepository
@@ -267,10 +299,49 @@ public class FamilyServiceImpl implements FamilyService {
 
 
 
+    @Override
+    public List<FamilyEntity> getOrCreateFamiliesFromSnapshots(UserDetailsDTO details,
+            List<NewSnapshot> snapshots, List<PersonEntity> personEntities) {
+        checkArgument(snapshots.size() == personEntities.size(),
+                "Expected a person for each of the %s snapshots", snapshots.size());
+
+        List<String> codes = personEntities.stream()
+                .map(FamilyHelper::generateFamilyCode)
+                .collect(Collectors.toList());
+
+        Map<String, FamilyEntity> familiesByCode = new HashMap<>();
+        familyRepository.findByCodeIn(new HashSet<>(codes))
+                .forEach(family -> familiesByCode.put(family.getCode(), family));
+
+        UserEntity user = null;
+        List<FamilyEntity> newFamilies = new ArrayList<>();
+        List<FamilyEntity> families = new ArrayList<>(snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            FamilyEntity family = familiesByCode.get(codes.get(i));
+            if (family == null) {
+                if (user == null) {
+                    user = userRepo.findByUsername(details.getUsername());
+                }
+                family = createFamilyEntity(details, snapshots.get(i), codes.get(i), personEntities.get(i), user);
+                familiesByCode.put(codes.get(i), family);
+                newFamilies.add(family);
+            }
+            families.add(family);
+        }
+
+        familyRepository.save(newFamilies);
+        LOG.info("User '{}' created {} new families", details.getUsername(), newFamilies.size());
+
+        families.forEach(family -> activityFeedManager.createHouseholdFirstSnapshotActivity(details, family));
+
+        return families;
+    }
+
     private FamilyEntity createFamilyFromSnapshot(UserDetailsDTO details,
                                                   NewSnapshot snapshot, String code, PersonEntity person) {
 
-        FamilyEntity newFamily = createFamilyEntity(details, snapshot, code, person);
+        FamilyEntity newFamily = createFamilyEntity(details, snapshot, code, person,
+                userRepo.findByUsername(details.getUsername()));
 
         FamilyEntity savedFamily = familyRepository.save(newFamily);
 
@@ -284,11 +355,12 @@ public class FamilyServiceImpl implements FamilyService {
     private FamilyEntity createFamilyEntity(UserDetailsDTO details,
                                             NewSnapshot snapshot,
                                             String code,
-                                            PersonEntity person) {
+                                            PersonEntity person,
+                                            UserEntity user) {
         FamilyEntity newFamily = new FamilyEntity();
         newFamily.setActive(true);
         newFamily.setCode(code);
-        newFamily.setUser(userRepo.findByUsername(details.getUsername()));
+        newFamily.setUser(user);
         newFamily.setName(person.getFullName());
         newFamily.setPerson(person);
 
@@ -313,14 +385,16 @@ public class FamilyServiceImpl implements FamilyService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<FamilyDTO> listDistinctFamiliesByUser(UserDetailsDTO details, String name) {
+        if (name == null) {
+            return Collections.emptyList();
+        }
 
-        List<FamilyEntity> families = familyRepository.findDistinctByUserId(
-                userRepo.findOneByUsername(details.getUsername()).get().getId())
+        Long userId = userRepo.findOneByUsername(details.getUsername()).get().getId();
+        List<FamilyEntity> families = familyRepository.search(byUser(userId), name, null, MAX_SEARCH_PAGE_SIZE)
                 .stream()
-                .filter(s -> StringUtils.containsIgnoreCase(s.getName(), name)
-                        || StringUtils.containsIgnoreCase(s.getCode(), name))
-                .distinct()
+                .map(RankedFamily::getFamily)
                 .collect(Collectors.toList());
 
         return familyMapper.entityListToDtoList(families);
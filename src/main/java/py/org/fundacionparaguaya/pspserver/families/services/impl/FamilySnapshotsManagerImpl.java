@@ -4,12 +4,15 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.common.utils.EntityTags;
 import py.org.fundacionparaguaya.pspserver.config.I18n;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyMapDTO;
@@ -21,6 +24,7 @@ import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomic
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotIndicatorPriorityRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotIndicatorRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotService;
+import py.org.fundacionparaguaya.pspserver.surveys.services.StoplightAggregateService;
 
 @Service
 public class FamilySnapshotsManagerImpl implements FamilySnapshotsManager {
@@ -39,6 +43,8 @@ public class FamilySnapshotsManagerImpl implements FamilySnapshotsManager {
 
     private final SnapshotEconomicRepository economicRepository;
 
+    private final StoplightAggregateService stoplightAggregateService;
+
     private static final int MAX_DAYS_DELETE_SNAPSHOT = 30;
 
     public FamilySnapshotsManagerImpl(FamilyRepository familyRepository,
@@ -46,6 +52,7 @@ public class FamilySnapshotsManagerImpl implements FamilySnapshotsManager {
             SnapshotIndicatorPriorityRepository snapshotIndicatorPriorityRepository,
             SnapshotIndicatorRepository snapshotIndicatorRepository,
             SnapshotEconomicRepository economicRepository,
+            StoplightAggregateService stoplightAggregateService,
             I18n i18n) {
         this.familyRepository = familyRepository;
         this.familyMapper = familyMapper;
@@ -53,6 +60,7 @@ public class FamilySnapshotsManagerImpl implements FamilySnapshotsManager {
         this.snapshotIndicatorPriorityRepository = snapshotIndicatorPriorityRepository;
         this.snapshotIndicatorRepository = snapshotIndicatorRepository;
         this.economicRepository = economicRepository;
+        this.stoplightAggregateService = stoplightAggregateService;
         this.i18n = i18n;
     }
 
@@ -77,6 +85,21 @@ public class FamilySnapshotsManagerImpl implements FamilySnapshotsManager {
     }
 
     @Override
+    public String getFamilyMapTag(Long familyId) {
+
+        checkArgument(familyId > 0, i18n.translate("argument.nonNegative", familyId));
+
+        List<LocalDateTime> versions = familyRepository.findLastModifiedAtById(familyId);
+        if (versions.isEmpty()) {
+            throw new UnknownResourceException(i18n.translate("family.notExist"));
+        }
+
+        return EntityTags.of(familyId, versions.get(0),
+                snapshotService.getLastSnapshotIndicatorsTag(familyId));
+    }
+
+    @Override
+    @Transactional
     public void deleteSnapshotByFamily(Long familyId) {
 
         checkArgument(familyId > 0, i18n.translate("argument.nonNegative", familyId));
@@ -103,6 +126,8 @@ public class FamilySnapshotsManagerImpl implements FamilySnapshotsManager {
                                                             snapshotEconomicEntity
                                                                     .getSnapshotIndicator()
                                                                     .getId()));
+                                    stoplightAggregateService
+                                            .removeSnapshot(snapshotEconomicEntity);
                                     economicRepository
                                             .delete(snapshotEconomicEntity);
                                     snapshotIndicatorRepository
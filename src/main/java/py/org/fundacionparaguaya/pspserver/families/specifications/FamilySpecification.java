@@ -130,6 +130,17 @@ public class FamilySpecification {
         };
     }
 
+    public static Specification<FamilyEntity> byUser(Long userId) {
+        return new Specification<FamilyEntity>() {
+            @Override
+            public Predicate toPredicate(Root<FamilyEntity> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+                // the id is read from the user_id column, with no join to the users
+                Expression<Long> byUserId = root.get(FamilyEntity_.getUser()).<Long>get(ID_ATTRIBUTE);
+                return cb.equal(byUserId, userId);
+            }
+        };
+    }
+
     public static Specification<FamilyEntity> createdAtBetween2Dates(String dateFrom, String dateTo) {
         return new Specification<FamilyEntity>() {
             @Override
@@ -1,6 +1,7 @@
 package py.org.fundacionparaguaya.pspserver.network.dtos;
 
 import com.google.common.base.MoreObjects;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.dtos.CountryDTO;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
@@ -30,6 +31,8 @@ public class OrganizationDTO implements Serializable {
 
     private String logoUrl;
 
+    private ImageStatus logoStatus;
+
     private String file;
 
 
@@ -217,6 +220,16 @@ public class OrganizationDTO implements Serializable {
     }
 
 
+    public ImageStatus getLogoStatus() {
+        return logoStatus;
+    }
+
+
+    public void setLogoStatus(ImageStatus logoStatus) {
+        this.logoStatus = logoStatus;
+    }
+
+
     public String getFile() {
         return file;
     }
@@ -238,6 +251,7 @@ public class OrganizationDTO implements Serializable {
                 .add("application", application)
                 .add("dashboard", dashboard)
                 .add("logoUrl", logoUrl)
+                .add("logoStatus", logoStatus)
                 .toString();
     }
 
@@ -7,10 +7,13 @@ import org.hibernate.annotations.Parameter;
 import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import py.org.fundacionparaguaya.pspserver.network.constants.Status;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.entities.CountryEntity;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
@@ -67,6 +70,9 @@ public class OrganizationEntity {
 
     private String logoUrl;
 
+    @Enumerated(EnumType.STRING)
+    private ImageStatus logoStatus;
+
     public Long getId() {
         return id;
     }
@@ -139,6 +145,14 @@ public class OrganizationEntity {
         this.logoUrl = logoUrl;
     }
 
+    public ImageStatus getLogoStatus() {
+        return logoStatus;
+    }
+
+    public void setLogoStatus(ImageStatus logoStatus) {
+        this.logoStatus = logoStatus;
+    }
+
 
     @Override
     public boolean equals(Object obj) {
@@ -8,8 +8,11 @@ import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import py.org.fundacionparaguaya.pspserver.common.mapper.BaseMapper;
+import py.org.fundacionparaguaya.pspserver.common.mapper.MappingView;
 import py.org.fundacionparaguaya.pspserver.network.dtos.ApplicationDTO;
 import py.org.fundacionparaguaya.pspserver.network.entities.ApplicationEntity;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CityMapper;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CountryMapper;
 
 
 
@@ -20,23 +23,51 @@ import py.org.fundacionparaguaya.pspserver.network.entities.ApplicationEntity;
 public class ApplicationMapper implements BaseMapper<ApplicationEntity, ApplicationDTO> {
 
 	private final ModelMapper modelMapper;
-	 
-	public ApplicationMapper(ModelMapper modelMapper) {
+
+	private final CountryMapper countryMapper;
+
+	private final CityMapper cityMapper;
+
+	public ApplicationMapper(ModelMapper modelMapper, CountryMapper countryMapper, CityMapper cityMapper) {
 		this.modelMapper = modelMapper;
+		this.countryMapper = countryMapper;
+		this.cityMapper = cityMapper;
 	}
 
 	@Override
 	public List<ApplicationDTO> entityListToDtoList(List<ApplicationEntity> entityList) {
-		 return entityList.stream()
-	                .filter(Objects::nonNull)
-	                .map(this::entityToDto)
-	                .collect(Collectors.toList());
+		return entityListToDtoList(entityList, MappingView.FULL);
+	}
+
+	public List<ApplicationDTO> entityListToDtoList(List<ApplicationEntity> entityList, MappingView view) {
+		return entityList.stream()
+				.filter(Objects::nonNull)
+				.map(entity -> entityToDto(entity, view))
+				.collect(Collectors.toList());
 	}
 
 	@Override
 	public ApplicationDTO entityToDto(ApplicationEntity entity) {
-		ApplicationDTO dto = modelMapper.map(entity, ApplicationDTO.class);
-	        return dto;
+		return entityToDto(entity, MappingView.FULL);
+	}
+
+	public ApplicationDTO entityToDto(ApplicationEntity entity, MappingView view) {
+		if (entity == null) {
+			return null;
+		}
+		ApplicationDTO dto = new ApplicationDTO();
+		dto.setId(entity.getId());
+		dto.setName(entity.getName());
+		dto.setCode(entity.getCode());
+		dto.setDescription(entity.getDescription());
+		dto.setActive(entity.isActive());
+		dto.setLogoUrl(entity.getLogoUrl());
+		if (view == MappingView.FULL) {
+			dto.setCountry(countryMapper.entityToDto(entity.getCountry()));
+			dto.setCity(cityMapper.entityToDto(entity.getCity()));
+			dto.setInformation(entity.getInformation());
+		}
+		return dto;
 	}
 
 	@Override
@@ -8,8 +8,10 @@ import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import py.org.fundacionparaguaya.pspserver.common.mapper.BaseMapper;
+import py.org.fundacionparaguaya.pspserver.common.mapper.MappingView;
 import py.org.fundacionparaguaya.pspserver.network.dtos.OrganizationDTO;
 import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CountryMapper;
 
 
 
@@ -20,23 +22,53 @@ import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
 public class OrganizationMapper implements BaseMapper<OrganizationEntity, OrganizationDTO> {
 
 	private final ModelMapper modelMapper;
-	 
-	public OrganizationMapper(ModelMapper modelMapper) {
+
+	private final CountryMapper countryMapper;
+
+	private final ApplicationMapper applicationMapper;
+
+	public OrganizationMapper(ModelMapper modelMapper, CountryMapper countryMapper,
+			ApplicationMapper applicationMapper) {
 		this.modelMapper = modelMapper;
+		this.countryMapper = countryMapper;
+		this.applicationMapper = applicationMapper;
 	}
 
 	@Override
 	public List<OrganizationDTO> entityListToDtoList(List<OrganizationEntity> entityList) {
-		 return entityList.stream()
-	                .filter(Objects::nonNull)
-	                .map(this::entityToDto)
-	                .collect(Collectors.toList());
+		return entityListToDtoList(entityList, MappingView.FULL);
+	}
+
+	public List<OrganizationDTO> entityListToDtoList(List<OrganizationEntity> entityList, MappingView view) {
+		return entityList.stream()
+				.filter(Objects::nonNull)
+				.map(entity -> entityToDto(entity, view))
+				.collect(Collectors.toList());
 	}
 
 	@Override
 	public OrganizationDTO entityToDto(OrganizationEntity entity) {
-		OrganizationDTO dto = modelMapper.map(entity, OrganizationDTO.class);
-	    return dto;
+		return entityToDto(entity, MappingView.FULL);
+	}
+
+	public OrganizationDTO entityToDto(OrganizationEntity entity, MappingView view) {
+		if (entity == null) {
+			return null;
+		}
+		OrganizationDTO dto = new OrganizationDTO();
+		dto.setId(entity.getId());
+		dto.setName(entity.getName());
+		dto.setCode(entity.getCode());
+		dto.setDescription(entity.getDescription());
+		dto.setActive(entity.isActive());
+		dto.setLogoUrl(entity.getLogoUrl());
+		dto.setLogoStatus(entity.getLogoStatus());
+		if (view == MappingView.FULL) {
+			dto.setCountry(countryMapper.entityToDto(entity.getCountry()));
+			dto.setInformation(entity.getInformation());
+			dto.setApplication(applicationMapper.entityToDto(entity.getApplication()));
+		}
+		return dto;
 	}
 
 	@Override
@@ -3,9 +3,13 @@ package py.org.fundacionparaguaya.pspserver.network.repositories;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,4 +26,29 @@ public interface OrganizationRepository extends PagingAndSortingRepository<Organ
     Page<OrganizationEntity> findAll(Pageable page);
 
     List<OrganizationEntity> findByApplicationIdAndIsActive(Long applicationId, boolean isActive);
+
+    /**
+     * @return the number of organizations updated, none if the organization has another logo by now
+     */
+    @Modifying
+    @Query("update OrganizationEntity o set o.logoUrl = :url, o.logoStatus = :status "
+            + "where o.id = :organizationId and o.logoUrl = :expectedUrl")
+    int updateLogo(@Param("organizationId") Long organizationId, @Param("expectedUrl") String expectedUrl,
+            @Param("url") String url, @Param("status") ImageStatus status);
+
+    /**
+     * @return the id and logo URL of each organization whose logo has the status
+     */
+    @Query("select o.id, o.logoUrl from OrganizationEntity o where o.logoStatus = :status")
+    List<Object[]> findLogosByStatus(@Param("status") ImageStatus status);
+
+    /**
+     * @return the number of organizations updated, none if the organization has another logo, or another
+     * status, by now
+     */
+    @Modifying
+    @Query("update OrganizationEntity o set o.logoStatus = :status "
+            + "where o.id = :organizationId and o.logoUrl = :url and o.logoStatus = :expectedStatus")
+    int updateLogoStatus(@Param("organizationId") Long organizationId, @Param("url") String url,
+            @Param("expectedStatus") ImageStatus expectedStatus, @Param("status") ImageStatus status);
 }
@@ -4,12 +4,13 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 import py.org.fundacionparaguaya.pspserver.network.entities.SurveyOrganizationEntity;
 
 public interface SurveyOrganizationRepository
         extends JpaRepository<SurveyOrganizationEntity, Long>,
-        JpaSpecificationExecutor<SurveyOrganizationEntity> {
+        JpaSpecificationExecutor<SurveyOrganizationEntity>, SurveyOrganizationRepositoryCustom {
 
     List<SurveyOrganizationEntity> findBySurveyIdAndApplicationId(Long surveyId, Long applicationId);
 
@@ -25,4 +26,11 @@ public interface SurveyOrganizationRepository
     List<SurveyOrganizationEntity>
     findBySurveyIdAndApplicationIdAndOrganizationIsNotNull(Long surveyId, Long applicationId);
 
+    /**
+     * @return a single row with the number of survey assignments and the
+     * highest of their ids, which together change whenever one is added or
+     * removed.
+     */
+    @Query("select count(so), max(so.id) from SurveyOrganizationEntity so")
+    List<Object[]> findAssignmentsVersion();
 }
@@ -0,0 +1,19 @@
+package py.org.fundacionparaguaya.pspserver.network.repositories;
+
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.network.entities.SurveyOrganizationEntity;
+
+import java.util.List;
+
+/**
+ * Queries over the surveys of the organizations that can not be expressed
+ * with the derived Spring Data methods.
+ */
+public interface SurveyOrganizationRepositoryCustom {
+
+    /**
+     * @return the id and <code>last_modified_at</code> of each survey assigned as
+     * the specification says, ordered by id, without loading the surveys.
+     */
+    List<Object[]> findSurveyVersions(Specification<SurveyOrganizationEntity> spec);
+}
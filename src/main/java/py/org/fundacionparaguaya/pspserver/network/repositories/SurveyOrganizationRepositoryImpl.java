@@ -0,0 +1,44 @@
+package py.org.fundacionparaguaya.pspserver.network.repositories;
+
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.network.entities.SurveyOrganizationEntity;
+import py.org.fundacionparaguaya.pspserver.network.entities.SurveyOrganizationEntity_;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+/**
+ * Implementation of {@link SurveyOrganizationRepositoryCustom}, picked up by
+ * Spring Data through the <code>Impl</code> postfix.
+ */
+public class SurveyOrganizationRepositoryImpl implements SurveyOrganizationRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> findSurveyVersions(Specification<SurveyOrganizationEntity> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<SurveyOrganizationEntity> root = query.from(SurveyOrganizationEntity.class);
+        Join<SurveyOrganizationEntity, SurveyEntity> survey = root.join(SurveyOrganizationEntity_.getSurvey());
+        Path<Long> id = survey.get("id");
+
+        query.multiselect(id, survey.get("lastModifiedAt"))
+                .distinct(true)
+                .orderBy(cb.asc(id));
+        Predicate byFilter = spec.toPredicate(root, query, cb);
+        if (byFilter != null) {
+            query.where(byFilter);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+}
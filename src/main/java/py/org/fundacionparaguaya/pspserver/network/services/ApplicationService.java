@@ -6,6 +6,7 @@ import org.springframework.data.domain.PageRequest;
 import py.org.fundacionparaguaya.pspserver.network.dtos.ApplicationDTO;
 import py.org.fundacionparaguaya.pspserver.network.entities.ApplicationEntity;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
 
 import java.util.List;
 
@@ -21,7 +22,8 @@ public interface ApplicationService {
 
     ApplicationDTO deleteApplication(Long applicationId);
 
-    ApplicationDTO getApplicationDashboard(Long applicationId, UserDetailsDTO details);
+    ApplicationDTO getApplicationDashboard(Long applicationId, UserDetailsDTO details, SnapshotPeriodEnum period,
+            int periods);
 
     Page<ApplicationDTO> getPaginatedApplications(UserDetailsDTO userDetails, String filter, PageRequest pageRequest);
 
@@ -21,6 +21,7 @@ import py.org.fundacionparaguaya.pspserver.network.repositories.ApplicationRepos
 import py.org.fundacionparaguaya.pspserver.network.services.ApplicationService;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.security.services.UserService;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotService;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageParser;
@@ -172,7 +173,8 @@ public class ApplicationServiceImpl implements ApplicationService {
     }
 
     @Override
-    public ApplicationDTO getApplicationDashboard(Long applicationId, UserDetailsDTO details) {
+    public ApplicationDTO getApplicationDashboard(Long applicationId, UserDetailsDTO details,
+            SnapshotPeriodEnum period, int periods) {
         ApplicationDTO dto = getUserApplication(details, applicationId);
 
         Long organizationId = Optional.ofNullable(details.getOrganization())
@@ -185,7 +187,7 @@ public class ApplicationServiceImpl implements ApplicationService {
 
         DashboardDTO dashboard = DashboardDTO.of(
                 familyService.countFamiliesByFilter(filter), null, null, null,
-                snapshotService.countSnapshotTaken(filter));
+                snapshotService.countSnapshotTaken(filter, period, periods));
 
         dto.setDashboard(dashboard);
 
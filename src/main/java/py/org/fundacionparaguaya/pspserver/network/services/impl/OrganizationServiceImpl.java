@@ -8,13 +8,13 @@ import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.CustomParameterizedException;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
 import py.org.fundacionparaguaya.pspserver.common.pagination.PaginableList;
 import py.org.fundacionparaguaya.pspserver.common.pagination.PspPageRequest;
 import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyFilterDTO;
-import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyService;
 import py.org.fundacionparaguaya.pspserver.network.dtos.ApplicationDTO;
 import py.org.fundacionparaguaya.pspserver.network.dtos.DashboardDTO;
@@ -27,19 +27,12 @@ import py.org.fundacionparaguaya.pspserver.network.repositories.OrganizationRepo
 import py.org.fundacionparaguaya.pspserver.network.services.OrganizationService;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.security.services.UserService;
-import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotIndicators;
-import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
-import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
-import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorEntity;
-import py.org.fundacionparaguaya.pspserver.surveys.enums.SurveyStoplightEnum;
-import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorMapper;
-import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomicRepository;
-import py.org.fundacionparaguaya.pspserver.surveys.services.impl.SnapshotServiceImpl;
+import py.org.fundacionparaguaya.pspserver.surveys.services.StoplightAggregateService;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageParser;
 import py.org.fundacionparaguaya.pspserver.system.services.ImageUploadService;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -63,11 +56,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 
     private final FamilyService familyService;
 
-    private final SnapshotEconomicRepository snapshotEconomicRepo;
-
-    private final SnapshotIndicatorMapper indicatorMapper;
-
-    private final SnapshotServiceImpl snapshotServiceImpl;
+    private final StoplightAggregateService stoplightAggregateService;
 
     private final ImageUploadService imageUploadService;
 
@@ -77,23 +66,21 @@ public class OrganizationServiceImpl implements OrganizationService {
 
     public OrganizationServiceImpl(OrganizationRepository organizationRepository,
                                    ApplicationRepository applicationRepository, OrganizationMapper organizationMapper,
-                                   FamilyService familyService, SnapshotEconomicRepository snapshotEconomicRepo,
-                                   SnapshotIndicatorMapper indicatorMapper, SnapshotServiceImpl snapshotServiceImpl,
+                                   FamilyService familyService, StoplightAggregateService stoplightAggregateService,
                                    ImageUploadService imageUploadService, ApplicationProperties applicationProperties,
                                    UserService userService) {
         this.organizationRepository = organizationRepository;
         this.applicationRepository = applicationRepository;
         this.organizationMapper = organizationMapper;
         this.familyService = familyService;
-        this.snapshotEconomicRepo = snapshotEconomicRepo;
-        this.indicatorMapper = indicatorMapper;
-        this.snapshotServiceImpl = snapshotServiceImpl;
+        this.stoplightAggregateService = stoplightAggregateService;
         this.imageUploadService = imageUploadService;
         this.applicationProperties = applicationProperties;
         this.userService = userService;
     }
 
     @Override
+    @Transactional
     public OrganizationDTO addOrganization(OrganizationDTO organizationDTO) {
         organizationRepository
                 .findOneByName(organizationDTO.getName())
@@ -106,7 +93,7 @@ public class OrganizationServiceImpl implements OrganizationService {
                 });
 
         OrganizationEntity organization = new OrganizationEntity();
-        BeanUtils.copyProperties(organizationDTO, organization);
+        BeanUtils.copyProperties(organizationDTO, organization, "logoStatus");
         ApplicationEntity application = applicationRepository.findById(organizationDTO.getApplication().getId());
         organization.setApplication(application);
         organization.setActive(true);
@@ -114,14 +101,14 @@ public class OrganizationServiceImpl implements OrganizationService {
         if (organizationDTO.getFile() != null) {
             ImageDTO imageDTO = ImageParser.parse(organizationDTO.getFile(),
                                                     applicationProperties.getAws().getOrgsImageDirectory());
-            String generatedURL = imageUploadService.uploadImage(imageDTO);
-            organization.setLogoUrl(generatedURL);
+            uploadLogo(organization, imageDTO, null);
         }
 
         return organizationMapper.entityToDto(organizationRepository.save(organization));
     }
 
     @Override
+    @Transactional
     public OrganizationDTO updateOrganization(Long organizationId, OrganizationDTO organizationDTO) {
         checkArgument(organizationId > 0, "Argument was %s but expected nonnegative", organizationId);
 
@@ -135,12 +122,7 @@ public class OrganizationServiceImpl implements OrganizationService {
                     if (organizationDTO.getFile() != null) {
                         ImageDTO imageDTO = ImageParser.parse(organizationDTO.getFile(),
                                                                 applicationProperties.getAws().getOrgsImageDirectory());
-                        String generatedURL = imageUploadService.uploadImage(imageDTO);
-                        if (generatedURL != null) {
-                            imageUploadService.deleteImage(organization.getLogoUrl(),
-                                                            applicationProperties.getAws().getOrgsImageDirectory());
-                            organization.setLogoUrl(generatedURL);
-                        }
+                        uploadLogo(organization, imageDTO, organization.getLogoUrl());
                     }
                     LOG.debug("Changed Information for Organization: {}", organization);
                     return organizationRepository.save(organization);
@@ -181,8 +163,8 @@ public class OrganizationServiceImpl implements OrganizationService {
 
         DashboardDTO dashboard = DashboardDTO.of(
                 familyService.countFamiliesByFilter(filter), null,
-                snapshotServiceImpl.getTopOfIndicators(organizationId),
-                countSnapshotIndicators(organizationId), null);
+                stoplightAggregateService.getTopOfIndicators(organizationId),
+                stoplightAggregateService.countIndicators(organizationId), null);
 
         dto.setDashboard(dashboard);
 
@@ -199,53 +181,6 @@ public class OrganizationServiceImpl implements OrganizationService {
         return this.organizationRepository.findOne(organizationId);
     }
 
-    private SnapshotIndicators countSnapshotIndicators(Long organizationId) {
-
-        List<FamilyEntity> families = familyService.findByOrganizationId(organizationId);
-
-        List<SnapshotEconomicEntity> snapshotEconomics = snapshotEconomicRepo.findByFamilyIn(families);
-
-        List<SnapshotIndicatorEntity> entityList = new ArrayList<SnapshotIndicatorEntity>();
-
-        for (SnapshotEconomicEntity economics : snapshotEconomics) {
-            entityList.add(economics.getSnapshotIndicator());
-        }
-
-        SnapshotIndicators indicators = new SnapshotIndicators();
-
-        List<SurveyData> listProperties = indicatorMapper.entityListToDtoList(entityList);
-
-        for (SurveyData properties : listProperties) {
-            properties.forEach((k, v) -> {
-                countIndicators(indicators, v);
-            });
-        }
-
-        return indicators;
-    }
-
-    private void countIndicators(SnapshotIndicators indicators, Object v) {
-        Optional.ofNullable(SurveyStoplightEnum.fromValue(String.valueOf(v)))
-                .ifPresent(light -> {
-                    switch (light) {
-                        case RED:
-                            indicators.setCountRedIndicators(
-                                    indicators.getCountRedIndicators() + 1);
-                            break;
-                        case YELLOW:
-                            indicators.setCountYellowIndicators(
-                                    indicators.getCountYellowIndicators() + 1);
-                            break;
-                        case GREEN:
-                            indicators.setCountGreenIndicators(
-                                    indicators.getCountGreenIndicators() + 1);
-                            break;
-                        default:
-                            break;
-                    }
-                });
-    }
-
     @Override
     public PaginableList<OrganizationDTO> listOrganizations(Long applicationId, Long organizationId, int page,
                                                             int perPage, String orderBy, String sortBy) {
@@ -310,4 +245,19 @@ public class OrganizationServiceImpl implements OrganizationService {
                                             organizationRepository.findByApplicationIdAndIsActive(applicationId, true);
         return organizationMapper.entityListToDtoList(organizations);
     }
+
+    /**
+     * The logo is uploaded in the background, once the organization is saved
+     * with its URL, as pending. The replaced logo is deleted once it is uploaded.
+     */
+    private void uploadLogo(OrganizationEntity organization, ImageDTO imageDTO, String replacedUrl) {
+        if (imageDTO == null) {
+            return;
+        }
+        String url = imageUploadService.uploadImageInBackground(imageDTO, replacedUrl,
+                (expectedUrl, logoUrl, status) ->
+                        organizationRepository.updateLogo(organization.getId(), expectedUrl, logoUrl, status) > 0);
+        organization.setLogoUrl(url);
+        organization.setLogoStatus(ImageStatus.PENDING);
+    }
 }
\ No newline at end of file
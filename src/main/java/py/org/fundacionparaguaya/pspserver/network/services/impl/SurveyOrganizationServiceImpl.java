@@ -19,6 +19,7 @@ import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SurveyRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.services.SurveyDefinitionCache;
 
 @Service
 public class SurveyOrganizationServiceImpl
@@ -34,15 +35,19 @@ public class SurveyOrganizationServiceImpl
 
     private ApplicationRepository applicationRepo;
 
+    private SurveyDefinitionCache surveyDefinitionCache;
+
     public SurveyOrganizationServiceImpl(SurveyOrganizationRepository repo,
             SurveyOrganizationMapper mapper, SurveyRepository surveyRepo,
             OrganizationRepository organizationRepo,
-            ApplicationRepository applicationRepo) {
+            ApplicationRepository applicationRepo,
+            SurveyDefinitionCache surveyDefinitionCache) {
         this.repo = repo;
         this.mapper = mapper;
         this.surveyRepo = surveyRepo;
         this.organizationRepo = organizationRepo;
         this.applicationRepo = applicationRepo;
+        this.surveyDefinitionCache = surveyDefinitionCache;
     }
 
     @Override
@@ -58,7 +63,9 @@ public class SurveyOrganizationServiceImpl
                 surveyRepo.findOne(surveyOrganization.getSurvey().getId()));
         entity.setOrganization(organizationRepo
                 .findOne(surveyOrganization.getOrganization().getId()));
-        return mapper.entityToDto(repo.save(entity));
+        SurveyOrganizationDTO saved = mapper.entityToDto(repo.save(entity));
+        surveyDefinitionCache.invalidate(surveyOrganization.getSurvey().getId());
+        return saved;
     }
 
     @Override
@@ -1,5 +1,7 @@
 package py.org.fundacionparaguaya.pspserver.reports.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import py.org.fundacionparaguaya.pspserver.reports.dtos.OrganizationFamilyDTO;
@@ -25,6 +27,6 @@ public interface SnapshotReportManager {
 
     ReportDTO getSnapshotsReport(SnapshotFilterDTO filters);
 
-    String downloadSnapshotsCSV(SnapshotFilterDTO filters);
+    void downloadSnapshotsCSV(SnapshotFilterDTO filters, OutputStream outputStream) throws IOException;
 
 }
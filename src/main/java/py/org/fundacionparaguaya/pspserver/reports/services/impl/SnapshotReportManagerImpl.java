@@ -1,13 +1,14 @@
 package py.org.fundacionparaguaya.pspserver.reports.services.impl;
 
+import com.google.common.base.Throwables;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import py.org.fundacionparaguaya.pspserver.common.utils.StringConverter;
 import py.org.fundacionparaguaya.pspserver.config.I18n;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
-import py.org.fundacionparaguaya.pspserver.families.entities.PersonEntity;
 import py.org.fundacionparaguaya.pspserver.families.repositories.FamilyRepository;
 import py.org.fundacionparaguaya.pspserver.families.specifications.FamilySpecification;
 import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
@@ -22,16 +23,25 @@ import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveySchema;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
-import py.org.fundacionparaguaya.pspserver.surveys.enums.SurveyStoplightEnum;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorMapper;
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomicRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SurveyRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.specifications.SnapshotEconomicSpecification;
 
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import static org.springframework.data.jpa.domain.Specifications.where;
@@ -52,6 +62,18 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
 
     private static final String CSV_DELIMITER = ",";
 
+    private static final String CSV_LINE_SEPARATOR = "\n";
+
+    private static final int CSV_CHUNK_SIZE = 500;
+
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Below this many snapshots, handing the rows to the report workers costs
+     * more than converting them on the request thread.
+     */
+    private static final int PARALLEL_ROWS_THRESHOLD = 64;
+
     private final FamilyRepository familyRepository;
 
     private final FamilyDTOMapper familyReportMapper;
@@ -64,6 +86,12 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
 
     private final I18n i18n;
 
+    /**
+     * Converts report rows, sized to the cores of the node and kept apart from
+     * the common pool so that large reports do not starve other parallel work.
+     */
+    private final ForkJoinPool reportPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
     public SnapshotReportManagerImpl(FamilyRepository familyRepository,
                                      FamilyDTOMapper familyReportMapper,
                                      SnapshotEconomicRepository snapshotRepository,
@@ -78,6 +106,11 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
         this.i18n = i18n;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        reportPool.shutdown();
+    }
+
     @Override
     public List<OrganizationFamilyDTO> listFamilyByOrganizationAndCreatedDate(
             SnapshotFilterDTO filters) {
@@ -177,7 +210,10 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
             rows.add(data);
         }
 
-        report.setRows(generateRows(rows, report.getHeaders()));
+        // once every header is known
+        report.setRows(rows.stream()
+                .map(data -> generateRow(data, report.getHeaders()))
+                .collect(Collectors.toList()));
         return report;
 
     }
@@ -212,25 +248,16 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
             rows.add(data);
         }
 
-        report.setRows(generateRows(rows, report.getHeaders()));
+        // once every header is known
+        report.setRows(rows.stream()
+                .map(data -> generateRow(data, report.getHeaders()))
+                .collect(Collectors.toList()));
         return report;
 
     }
 
-    private List<List<String>> generateRows(List<SurveyData> rowsValue, List<String> keys) {
-        List<List<String>> rows = new ArrayList<>();
-        for (SurveyData data : rowsValue) {
-            List<String> row = new ArrayList<>();
-            for (String key : keys) {
-                if (data.containsKey(key) && data.getAsString(key) != null) {
-                    row.add(getIndicatorValues(data.getAsString(key).replace(',', ';')));
-                } else {
-                    row.add("");
-                }
-            }
-            rows.add(row);
-        }
-        return rows;
+    private List<String> generateRow(SurveyData data, List<String> keys) {
+        return SnapshotRowPlan.toRow(data, keys);
     }
 
     @Override
@@ -266,9 +293,34 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
     }
 
     @Override
-    public String downloadSnapshotsCSV(SnapshotFilterDTO filters) {
-        ReportDTO report = getSnapshotsReport(filters);
-        return reportToCsv(report);
+    @Transactional(readOnly = true)
+    public void downloadSnapshotsCSV(SnapshotFilterDTO filters, OutputStream outputStream) throws IOException {
+        SurveyEntity survey = surveyRepository.findById(filters.getSurveyId());
+        SnapshotRowPlan plan = new SnapshotRowPlan(survey, getSortedKeys(survey), snapshotMapper);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                CSV_BUFFER_SIZE);
+        writeCsvLine(writer, getHeadersFromKeys(plan.getKeys(), survey));
+
+        if (filters.getDateFrom() != null && filters.getDateTo() != null) {
+            // a chunk of rows is converted at a time, before the scroll clears its snapshots
+            List<SnapshotEconomicEntity> chunk = new ArrayList<>(CSV_CHUNK_SIZE);
+            try {
+                snapshotRepository.scroll(getSnapshotsSpecification(filters), getSnapshotsSort(), CSV_CHUNK_SIZE,
+                        snapshot -> {
+                            chunk.add(snapshot);
+                            if (chunk.size() == CSV_CHUNK_SIZE) {
+                                writeCsvLines(writer, getRows(plan, chunk));
+                                chunk.clear();
+                            }
+                        });
+                writeCsvLines(writer, getRows(plan, chunk));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        writer.flush();
     }
 
     @Override
@@ -278,11 +330,9 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
         SurveyEntity survey = surveyRepository.findById(filters.getSurveyId());
 
         ReportDTO report = new ReportDTO();
-        List<String> keys = getSortedKeys(survey);
-        List<String> headers = getHeadersFromKeys(keys, survey);
-        report.setHeaders(headers);
-        List<List<String>> rows = getRows(survey, snapshots, keys);
-        report.setRows(rows);
+        SnapshotRowPlan plan = new SnapshotRowPlan(survey, getSortedKeys(survey), snapshotMapper);
+        report.setHeaders(getHeadersFromKeys(plan.getKeys(), survey));
+        report.setRows(getRows(plan, snapshots));
 
         return report;
     }
@@ -290,26 +340,31 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
     private List<SnapshotEconomicEntity> getSnapshotsByFilters(SnapshotFilterDTO filters) {
         List<SnapshotEconomicEntity> snapshots = new ArrayList<>();
 
-        Sort sort = new Sort(
-                new Sort.Order(Direction.ASC, "family.organization.name"),
-                new Sort.Order(Direction.ASC, "family.name"),
-                new Sort.Order(Direction.ASC, "createdAt"));
-
         if (filters.getDateFrom() != null && filters.getDateTo() != null) {
-            Specification<SnapshotEconomicEntity> dateRange = SnapshotEconomicSpecification
-                    .createdAtBetween2Dates(filters.getDateFrom(),
-                            filters.getDateTo());
-
-            snapshots = snapshotRepository.findAll(
-                    where(SnapshotEconomicSpecification.forSurvey(filters.getSurveyId()))
-                            .and(SnapshotEconomicSpecification.byApplication(filters.getApplicationId()))
-                            .and(dateRange)
-                            .and(SnapshotEconomicSpecification.byOrganizations(filters.getOrganizationId())), sort);
+            snapshots = snapshotRepository.findAll(getSnapshotsSpecification(filters), getSnapshotsSort());
         }
 
         return snapshots;
     }
 
+    private Specification<SnapshotEconomicEntity> getSnapshotsSpecification(SnapshotFilterDTO filters) {
+        Specification<SnapshotEconomicEntity> dateRange = SnapshotEconomicSpecification
+                .createdAtBetween2Dates(filters.getDateFrom(),
+                        filters.getDateTo());
+
+        return where(SnapshotEconomicSpecification.forSurvey(filters.getSurveyId()))
+                .and(SnapshotEconomicSpecification.byApplication(filters.getApplicationId()))
+                .and(dateRange)
+                .and(SnapshotEconomicSpecification.byOrganizations(filters.getOrganizationId()));
+    }
+
+    private Sort getSnapshotsSort() {
+        return new Sort(
+                new Sort.Order(Direction.ASC, "family.organization.name"),
+                new Sort.Order(Direction.ASC, "family.name"),
+                new Sort.Order(Direction.ASC, "createdAt"));
+    }
+
     private List<String> getSortedKeys(SurveyEntity survey) {
         List<String> uiOrder = survey.getSurveyDefinition().getSurveyUISchema().getUiOrder();
         List<String> personalInformationKeys = survey.getSurveyDefinition().getSurveyUISchema().getGroupPersonal();
@@ -364,177 +419,52 @@ public class SnapshotReportManagerImpl implements SnapshotReportManager {
         return headers;
     }
 
-    private List<List<String>> getRows(SurveyEntity survey,
-                                       List<SnapshotEconomicEntity> snapshots,
-                                       List<String> keys) {
-        List<SurveyData> rows = new ArrayList<>();
-
-        for (SnapshotEconomicEntity snapshot : snapshots) {
-
-            SurveyData data = new SurveyData();
-
-            if (snapshot.getFamily() != null) {
-                data.put(i18n.translate("snapshot.report.header.familyName"), snapshot.getFamily().getName());
-                data.put(i18n.translate("snapshot.report.header.familyCode"), snapshot.getFamily().getCode());
-                if (snapshot.getFamily().getOrganization() != null) {
-                    data.put(i18n.translate("snapshot.report.header.organizationName"),
-                            snapshot.getFamily().getOrganization().getName());
-                }
-            }
-            data.put(i18n.translate("snapshot.report.header.createdAt"), snapshot.getCreatedAtLocalDateString());
-
-            PersonEntity person = snapshot.getFamily().getPerson();
-
-            List<String> personalInformationKeys = survey.getSurveyDefinition().getSurveyUISchema().getGroupPersonal();
-            for (String personalInformationKey : personalInformationKeys) {
-                if (personalInformationKey.equals("firstName")) {
-                    data.put("firstName", person.getFirstName());
-                }
-                if (personalInformationKey.equals("lastName")) {
-                    data.put("lastName", person.getLastName());
-                }
-                if (personalInformationKey.equals("birthdate")
-                        && person.getBirthdate() != null) {
-                    data.put("birthdate", person.getBirthdate().toString());
-                }
-                if (personalInformationKey.equals("countryOfBirth")
-                        && person.getCountryOfBirth() != null) {
-                    data.put("countryOfBirth", person.getCountryOfBirth().getCountry());
-                }
-                if (personalInformationKey.equals("gender")
-                        && person.getGender() != null) {
-                    data.put("gender", person.getGender().name());
-                }
-                if (personalInformationKey.equals("postCode")) {
-                    data.put("postCode", person.getPostCode());
-                }
-                if (personalInformationKey.equals("phoneNumber")) {
-                    data.put("phoneNumber", person.getPhoneNumber());
-                }
-                if (personalInformationKey.equals("identificationType")) {
-                    data.put("identificationType", person.getIdentificationType());
-                }
-                if (personalInformationKey.equals("identificationNumber")) {
-                    data.put("identificationNumber", person.getIdentificationNumber());
-                }
-                if (personalInformationKey.equals("email")) {
-                    data.put("email", person.getEmail());
-                }
-            }
-            SurveyData additionalPersonalInformation = snapshot.getPersonalInformation();
-            additionalPersonalInformation.forEach((key, value) -> {
-                        if (!data.containsKey(key)) {
-                            data.put(key, value.toString());
-                        }
-                    }
-            );
-
-            List<String> socioEconomicsKeys = survey.getSurveyDefinition().getSurveyUISchema().getGroupEconomics();
-            for (String socioEconomicsKey : socioEconomicsKeys) {
-                if (socioEconomicsKey.equals("activityMain")) {
-                    data.put("activityMain", snapshot.getActivityMain());
-                }
-                if (socioEconomicsKey.equals("activitySecondary")) {
-                    data.put("activitySecondary", snapshot.getActivitySecondary());
-                }
-                if (socioEconomicsKey.equals("areaOfResidence")) {
-                    data.put("areaOfResidence", snapshot.getAreaOfResidence());
-                }
-                if (socioEconomicsKey.equals("benefitIncome")
-                        && snapshot.getBenefitIncome() != null) {
-                    data.put("benefitIncome", snapshot.getBenefitIncome().toString());
-                }
-                if (socioEconomicsKey.equals("currency")) {
-                    data.put("currency", snapshot.getCurrency());
-                }
-                if (socioEconomicsKey.equals("educationClientLevel")) {
-                    data.put("educationClientLevel", snapshot.getEducationClientLevel());
-                }
-                if (socioEconomicsKey.equals("educationLevelAttained")) {
-                    data.put("educationLevelAttained", snapshot.getEducationLevelAttained());
-                }
-                if (socioEconomicsKey.equals("educationPersonMostStudied")) {
-                    data.put("educationPersonMostStudied", snapshot.getEducationPersonMostStudied());
-                }
-                if (socioEconomicsKey.equals("employmentStatusPrimary")) {
-                    data.put("employmentStatusPrimary", snapshot.getEmploymentStatusPrimary());
-                }
-                if (socioEconomicsKey.equals("employmentStatusSecondary")) {
-                    data.put("employmentStatusSecondary", snapshot.getEmploymentStatusSecondary());
-                }
-                if (socioEconomicsKey.equals("familyCity")) {
-                    data.put("familyCity", snapshot.getFamilyCity());
-                }
-                if (socioEconomicsKey.equals("familyCountry")) {
-                    data.put("familyCountry", snapshot.getFamilyCountry());
-                }
-                if (socioEconomicsKey.equals("familyUbication")) {
-                    data.put("familyUbication", snapshot.getFamilyUbication());
-                }
-                if (socioEconomicsKey.equals("householdMonthlyIncome")
-                        && snapshot.getHouseholdMonthlyIncome() != null) {
-                    data.put("householdMonthlyIncome", snapshot.getHouseholdMonthlyIncome().toString());
-                }
-                if (socioEconomicsKey.equals("householdMonthlyOutgoing")
-                        && snapshot.getHouseholdMonthlyOutgoing() != null) {
-                    data.put("householdMonthlyOutgoing", snapshot.getHouseholdMonthlyOutgoing().toString());
-                }
-                if (socioEconomicsKey.equals("housingSituation")) {
-                    data.put("housingSituation", snapshot.getHousingSituation());
-                }
-                if (socioEconomicsKey.equals("netSuplus")
-                        && snapshot.getNetSuplus() != null) {
-                    data.put("netSuplus", snapshot.getNetSuplus().toString());
-                }
-                if (socioEconomicsKey.equals("otherIncome")
-                        && snapshot.getOtherIncome() != null) {
-                    data.put("otherIncome", snapshot.getOtherIncome().toString());
-                }
-                if (socioEconomicsKey.equals("pensionIncome")
-                        && snapshot.getPensionIncome() != null) {
-                    data.put("pensionIncome", snapshot.getPensionIncome().toString());
-                }
-                if (socioEconomicsKey.equals("salaryIncome")
-                        && snapshot.getSalaryIncome() != null) {
-                    data.put("salaryIncome", snapshot.getSalaryIncome().toString());
-                }
-                if (socioEconomicsKey.equals("savingsIncome")
-                        && snapshot.getSavingsIncome() != null) {
-                    data.put("savingsIncome", snapshot.getSavingsIncome().toString());
-                }
-                SurveyData additionalSocioEconomicInformation = snapshot.getAdditionalProperties();
-                additionalSocioEconomicInformation.forEach((key, value) -> data.put(key, value.toString()));
-            }
-
-            SurveyData indicators = snapshotMapper.entityToDto(snapshot.getSnapshotIndicator());
-            indicators.forEach((key, value) -> data.put(key, value));
+    private List<List<String>> getRows(SnapshotRowPlan plan, List<SnapshotEconomicEntity> snapshots) {
+        if (snapshots.size() < PARALLEL_ROWS_THRESHOLD) {
+            return snapshots.stream().map(plan::row).collect(Collectors.toList());
+        }
 
-            rows.add(data);
+        // the snapshots come with their family, person and indicators already loaded,
+        // so the workers only read them; the ordered collect keeps the rows in order
+        try {
+            return reportPool.submit(() -> snapshots.parallelStream()
+                    .map(plan::row)
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the report rows", e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause());
+            throw new IllegalStateException("Could not generate the report rows", e.getCause());
         }
-        return generateRows(rows, keys);
     }
 
     private String reportToCsv(ReportDTO report) {
-        String toRet = report.getHeaders()
-                .stream()
-                .map(Object::toString)
-                .collect(Collectors.joining(CSV_DELIMITER)).concat("\n");
+        StringBuilder toRet = new StringBuilder();
+        toRet.append(String.join(CSV_DELIMITER, report.getHeaders())).append(CSV_LINE_SEPARATOR);
 
         for (List<String> row : report.getRows()) {
-            toRet = toRet + (row.stream().map(Object::toString)
-                    .collect(Collectors.joining(CSV_DELIMITER))).concat("\n");
+            toRet.append(String.join(CSV_DELIMITER, row)).append(CSV_LINE_SEPARATOR);
         }
-        return toRet;
+        return toRet.toString();
     }
 
-    private String getIndicatorValues(String value) {
-        SurveyStoplightEnum surveyStoplightEnum = SurveyStoplightEnum.fromValue(value);
-        if (value.equals("NONE")) {
-            return String.valueOf(0);
-        }
-        if (surveyStoplightEnum != null) {
-            return String.valueOf(surveyStoplightEnum.getCode() + 1);
+    private void writeCsvLines(Writer writer, List<List<String>> rows) {
+        rows.forEach(row -> writeCsvLine(writer, row));
+    }
+
+    private void writeCsvLine(Writer writer, List<String> values) {
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(CSV_DELIMITER);
+                }
+                writer.write(values.get(i));
+            }
+            writer.write(CSV_LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return value;
     }
-}
\ No newline at end of file
+}
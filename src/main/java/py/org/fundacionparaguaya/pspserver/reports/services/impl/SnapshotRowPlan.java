@@ -0,0 +1,211 @@
+package py.org.fundacionparaguaya.pspserver.reports.services.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import py.org.fundacionparaguaya.pspserver.families.entities.PersonEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDataKeys;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.stoplight.Stoplight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * How to turn the snapshots of a survey into report rows, worked out once per
+ * report: the columns in order, the translated names of the fixed columns, and
+ * a writer for each personal and socio-economic property the survey asks for.
+ *
+ * Plans hold no state of a row, so one plan converts many snapshots at once
+ * from different threads.
+ */
+final class SnapshotRowPlan {
+
+    private static final Map<String, BiConsumer<PersonEntity, SurveyData>> PERSONAL_COLUMNS =
+            ImmutableMap.<String, BiConsumer<PersonEntity, SurveyData>>builder()
+                    .put("firstName", value("firstName", PersonEntity::getFirstName))
+                    .put("lastName", value("lastName", PersonEntity::getLastName))
+                    .put("birthdate", ifPresent("birthdate", PersonEntity::getBirthdate, Object::toString))
+                    .put("countryOfBirth", ifPresent("countryOfBirth", PersonEntity::getCountryOfBirth,
+                            country -> country.getCountry()))
+                    .put("gender", ifPresent("gender", PersonEntity::getGender, Enum::name))
+                    .put("postCode", value("postCode", PersonEntity::getPostCode))
+                    .put("phoneNumber", value("phoneNumber", PersonEntity::getPhoneNumber))
+                    .put("identificationType", value("identificationType", PersonEntity::getIdentificationType))
+                    .put("identificationNumber", value("identificationNumber",
+                            PersonEntity::getIdentificationNumber))
+                    .put("email", value("email", PersonEntity::getEmail))
+                    .build();
+
+    private static final Map<String, BiConsumer<SnapshotEconomicEntity, SurveyData>> ECONOMIC_COLUMNS =
+            ImmutableMap.<String, BiConsumer<SnapshotEconomicEntity, SurveyData>>builder()
+                    .put("activityMain", value("activityMain", SnapshotEconomicEntity::getActivityMain))
+                    .put("activitySecondary", value("activitySecondary",
+                            SnapshotEconomicEntity::getActivitySecondary))
+                    .put("areaOfResidence", value("areaOfResidence", SnapshotEconomicEntity::getAreaOfResidence))
+                    .put("benefitIncome", ifPresent("benefitIncome", SnapshotEconomicEntity::getBenefitIncome,
+                            Object::toString))
+                    .put("currency", value("currency", SnapshotEconomicEntity::getCurrency))
+                    .put("educationClientLevel", value("educationClientLevel",
+                            SnapshotEconomicEntity::getEducationClientLevel))
+                    .put("educationLevelAttained", value("educationLevelAttained",
+                            SnapshotEconomicEntity::getEducationLevelAttained))
+                    .put("educationPersonMostStudied", value("educationPersonMostStudied",
+                            SnapshotEconomicEntity::getEducationPersonMostStudied))
+                    .put("employmentStatusPrimary", value("employmentStatusPrimary",
+                            SnapshotEconomicEntity::getEmploymentStatusPrimary))
+                    .put("employmentStatusSecondary", value("employmentStatusSecondary",
+                            SnapshotEconomicEntity::getEmploymentStatusSecondary))
+                    .put("familyCity", value("familyCity", SnapshotEconomicEntity::getFamilyCity))
+                    .put("familyCountry", value("familyCountry", SnapshotEconomicEntity::getFamilyCountry))
+                    .put("familyUbication", value("familyUbication", SnapshotEconomicEntity::getFamilyUbication))
+                    .put("householdMonthlyIncome", ifPresent("householdMonthlyIncome",
+                            SnapshotEconomicEntity::getHouseholdMonthlyIncome, Object::toString))
+                    .put("householdMonthlyOutgoing", ifPresent("householdMonthlyOutgoing",
+                            SnapshotEconomicEntity::getHouseholdMonthlyOutgoing, Object::toString))
+                    .put("housingSituation", value("housingSituation",
+                            SnapshotEconomicEntity::getHousingSituation))
+                    .put("netSuplus", ifPresent("netSuplus", SnapshotEconomicEntity::getNetSuplus,
+                            Object::toString))
+                    .put("otherIncome", ifPresent("otherIncome", SnapshotEconomicEntity::getOtherIncome,
+                            Object::toString))
+                    .put("pensionIncome", ifPresent("pensionIncome", SnapshotEconomicEntity::getPensionIncome,
+                            Object::toString))
+                    .put("salaryIncome", ifPresent("salaryIncome", SnapshotEconomicEntity::getSalaryIncome,
+                            Object::toString))
+                    .put("savingsIncome", ifPresent("savingsIncome", SnapshotEconomicEntity::getSavingsIncome,
+                            Object::toString))
+                    .build();
+
+    private final List<String> keys;
+
+    private final SurveyDataKeys rowKeys;
+
+    private final String organizationNameKey;
+
+    private final String familyCodeKey;
+
+    private final String familyNameKey;
+
+    private final String createdAtKey;
+
+    private final List<BiConsumer<PersonEntity, SurveyData>> personalColumns;
+
+    private final List<BiConsumer<SnapshotEconomicEntity, SurveyData>> economicColumns;
+
+    private final boolean hasEconomicKeys;
+
+    private final SnapshotIndicatorMapper indicatorMapper;
+
+    /**
+     * @param keys the columns of the report, starting with the translated names of the
+     *             organization, family code, family name and creation date columns
+     */
+    SnapshotRowPlan(SurveyEntity survey, List<String> keys, SnapshotIndicatorMapper indicatorMapper) {
+        this.keys = ImmutableList.copyOf(keys);
+        // every row has the same keys, so their data only needs slots for the values,
+        // and is dropped as soon as its row is generated
+        this.rowKeys = SurveyDataKeys.of(keys);
+        this.organizationNameKey = keys.get(0);
+        this.familyCodeKey = keys.get(1);
+        this.familyNameKey = keys.get(2);
+        this.createdAtKey = keys.get(3);
+
+        List<String> personalKeys = survey.getSurveyDefinition().getSurveyUISchema().getGroupPersonal();
+        List<String> economicKeys = survey.getSurveyDefinition().getSurveyUISchema().getGroupEconomics();
+        this.personalColumns = columns(personalKeys, PERSONAL_COLUMNS);
+        this.economicColumns = columns(economicKeys, ECONOMIC_COLUMNS);
+        this.hasEconomicKeys = !economicKeys.isEmpty();
+        this.indicatorMapper = indicatorMapper;
+    }
+
+    List<String> getKeys() {
+        return keys;
+    }
+
+    List<String> row(SnapshotEconomicEntity snapshot) {
+        return toRow(rowData(snapshot), keys);
+    }
+
+    SurveyData rowData(SnapshotEconomicEntity snapshot) {
+        SurveyData data = new SurveyData(rowKeys);
+
+        if (snapshot.getFamily() != null) {
+            data.put(familyNameKey, snapshot.getFamily().getName());
+            data.put(familyCodeKey, snapshot.getFamily().getCode());
+            if (snapshot.getFamily().getOrganization() != null) {
+                data.put(organizationNameKey, snapshot.getFamily().getOrganization().getName());
+            }
+        }
+        data.put(createdAtKey, snapshot.getCreatedAtLocalDateString());
+
+        PersonEntity person = snapshot.getFamily().getPerson();
+        personalColumns.forEach(column -> column.accept(person, data));
+        snapshot.getPersonalInformation().forEach((key, value) -> {
+            if (!data.containsKey(key)) {
+                data.put(key, value.toString());
+            }
+        });
+
+        economicColumns.forEach(column -> column.accept(snapshot, data));
+        if (hasEconomicKeys) {
+            // additional values win over the static ones of the same name
+            snapshot.getAdditionalProperties().forEach((key, value) -> data.put(key, value.toString()));
+        }
+
+        indicatorMapper.entityToDto(snapshot.getSnapshotIndicator()).forEach(data::put);
+        return data;
+    }
+
+    /**
+     * @return the values of the keys in the data, in the order of the keys, as report cells
+     */
+    static List<String> toRow(SurveyData data, List<String> keys) {
+        List<String> row = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            String value = data.getAsString(key);
+            row.add(value != null ? cell(value.replace(',', ';')) : "");
+        }
+        return row;
+    }
+
+    /**
+     * Indicator colors are written as their 1 based code, and unanswered
+     * indicators as 0.
+     */
+    private static String cell(String value) {
+        int stoplight = Stoplight.parse(value);
+        return stoplight != Stoplight.UNKNOWN ? Stoplight.toCodeString(stoplight) : value;
+    }
+
+    private static <T> List<BiConsumer<T, SurveyData>> columns(List<String> keys,
+            Map<String, BiConsumer<T, SurveyData>> known) {
+        ImmutableList.Builder<BiConsumer<T, SurveyData>> columns = ImmutableList.builder();
+        for (String key : keys) {
+            BiConsumer<T, SurveyData> column = known.get(key);
+            if (column != null) {
+                columns.add(column);
+            }
+        }
+        return columns.build();
+    }
+
+    private static <T> BiConsumer<T, SurveyData> value(String key, Function<T, String> getter) {
+        return (entity, data) -> data.put(key, getter.apply(entity));
+    }
+
+    private static <T, V> BiConsumer<T, SurveyData> ifPresent(String key, Function<T, V> getter,
+            Function<V, String> format) {
+        return (entity, data) -> {
+            V value = getter.apply(entity);
+            if (value != null) {
+                data.put(key, format.apply(value));
+            }
+        };
+    }
+}
@@ -36,12 +36,27 @@ public class UserMapper implements BaseMapper<UserEntity, UserDTO> {
 
     @Override
     public UserDTO entityToDto(UserEntity entity) {
-        UserDTO dto = modelMapper.map(entity, UserDTO.class);
-        dto.setPass(null);
+        UserDTO dto = entityToSummaryDto(entity);
         dto.setRole(this.userRoleRepository.findByUserId(entity.getId()).getRole().getSecurityName());
         return dto;
     }
 
+    /**
+     * The user without its role, which takes a query of its own to look up. The
+     * password is never copied.
+     */
+    public UserDTO entityToSummaryDto(UserEntity entity) {
+        if (entity == null) {
+            return null;
+        }
+        UserDTO dto = new UserDTO();
+        dto.setUserId(entity.getId());
+        dto.setUsername(entity.getUsername());
+        dto.setEmail(entity.getEmail());
+        dto.setActive(entity.isActive());
+        return dto;
+    }
+
     @Override
     public UserEntity dtoToEntity(UserDTO dto) {
         return modelMapper.map(dto, UserEntity.class);
@@ -0,0 +1,260 @@
+package py.org.fundacionparaguaya.pspserver.surveys.dtos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map over a shared {@link SurveyDataKeys}, which keeps the value of each of
+ * those keys in a slot of an array instead of an entry of its own. Other keys
+ * go to a small hash map, created on first use.
+ *
+ * Copies share the array until one of them is modified, when that one copies
+ * it for itself.
+ */
+final class CompactSurveyDataMap extends AbstractMap<String, Object> {
+
+    private static final Object ABSENT = new Object();
+
+    private final SurveyDataKeys keys;
+
+    private Object[] values;
+
+    private int slotCount;
+
+    private Map<String, Object> extra;
+
+    private boolean shared;
+
+    private Set<Map.Entry<String, Object>> entrySet;
+
+    CompactSurveyDataMap(SurveyDataKeys keys) {
+        this.keys = keys;
+        this.values = new Object[keys.size()];
+        Arrays.fill(values, ABSENT);
+    }
+
+    private CompactSurveyDataMap(CompactSurveyDataMap source) {
+        this.keys = source.keys;
+        this.values = source.values;
+        this.slotCount = source.slotCount;
+        this.extra = source.extra != null ? new HashMap<>(source.extra) : null;
+        this.shared = true;
+        source.shared = true;
+    }
+
+    CompactSurveyDataMap copy() {
+        return new CompactSurveyDataMap(this);
+    }
+
+    @Override
+    public int size() {
+        return slotCount + (extra != null ? extra.size() : 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = keys.slotOf(key);
+        if (slot >= 0) {
+            return values[slot] != ABSENT;
+        }
+        return extra != null && extra.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = keys.slotOf(key);
+        if (slot >= 0) {
+            Object value = values[slot];
+            return value != ABSENT ? value : null;
+        }
+        return extra != null ? extra.get(key) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int slot = keys.slotOf(key);
+        if (slot < 0) {
+            if (extra == null) {
+                extra = new HashMap<>();
+            }
+            return extra.put(key, value);
+        }
+        Object old = setSlot(slot, value);
+        if (old == ABSENT) {
+            slotCount++;
+            return null;
+        }
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = keys.slotOf(key);
+        if (slot < 0) {
+            return extra != null ? extra.remove(key) : null;
+        }
+        if (values[slot] == ABSENT) {
+            return null;
+        }
+        slotCount--;
+        return setSlot(slot, ABSENT);
+    }
+
+    @Override
+    public void clear() {
+        values = new Object[keys.size()];
+        Arrays.fill(values, ABSENT);
+        shared = false;
+        slotCount = 0;
+        extra = null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Object setSlot(int slot, Object value) {
+        if (shared) {
+            values = values.clone();
+            shared = false;
+        }
+        Object old = values[slot];
+        values[slot] = value;
+        return old;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return CompactSurveyDataMap.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next = nextSlot(0);
+
+        private int last = -1;
+
+        private boolean lastExtra;
+
+        private Iterator<Map.Entry<String, Object>> extraIterator;
+
+        private int nextSlot(int from) {
+            int slot = from;
+            while (slot < values.length && values[slot] == ABSENT) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+            if (extraIterator == null && extra != null) {
+                extraIterator = extra.entrySet().iterator();
+            }
+            return extraIterator != null && extraIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (next < values.length) {
+                last = next;
+                next = nextSlot(next + 1);
+                return new SlotEntry(last);
+            }
+            Map.Entry<String, Object> entry = extraIterator.next();
+            last = -1;
+            lastExtra = true;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            // the extra iterator is created by hasNext, before the last slot is removed
+            if (lastExtra) {
+                lastExtra = false;
+                extraIterator.remove();
+                return;
+            }
+            if (last < 0 || values[last] == ABSENT) {
+                throw new IllegalStateException();
+            }
+            slotCount--;
+            setSlot(last, ABSENT);
+            last = -1;
+        }
+    }
+
+    private final class SlotEntry implements Map.Entry<String, Object> {
+
+        private final int slot;
+
+        private SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return keys.keyAt(slot);
+        }
+
+        @Override
+        public Object getValue() {
+            Object value = values[slot];
+            return value != ABSENT ? value : null;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object old = setSlot(slot, value);
+            if (old == ABSENT) {
+                slotCount++;
+                return null;
+            }
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return getKey().equals(other.getKey())
+                    && (getValue() == null ? other.getValue() == null : getValue().equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ (getValue() == null ? 0 : getValue().hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package py.org.fundacionparaguaya.pspserver.surveys.dtos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import py.org.fundacionparaguaya.pspserver.common.utils.EntityTags;
+import py.org.fundacionparaguaya.pspserver.common.utils.StringConverter;
+import py.org.fundacionparaguaya.pspserver.surveys.validation.CompiledSurveyValidator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * A survey definition together with the lookups derived from it that the
+ * snapshot operations need over and over: the ordered list of indicators,
+ * the schema properties by name, the localized indicator names and the
+ * validator of the snapshots taken with it.
+ *
+ * Instances are shared between requests. The definition they are compiled
+ * from is copied, so it is not shared with the survey entity either. The
+ * definition {@link #getDefinition()} hands out is the shared one, to be
+ * serialized as it is and never modified.
+ */
+public final class CompiledSurveyDefinition {
+
+    private static final String DEFAULT_LANGUAGE = "es";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final ObjectReader READER = MAPPER.readerFor(SurveyDefinition.class);
+
+    private final SurveyDefinition definition;
+
+    private final LocalDateTime lastModifiedAt;
+
+    private final List<String> indicatorsOrder;
+
+    private final Map<String, Property> properties;
+
+    private final Map<String, String> indicatorNames;
+
+    private final CompiledSurveyValidator validator;
+
+    private volatile String tag;
+
+    private CompiledSurveyDefinition(SurveyDefinition definition, LocalDateTime lastModifiedAt) {
+        this.definition = copyOf(definition);
+        this.lastModifiedAt = lastModifiedAt;
+        this.properties = compileProperties(this.definition);
+        this.indicatorsOrder = compileIndicatorsOrder(this.definition);
+        this.indicatorNames = compileIndicatorNames(indicatorsOrder, properties);
+        this.validator = CompiledSurveyValidator.compile(Optional.ofNullable(this.definition.getSurveySchema())
+                .orElseGet(SurveySchema::new));
+    }
+
+    public static CompiledSurveyDefinition compile(SurveyDefinition definition, LocalDateTime lastModifiedAt) {
+        return new CompiledSurveyDefinition(definition, lastModifiedAt);
+    }
+
+    private static SurveyDefinition copyOf(SurveyDefinition definition) {
+        try {
+            return READER.readValue(MAPPER.valueToTree(definition));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not copy survey definition " + definition.getId(), e);
+        }
+    }
+
+    private static Map<String, Property> compileProperties(SurveyDefinition definition) {
+        return Optional.ofNullable(definition.getSurveySchema())
+                .map(SurveySchema::getProperties)
+                .map(ImmutableMap::copyOf)
+                .orElse(ImmutableMap.of());
+    }
+
+    private static List<String> compileIndicatorsOrder(SurveyDefinition definition) {
+        SurveyUISchema uiSchema = definition.getSurveyUISchema();
+        if (uiSchema == null || uiSchema.getUiOrder() == null || uiSchema.getGroupIndicators() == null) {
+            return ImmutableList.of();
+        }
+
+        List<String> indicatorGroup = uiSchema.getGroupIndicators();
+        return ImmutableList.copyOf(uiSchema.getUiOrder().stream()
+                .filter(indicatorGroup::contains)
+                .collect(Collectors.toList()));
+    }
+
+    private static Map<String, String> compileIndicatorNames(List<String> indicators,
+            Map<String, Property> properties) {
+        ImmutableMap.Builder<String, String> names = ImmutableMap.builder();
+        indicators.stream().distinct().forEach(indicator -> names.put(indicator,
+                Optional.ofNullable(properties.get(indicator))
+                        .map(Property::getDescription)
+                        .map(description -> description.get(DEFAULT_LANGUAGE))
+                        .orElse(StringConverter.getNameFromCamelCase(indicator))));
+        return names.build();
+    }
+
+    /**
+     * @return the definition shared by every request, which must not be modified
+     */
+    public SurveyDefinition getDefinition() {
+        return definition;
+    }
+
+    public Long getId() {
+        return definition.getId();
+    }
+
+    public LocalDateTime getLastModifiedAt() {
+        return lastModifiedAt;
+    }
+
+    /**
+     * @return the entity tag of the definition, worked out from its version and
+     * a hash of its content the first time it is asked for.
+     */
+    public String getTag() {
+        String result = tag;
+        if (result == null) {
+            result = EntityTags.of(getId(), lastModifiedAt, EntityTags.contentHash(definition));
+            tag = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the indicators of the survey in the order defined by its UI schema.
+     */
+    public List<String> getIndicatorsOrder() {
+        return indicatorsOrder;
+    }
+
+    public CompiledSurveyValidator getValidator() {
+        return validator;
+    }
+
+    public Property getProperty(String name) {
+        return properties.get(name);
+    }
+
+    public Map<String, Property> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return the localized name of the indicator, or the indicator key split
+     * by camel case when the schema has no description for it.
+     */
+    public String getIndicatorName(String indicator) {
+        return Optional.ofNullable(indicatorNames.get(indicator))
+                .orElseGet(() -> StringConverter.getNameFromCamelCase(indicator));
+    }
+}
@@ -0,0 +1,87 @@
+package py.org.fundacionparaguaya.pspserver.surveys.dtos;
+
+import py.org.fundacionparaguaya.pspserver.surveys.enums.IndicatorMatchEnum;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SurveyStoplightEnum;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stoplight colors the indicators of a snapshot must have, by indicator name as
+ * it appears in the survey schema.
+ */
+public class IndicatorFilter {
+
+    private static final char PAIR_SEPARATOR = ',';
+
+    private static final char VALUE_SEPARATOR = ':';
+
+    private final IndicatorMatchEnum match;
+
+    private final Map<String, SurveyStoplightEnum> indicators;
+
+    public IndicatorFilter(IndicatorMatchEnum match, Map<String, SurveyStoplightEnum> indicators) {
+        this.match = match;
+        this.indicators = Collections.unmodifiableMap(new LinkedHashMap<>(indicators));
+    }
+
+    /**
+     * Parses a filter as sent by clients.
+     *
+     * @param match <code>all</code> or <code>any</code>, <code>all</code> when null
+     * @param indicators comma separated <code>name:color</code> pairs, where the color is
+     * its name or its code in the reports, from 1 for red to 3 for green, as in
+     * <code>income:red,alimentation:2</code>
+     * @throws IllegalArgumentException if any of them is malformed
+     */
+    public static IndicatorFilter parse(String match, String indicators) {
+        IndicatorMatchEnum matchEnum = match == null ? IndicatorMatchEnum.ALL : IndicatorMatchEnum.fromValue(match);
+        if (matchEnum == null) {
+            throw new IllegalArgumentException("Unknown indicator match '" + match + "'");
+        }
+
+        Map<String, SurveyStoplightEnum> values = new LinkedHashMap<>();
+        if (indicators != null && !indicators.trim().isEmpty()) {
+            for (String pair : indicators.split(String.valueOf(PAIR_SEPARATOR))) {
+                int separator = pair.indexOf(VALUE_SEPARATOR);
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Invalid indicator filter '" + pair + "'");
+                }
+                values.put(pair.substring(0, separator).trim(), parseColor(pair.substring(separator + 1).trim()));
+            }
+        }
+        return new IndicatorFilter(matchEnum, values);
+    }
+
+    private static SurveyStoplightEnum parseColor(String value) {
+        SurveyStoplightEnum color = SurveyStoplightEnum.fromValue(value);
+        if (color == null && value.length() == 1 && Character.isDigit(value.charAt(0))) {
+            color = SurveyStoplightEnum.fromStoplight(value.charAt(0) - '0');
+        }
+        if (color == null) {
+            throw new IllegalArgumentException("Unknown stoplight color '" + value + "'");
+        }
+        return color;
+    }
+
+    public IndicatorMatchEnum getMatch() {
+        return match;
+    }
+
+    public Map<String, SurveyStoplightEnum> getIndicators() {
+        return indicators;
+    }
+
+    public boolean isEmpty() {
+        return indicators.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "IndicatorFilter{" +
+                "match=" + match +
+                ", indicators=" + indicators +
+                '}';
+    }
+}
@@ -57,6 +57,9 @@ public class NewSnapshot   {
     @JsonProperty(value = "dependencies", required = false)
     private SurveyData dependencies;
 
+    @JsonProperty(value = "client_key", required = false)
+    private String clientKey;
+
     public SurveyData getDependencies() {
         return dependencies;
     }
@@ -154,6 +157,18 @@ public class NewSnapshot   {
         this.termCondId = termCondId;
     }
 
+    /**
+     * Key the client generated for this snapshot, so that sending it again
+     * does not store it twice.
+     */
+    public String getClientKey() {
+        return clientKey;
+    }
+
+    public void setClientKey(String clientKey) {
+        this.clientKey = clientKey;
+    }
+
     public Long getPrivPolId() {
         return privPolId;
     }
@@ -0,0 +1,88 @@
+package py.org.fundacionparaguaya.pspserver.surveys.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotBatchStatusEnum;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The outcome of one snapshot of a batch, at the same index it was sent.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SnapshotBatchResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("client_key")
+    private String clientKey;
+
+    @JsonProperty("status")
+    private SnapshotBatchStatusEnum status;
+
+    @JsonProperty("snapshot_economic_id")
+    private Long snapshotEconomicId;
+
+    @JsonProperty("errors")
+    private Map<String, Collection<String>> errors;
+
+    public SnapshotBatchResult() {
+    }
+
+    public SnapshotBatchResult(int index, String clientKey, SnapshotBatchStatusEnum status) {
+        this.index = index;
+        this.clientKey = clientKey;
+        this.status = status;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getClientKey() {
+        return clientKey;
+    }
+
+    public void setClientKey(String clientKey) {
+        this.clientKey = clientKey;
+    }
+
+    public SnapshotBatchStatusEnum getStatus() {
+        return status;
+    }
+
+    public void setStatus(SnapshotBatchStatusEnum status) {
+        this.status = status;
+    }
+
+    public Long getSnapshotEconomicId() {
+        return snapshotEconomicId;
+    }
+
+    public void setSnapshotEconomicId(Long snapshotEconomicId) {
+        this.snapshotEconomicId = snapshotEconomicId;
+    }
+
+    public Map<String, Collection<String>> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, Collection<String>> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotBatchResult{index=" + index + ", clientKey='" + clientKey + "', status=" + status
+                + ", snapshotEconomicId=" + snapshotEconomicId + "}";
+    }
+}
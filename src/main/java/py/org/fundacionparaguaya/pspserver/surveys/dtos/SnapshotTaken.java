@@ -3,11 +3,17 @@ package py.org.fundacionparaguaya.pspserver.surveys.dtos;
 import java.io.Serializable;
 import java.util.Map;
 
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
+
 public class SnapshotTaken implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private Map<String, Long> byMonth;
 
+    private SnapshotPeriodEnum period;
+
+    private Map<String, Long> byPeriod;
+
     public SnapshotTaken() {
     }
 
@@ -23,4 +29,20 @@ public class SnapshotTaken implements Serializable {
         this.byMonth = byMonth;
     }
 
+    public SnapshotPeriodEnum getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(SnapshotPeriodEnum period) {
+        this.period = period;
+    }
+
+    public Map<String, Long> getByPeriod() {
+        return byPeriod;
+    }
+
+    public void setByPeriod(Map<String, Long> byPeriod) {
+        this.byPeriod = byPeriod;
+    }
+
 }
@@ -23,6 +23,26 @@ public class SurveyData extends ForwardingMap<String, Object> {
 
     }
 
+    /**
+     * Data whose values for the given keys are kept in the slots of an array,
+     * which takes far less memory than a hash map when there are many data
+     * with the same keys. Other keys can still be added.
+     */
+    public SurveyData(SurveyDataKeys keys) {
+        this.dataMap = new CompactSurveyDataMap(keys);
+    }
+
+    /**
+     * @return a copy of this data. When this data is backed by slots, the copy
+     *         shares them until either of the two is modified.
+     */
+    public SurveyData copy() {
+        if (dataMap instanceof CompactSurveyDataMap) {
+            return new SurveyData(((CompactSurveyDataMap) dataMap).copy());
+        }
+        return new SurveyData(new HashMap<>(dataMap));
+    }
+
     @Override
     protected Map<String, Object> delegate() {
         return dataMap;
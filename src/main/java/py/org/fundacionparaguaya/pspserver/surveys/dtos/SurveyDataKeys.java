@@ -0,0 +1,71 @@
+package py.org.fundacionparaguaya.pspserver.surveys.dtos;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The keys shared by many {@link SurveyData}, such as the indicators of every
+ * snapshot of a survey, each with the slot its value is kept at.
+ *
+ * Instances are interned by their keys, so every data with the same keys
+ * shares one instance and only holds an array of values of its own. An
+ * instance is only interned while some data uses it, so the keys of deleted
+ * or changed surveys do not pile up.
+ */
+public final class SurveyDataKeys {
+
+    private static final LoadingCache<List<String>, SurveyDataKeys> INTERNED = CacheBuilder.newBuilder()
+            .weakValues()
+            .build(CacheLoader.from(SurveyDataKeys::new));
+
+    private final List<String> keys;
+
+    private final Map<String, Integer> slots;
+
+    private SurveyDataKeys(List<String> keys) {
+        this.keys = keys;
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < keys.size(); i++) {
+            builder.put(keys.get(i), i);
+        }
+        this.slots = builder.build();
+    }
+
+    /**
+     * @param keys the keys, in the order the values are iterated in. Repeated and
+     *             null keys are ignored.
+     */
+    public static SurveyDataKeys of(Collection<String> keys) {
+        Set<String> distinct = keys.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return INTERNED.getUnchecked(ImmutableList.copyOf(distinct));
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public String keyAt(int slot) {
+        return keys.get(slot);
+    }
+
+    /**
+     * @return the slot of the key, or -1 if it is not one of these keys
+     */
+    public int slotOf(Object key) {
+        Integer slot = slots.get(key);
+        return slot != null ? slot : -1;
+    }
+}
@@ -23,7 +23,7 @@ import py.org.fundacionparaguaya.pspserver.common.entities.LocalDateTimeConverte
 import py.org.fundacionparaguaya.pspserver.security.entities.TermCondPolEntity;
 import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
-import py.org.fundacionparaguaya.pspserver.surveys.entities.types.SecondJSONBUserType;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.types.JSONBUserType;
 
 /**
  *
@@ -48,7 +48,10 @@ public class SnapshotDraftEntity extends BaseEntity {
         value = "1"),
     @org.hibernate.annotations.Parameter(
         name = SequenceStyleGenerator.INCREMENT_PARAM,
-        value = "1") })
+        value = "50"),
+    @org.hibernate.annotations.Parameter(
+        name = SequenceStyleGenerator.OPT_PARAM,
+        value = "pooled") })
     @GeneratedValue(generator = "snapshotDraftSequenceGenerator")
 
     @Column(name="id")
@@ -62,10 +65,10 @@ public class SnapshotDraftEntity extends BaseEntity {
 
     @Column(name = "state_draft")
     @Type(type = "py.org.fundacionparaguaya.pspserver."
-            + "surveys.entities.types.SecondJSONBUserType",
+            + "surveys.entities.types.JSONBUserType",
     parameters = {
             @org.hibernate.annotations.Parameter(
-                    name = SecondJSONBUserType.CLASS,
+                    name = JSONBUserType.CLASS,
                     value = "py.org.fundacionparaguaya."
             + "pspserver.surveys.dtos.SurveyData")
             })
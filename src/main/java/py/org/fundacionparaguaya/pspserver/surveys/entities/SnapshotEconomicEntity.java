@@ -1,15 +1,15 @@
 package py.org.fundacionparaguaya.pspserver.surveys.entities;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
 import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import py.org.fundacionparaguaya.pspserver.common.entities.LocalDateTimeConverter;
+import py.org.fundacionparaguaya.pspserver.common.utils.PropertyAccessors;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.security.entities.TermCondPolEntity;
 import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
-import py.org.fundacionparaguaya.pspserver.surveys.entities.types.SecondJSONBUserType;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.types.JSONBUserType;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -34,6 +34,9 @@ import java.time.format.DateTimeFormatter;
 @Table(name = "snapshots_economics", schema = "data_collect")
 public class SnapshotEconomicEntity implements StoreableSnapshot {
 
+    private static final PropertyAccessors<SnapshotEconomicEntity> ACCESSORS =
+            PropertyAccessors.of(SnapshotEconomicEntity.class);
+
     @Id
     @GenericGenerator(name = "snapshotsEconomicsSequenceGenerator",
     strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
@@ -45,7 +48,9 @@ public class SnapshotEconomicEntity implements StoreableSnapshot {
             @org.hibernate.annotations.Parameter
             (name = SequenceStyleGenerator.INITIAL_PARAM, value = "1"),
             @org.hibernate.annotations.Parameter
-            (name = SequenceStyleGenerator.INCREMENT_PARAM, value = "1") })
+            (name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @org.hibernate.annotations.Parameter
+            (name = SequenceStyleGenerator.OPT_PARAM, value = "pooled") })
     @GeneratedValue(generator = "snapshotsEconomicsSequenceGenerator")
     @Column(name = "id")
     private Long id;
@@ -116,9 +121,9 @@ public class SnapshotEconomicEntity implements StoreableSnapshot {
 
     @Column(name = "additional_properties")
     @Type(type = "py.org.fundacionparaguaya.pspserver."
-            + "surveys.entities.types.SecondJSONBUserType", parameters = {
+            + "surveys.entities.types.JSONBUserType", parameters = {
                     @org.hibernate.annotations.Parameter
-                    (name = SecondJSONBUserType.CLASS,
+                    (name = JSONBUserType.CLASS,
                     value = "py.org.fundacionparaguaya."
                             + "pspserver.surveys.dtos.SurveyData") })
     private SurveyData additionalProperties;
@@ -136,6 +141,9 @@ public class SnapshotEconomicEntity implements StoreableSnapshot {
     @Column(name = "family_city")
     private String familyCity;
 
+    @Column(name = "client_key", updatable = false, length = 100)
+    private String clientKey;
+
     @ManyToOne(targetEntity = UserEntity.class)
     @JoinColumn(name = "user_id")
     private UserEntity user;
@@ -150,9 +158,9 @@ public class SnapshotEconomicEntity implements StoreableSnapshot {
 
     @Column(name = "personal_information")
     @Type(type = "py.org.fundacionparaguaya.pspserver."
-            + "surveys.entities.types.SecondJSONBUserType", parameters = {
+            + "surveys.entities.types.JSONBUserType", parameters = {
                     @org.hibernate.annotations.Parameter
-                    (name = SecondJSONBUserType.CLASS,
+                    (name = JSONBUserType.CLASS,
                     value = "py.org.fundacionparaguaya."
                             + "pspserver.surveys.dtos.SurveyData") })
     private SurveyData personalInformation;
@@ -376,6 +384,14 @@ public class SnapshotEconomicEntity implements StoreableSnapshot {
         this.familyCity = familyCity;
     }
 
+    public String getClientKey() {
+        return clientKey;
+    }
+
+    public void setClientKey(String clientKey) {
+        this.clientKey = clientKey;
+    }
+
     public UserEntity getUser() {
         return user;
     }
@@ -449,13 +465,12 @@ public class SnapshotEconomicEntity implements StoreableSnapshot {
             try {
 
                 Object value = null;
-                if (Double.class.equals(
-                        PropertyUtils.getPropertyType(this, entry.getKey()))) {
+                if (Double.class.equals(ACCESSORS.getType(entry.getKey()))) {
                     value = Double.valueOf(entry.getValue().toString());
                 } else {
                     value = entry.getValue();
                 }
-                PropertyUtils.setProperty(this, entry.getKey(), value);
+                ACCESSORS.set(this, entry.getKey(), value);
             } catch (Exception e) {
                 throw new RuntimeException(
                         "Could not set property '" + entry.getKey()
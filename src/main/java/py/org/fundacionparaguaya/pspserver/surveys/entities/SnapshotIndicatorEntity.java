@@ -1,13 +1,13 @@
 package py.org.fundacionparaguaya.pspserver.surveys.entities;
 
 import com.google.common.base.MoreObjects;
-import org.apache.commons.beanutils.PropertyUtils;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import py.org.fundacionparaguaya.pspserver.common.utils.PropertyAccessors;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
-import py.org.fundacionparaguaya.pspserver.surveys.entities.types.SecondJSONBUserType;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.types.JSONBUserType;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -27,6 +27,9 @@ public class SnapshotIndicatorEntity implements StoreableSnapshot, Serializable
 
     private static final long serialVersionUID = 1L;
 
+    private static final PropertyAccessors<SnapshotIndicatorEntity> ACCESSORS =
+            PropertyAccessors.of(SnapshotIndicatorEntity.class);
+
     @Id
     @GenericGenerator(
             name = "snapshotsIndicatorsSequenceGenerator",
@@ -35,7 +38,8 @@ public class SnapshotIndicatorEntity implements StoreableSnapshot, Serializable
                     @Parameter(name = SequenceStyleGenerator.SCHEMA, value = "data_collect"),
                     @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "snapshots_indicators_id_seq"),
                     @Parameter(name = SequenceStyleGenerator.INITIAL_PARAM, value = "1"),
-                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "1")
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+                    @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
             }
     )
     @GeneratedValue(generator = "snapshotsIndicatorsSequenceGenerator")
@@ -108,8 +112,8 @@ public class SnapshotIndicatorEntity implements StoreableSnapshot, Serializable
     private String autonomyDecisions;
 
     @Column(name = "additional_properties")
-    @Type(type = "py.org.fundacionparaguaya.pspserver.surveys.entities.types.SecondJSONBUserType", parameters = {
-            @Parameter(name = SecondJSONBUserType.CLASS, value = "py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData")})
+    @Type(type = "py.org.fundacionparaguaya.pspserver.surveys.entities.types.JSONBUserType", parameters = {
+            @Parameter(name = JSONBUserType.CLASS, value = "py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData")})
     private SurveyData additionalProperties;
     
     @OneToMany(mappedBy="snapshotIndicator" )
@@ -334,7 +338,7 @@ public class SnapshotIndicatorEntity implements StoreableSnapshot, Serializable
                 .stream()
                 .forEach((entry) -> {
                     try {
-                        PropertyUtils.setProperty(this, entry.getKey(), entry.getValue());
+                        ACCESSORS.set(this, entry.getKey(), entry.getValue());
                     } catch (Exception e) {
                         throw new RuntimeException("Could not set property '" + entry.getKey() + "' to value '" + entry.getValue() + "'", e);
                     }
@@ -2,6 +2,7 @@ package py.org.fundacionparaguaya.pspserver.surveys.entities;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 import javax.persistence.Column;
@@ -11,6 +12,8 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
@@ -20,6 +23,7 @@ import org.hibernate.annotations.Parameter;
 import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters.LocalDateConverter;
 
+import py.org.fundacionparaguaya.pspserver.common.entities.LocalDateTimeConverter;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
 
 /**
@@ -44,7 +48,9 @@ public class SnapshotIndicatorPriorityEntity implements Serializable {
                 @Parameter(name = SequenceStyleGenerator.INITIAL_PARAM,
                     value = "1"),
                 @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM,
-                    value = "1") })
+                    value = "50"),
+                @Parameter(name = SequenceStyleGenerator.OPT_PARAM,
+                    value = "pooled") })
     @GeneratedValue(generator = "snapshotIndicatorPrioritiesSequenceGenerator")
     @Column(name = "snapshot_indicator_priorities_id")
     private Long id;
@@ -69,6 +75,10 @@ public class SnapshotIndicatorPriorityEntity implements Serializable {
     @JoinColumn(name = "snapshot_indicator")
     private SnapshotIndicatorEntity snapshotIndicator;
 
+    @Column(name = "last_modified_at")
+    @Convert(converter = LocalDateTimeConverter.class)
+    private LocalDateTime lastModifiedAt;
+
     public Long getId() {
         return id;
     }
@@ -118,6 +128,16 @@ public class SnapshotIndicatorPriorityEntity implements Serializable {
         this.snapshotIndicator = snapshotIndicator;
     }
 
+    public LocalDateTime getLastModifiedAt() {
+        return lastModifiedAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void preSave() {
+        this.lastModifiedAt = LocalDateTime.now();
+    }
+
     public Boolean getIsAttainment() {
         return isAttainment;
     }
@@ -0,0 +1,114 @@
+package py.org.fundacionparaguaya.pspserver.surveys.entities;
+
+import com.google.common.base.MoreObjects;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Stoplight counts of one indicator over every snapshot of an organization.
+ *
+ * Rows are only written through
+ * {@link py.org.fundacionparaguaya.pspserver.surveys.repositories.StoplightAggregateRepositoryCustom},
+ * which adds the counts of a snapshot to the stored ones.
+ */
+@Entity
+@Immutable
+@Table(name = "stoplight_aggregates", schema = "data_collect")
+public class StoplightAggregateEntity {
+
+    /**
+     * Organization under which the snapshots of families without
+     * organization are counted.
+     */
+    public static final long NO_ORGANIZATION = 0L;
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "organization_id")
+    private Long organizationId;
+
+    @Column(name = "indicator")
+    private String indicator;
+
+    @Column(name = "snapshot_count")
+    private int snapshotCount;
+
+    @Column(name = "red_count")
+    private int redCount;
+
+    @Column(name = "yellow_count")
+    private int yellowCount;
+
+    @Column(name = "green_count")
+    private int greenCount;
+
+    public StoplightAggregateEntity() {
+    }
+
+    public StoplightAggregateEntity(Long organizationId, String indicator) {
+        this.organizationId = organizationId;
+        this.indicator = indicator;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOrganizationId() {
+        return organizationId;
+    }
+
+    public String getIndicator() {
+        return indicator;
+    }
+
+    public int getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    public int getRedCount() {
+        return redCount;
+    }
+
+    public int getYellowCount() {
+        return yellowCount;
+    }
+
+    public int getGreenCount() {
+        return greenCount;
+    }
+
+    public void incrementSnapshots(int delta) {
+        this.snapshotCount += delta;
+    }
+
+    public void incrementRed(int delta) {
+        this.redCount += delta;
+    }
+
+    public void incrementYellow(int delta) {
+        this.yellowCount += delta;
+    }
+
+    public void incrementGreen(int delta) {
+        this.greenCount += delta;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("organizationId", organizationId)
+                .add("indicator", indicator)
+                .add("snapshotCount", snapshotCount)
+                .add("redCount", redCount)
+                .add("yellowCount", yellowCount)
+                .add("greenCount", greenCount)
+                .toString();
+    }
+}
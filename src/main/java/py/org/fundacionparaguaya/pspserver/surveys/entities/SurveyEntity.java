@@ -26,7 +26,7 @@ import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import py.org.fundacionparaguaya.pspserver.common.entities.LocalDateTimeConverter;
 import py.org.fundacionparaguaya.pspserver.network.entities.SurveyOrganizationEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
-import py.org.fundacionparaguaya.pspserver.surveys.entities.types.SecondJSONBUserType;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.types.JSONBUserType;
 
 /**
  * Created by rodrigovillalba on 10/16/17.
@@ -56,14 +56,16 @@ public class SurveyEntity implements Serializable {
     private String description;
 
 
+    // Definitions are replaced with setSurveyDefinition, never modified in place
     @Column(name = "survey_definition")
     @Type(
          type = "py.org.fundacionparaguaya.pspserver."
-                 + "surveys.entities.types.SecondJSONBUserType",
+                 + "surveys.entities.types.JSONBUserType",
          parameters = {
-            @Parameter(name = SecondJSONBUserType.CLASS,
+            @Parameter(name = JSONBUserType.CLASS,
             value = "py.org.fundacionparaguaya.pspserver."
-                    + "surveys.dtos.SurveyDefinition") })
+                    + "surveys.dtos.SurveyDefinition"),
+            @Parameter(name = JSONBUserType.MUTABLE, value = "false") })
     private SurveyDefinition surveyDefinition;
 
     @Column(name = "created_at")
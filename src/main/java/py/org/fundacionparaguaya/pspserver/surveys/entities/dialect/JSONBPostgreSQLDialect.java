@@ -14,14 +14,43 @@
 package py.org.fundacionparaguaya.pspserver.surveys.entities.dialect;
 
 import org.hibernate.dialect.PostgreSQL94Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.dialect.function.StandardSQLFunction;
+import org.hibernate.type.StandardBasicTypes;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.types.JSONBUserType;
 
 import java.sql.Types;
 
 public class JSONBPostgreSQLDialect extends PostgreSQL94Dialect {
 
+    /**
+     * <code>jsonb_contains_json(column, json)</code> renders the <code>@&gt;</code> operator,
+     * which unlike the <code>jsonb_contains</code> function can use the GIN indexes.
+     * The json is given as text.
+     */
+    public static final String JSONB_CONTAINS_JSON = "jsonb_contains_json";
+
+    /**
+     * <code>trgm_match(text, query)</code> renders the <code>%</code> operator of
+     * <code>pg_trgm</code>, true when the text is similar enough to the query,
+     * which can use the trigram indexes of the text.
+     */
+    public static final String TRGM_MATCH = "trgm_match";
+
+    /**
+     * <code>similarity(text, query)</code> of <code>pg_trgm</code>, from 0 to 1.
+     */
+    public static final String SIMILARITY = "similarity";
+
+    public static final String GREATEST = "greatest";
+
     public JSONBPostgreSQLDialect() {
         super();
         registerColumnType(Types.JAVA_OBJECT, JSONBUserType.JSONB_TYPE);
+        registerFunction(JSONB_CONTAINS_JSON,
+                new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(?1 @> cast(?2 as jsonb))"));
+        registerFunction(TRGM_MATCH, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(?1 % ?2)"));
+        registerFunction(SIMILARITY, new StandardSQLFunction(SIMILARITY, StandardBasicTypes.FLOAT));
+        registerFunction(GREATEST, new StandardSQLFunction(GREATEST, StandardBasicTypes.FLOAT));
     }
-}
\ No newline at end of file
+}
@@ -12,39 +12,84 @@
  */
 package py.org.fundacionparaguaya.pspserver.surveys.entities.types;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.hibernate.HibernateException;
-import org.hibernate.boot.registry.classloading.internal.ClassLoaderServiceImpl;
-import org.hibernate.boot.registry.classloading.spi.ClassLoaderService;
 import org.hibernate.engine.spi.SessionImplementor;
-import org.hibernate.type.SerializationException;
 import org.hibernate.usertype.ParameterizedType;
 import org.hibernate.usertype.UserType;
-import org.postgresql.util.PGobject;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Maps a Postgres <code>jsonb</code> column to the class given in the
+ * {@link #CLASS} parameter.
+ * <p>
+ * The Jackson reader and writer of each class are built once and shared by
+ * every column of that class, and values are parsed from the character stream
+ * of the column.
+ * <p>
+ * Values are mutable by default, and the copy Hibernate keeps to find out
+ * whether they changed is a plain copy of their maps and lists, instead of a
+ * round trip through json. Columns whose value is only ever replaced, never
+ * modified in place, can set {@link #MUTABLE} to <code>false</code>: they are
+ * not copied at all and are only written when a new value is set.
+ */
 public class JSONBUserType implements ParameterizedType, UserType {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-    private static final ClassLoaderService classLoaderService = new ClassLoaderServiceImpl();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
 
     public static final String JSONB_TYPE = "jsonb";
+
     public static final String CLASS = "CLASS";
 
-    private Class jsonClassType;
+    public static final String MUTABLE = "MUTABLE";
+
+    private Class<?> jsonClassType;
+
+    private ObjectReader reader;
+
+    private ObjectWriter writer;
+
+    private boolean mutable = true;
+
+    @Override
+    public void setParameterValues(Properties parameters) {
+        String className = parameters.getProperty(CLASS);
+        try {
+            jsonClassType = Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new HibernateException("Class '" + className + "' not found", e);
+        }
+        reader = READERS.computeIfAbsent(jsonClassType, MAPPER::readerFor);
+        writer = WRITERS.computeIfAbsent(jsonClassType, MAPPER::writerFor);
+        mutable = !"false".equalsIgnoreCase(parameters.getProperty(MUTABLE));
+    }
 
     @Override
-    public Class<Object> returnedClass() {
-        return Object.class;
+    public Class<?> returnedClass() {
+        return jsonClassType;
     }
 
     @Override
@@ -53,66 +98,75 @@ public class JSONBUserType implements ParameterizedType, UserType {
     }
 
     @Override
-    public Object nullSafeGet(ResultSet resultSet, String[] names, SessionImplementor session, Object owner) throws HibernateException, SQLException {
-        try {
-            final String json = resultSet.getString(names[0]);
-            return json == null ? null : objectMapper.readValue(json, jsonClassType);
+    public Object nullSafeGet(ResultSet resultSet, String[] names, SessionImplementor session, Object owner)
+            throws HibernateException, SQLException {
+        try (Reader json = resultSet.getCharacterStream(names[0])) {
+            return json == null ? null : reader.readValue(json);
         } catch (IOException e) {
-            throw new HibernateException(e);
+            throw new HibernateException("Failed to read " + jsonClassType.getName() + " from column "
+                    + names[0], e);
         }
     }
 
     @Override
-    public void nullSafeSet(PreparedStatement st, Object value, int index, SessionImplementor session) throws HibernateException, SQLException {
-        try {
-            final String json = value == null ? null : objectMapper.writeValueAsString(value);
-            PGobject pgo = new PGobject();
-            pgo.setType(JSONB_TYPE);
-            pgo.setValue(json);
-            st.setObject(index, pgo);
-        } catch (JsonProcessingException e) {
-            throw new HibernateException(e);
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SessionImplementor session)
+            throws HibernateException, SQLException {
+        if (value == null) {
+            st.setNull(index, Types.OTHER);
+            return;
         }
+        st.setObject(index, toJson(value), Types.OTHER);
     }
 
     @Override
-    public void setParameterValues(Properties parameters) {
-        final String clazz = (String) parameters.get(CLASS);
-        jsonClassType = classLoaderService.classForName(clazz);
+    public boolean isMutable() {
+        return mutable;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public Object deepCopy(Object value) throws HibernateException {
-
-        if (!(value instanceof Collection)) {
+        if (!mutable || value == null) {
             return value;
         }
-
-        Collection<?> collection = (Collection) value;
-        Collection collectionClone = CollectionFactory.newInstance(collection.getClass());
-
-        collectionClone.addAll(collection.stream().map(this::deepCopy).collect(Collectors.toList()));
-
-        return collectionClone;
+        if (value instanceof Map || value instanceof Collection) {
+            return copyOf(value);
+        }
+        try {
+            return reader.readValue(MAPPER.valueToTree(value));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new HibernateException("Failed to copy " + jsonClassType.getName(), e);
+        }
     }
 
-    static final class CollectionFactory {
-        @SuppressWarnings("unchecked")
-        static <E, T extends Collection<E>> T newInstance(Class<T> collectionClass) {
-            if (List.class.isAssignableFrom(collectionClass)) {
-                return (T) new ArrayList<E>();
-            } else if (Set.class.isAssignableFrom(collectionClass)) {
-                return (T) new HashSet<E>();
-            } else {
-                throw new IllegalArgumentException("Unsupported collection type : " + collectionClass);
-            }
+    /**
+     * Copies the maps and lists that json values are made of. Anything else is
+     * a string, a number or a boolean, which are immutable.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object copyOf(Object value) {
+        if (value instanceof SurveyData) {
+            return new SurveyData(copyOfMap((Map<String, Object>) value));
+        }
+        if (value instanceof Map) {
+            return copyOfMap((Map<Object, Object>) value);
+        }
+        if (value instanceof Set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            ((Set<?>) value).forEach(item -> copy.add(copyOf(item)));
+            return copy;
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>(((Collection<?>) value).size());
+            ((Collection<?>) value).forEach(item -> copy.add(copyOf(item)));
+            return copy;
         }
+        return value;
     }
 
-    @Override
-    public boolean isMutable() {
-        return true;
+    private static <K> Map<K, Object> copyOfMap(Map<K, Object> map) {
+        Map<K, Object> copy = new LinkedHashMap<>(Math.max(16, map.size() * 4 / 3 + 1));
+        map.forEach((key, item) -> copy.put(key, copyOf(item)));
+        return copy;
     }
 
     @Override
@@ -120,38 +174,44 @@ public class JSONBUserType implements ParameterizedType, UserType {
         if (x == y) {
             return true;
         }
-
         if (x == null || y == null) {
             return false;
         }
-
         return x.equals(y);
     }
 
     @Override
     public int hashCode(Object x) throws HibernateException {
-        assert x != null;
         return x.hashCode();
     }
 
     @Override
-    public Object assemble(Serializable cached, Object owner) throws HibernateException {
-        return deepCopy(cached);
+    public Serializable disassemble(Object value) throws HibernateException {
+        return value == null ? null : toJson(value);
     }
 
     @Override
-    public Serializable disassemble(Object value) throws HibernateException {
-        Object deepCopy = deepCopy(value);
-
-        if (!(deepCopy instanceof Serializable)) {
-            throw new SerializationException(String.format("%s is not serializable class", value), null);
+    public Object assemble(Serializable cached, Object owner) throws HibernateException {
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return reader.readValue((String) cached);
+        } catch (IOException e) {
+            throw new HibernateException("Failed to read " + jsonClassType.getName(), e);
         }
-
-        return (Serializable) deepCopy;
     }
 
     @Override
     public Object replace(Object original, Object target, Object owner) throws HibernateException {
         return deepCopy(original);
     }
-}
\ No newline at end of file
+
+    private String toJson(Object value) {
+        try {
+            return writer.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new HibernateException("Failed to write " + jsonClassType.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package py.org.fundacionparaguaya.pspserver.surveys.enums;
+
+/**
+ * Whether a snapshot must match every indicator of a filter or any of them.
+ */
+public enum IndicatorMatchEnum {
+    ALL, ANY;
+
+    public static IndicatorMatchEnum fromValue(String value) {
+        for (IndicatorMatchEnum match : values()) {
+            if (match.name().equalsIgnoreCase(value)) {
+                return match;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package py.org.fundacionparaguaya.pspserver.surveys.enums;
+
+/**
+ * What happened to each snapshot of a batch.
+ */
+public enum SnapshotBatchStatusEnum {
+    /**
+     * Saved as a new snapshot.
+     */
+    CREATED,
+    /**
+     * Not saved, as a snapshot with the same client key was already sent.
+     */
+    DUPLICATE,
+    /**
+     * Not saved, as it does not comply with its survey.
+     */
+    INVALID
+}
@@ -0,0 +1,53 @@
+package py.org.fundacionparaguaya.pspserver.surveys.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Length of the periods snapshot counts are grouped by. The field is the one
+ * PostgreSQL <code>date_trunc</code> expects.
+ */
+public enum SnapshotPeriodEnum {
+    DAY("day"), WEEK("week"), MONTH("month");
+
+    private final String field;
+
+    SnapshotPeriodEnum(String field) {
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return the first day of the oldest of the last {@code periods} periods,
+     * the one containing {@code today} being the last of them.
+     */
+    public LocalDate windowStart(LocalDate today, int periods) {
+        int before = periods - 1;
+        switch (this) {
+        case DAY:
+            return today.minusDays(before);
+        case WEEK:
+            // date_trunc('week', ...) starts weeks on monday
+            return today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(before);
+        default:
+            return today.withDayOfMonth(1).minusMonths(before);
+        }
+    }
+
+    /**
+     * @return the period of the given name, ignoring case
+     * @throws IllegalArgumentException if there is no such period
+     */
+    public static SnapshotPeriodEnum fromValue(String value) {
+        for (SnapshotPeriodEnum period : values()) {
+            if (period.name().equalsIgnoreCase(value)) {
+                return period;
+            }
+        }
+        throw new IllegalArgumentException("Unknown period: " + value);
+    }
+}
@@ -3,8 +3,7 @@
  */
 package py.org.fundacionparaguaya.pspserver.surveys.enums;
 
-import java.util.Arrays;
-import java.util.Optional;
+import py.org.fundacionparaguaya.pspserver.surveys.stoplight.Stoplight;
 
 /**
  * @author bsandoval
@@ -13,6 +12,8 @@ import java.util.Optional;
 public enum SurveyStoplightEnum {
 	RED(0), YELLOW(1), GREEN(2);
 
+	private static final SurveyStoplightEnum[] VALUES = values();
+
     private final Integer code;
 
 	SurveyStoplightEnum (Integer code){
@@ -25,10 +26,14 @@ public enum SurveyStoplightEnum {
 	}
 
 	public static SurveyStoplightEnum fromValue(String value) {
-		SurveyStoplightEnum[] values = SurveyStoplightEnum.values();
-		Optional<SurveyStoplightEnum> findAny = Arrays.asList(values).stream()
-		.filter(v -> v.name().equalsIgnoreCase(value))
-		.findAny();
-		return findAny.orElse(null);
+		return fromStoplight(Stoplight.parse(value));
+	}
+
+	/**
+	 * @param stoplight one of the codes of {@link Stoplight}
+	 * @return the color of the code, or null if it is not a color
+	 */
+	public static SurveyStoplightEnum fromStoplight(int stoplight) {
+		return Stoplight.isColor(stoplight) ? VALUES[stoplight - 1] : null;
 	}
 }
@@ -0,0 +1,32 @@
+package py.org.fundacionparaguaya.pspserver.surveys.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import py.org.fundacionparaguaya.pspserver.surveys.services.StoplightAggregateService;
+
+/**
+ * Fills the stoplight aggregates from the existing snapshots the first time
+ * the application starts with an empty aggregates table. When several nodes
+ * start at once, only one of them does it.
+ */
+@Component
+public class StoplightAggregateBackfillListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StoplightAggregateBackfillListener.class);
+
+    private final StoplightAggregateService aggregateService;
+
+    public StoplightAggregateBackfillListener(StoplightAggregateService aggregateService) {
+        this.aggregateService = aggregateService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (aggregateService.rebuildIfEmpty()) {
+            LOG.info("Stoplight aggregates were empty, computed them from the existing snapshots");
+        }
+    }
+}
@@ -1,72 +1,132 @@
 package py.org.fundacionparaguaya.pspserver.surveys.mapper;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.PropertyAttributeEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.StopLightGroup;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotPropertyAttributeRepository;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 
 /**
+ * Lookups over the attributes in <code>snapshots_properties_attributes</code>.
+ * They are served from immutable indexes built on {@link #reload()}, so every
+ * lookup is a single hash access and a reload never exposes a half built index
+ * to concurrent readers.
+ *
  * Created by rodrigovillalba on 10/20/17.
  */
 @Component
 public class PropertyAttributeSupport {
 
-    private final List<PropertyAttributeEntity> attributeList;
+    private static final Logger LOG = LoggerFactory.getLogger(PropertyAttributeSupport.class);
 
-    public PropertyAttributeSupport(List<PropertyAttributeEntity> attributeEntityList) {
-        this.attributeList = attributeEntityList;
+    private final SnapshotPropertyAttributeRepository repo;
+
+    private volatile Index index;
+
+    private final Predicate<String> additional = systemName -> !index.bySystemName.containsKey(systemName);
+
+    private final Predicate<String> staticEconomic = systemName -> index.isInGroup(systemName,
+            StopLightGroup.ECONOMIC);
+
+    private final Predicate<String> staticIndicator = systemName -> index.isInGroup(systemName,
+            StopLightGroup.INDICATOR);
+
+    private final Predicate<String> staticPersonal = systemName -> index.isInGroup(systemName,
+            StopLightGroup.PERSONAL);
+
+    public PropertyAttributeSupport(SnapshotPropertyAttributeRepository repo) {
+        this.repo = repo;
+        reload();
+    }
+
+    /**
+     * Reads the attributes again from the database and replaces the current
+     * indexes with the new ones.
+     */
+    public void reload() {
+        this.index = new Index(repo.findAll().stream()
+                .filter(attr -> attr.getPropertySchemaName() != null)
+                .filter(attr -> attr.getPropertySystemName() != null)
+                .collect(Collectors.toList()));
+        LOG.debug("Loaded {} snapshot property attributes", index.attributes.size());
     }
 
     public Predicate<String> additional() {
-        return (systemName) -> !attributeList.stream()
-                .filter(attr -> attr.getPropertySystemName().equals(systemName))
-                .findAny()
-                .isPresent();
+        return additional;
     }
 
     public Predicate<String> staticEconomic() {
-        return (systemName) -> attributeList.stream()
-                .filter(attr -> attr.getPropertySystemName().equals(systemName))
-                .filter(attr -> attr.getStopLightGroup() == StopLightGroup.ECONOMIC)
-                .findFirst()
-                .isPresent();
+        return staticEconomic;
     }
 
     public Predicate<String> staticIndicator() {
-        return (systemName) -> attributeList.stream()
-                .filter(attr -> attr.getPropertySystemName().equals(systemName))
-                .filter(attr -> attr.getStopLightGroup() == StopLightGroup.INDICATOR)
-                .findFirst()
-                .isPresent();
+        return staticIndicator;
     }
-    
+
     public Predicate<String> staticPersonal() {
-        return (systemName) -> attributeList.stream()
-                .filter(attr -> attr.getPropertySystemName().equals(systemName))
-                .filter(attr -> attr.getStopLightGroup() == StopLightGroup.PERSONAL)
-                .findFirst()
-                .isPresent();
+        return staticPersonal;
     }
 
     public String propertySchemaToSystemName(String propertySchemaName) {
-        return attributeList.stream()
-                .filter(attr -> attr.getPropertySchemaName().equals(propertySchemaName))
-                .findFirst()
-                .orElseGet(PropertyAttributeEntity::new)
-                .getPropertySystemName();
+        PropertyAttributeEntity attr = index.bySchemaName.get(propertySchemaName);
+        return attr != null ? attr.getPropertySystemName() : null;
     }
 
     public List<PropertyAttributeEntity> getPropertyAttributesByGroup(StopLightGroup group) {
-        return attributeList.stream()
-                .filter(attr -> attr.getStopLightGroup() == group)
-                .collect(Collectors.toList());
+        return index.byGroup.get(group);
     }
 
     public List<PropertyAttributeEntity> getPropertyAttributes() {
-        return attributeList;
+        return index.attributes;
+    }
+
+    private static final class Index {
+
+        private final List<PropertyAttributeEntity> attributes;
+
+        private final Map<String, PropertyAttributeEntity> bySchemaName;
+
+        private final Map<String, PropertyAttributeEntity> bySystemName;
+
+        private final Map<StopLightGroup, List<PropertyAttributeEntity>> byGroup;
+
+        private Index(List<PropertyAttributeEntity> attributeList) {
+            this.attributes = ImmutableList.copyOf(attributeList);
+            this.bySchemaName = firstByName(attributeList, PropertyAttributeEntity::getPropertySchemaName);
+            this.bySystemName = firstByName(attributeList, PropertyAttributeEntity::getPropertySystemName);
+
+            Map<StopLightGroup, List<PropertyAttributeEntity>> groups = new EnumMap<>(StopLightGroup.class);
+            for (StopLightGroup group : StopLightGroup.values()) {
+                groups.put(group, ImmutableList.copyOf(attributeList.stream()
+                        .filter(attr -> attr.getStopLightGroup() == group)
+                        .collect(Collectors.toList())));
+            }
+            this.byGroup = Maps.immutableEnumMap(groups);
+        }
+
+        private static Map<String, PropertyAttributeEntity> firstByName(List<PropertyAttributeEntity> attributeList,
+                Function<PropertyAttributeEntity, String> name) {
+            // keeps the first attribute for a repeated name, as the former linear scans did
+            Map<String, PropertyAttributeEntity> byName = Maps.newLinkedHashMap();
+            attributeList.forEach(attr -> byName.putIfAbsent(name.apply(attr), attr));
+            return ImmutableMap.copyOf(byName);
+        }
+
+        private boolean isInGroup(String systemName, StopLightGroup group) {
+            PropertyAttributeEntity attr = bySystemName.get(systemName);
+            return attr != null && attr.getStopLightGroup() == group;
+        }
     }
 }
@@ -1,8 +1,12 @@
 package py.org.fundacionparaguaya.pspserver.surveys.mapper;
 
-import org.apache.commons.beanutils.PropertyUtils;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 import py.org.fundacionparaguaya.pspserver.common.mapper.BaseMapper;
+import py.org.fundacionparaguaya.pspserver.common.utils.PropertyAccessors;
 import py.org.fundacionparaguaya.pspserver.security.entities.TermCondPolEntity;
 import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
 import py.org.fundacionparaguaya.pspserver.security.repositories.TermCondPolRepository;
@@ -11,6 +15,7 @@ import py.org.fundacionparaguaya.pspserver.security.repositories.UserRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.Snapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDataKeys;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.PropertyAttributeEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorEntity;
@@ -18,9 +23,15 @@ import py.org.fundacionparaguaya.pspserver.surveys.entities.StopLightGroup;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.StoreableSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -32,6 +43,17 @@ public class SnapshotEconomicMapper implements
     BaseMapper<SnapshotEconomicEntity, Snapshot> {
 
     private final PropertyAttributeSupport propertyAttributeSupport;
+
+    // attribute lists are immutable and shared until the attributes are
+    // reloaded, so their keys are looked up by identity
+    private final LoadingCache<List<PropertyAttributeEntity>, SurveyDataKeys>
+        keysByAttributes = CacheBuilder.newBuilder().weakKeys()
+        .build(CacheLoader.from((List<PropertyAttributeEntity> attributes) ->
+            SurveyDataKeys.of(
+            attributes.stream()
+                .map(PropertyAttributeEntity::getPropertySchemaName)
+                .collect(Collectors.toList()))));
+
     private UserRepository userRepository;
     private TermCondPolRepository termCondPolRepository;
 
@@ -100,6 +122,47 @@ public class SnapshotEconomicMapper implements
             privPol = termCondPolRepository.findOne(snapshot.getPrivPolId());
         }
 
+        return newSnapshotToEconomicEntity(snapshot, indicator, user, termCond,
+            privPol);
+    }
+
+    /**
+     * Maps many snapshots taken by the same user, with their indicators, looking
+     * up the user and the accepted terms and policies once for all of them.
+     */
+    public List<SnapshotEconomicEntity> newSnapshotsToEconomicEntities(
+        List<NewSnapshot> snapshots, String username) {
+        UserEntity user = null;
+        if (username != null) {
+            user = userRepository.findOneByUsername(username).get();
+        }
+
+        Set<Long> termIds = new HashSet<>();
+        snapshots.forEach(snapshot -> {
+            Optional.ofNullable(snapshot.getTermCondId()).ifPresent(termIds::add);
+            Optional.ofNullable(snapshot.getPrivPolId()).ifPresent(termIds::add);
+        });
+        Map<Long, TermCondPolEntity> terms = new HashMap<>();
+        if (!termIds.isEmpty()) {
+            termCondPolRepository.findAll(termIds)
+                .forEach(term -> terms.put(term.getId(), term));
+        }
+
+        List<SnapshotEconomicEntity> entities = new ArrayList<>(snapshots.size());
+        for (NewSnapshot snapshot : snapshots) {
+            entities.add(newSnapshotToEconomicEntity(snapshot,
+                newSnapshotToIndicatorEntity(snapshot), user,
+                terms.get(snapshot.getTermCondId()),
+                terms.get(snapshot.getPrivPolId())));
+        }
+        return entities;
+    }
+
+    private SnapshotEconomicEntity newSnapshotToEconomicEntity(
+        NewSnapshot snapshot, SnapshotIndicatorEntity indicator,
+        UserEntity user, TermCondPolEntity termCond,
+        TermCondPolEntity privPol) {
+
         return new SnapshotEconomicEntity()
             .surveyDefinition(new SurveyEntity(snapshot.getSurveyId()))
             .surveyIndicator(indicator)
@@ -115,7 +178,7 @@ public class SnapshotEconomicMapper implements
 
     public SurveyData getAllProperties(StoreableSnapshot bean,
         List<PropertyAttributeEntity> attributes) {
-        SurveyData data = new SurveyData();
+        SurveyData data = new SurveyData(keysByAttributes.getUnchecked(attributes));
         attributes.stream().forEach(makeSurveyDataWriter(bean, data));
         bean.getAdditionalProperties()
         .entrySet()
@@ -124,24 +187,18 @@ public class SnapshotEconomicMapper implements
         return data;
     }
 
-    // TODO rillalba. Everything related to reflection ideally should be only in
-    // one place.
-    // Please check other places where we use PropertyUtils and try to put
-    // reflection responsabilities
-    // in one single class.
     private Consumer<PropertyAttributeEntity> makeSurveyDataWriter(
         StoreableSnapshot bean, SurveyData data) {
         checkNotNull(bean);
         checkNotNull(data);
+        PropertyAccessors<StoreableSnapshot> accessors = accessorsOf(bean);
         return attr -> {
-            Object propertyValue = null;
             try {
 
-                propertyValue = PropertyUtils.getProperty(bean,
-                    attr.getPropertySystemName());
-                data.put(attr.getPropertySchemaName(), propertyValue);
+                data.put(attr.getPropertySchemaName(),
+                    accessors.get(bean, attr.getPropertySystemName()));
 
-            } catch (Exception e) {
+            } catch (RuntimeException e) {
                 throw new RuntimeException(
                     "Could not get property '"
                     + attr.getPropertySystemName()
@@ -150,4 +207,13 @@ public class SnapshotEconomicMapper implements
             }
         };
     }
-}
+
+    @SuppressWarnings("unchecked")
+    private static PropertyAccessors<StoreableSnapshot> accessorsOf(
+        StoreableSnapshot bean) {
+        // the indicator may be a lazy proxy, whose class has no accessors of
+        // its own
+        return PropertyAccessors.of(
+            (Class<StoreableSnapshot>) Hibernate.getClass(bean));
+    }
+}
\ No newline at end of file
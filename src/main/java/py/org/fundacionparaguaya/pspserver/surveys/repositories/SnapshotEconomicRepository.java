@@ -1,7 +1,10 @@
 package py.org.fundacionparaguaya.pspserver.surveys.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorEntity;
@@ -15,7 +18,8 @@ import java.util.Optional;
  */
 public interface SnapshotEconomicRepository
         extends JpaRepository<SnapshotEconomicEntity, Long>,
-        JpaSpecificationExecutor<SnapshotEconomicEntity> {
+        JpaSpecificationExecutor<SnapshotEconomicEntity>,
+        SnapshotEconomicRepositoryCustom {
     Collection<SnapshotEconomicEntity> findBySurveyDefinitionId(Long surveyId);
 
     Optional<SnapshotEconomicEntity>
@@ -30,4 +34,29 @@ public interface SnapshotEconomicRepository
     List<SnapshotEconomicEntity> findDistinctFamilyByUserId(Long userId);
 
     SnapshotEconomicEntity findBySnapshotIndicator(SnapshotIndicatorEntity indicator);
-}
\ No newline at end of file
+
+    List<SnapshotEconomicEntity> findByClientKeyIn(Collection<String> clientKeys);
+
+    /**
+     * @return a single row with the id and snapshot indicator id of the snapshot,
+     * and the id and <code>last_modified_at</code> of its survey and of its
+     * family, without loading any of them. Empty if there is no such snapshot.
+     */
+    @Query("select s.id, s.snapshotIndicator.id, s.surveyDefinition.id, s.surveyDefinition.lastModifiedAt, "
+            + "s.family.familyId, s.family.lastModifiedAt from SnapshotEconomicEntity s where s.id = :snapshotId")
+    List<Object[]> findVersionById(@Param("snapshotId") Long snapshotId);
+
+    /**
+     * @return the id and snapshot indicator id of each snapshot of the family,
+     * with the id and <code>last_modified_at</code> of its survey and the
+     * <code>last_modified_at</code> of the family, ordered by id.
+     */
+    @Query("select s.id, s.snapshotIndicator.id, s.surveyDefinition.id, s.surveyDefinition.lastModifiedAt, "
+            + "s.family.lastModifiedAt from SnapshotEconomicEntity s where s.family.familyId = :familyId "
+            + "order by s.id")
+    List<Object[]> findVersionsByFamilyId(@Param("familyId") Long familyId);
+
+    @Query("select s.id from SnapshotEconomicEntity s where s.family.familyId = :familyId "
+            + "order by s.createdAt desc, s.id desc")
+    List<Long> findIdsByFamilyNewestFirst(@Param("familyId") Long familyId, Pageable pageable);
+}
@@ -0,0 +1,59 @@
+package py.org.fundacionparaguaya.pspserver.surveys.repositories;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetCursor;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
+
+/**
+ * Queries over snapshots that can not be expressed with the derived
+ * Spring Data methods.
+ */
+public interface SnapshotEconomicRepositoryCustom {
+
+    /**
+     * Walks every snapshot matching the specification with a forward-only
+     * cursor, handing each one to the consumer. The persistence context is
+     * cleared every {@code chunkSize} rows, so memory use does not depend on
+     * the number of matching snapshots. Must be called inside a transaction.
+     */
+    void scroll(Specification<SnapshotEconomicEntity> spec, Sort sort, int chunkSize,
+            Consumer<SnapshotEconomicEntity> consumer);
+
+    /**
+     * Counts the snapshots created since the given date, grouped by period, with
+     * the grouping and counting done by the database.
+     *
+     * @param applicationId when not null, only snapshots of families of this application
+     * @param organizationIds when not null, only snapshots of families of these organizations
+     * @return the number of snapshots by first day of the period, in ascending order.
+     * Periods without snapshots are not present.
+     */
+    Map<LocalDate, Long> countByPeriod(SnapshotPeriodEnum period, LocalDate since, Long applicationId,
+            Collection<Long> organizationIds);
+
+    /**
+     * Reads the snapshots matching the specification in creation order, seeking
+     * past the given cursor instead of skipping rows, so every page costs the same.
+     *
+     * @param after the last snapshot of the previous page, or null for the first page
+     * @param limit the maximum number of snapshots to return
+     */
+    List<SnapshotEconomicEntity> findAfter(Specification<SnapshotEconomicEntity> spec, KeysetCursor after,
+            int limit);
+
+    /**
+     * Locks the client keys until the current transaction ends, waiting for any
+     * other transaction that holds one of them. They are locked in order, so
+     * two batches sharing keys can not deadlock.
+     */
+    void lockClientKeys(Collection<String> clientKeys);
+}
@@ -0,0 +1,212 @@
+package py.org.fundacionparaguaya.pspserver.surveys.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetCursor;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
+
+/**
+ * Implementation of {@link SnapshotEconomicRepositoryCustom}, picked up by
+ * Spring Data through the <code>Impl</code> postfix.
+ */
+public class SnapshotEconomicRepositoryImpl implements SnapshotEconomicRepositoryCustom {
+
+    // advisory locks share a single key space, so the keys are those of the column
+    private static final int CLIENT_KEY_LOCKS = "data_collect.snapshots_economics.client_key".hashCode();
+
+    private static final String LOCK_CLIENT_KEYS = "SELECT count(*) FROM "
+            + "(SELECT DISTINCT unnest(ARRAY[:clientKeys]) AS client_key ORDER BY client_key) client_keys, "
+            + "LATERAL pg_advisory_xact_lock(" + CLIENT_KEY_LOCKS + ", hashtext(client_keys.client_key))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void scroll(Specification<SnapshotEconomicEntity> spec, Sort sort, int chunkSize,
+            Consumer<SnapshotEconomicEntity> consumer) {
+
+        ScrollableResults results = createQuery(spec, sort)
+                .setFetchSize(chunkSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        try {
+            int count = 0;
+            while (results.next()) {
+                consumer.accept((SnapshotEconomicEntity) results.get(0));
+                if (++count % chunkSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        } finally {
+            results.close();
+            entityManager.clear();
+        }
+    }
+
+    @Override
+    public Map<LocalDate, Long> countByPeriod(SnapshotPeriodEnum period, LocalDate since, Long applicationId,
+            Collection<Long> organizationIds) {
+
+        if (organizationIds != null && organizationIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT date_trunc(:field, s.created_at) AS period, count(*) ")
+                .append("FROM data_collect.snapshots_economics s ")
+                .append("JOIN ps_families.family f ON f.family_id = s.family_id ")
+                .append("WHERE s.created_at >= :since ");
+        if (applicationId != null) {
+            sql.append("AND f.application_id = :applicationId ");
+        }
+        if (organizationIds != null) {
+            sql.append("AND f.organization_id IN (:organizationIds) ");
+        }
+        sql.append("GROUP BY 1 ORDER BY 1");
+
+        javax.persistence.Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("field", period.getField())
+                .setParameter("since", Timestamp.valueOf(since.atStartOfDay()));
+        if (applicationId != null) {
+            query.setParameter("applicationId", applicationId);
+        }
+        if (organizationIds != null) {
+            query.setParameter("organizationIds", organizationIds);
+        }
+
+        Map<LocalDate, Long> counts = new LinkedHashMap<>();
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            counts.put(((Timestamp) columns[0]).toLocalDateTime().toLocalDate(),
+                    ((Number) columns[1]).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public List<SnapshotEconomicEntity> findAfter(Specification<SnapshotEconomicEntity> spec, KeysetCursor after,
+            int limit) {
+        // postgres sorts nulls last, so snapshots without a creation date come after all the others.
+        // They are read apart, so that each query seeks on a single range of the (created_at, id) index.
+        List<SnapshotEconomicEntity> page = new ArrayList<>();
+        if (after == null || after.getCreatedAt() != null) {
+            page.addAll(findDatedAfter(spec, after, limit));
+        }
+        if (page.size() < limit) {
+            Long afterId = after != null && after.getCreatedAt() == null ? after.getId() : null;
+            page.addAll(findUndatedAfter(spec, afterId, limit - page.size()));
+        }
+        return page;
+    }
+
+    private List<SnapshotEconomicEntity> findDatedAfter(Specification<SnapshotEconomicEntity> spec,
+            KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SnapshotEconomicEntity> query = cb.createQuery(SnapshotEconomicEntity.class);
+        Root<SnapshotEconomicEntity> root = query.from(SnapshotEconomicEntity.class);
+        root.fetch("snapshotIndicator", JoinType.LEFT);
+
+        Path<LocalDateTime> createdAt = root.get("createdAt");
+        Path<Long> id = root.get("id");
+
+        Predicate seek;
+        if (after == null) {
+            seek = cb.isNotNull(createdAt);
+        } else {
+            // (created_at, id) > (:createdAt, :id), with the leading bound repeated
+            // on its own so the index scan starts at the cursor
+            seek = cb.and(cb.greaterThanOrEqualTo(createdAt, after.getCreatedAt()),
+                    cb.or(cb.greaterThan(createdAt, after.getCreatedAt()), cb.greaterThan(id, after.getId())));
+        }
+
+        query.select(root)
+                .where(and(cb, spec.toPredicate(root, query, cb), seek))
+                .orderBy(cb.asc(createdAt), cb.asc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private List<SnapshotEconomicEntity> findUndatedAfter(Specification<SnapshotEconomicEntity> spec, Long afterId,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SnapshotEconomicEntity> query = cb.createQuery(SnapshotEconomicEntity.class);
+        Root<SnapshotEconomicEntity> root = query.from(SnapshotEconomicEntity.class);
+        root.fetch("snapshotIndicator", JoinType.LEFT);
+
+        Path<Long> id = root.get("id");
+
+        Predicate seek = cb.isNull(root.get("createdAt"));
+        if (afterId != null) {
+            seek = cb.and(seek, cb.greaterThan(id, afterId));
+        }
+
+        query.select(root)
+                .where(and(cb, spec.toPredicate(root, query, cb), seek))
+                .orderBy(cb.asc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static Predicate and(CriteriaBuilder cb, Predicate predicate, Predicate seek) {
+        return predicate != null ? cb.and(predicate, seek) : seek;
+    }
+
+    @Override
+    public void lockClientKeys(Collection<String> clientKeys) {
+        if (clientKeys.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery(LOCK_CLIENT_KEYS)
+                .setParameter("clientKeys", clientKeys)
+                .getSingleResult();
+    }
+
+    private Query createQuery(Specification<SnapshotEconomicEntity> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SnapshotEconomicEntity> query = cb.createQuery(SnapshotEconomicEntity.class);
+        Root<SnapshotEconomicEntity> root = query.from(SnapshotEconomicEntity.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root);
+        if (sort != null) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query).unwrap(Query.class);
+    }
+}
@@ -1,9 +1,12 @@
 package py.org.fundacionparaguaya.pspserver.surveys.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorPriorityEntity;
 
@@ -15,9 +18,20 @@ import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorPri
 public interface SnapshotIndicatorPriorityRepository extends JpaRepository<SnapshotIndicatorPriorityEntity, Long> {
     List<SnapshotIndicatorPriorityEntity> findBySnapshotIndicatorId(Long snapshotIndicatorId);
 
+    List<SnapshotIndicatorPriorityEntity> findBySnapshotIndicatorIdIn(Collection<Long> snapshotIndicatorIds);
+
     Optional<SnapshotIndicatorPriorityEntity> findBySnapshotIndicatorIdAndId(Long snapshotIndicatorId,
             Long snapshotIndicatorPriorityId);
 
     Long countAllBySnapshotIndicatorIdAndIsAttainmentFalse(Long snapshotIndicatorId);
 
+    /**
+     * @return a single row with the number of priorities of the snapshot
+     * indicators, and their highest id and <code>last_modified_at</code>
+     */
+    @Query("select count(p), max(p.id), max(p.lastModifiedAt) from SnapshotIndicatorPriorityEntity p "
+            + "where p.snapshotIndicator.id in :snapshotIndicatorIds")
+    List<Object[]> findVersionBySnapshotIndicatorIdIn(
+            @Param("snapshotIndicatorIds") Collection<Long> snapshotIndicatorIds);
+
 }
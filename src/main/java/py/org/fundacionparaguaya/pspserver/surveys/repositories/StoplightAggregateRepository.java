@@ -0,0 +1,13 @@
+package py.org.fundacionparaguaya.pspserver.surveys.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import py.org.fundacionparaguaya.pspserver.surveys.entities.StoplightAggregateEntity;
+
+public interface StoplightAggregateRepository extends JpaRepository<StoplightAggregateEntity, Long>,
+        StoplightAggregateRepositoryCustom {
+
+    List<StoplightAggregateEntity> findByOrganizationId(Long organizationId);
+}
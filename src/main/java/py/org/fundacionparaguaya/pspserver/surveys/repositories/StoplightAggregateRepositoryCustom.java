@@ -0,0 +1,51 @@
+package py.org.fundacionparaguaya.pspserver.surveys.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import py.org.fundacionparaguaya.pspserver.surveys.entities.StoplightAggregateEntity;
+
+public interface StoplightAggregateRepositoryCustom {
+
+    /**
+     * Adds the counts of each given aggregate to the stored row of the same
+     * organization and indicator, creating it when missing, in a single JDBC
+     * batch. Rows left without snapshots are removed.
+     */
+    void addCounts(Collection<StoplightAggregateEntity> deltas);
+
+    /**
+     * Locks the aggregates against every other writer until the current
+     * transaction ends, while still letting them be read.
+     */
+    void lock();
+
+    /**
+     * Takes the lock that lets a single node fill the aggregates of the
+     * existing snapshots, held until the current transaction ends.
+     *
+     * @return false if another transaction holds it
+     */
+    boolean tryLockBackfill();
+
+    /**
+     * Locks the row of the family until the current transaction ends.
+     *
+     * @return the organization the snapshots of the family are counted under,
+     * or null if none of them are counted yet
+     */
+    Long findCountedOrganizationId(Long familyId);
+
+    void setCountedOrganizationId(Long familyId, Long organizationId);
+
+    /**
+     * Counts the snapshots of every family under its current organization.
+     */
+    void resetCountedOrganizations();
+
+    /**
+     * @return the families whose snapshots are counted under an organization
+     * they no longer belong to
+     */
+    List<Long> findMovedFamilyIds();
+}
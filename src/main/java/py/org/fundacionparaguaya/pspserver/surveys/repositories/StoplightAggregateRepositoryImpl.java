@@ -0,0 +1,127 @@
+package py.org.fundacionparaguaya.pspserver.surveys.repositories;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import py.org.fundacionparaguaya.pspserver.surveys.entities.StoplightAggregateEntity;
+
+/**
+ * Implementation of {@link StoplightAggregateRepositoryCustom}, picked up by
+ * Spring Data through the <code>Impl</code> postfix.
+ */
+public class StoplightAggregateRepositoryImpl implements StoplightAggregateRepositoryCustom {
+
+    private static final String UPSERT = "INSERT INTO data_collect.stoplight_aggregates "
+            + "(organization_id, indicator, snapshot_count, red_count, yellow_count, green_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (organization_id, indicator) DO UPDATE SET "
+            + "snapshot_count = stoplight_aggregates.snapshot_count + EXCLUDED.snapshot_count, "
+            + "red_count = stoplight_aggregates.red_count + EXCLUDED.red_count, "
+            + "yellow_count = stoplight_aggregates.yellow_count + EXCLUDED.yellow_count, "
+            + "green_count = stoplight_aggregates.green_count + EXCLUDED.green_count";
+
+    private static final String DELETE_EMPTY = "DELETE FROM data_collect.stoplight_aggregates "
+            + "WHERE snapshot_count <= 0";
+
+    // conflicts with the row locks of addCounts and with itself
+    private static final String LOCK = "LOCK TABLE data_collect.stoplight_aggregates, "
+            + "data_collect.stoplight_aggregate_families IN SHARE ROW EXCLUSIVE MODE";
+
+    // advisory locks share a single key space, so the key is that of the table
+    private static final long BACKFILL_LOCK_KEY = "data_collect.stoplight_aggregates".hashCode();
+
+    private static final String FIND_COUNTED_ORGANIZATION = "SELECT organization_id "
+            + "FROM data_collect.stoplight_aggregate_families WHERE family_id = :familyId FOR UPDATE";
+
+    private static final String SET_COUNTED_ORGANIZATION = "INSERT INTO data_collect.stoplight_aggregate_families "
+            + "(family_id, organization_id) VALUES (:familyId, :organizationId) "
+            + "ON CONFLICT (family_id) DO UPDATE SET organization_id = EXCLUDED.organization_id";
+
+    private static final String RESET_COUNTED_ORGANIZATIONS = "INSERT INTO data_collect.stoplight_aggregate_families "
+            + "(family_id, organization_id) SELECT family_id, COALESCE(organization_id, "
+            + StoplightAggregateEntity.NO_ORGANIZATION + ") FROM ps_families.family";
+
+    private static final String FIND_MOVED_FAMILIES = "SELECT f.family_id FROM ps_families.family f "
+            + "JOIN data_collect.stoplight_aggregate_families a ON a.family_id = f.family_id "
+            + "WHERE a.organization_id <> COALESCE(f.organization_id, "
+            + StoplightAggregateEntity.NO_ORGANIZATION + ") ORDER BY f.family_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addCounts(Collection<StoplightAggregateEntity> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+                for (StoplightAggregateEntity delta : deltas) {
+                    upsert.setLong(1, delta.getOrganizationId());
+                    upsert.setString(2, delta.getIndicator());
+                    upsert.setInt(3, delta.getSnapshotCount());
+                    upsert.setInt(4, delta.getRedCount());
+                    upsert.setInt(5, delta.getYellowCount());
+                    upsert.setInt(6, delta.getGreenCount());
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+            }
+            if (deltas.stream().anyMatch(delta -> delta.getSnapshotCount() < 0)) {
+                try (PreparedStatement delete = connection.prepareStatement(DELETE_EMPTY)) {
+                    delete.executeUpdate();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void lock() {
+        entityManager.createNativeQuery(LOCK).executeUpdate();
+    }
+
+    @Override
+    public boolean tryLockBackfill() {
+        return (Boolean) entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(:key)")
+                .setParameter("key", BACKFILL_LOCK_KEY)
+                .getSingleResult();
+    }
+
+    @Override
+    public Long findCountedOrganizationId(Long familyId) {
+        List<?> result = entityManager.createNativeQuery(FIND_COUNTED_ORGANIZATION)
+                .setParameter("familyId", familyId)
+                .getResultList();
+        return result.isEmpty() ? null : ((Number) result.get(0)).longValue();
+    }
+
+    @Override
+    public void setCountedOrganizationId(Long familyId, Long organizationId) {
+        entityManager.createNativeQuery(SET_COUNTED_ORGANIZATION)
+                .setParameter("familyId", familyId)
+                .setParameter("organizationId", organizationId)
+                .executeUpdate();
+    }
+
+    @Override
+    public void resetCountedOrganizations() {
+        entityManager.createNativeQuery("DELETE FROM data_collect.stoplight_aggregate_families").executeUpdate();
+        entityManager.createNativeQuery(RESET_COUNTED_ORGANIZATIONS).executeUpdate();
+    }
+
+    @Override
+    public List<Long> findMovedFamilyIds() {
+        List<?> result = entityManager.createNativeQuery(FIND_MOVED_FAMILIES).getResultList();
+        return result.stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+    }
+}
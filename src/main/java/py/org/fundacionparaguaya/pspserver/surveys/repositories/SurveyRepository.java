@@ -1,8 +1,11 @@
 package py.org.fundacionparaguaya.pspserver.surveys.repositories;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import org.springframework.data.jpa.repository.Query;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
 
 /**
@@ -12,4 +15,7 @@ public interface SurveyRepository extends JpaRepository<SurveyEntity, Long>,
         JpaSpecificationExecutor<SurveyEntity> {
 
     SurveyEntity findById(Long id);
+
+    @Query("select s.id, s.lastModifiedAt from SurveyEntity s order by s.id")
+    List<Object[]> findVersions();
 }
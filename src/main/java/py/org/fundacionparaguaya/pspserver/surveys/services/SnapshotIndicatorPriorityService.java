@@ -3,7 +3,9 @@ package py.org.fundacionparaguaya.pspserver.surveys.services;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotIndicatorPriority;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 
@@ -14,6 +16,21 @@ public interface SnapshotIndicatorPriorityService {
 
     List<SnapshotIndicatorPriority> getSnapshotIndicatorPriorityList(Long snapshotIndicatorId);
 
+    /**
+     * Loads the priorities of several snapshot indicators with a single query.
+     *
+     * @return the priorities grouped by snapshot indicator id. Indicators without
+     * priorities are not present in the map.
+     */
+    Map<Long, List<SnapshotIndicatorPriority>> getSnapshotIndicatorPriorities(Collection<Long> snapshotIndicatorIds);
+
+    /**
+     * @return the number of priorities of the snapshot indicators, with their
+     * highest id and last modification date, which change whenever one of the
+     * priorities is added, updated or deleted.
+     */
+    List<Object> getSnapshotIndicatorPrioritiesVersion(Collection<Long> snapshotIndicatorIds);
+
     void deleteSnapshotIndicatorPriority(Long snapshotIndicatorPriorityId);
 
     SnapshotIndicatorPriority updateSnapshotIndicatorPriority(SnapshotIndicatorPriority priority);
@@ -1,13 +1,17 @@
 package py.org.fundacionparaguaya.pspserver.surveys.services;
 
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyFilterDTO;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.IndicatorFilter;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.Snapshot;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotBatchResult;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotIndicators;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotTaken;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.TopOfIndicators;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
 
 import java.util.List;
 
@@ -16,23 +20,74 @@ import java.util.List;
  */
 public interface SnapshotService {
 
+    int MAX_SNAPSHOT_PAGE_SIZE = 1000;
+
+    int MAX_SNAPSHOT_BATCH_SIZE = 500;
+
+    int MAX_CLIENT_KEY_LENGTH = 100;
+
     Snapshot addSurveySnapshot(UserDetailsDTO userDetails,
                                NewSnapshot snapshot);
 
+    /**
+     * Saves many snapshots at once, as sent by devices that took them offline.
+     * Invalid snapshots are reported and skipped instead of failing the batch,
+     * and a snapshot whose client key was already sent is not saved again, so
+     * a batch can be retried safely.
+     *
+     * @param snapshots at most {@link #MAX_SNAPSHOT_BATCH_SIZE} snapshots
+     * @return the outcome of each snapshot, in the order they were sent
+     */
+    List<SnapshotBatchResult> addSurveySnapshots(UserDetailsDTO userDetails, List<NewSnapshot> snapshots);
+
     List<Snapshot> find(Long surveyId, Long familiyId);
 
     List<SurveyData> findBySurveyId(Long surveyId);
 
+    /**
+     * Reads the snapshots of a survey one page at a time, in creation order.
+     *
+     * @param filter the indicator colors the snapshots must have, or null for all of them
+     * @param cursor the token of the previous page, or null for the first one
+     * @param size the number of snapshots in the page, at most {@link #MAX_SNAPSHOT_PAGE_SIZE}
+     */
+    KeysetPage<SurveyData> findBySurveyId(Long surveyId, IndicatorFilter filter, String cursor, int size);
+
     SnapshotIndicators getSnapshotIndicators(Long snapshotId);
 
     List<SnapshotIndicators> getSnapshotIndicatorsByFamily(Long familyId);
 
     SnapshotIndicators getLastSnapshotIndicatorsByFamily(Long snapshotId);
 
+    /**
+     * @return the entity tag of what {@link #getSnapshotIndicators} returns for the
+     * snapshot, worked out from the versions of the snapshot, its survey,
+     * priorities and family without building the indicators.
+     */
+    String getSnapshotIndicatorsTag(Long snapshotId);
+
+    /**
+     * @return the entity tag of what {@link #getLastSnapshotIndicatorsByFamily}
+     * returns for the family.
+     */
+    String getLastSnapshotIndicatorsTag(Long familyId);
+
+    /**
+     * @return the entity tag of what {@link #getSnapshotIndicatorsByFamily}
+     * returns for the family.
+     */
+    String getSnapshotIndicatorsByFamilyTag(Long familyId);
+
     void deleteSnapshotById(Long snapshotEconomicId);
 
     SnapshotTaken countSnapshotTaken(FamilyFilterDTO filter);
 
+    /**
+     * Counts the snapshots taken in each of the last {@code periods} periods,
+     * including the current one.
+     */
+    SnapshotTaken countSnapshotTaken(FamilyFilterDTO filter, SnapshotPeriodEnum period, int periods);
+
     List<TopOfIndicators> getTopOfIndicators(Long organizationId);
 
     void deleteSnapshotsBySurvey(UserDetailsDTO user, Long surveyId);
@@ -0,0 +1,64 @@
+package py.org.fundacionparaguaya.pspserver.surveys.services;
+
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotIndicators;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.TopOfIndicators;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the per organization stoplight counts that back the dashboards, so
+ * they can be read without going through every snapshot of the organization.
+ *
+ * The organization the snapshots of each family are counted under is kept
+ * too. When a family has moved to another organization, its snapshots are
+ * moved to the counts of the new one the next time one of them is added or
+ * removed, or every night otherwise.
+ */
+public interface StoplightAggregateService {
+
+    /**
+     * Adds the indicators of a snapshot that was just saved. Must be called in
+     * the transaction that saves it.
+     */
+    void addSnapshot(SnapshotEconomicEntity snapshot);
+
+    /**
+     * Same as {@link #addSnapshot} for many snapshots, adding their merged
+     * counts at once.
+     */
+    void addSnapshots(Collection<SnapshotEconomicEntity> snapshots);
+
+    /**
+     * Subtracts the indicators of a snapshot that is about to be deleted. Must be
+     * called in the transaction that deletes it.
+     */
+    void removeSnapshot(SnapshotEconomicEntity snapshot);
+
+    SnapshotIndicators countIndicators(Long organizationId);
+
+    List<TopOfIndicators> getTopOfIndicators(Long organizationId);
+
+    /**
+     * Drops every count and computes them again from the stored snapshots,
+     * holding off any other change to them until done.
+     */
+    void rebuild();
+
+    /**
+     * Same as {@link #rebuild} if there are snapshots but no counts yet, and no
+     * other node is already doing it.
+     *
+     * @return whether the counts were rebuilt
+     */
+    boolean rebuildIfEmpty();
+
+    /**
+     * Moves the snapshots of the families that moved to another organization
+     * to the counts of the new one, each family in a transaction of its own.
+     *
+     * @return the number of families moved
+     */
+    int moveFamilies();
+}
@@ -0,0 +1,28 @@
+package py.org.fundacionparaguaya.pspserver.surveys.services;
+
+import com.google.common.cache.CacheStats;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.CompiledSurveyDefinition;
+
+/**
+ * Per node cache of compiled survey definitions.
+ *
+ * Entries are invalidated when the survey is changed on this node, and
+ * expire after <code>application.surveyCache.ttlSeconds</code>, so a survey
+ * changed from another node is compiled again at most that long after.
+ */
+public interface SurveyDefinitionCache {
+
+    CompiledSurveyDefinition get(Long surveyId);
+
+    /**
+     * Evicts the survey at once and, when called in a transaction, again once
+     * it commits, so the survey is compiled as it was committed.
+     */
+    void invalidate(Long surveyId);
+
+    void invalidateAll();
+
+    long size();
+
+    CacheStats stats();
+}
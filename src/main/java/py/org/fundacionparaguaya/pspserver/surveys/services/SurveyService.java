@@ -3,6 +3,7 @@ package py.org.fundacionparaguaya.pspserver.surveys.services;
 import java.util.List;
 
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.CompiledSurveyDefinition;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSurveyDefinition;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
@@ -15,8 +16,20 @@ public interface SurveyService {
 
     SurveyDefinition addSurveyDefinition(NewSurveyDefinition surveyDefinition);
 
+    /**
+     * @return the cached definition of the survey, shared with other requests,
+     * so it is only to be read or serialized
+     */
     SurveyDefinition getSurveyDefinition(Long surveyId);
 
+    CompiledSurveyDefinition getCompiledSurveyDefinition(Long surveyId);
+
+    /**
+     * @return the entity tag of the survey definition, taken from its compiled
+     * version without building the definition again.
+     */
+    String getSurveyDefinitionTag(Long surveyId);
+
     ValidationResults checkSchemaCompliance(NewSnapshot snapshot);
 
     List<SurveyDefinition> getAll();
@@ -28,5 +41,11 @@ public interface SurveyService {
 
     List<SurveyDefinition> listSurveys(UserDetailsDTO details, String lastModifiedGt);
 
+    /**
+     * @return the entity tag of what {@link #listSurveys} returns for the same
+     * arguments, worked out from the versions of the surveys without loading them.
+     */
+    String getSurveysTag(UserDetailsDTO details, String lastModifiedGt);
+
     List<SurveyDefinition> listSurveysByUser(UserDetailsDTO userDetails);
 }
@@ -18,8 +18,13 @@ import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotIndicato
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotIndicatorRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotIndicatorPriorityService;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -70,6 +75,30 @@ public class SnapshotIndicatorPriorityServiceImpl
         return snapshotPriorityMapper.entityListToDtoList(priorities);
     }
 
+    @Override
+    public Map<Long, List<SnapshotIndicatorPriority>> getSnapshotIndicatorPriorities(
+            Collection<Long> snapshotIndicatorIds) {
+
+        if (snapshotIndicatorIds == null || snapshotIndicatorIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return snapshotPriorityRepository.findBySnapshotIndicatorIdIn(snapshotIndicatorIds)
+                .stream()
+                .collect(Collectors.groupingBy(priority -> priority.getSnapshotIndicator().getId(),
+                        Collectors.mapping(snapshotPriorityMapper::entityToDto, Collectors.toList())));
+    }
+
+    @Override
+    public List<Object> getSnapshotIndicatorPrioritiesVersion(Collection<Long> snapshotIndicatorIds) {
+        if (snapshotIndicatorIds == null || snapshotIndicatorIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return Arrays.asList(snapshotPriorityRepository.findVersionBySnapshotIndicatorIdIn(snapshotIndicatorIds)
+                .get(0));
+    }
+
     @Override
     public SnapshotIndicatorPriority updateSnapshotIndicatorPriority(
             SnapshotIndicatorPriority priority) {
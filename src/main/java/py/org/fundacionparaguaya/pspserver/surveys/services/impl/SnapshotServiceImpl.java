@@ -1,15 +1,18 @@
 package py.org.fundacionparaguaya.pspserver.surveys.services.impl;
 
-import com.amazonaws.util.json.Jackson;
-import com.google.gson.*;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CustomizableThreadFactory;
 
 import py.org.fundacionparaguaya.pspserver.common.exceptions.CustomParameterizedException;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetCursor;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
+import py.org.fundacionparaguaya.pspserver.common.utils.EntityTags;
 import py.org.fundacionparaguaya.pspserver.config.I18n;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyFilterDTO;
@@ -25,27 +28,38 @@ import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.*;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotBatchStatusEnum;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
 import py.org.fundacionparaguaya.pspserver.surveys.enums.SurveyStoplightEnum;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.PropertyAttributeSupport;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotEconomicMapper;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorMapper;
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomicRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotIndicatorPriorityService;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotService;
+import py.org.fundacionparaguaya.pspserver.surveys.services.StoplightAggregateService;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SurveyService;
 import py.org.fundacionparaguaya.pspserver.surveys.specifications.SnapshotEconomicSpecification;
-import py.org.fundacionparaguaya.pspserver.surveys.validation.DependencyValidation;
-import py.org.fundacionparaguaya.pspserver.surveys.validation.DependencyValidationOneOf;
+import py.org.fundacionparaguaya.pspserver.surveys.stoplight.Stoplight;
+import py.org.fundacionparaguaya.pspserver.surveys.stoplight.StoplightVector;
+import py.org.fundacionparaguaya.pspserver.surveys.validation.CompiledSurveyValidator;
 import py.org.fundacionparaguaya.pspserver.surveys.validation.ValidationResults;
 
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.springframework.data.jpa.domain.Specifications.where;
-import static py.org.fundacionparaguaya.pspserver.surveys.specifications.SnapshotEconomicSpecification.byApplication;
-import static py.org.fundacionparaguaya.pspserver.surveys.specifications.SnapshotEconomicSpecification.createdAtLess2Months;
 
 /**
  * Created by rodrigovillalba on 9/14/17.
@@ -75,14 +89,29 @@ public class SnapshotServiceImpl implements SnapshotService {
 
     private final I18n i18n;
 
+    private final StoplightAggregateService aggregateService;
+
+    private final PropertyAttributeSupport propertyAttributeSupport;
+
     private static final String INDICATOR_NAME = "name";
 
     private static final String INDICATOR_VALUE = "value";
 
+    private static final int SNAPSHOT_TAKEN_PERIODS = 12;
+
+    private static final int VALIDATION_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Validates the snapshots of the batches. When every thread is busy and the
+     * queue is full, the request thread validates the snapshot itself.
+     */
+    private final ThreadPoolExecutor validationExecutor;
+
     public SnapshotServiceImpl(SnapshotEconomicRepository economicRepository, SnapshotEconomicMapper economicMapper,
             SurveyService surveyService, SnapshotIndicatorMapper indicatorMapper,
             SnapshotIndicatorPriorityService priorityService, PersonMapper personMapper, FamilyService familyService,
-            OrganizationMapper organizationMapper, I18n i18n, OrganizationRepository organizationRepository) {
+            OrganizationMapper organizationMapper, I18n i18n, OrganizationRepository organizationRepository,
+            StoplightAggregateService aggregateService, PropertyAttributeSupport propertyAttributeSupport) {
         this.economicRepository = economicRepository;
         this.economicMapper = economicMapper;
         this.surveyService = surveyService;
@@ -93,6 +122,19 @@ public class SnapshotServiceImpl implements SnapshotService {
         this.organizationMapper = organizationMapper;
         this.i18n = i18n;
         this.organizationRepository = organizationRepository;
+        this.aggregateService = aggregateService;
+        this.propertyAttributeSupport = propertyAttributeSupport;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("snapshot-validation-");
+        threadFactory.setDaemon(true);
+        this.validationExecutor = new ThreadPoolExecutor(VALIDATION_THREADS, VALIDATION_THREADS, 0,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_SNAPSHOT_BATCH_SIZE), threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationExecutor.shutdown();
     }
 
     private boolean dependenciesAreValid(NewSnapshot snapshot) {
@@ -102,64 +144,8 @@ public class SnapshotServiceImpl implements SnapshotService {
             return true;
         }
 
-        // get the dependencies from the formData and the dependencies structure from
-        // the schema
-        SurveyDefinition surveyDefinition = this.surveyService.getSurveyDefinition(snapshot.getSurveyId());
-        String stringSurvey = Jackson.toJsonString(surveyDefinition);
-        String formDependency = Jackson.toJsonString(snapshot.getDependencies());
-        JsonParser jsonParser = new JsonParser();
-
-        JsonObject jsonFormDependency = jsonParser.parse(formDependency).getAsJsonObject();
-
-        JsonObject jsonSchemaDependency = jsonParser.parse(stringSurvey).getAsJsonObject()
-                .getAsJsonObject(DependencyValidation.SURVEY_SCHEMA).getAsJsonObject(DependencyValidation.DEPENDENCIES);
-
-        // for every property dependency present in the formData
-        JsonObject jsonDependencyObject = new JsonObject();
-        for (String key : jsonFormDependency.keySet()) {
-
-            // the same property should be as a dependency attribute, to get the selected
-            // value in the form
-            if (jsonFormDependency.getAsJsonObject(key).has(key)) {
-
-                // selected value
-                JsonElement value = jsonFormDependency.getAsJsonObject(key).getAsJsonPrimitive(key);
-
-                // case when the dependency structure is of kind ONE OF
-                if (jsonSchemaDependency.getAsJsonObject(key).has(DependencyValidation.ONE_OF)) {
-                    DependencyValidationOneOf dependencyValidationOneOf = new DependencyValidationOneOf();
-
-                    /*
-                     * gets a list of attributtes and required attributes that should be present.
-                     * according the selected value
-                     */
-                    JsonObject jsonDependenciesAndRequired = dependencyValidationOneOf
-                            .getDependenciesAndRequiredProperties(key, value, jsonSchemaDependency);
-
-                    // the property was not found to have any dependency in the json schema
-                    if (jsonDependenciesAndRequired == null) {
-                        return false;
-                    }
-
-                    /*
-                     * check that every dependency in the formData is present in the jsonSchema,
-                     * also checks that every required dependency defined in the schema, is present
-                     * in the formData dependencies
-                     */
-                    jsonDependencyObject = jsonFormDependency.getAsJsonObject(key).deepCopy();
-                    // we dont need the property as dependency
-                    jsonDependencyObject.remove(key);
-                    if (!dependencyValidationOneOf.checkDependency(jsonDependencyObject, jsonDependenciesAndRequired)) {
-                        return false;
-                    }
-                }
-
-                // other cases of dependency managment could be added
-
-            }
-        }
-
-        return true;
+        return surveyService.getCompiledSurveyDefinition(snapshot.getSurveyId()).getValidator()
+                .dependenciesAreValid(snapshot.getDependencies());
     }
 
     private void addDependenciesToAditionalData(SnapshotEconomicEntity snapshotEconomicEntity, NewSnapshot snapshot) {
@@ -169,21 +155,18 @@ public class SnapshotServiceImpl implements SnapshotService {
             return;
         }
 
-        String formDependency = Jackson.toJsonString(snapshot.getDependencies());
-        JsonParser jsonParser = new JsonParser();
-
-        JsonObject jsonFormDependency = jsonParser.parse(formDependency).getAsJsonObject();
-
-        for (String key : jsonFormDependency.keySet()) {
-            JsonObject dependenciesJson = jsonFormDependency.getAsJsonObject(key);
-            for (String keyD : dependenciesJson.keySet()) {
+        snapshot.getDependencies().forEach((key, dependencies) -> {
+            if (!(dependencies instanceof Map)) {
+                return;
+            }
+            ((Map<?, ?>) dependencies).forEach((keyD, value) -> {
                 // The property key which is also within dependency is not included
-                if (!key.equals(keyD)) {
-                    snapshotEconomicEntity.getAdditionalProperties().put(keyD,
-                            dependenciesJson.getAsJsonPrimitive(keyD).getAsString());
+                if (!key.equals(keyD) && value != null) {
+                    snapshotEconomicEntity.getAdditionalProperties().put(String.valueOf(keyD),
+                            String.valueOf(value));
                 }
-            }
-        }
+            });
+        });
 
     }
 
@@ -222,6 +205,7 @@ public class SnapshotServiceImpl implements SnapshotService {
         // 4. Saves the economic
         SnapshotEconomicEntity savedSnapshotEconomicEntity = saveEconomic(snapshot, mappedSnapshotEconomicEntity,
                 family);
+        aggregateService.addSnapshot(savedSnapshotEconomicEntity);
 
         // 5. Updates the family
         // rvillalba: Hmm this does not makes realy sense
@@ -238,6 +222,185 @@ public class SnapshotServiceImpl implements SnapshotService {
         return created;
     }
 
+    @Override
+    @Transactional
+    public List<SnapshotBatchResult> addSurveySnapshots(UserDetailsDTO details, List<NewSnapshot> snapshots) {
+        checkNotNull(snapshots);
+        checkArgument(snapshots.size() <= MAX_SNAPSHOT_BATCH_SIZE,
+                "Expected at most %s snapshots but got %s", MAX_SNAPSHOT_BATCH_SIZE, snapshots.size());
+
+        List<SnapshotBatchResult> results = new ArrayList<>(snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            checkNotNull(snapshots.get(i), "Snapshot %s is null", i);
+            results.add(new SnapshotBatchResult(i, snapshots.get(i).getClientKey(), null));
+        }
+
+        markInvalidClientKeys(snapshots, results);
+        markDuplicates(snapshots, results);
+        markInvalid(snapshots, results);
+
+        List<NewSnapshot> accepted = new ArrayList<>();
+        List<SnapshotBatchResult> acceptedResults = new ArrayList<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (results.get(i).getStatus() == null) {
+                accepted.add(snapshots.get(i));
+                acceptedResults.add(results.get(i));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        List<PersonEntity> persons = accepted.stream()
+                .map(personMapper::snapshotPersonalToEntity)
+                .collect(Collectors.toList());
+        List<FamilyEntity> families = familyService.getOrCreateFamiliesFromSnapshots(details, accepted, persons);
+
+        List<SnapshotEconomicEntity> entities = economicMapper.newSnapshotsToEconomicEntities(accepted,
+                details.getUsername());
+        for (int i = 0; i < accepted.size(); i++) {
+            SnapshotEconomicEntity entity = entities.get(i);
+            entity.setClientKey(accepted.get(i).getClientKey());
+            entity.setFamily(families.get(i));
+            entity.setPersonalInformation(accepted.get(i).getPersonalSurveyData());
+            addDependenciesToAditionalData(entity, accepted.get(i));
+        }
+
+        List<SnapshotEconomicEntity> saved = economicRepository.save(entities);
+        aggregateService.addSnapshots(saved);
+
+        LocalDateTime now = LocalDateTime.now();
+        families.stream().distinct().forEach(family -> family.setLastModifiedAt(now));
+
+        for (int i = 0; i < saved.size(); i++) {
+            acceptedResults.get(i).setStatus(SnapshotBatchStatusEnum.CREATED);
+            acceptedResults.get(i).setSnapshotEconomicId(saved.get(i).getId());
+        }
+
+        LOG.info("User '{}' created {} new Snapshots out of a batch of {}", details.getUsername(), saved.size(),
+                snapshots.size());
+
+        return results;
+    }
+
+    /**
+     * Marks the snapshots whose client key does not fit its column.
+     */
+    private void markInvalidClientKeys(List<NewSnapshot> snapshots, List<SnapshotBatchResult> results) {
+        for (int i = 0; i < snapshots.size(); i++) {
+            String clientKey = snapshots.get(i).getClientKey();
+            if (clientKey != null && clientKey.length() > MAX_CLIENT_KEY_LENGTH) {
+                String error = i18n.translate("snapshot.clientKeyTooLong", MAX_CLIENT_KEY_LENGTH);
+                results.get(i).setStatus(SnapshotBatchStatusEnum.INVALID);
+                results.get(i).setErrors(Collections.singletonMap("client_key", Collections.singletonList(error)));
+            }
+        }
+    }
+
+    /**
+     * Marks the snapshots whose client key was already saved, or is repeated
+     * earlier in the batch.
+     *
+     * The client keys stay locked until the batch is saved, so a retry of the
+     * batch sent while it is being saved waits for it, and then finds its
+     * snapshots already saved, instead of failing on their unique key.
+     */
+    private void markDuplicates(List<NewSnapshot> snapshots, List<SnapshotBatchResult> results) {
+        Set<String> clientKeys = new HashSet<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (results.get(i).getStatus() == null && snapshots.get(i).getClientKey() != null) {
+                clientKeys.add(snapshots.get(i).getClientKey());
+            }
+        }
+        if (clientKeys.isEmpty()) {
+            return;
+        }
+
+        economicRepository.lockClientKeys(clientKeys);
+        Map<String, Long> savedIds = new HashMap<>();
+        economicRepository.findByClientKeyIn(clientKeys)
+                .forEach(saved -> savedIds.put(saved.getClientKey(), saved.getId()));
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            String clientKey = snapshots.get(i).getClientKey();
+            if (clientKey == null || results.get(i).getStatus() != null) {
+                continue;
+            }
+            if (savedIds.containsKey(clientKey) || !seen.add(clientKey)) {
+                results.get(i).setStatus(SnapshotBatchStatusEnum.DUPLICATE);
+                results.get(i).setSnapshotEconomicId(savedIds.get(clientKey));
+            }
+        }
+    }
+
+    /**
+     * Validates the snapshots that are not duplicates in parallel, on the
+     * validation threads. The compiled validators are looked up first, as that
+     * may need the database.
+     */
+    private void markInvalid(List<NewSnapshot> snapshots, List<SnapshotBatchResult> results) {
+        Map<Long, CompiledSurveyValidator> validators = new HashMap<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            Long surveyId = snapshots.get(i).getSurveyId();
+            if (results.get(i).getStatus() != null || surveyId == null || validators.containsKey(surveyId)) {
+                continue;
+            }
+            try {
+                validators.put(surveyId, surveyService.getCompiledSurveyDefinition(surveyId).getValidator());
+            } catch (UnknownResourceException e) {
+                validators.put(surveyId, null);
+            }
+        }
+
+        String unknownSurvey = i18n.translate("snapshot.invalid");
+        String invalidDependencies = i18n.translate("snapshot.invalidDependencies");
+        List<Future<?>> validations = new ArrayList<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (results.get(i).getStatus() != null) {
+                continue;
+            }
+            NewSnapshot snapshot = snapshots.get(i);
+            SnapshotBatchResult result = results.get(i);
+            validations.add(validationExecutor.submit(() -> {
+                CompiledSurveyValidator validator = validators.get(snapshot.getSurveyId());
+                if (validator == null) {
+                    result.setStatus(SnapshotBatchStatusEnum.INVALID);
+                    result.setErrors(Collections.singletonMap("survey_id",
+                            Collections.singletonList(unknownSurvey)));
+                    return;
+                }
+
+                ValidationResults validation = validator.validate(snapshot.getAllSurveyData());
+                Map<String, Collection<String>> errors = new HashMap<>(validation.asMap());
+                if (snapshot.getDependencies() != null
+                        && !validator.dependenciesAreValid(snapshot.getDependencies())) {
+                    errors.put("dependencies", Collections.singletonList(invalidDependencies));
+                }
+                if (!errors.isEmpty()) {
+                    result.setStatus(SnapshotBatchStatusEnum.INVALID);
+                    result.setErrors(errors);
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> validation : validations) {
+                validation.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            validations.forEach(validation -> validation.cancel(true));
+            throw new IllegalStateException("Interrupted while validating the snapshots", e);
+        } catch (ExecutionException e) {
+            validations.forEach(validation -> validation.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     private SnapshotEconomicEntity saveEconomic(NewSnapshot snapshot, SnapshotEconomicEntity entity,
             FamilyEntity family) {
 
@@ -266,6 +429,34 @@ public class SnapshotServiceImpl implements SnapshotService {
         return surveyDataList;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<SurveyData> findBySurveyId(Long surveyId, IndicatorFilter filter, String cursor, int size) {
+        checkArgument(size > 0 && size <= MAX_SNAPSHOT_PAGE_SIZE,
+                "The page size must be between 1 and %s", MAX_SNAPSHOT_PAGE_SIZE);
+
+        // one extra row tells whether there is a page after this one
+        List<SnapshotEconomicEntity> snapshots = economicRepository.findAfter(
+                where(SnapshotEconomicSpecification.forSurvey(surveyId))
+                        .and(SnapshotEconomicSpecification.byIndicators(filter, propertyAttributeSupport)),
+                KeysetCursor.decode(cursor), size + 1);
+
+        String next = null;
+        if (snapshots.size() > size) {
+            snapshots = snapshots.subList(0, size);
+            SnapshotEconomicEntity last = snapshots.get(size - 1);
+            next = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<SurveyData> surveyDataList = snapshots.stream()
+                .map(economicMapper::entityToDto)
+                .map(this::getSurveyDataFromSnapShot)
+                .map(this::mapToNumericIndicators)
+                .collect(Collectors.toList());
+
+        return new KeysetPage<>(surveyDataList, size, next);
+    }
+
     public SurveyData getSurveyDataFromSnapShot(Snapshot snapshot) {
 
         SurveyData surveyData;
@@ -281,8 +472,7 @@ public class SnapshotServiceImpl implements SnapshotService {
             LOG.warn("Unknow ubication format. Mapping continues anyway", e);
         }
 
-        surveyData = new SurveyData();
-        surveyData.putAll(snapshot.getIndicatorSurveyData());
+        surveyData = snapshot.getIndicatorSurveyData().copy();
 
         surveyData.put("lat", lat);
         surveyData.put("lonG", lonG);
@@ -292,26 +482,14 @@ public class SnapshotServiceImpl implements SnapshotService {
 
     public SurveyData mapToNumericIndicators(SurveyData surveyData) {
 
-        SurveyData outSurveyData = new SurveyData();
-        outSurveyData.putAll(surveyData);
+        SurveyData outSurveyData = surveyData.copy();
 
-        Integer colorCode;
-
-        for (Map.Entry entry : outSurveyData.entrySet()) {
-            colorCode = null;
-
-            if (entry.getValue() instanceof String) {
-                SurveyStoplightEnum surveyStoplightEnum = SurveyStoplightEnum.fromValue((String) entry.getValue());
-                if (surveyStoplightEnum != null) {
-                    colorCode = surveyStoplightEnum.getCode();
-                }
-
-            }
-
-            if (colorCode != null) {
+        for (Map.Entry<String, Object> entry : outSurveyData.entrySet()) {
+            SurveyStoplightEnum color = SurveyStoplightEnum.fromStoplight(Stoplight.parse(entry.getValue()));
+            if (color != null) {
                 // it is an indicator, we return the value coded as number: RED
                 // 0, YELLOW 1, GREEN 2
-                entry.setValue(colorCode);
+                entry.setValue(color.getCode());
             }
         }
 
@@ -353,36 +531,32 @@ public class SnapshotServiceImpl implements SnapshotService {
 
     private List<SurveyData> getIndicatorsValue(SnapshotEconomicEntity snapshotEconomic, SnapshotIndicators toRet) {
 
-        SurveyDefinition survey = surveyService.getSurveyDefinition(snapshotEconomic.getSurveyDefinition().getId());
+        CompiledSurveyDefinition survey = surveyService
+                .getCompiledSurveyDefinition(snapshotEconomic.getSurveyDefinition().getId());
+        return getIndicatorsValue(survey, snapshotEconomic, toRet);
+    }
 
-        List<String> indicatorGroup = survey.getSurveyUISchema().getGroupIndicators();
+    private List<SurveyData> getIndicatorsValue(CompiledSurveyDefinition survey,
+            SnapshotEconomicEntity snapshotEconomic, SnapshotIndicators toRet) {
 
-        List<String> order = survey.getSurveyUISchema().getUiOrder().stream()
-                .filter(field -> indicatorGroup.contains(field)).collect(Collectors.toList());
+        List<String> order = survey.getIndicatorsOrder();
 
         SurveyData indicators = indicatorMapper.entityToDto(snapshotEconomic.getSnapshotIndicator());
         List<SurveyData> indicatorsToRet = new ArrayList<>();
-        if (indicatorGroup != null && !indicatorGroup.isEmpty() && order != null && !order.isEmpty()) {
-
-            order.forEach(indicator -> {
-                if (indicators.containsKey(indicator)) {
-                    SurveyData sd = new SurveyData();
-                    sd.put(INDICATOR_NAME, getDescriptionOpt(survey, indicator).map(e -> e.get("es"))
-                            .orElse(getNameFromCamelCase(indicator)));
-                    sd.put(INDICATOR_VALUE, indicators.get(indicator));
-                    countIndicators(toRet, sd.get(INDICATOR_VALUE));
-                    indicatorsToRet.add(sd);
-                }
-            });
-
+        StoplightVector values = new StoplightVector(order.size());
+        for (String indicator : order) {
+            if (indicators.containsKey(indicator)) {
+                SurveyData sd = new SurveyData();
+                sd.put(INDICATOR_NAME, survey.getIndicatorName(indicator));
+                sd.put(INDICATOR_VALUE, indicators.get(indicator));
+                values.set(indicatorsToRet.size(), Stoplight.parse(sd.get(INDICATOR_VALUE)));
+                indicatorsToRet.add(sd);
+            }
         }
+        addCounts(toRet, values);
         return indicatorsToRet;
     }
 
-    private Optional<PropertyTitle> getDescriptionOpt(SurveyDefinition survey, String indicator) {
-        return Optional.ofNullable(survey.getSurveySchema().getProperties().get(indicator).getDescription());
-    }
-
     @Override
     public List<SurveyData> getIndicatorsValue(SurveyData indicators) {
 
@@ -415,6 +589,43 @@ public class SnapshotServiceImpl implements SnapshotService {
         return toRet;
     }
 
+    @Override
+    public String getSnapshotIndicatorsTag(Long snapshotId) {
+        List<Object[]> versions = economicRepository.findVersionById(snapshotId);
+        if (versions.isEmpty()) {
+            // answered with empty indicators
+            return EntityTags.of(snapshotId);
+        }
+
+        List<Object> parts = new ArrayList<>(Arrays.asList(versions.get(0)));
+        Long snapshotIndicatorId = (Long) parts.get(1);
+        parts.addAll(priorityService.getSnapshotIndicatorPrioritiesVersion(
+                Collections.singletonList(snapshotIndicatorId)));
+        return EntityTags.of(parts.toArray());
+    }
+
+    @Override
+    public String getLastSnapshotIndicatorsTag(Long familyId) {
+        List<Long> last = economicRepository.findIdsByFamilyNewestFirst(familyId, new PageRequest(0, 1));
+        return last.isEmpty() ? EntityTags.of(familyId) : getSnapshotIndicatorsTag(last.get(0));
+    }
+
+    @Override
+    public String getSnapshotIndicatorsByFamilyTag(Long familyId) {
+        List<Object[]> versions = economicRepository.findVersionsByFamilyId(familyId);
+        if (versions.isEmpty()) {
+            // answered with an empty list
+            return EntityTags.of(familyId);
+        }
+
+        List<Object> parts = new ArrayList<>();
+        versions.forEach(version -> parts.addAll(Arrays.asList(version)));
+        parts.addAll(priorityService.getSnapshotIndicatorPrioritiesVersion(versions.stream()
+                .map(version -> (Long) version[1])
+                .collect(Collectors.toList())));
+        return EntityTags.of(parts.toArray());
+    }
+
     @Override
     public List<SnapshotIndicators> getSnapshotIndicatorsByFamily(Long familyId) {
         List<SnapshotIndicators> toRet = new ArrayList<>();
@@ -422,41 +633,63 @@ public class SnapshotServiceImpl implements SnapshotService {
                 .sorted(Comparator.comparing(SnapshotEconomicEntity::getCreatedAt).reversed())
                 .collect(Collectors.toList());
 
+        if (originalSnapshots.isEmpty()) {
+            return toRet;
+        }
+
+        // Everything shared by the snapshots of the family is loaded once, and the
+        // priorities of all of them with a single query, so the number of queries
+        // does not depend on how many snapshots the family has
+        Map<Long, List<SnapshotIndicatorPriority>> priorities = priorityService
+                .getSnapshotIndicatorPriorities(originalSnapshots.stream()
+                        .map(os -> os.getSnapshotIndicator().getId())
+                        .collect(Collectors.toList()));
+        FamilyDTO familyDto = getFamilyWithOrganization(familyId);
+        Map<Long, CompiledSurveyDefinition> surveys = new HashMap<>();
+
         for (SnapshotEconomicEntity os : originalSnapshots) {
             SnapshotIndicators snapshotIndicators = countSnapshotIndicators(os);
 
-            List<SnapshotIndicatorPriority> priorities = priorityService
-                    .getSnapshotIndicatorPriorityList(os.getSnapshotIndicator().getId());
-            snapshotIndicators.setIndicatorsPriorities(priorities);
+            snapshotIndicators.setIndicatorsPriorities(
+                    priorities.getOrDefault(os.getSnapshotIndicator().getId(), new ArrayList<>()));
             snapshotIndicators.setCreatedAt(os.getCreatedAtAsISOString());
             snapshotIndicators.setSnapshotIndicatorId(os.getSnapshotIndicator().getId());
             snapshotIndicators.setFamilyId(os.getFamily().getFamilyId());
             snapshotIndicators.setSnapshotEconomicId(os.getId());
             snapshotIndicators.setSurveyId(os.getSurveyDefinition().getId());
-            FamilyDTO familyDto = familyService.getFamilyById(familyId);
-            Optional.ofNullable(familyDto.getOrganization()).ifPresent(organization -> {
-                familyDto.setOrganization(
-                        organizationMapper.entityToDto(organizationRepository.findOne(organization.getId())));
-            });
             snapshotIndicators.setFamily(familyDto);
             if (os.getUser() != null) {
                 snapshotIndicators.setUser(
                         UserDTO.builder().userId(os.getUser().getId()).username(os.getUser().getUsername()).build());
             }
-            snapshotIndicators.setIndicatorsSurveyData(getIndicatorsValue(os, snapshotIndicators));
+            CompiledSurveyDefinition survey = surveys.computeIfAbsent(os.getSurveyDefinition().getId(),
+                    surveyService::getCompiledSurveyDefinition);
+            snapshotIndicators.setIndicatorsSurveyData(getIndicatorsValue(survey, os, snapshotIndicators));
 
             toRet.add(snapshotIndicators);
         }
         return toRet;
     }
 
+    private FamilyDTO getFamilyWithOrganization(Long familyId) {
+        FamilyDTO familyDto = familyService.getFamilyById(familyId);
+        Optional.ofNullable(familyDto.getOrganization()).ifPresent(organization -> {
+            familyDto.setOrganization(
+                    organizationMapper.entityToDto(organizationRepository.findOne(organization.getId())));
+        });
+        return familyDto;
+    }
+
     private SnapshotIndicators countSnapshotIndicators(SnapshotEconomicEntity snapshot) {
         SnapshotIndicators indicators = new SnapshotIndicators();
         try {
             SurveyData properties = indicatorMapper.entityToDto(snapshot.getSnapshotIndicator());
-            properties.forEach((k, v) -> {
-                countIndicators(indicators, v);
-            });
+            StoplightVector values = new StoplightVector(properties.size());
+            int index = 0;
+            for (Object value : properties.values()) {
+                values.set(index++, Stoplight.parse(value));
+            }
+            addCounts(indicators, values);
         } catch (Exception e) {
             LOG.error(e.getMessage(), e);
             throw new UnknownResourceException(i18n.translate("snapshot.invalid", snapshot.getId()));
@@ -464,25 +697,14 @@ public class SnapshotServiceImpl implements SnapshotService {
         return indicators;
     }
 
-    private void countIndicators(SnapshotIndicators indicators, Object v) {
-        Optional.ofNullable(SurveyStoplightEnum.fromValue(String.valueOf(v))).ifPresent(light -> {
-            switch (light) {
-            case RED:
-                indicators.setCountRedIndicators(indicators.getCountRedIndicators() + 1);
-                break;
-            case YELLOW:
-                indicators.setCountYellowIndicators(indicators.getCountYellowIndicators() + 1);
-                break;
-            case GREEN:
-                indicators.setCountGreenIndicators(indicators.getCountGreenIndicators() + 1);
-                break;
-            default:
-                break;
-            }
-        });
+    private static void addCounts(SnapshotIndicators indicators, StoplightVector values) {
+        indicators.setCountRedIndicators(indicators.getCountRedIndicators() + values.count(Stoplight.RED));
+        indicators.setCountYellowIndicators(indicators.getCountYellowIndicators() + values.count(Stoplight.YELLOW));
+        indicators.setCountGreenIndicators(indicators.getCountGreenIndicators() + values.count(Stoplight.GREEN));
     }
 
     @Override
+    @Transactional
     public void deleteSnapshotById(Long snapshotEconomicId) {
         SnapshotEconomicEntity snapshotEconomicEntity = economicRepository.findOne(snapshotEconomicId);
 
@@ -497,6 +719,7 @@ public class SnapshotServiceImpl implements SnapshotService {
 
         priorityService.deletePrioritiesByIndicator(snapshotEconomicEntity.getSnapshotIndicator().getId());
 
+        aggregateService.removeSnapshot(snapshotEconomicEntity);
         economicRepository.delete(snapshotEconomicEntity);
 
         if (familyId != null && economicRepository.findByFamilyFamilyId(familyId).size() == 0) {
@@ -507,43 +730,34 @@ public class SnapshotServiceImpl implements SnapshotService {
 
     @Override
     public SnapshotTaken countSnapshotTaken(FamilyFilterDTO filter) {
-        List<SnapshotEconomicEntity> snapshots = getSnapshotsLess2MonthsByFamilies(filter);
+        return countSnapshotTaken(filter, SnapshotPeriodEnum.MONTH, SNAPSHOT_TAKEN_PERIODS);
+    }
+
+    @Override
+    public SnapshotTaken countSnapshotTaken(FamilyFilterDTO filter, SnapshotPeriodEnum period, int periods) {
+        checkNotNull(period);
+        checkArgument(periods > 0, "Argument was %s but expected positive", periods);
 
-        Map<String, Long> result = snapshots.stream().collect(
+        Map<LocalDate, Long> counts = economicRepository.countByPeriod(period,
+                period.windowStart(LocalDate.now(), periods), filter.getApplicationId(),
+                filter.getOrganizationId() != null ? Collections.singletonList(filter.getOrganizationId()) : null);
 
-                Collectors.groupingBy(item -> item.getCreatedAt().toLocalDate()
-                        .with(TemporalAdjusters.firstDayOfMonth()).format(DateTimeFormatter.ISO_DATE),
-                        Collectors.counting()));
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.forEach((start, count) -> result.put(start.format(DateTimeFormatter.ISO_DATE), count));
 
         SnapshotTaken t = new SnapshotTaken();
-        t.setByMonth(result);
+        t.setPeriod(period);
+        t.setByPeriod(result);
+        if (period == SnapshotPeriodEnum.MONTH) {
+            t.setByMonth(result);
+        }
 
         return t;
     }
 
-    private List<SnapshotEconomicEntity> getSnapshotsLess2MonthsByFamilies(FamilyFilterDTO filter) {
-        return economicRepository.findAll(where(byApplication(filter.getApplicationId())).and(createdAtLess2Months()));
-    }
-
     @Override
     public List<TopOfIndicators> getTopOfIndicators(Long organizationId) {
-        List<FamilyEntity> families = familyService.findByOrganizationId(organizationId);
-
-        List<SurveyData> propertiesList = indicatorMapper
-                .entityListToDtoList(economicRepository.findByFamilyIn(families).stream()
-                        .map(economic -> economic.getSnapshotIndicator()).collect(Collectors.toList()));
-        Map<String, TopOfIndicators> topOfIndicatorMap = new HashMap<String, TopOfIndicators>();
-
-        for (SurveyData surveyData : propertiesList) {
-            surveyData.forEach((key, value) -> {
-                countTopIndicators(topOfIndicatorMap, key, value);
-            });
-        }
-
-        List<TopOfIndicators> list = topOfIndicatorMap.entrySet().stream().map(e -> new TopOfIndicators(e.getValue()))
-                .collect(Collectors.toList());
-
-        return list;
+        return aggregateService.getTopOfIndicators(organizationId);
     }
 
     @Override
@@ -558,31 +772,4 @@ public class SnapshotServiceImpl implements SnapshotService {
         });
     }
 
-    private void countTopIndicators(Map<String, TopOfIndicators> topOfIndicatorMap, String key, Object value) {
-        String light = (String) value;
-        TopOfIndicators topOfIndicators = topOfIndicatorMap.get(key);
-
-        if (topOfIndicators == null) {
-            topOfIndicators = new TopOfIndicators();
-            topOfIndicators.setIndicatorName(getNameFromCamelCase(key));
-            topOfIndicatorMap.put(key, topOfIndicators);
-        }
-
-        if (light != null) {
-            switch (light) {
-            case "RED":
-                topOfIndicators.incrementRed();
-                break;
-            case "YELLOW":
-                topOfIndicators.incrementYellow();
-                break;
-            case "GREEN":
-                topOfIndicators.incrementGreen();
-                break;
-            default:
-                break;
-            }
-        }
-    }
-
 }
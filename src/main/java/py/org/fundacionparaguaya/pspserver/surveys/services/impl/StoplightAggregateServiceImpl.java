@@ -0,0 +1,284 @@
+package py.org.fundacionparaguaya.pspserver.surveys.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import py.org.fundacionparaguaya.pspserver.common.utils.StringConverter;
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+import py.org.fundacionparaguaya.pspserver.families.repositories.FamilyRepository;
+import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotIndicators;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.TopOfIndicators;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.StoplightAggregateEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomicRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.StoplightAggregateRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.services.StoplightAggregateService;
+import py.org.fundacionparaguaya.pspserver.surveys.stoplight.Stoplight;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class StoplightAggregateServiceImpl implements StoplightAggregateService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StoplightAggregateServiceImpl.class);
+
+    private static final int REBUILD_CHUNK_SIZE = 500;
+
+    private final StoplightAggregateRepository aggregateRepository;
+
+    private final SnapshotEconomicRepository economicRepository;
+
+    private final SnapshotIndicatorMapper indicatorMapper;
+
+    private final FamilyRepository familyRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public StoplightAggregateServiceImpl(StoplightAggregateRepository aggregateRepository,
+            SnapshotEconomicRepository economicRepository,
+            SnapshotIndicatorMapper indicatorMapper,
+            FamilyRepository familyRepository,
+            PlatformTransactionManager transactionManager) {
+        this.aggregateRepository = aggregateRepository;
+        this.economicRepository = economicRepository;
+        this.indicatorMapper = indicatorMapper;
+        this.familyRepository = familyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void addSnapshot(SnapshotEconomicEntity snapshot) {
+        addSnapshots(Collections.singletonList(snapshot));
+    }
+
+    @Override
+    public void addSnapshots(Collection<SnapshotEconomicEntity> snapshots) {
+        // the added snapshots are already stored, and must not be moved as well
+        Set<Long> added = snapshots.stream()
+                .map(SnapshotEconomicEntity::getId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Map<String, StoplightAggregateEntity>> byOrganization = new HashMap<>();
+        familiesOf(snapshots).forEach(family -> moveFamily(byOrganization, family, added));
+        snapshots.forEach(snapshot -> merge(byOrganization, countsOf(snapshot, organizationOf(snapshot), 1)));
+        aggregateRepository.addCounts(flatten(byOrganization));
+    }
+
+    @Override
+    public void removeSnapshot(SnapshotEconomicEntity snapshot) {
+        Map<Long, Map<String, StoplightAggregateEntity>> byOrganization = new HashMap<>();
+        familiesOf(Collections.singletonList(snapshot))
+                .forEach(family -> moveFamily(byOrganization, family, Collections.emptySet()));
+        merge(byOrganization, countsOf(snapshot, organizationOf(snapshot), -1));
+        aggregateRepository.addCounts(flatten(byOrganization));
+    }
+
+    @Override
+    public SnapshotIndicators countIndicators(Long organizationId) {
+        SnapshotIndicators indicators = new SnapshotIndicators();
+        int red = 0;
+        int yellow = 0;
+        int green = 0;
+        for (StoplightAggregateEntity aggregate : aggregateRepository.findByOrganizationId(keyOf(organizationId))) {
+            red += aggregate.getRedCount();
+            yellow += aggregate.getYellowCount();
+            green += aggregate.getGreenCount();
+        }
+        indicators.setCountRedIndicators(red);
+        indicators.setCountYellowIndicators(yellow);
+        indicators.setCountGreenIndicators(green);
+        return indicators;
+    }
+
+    @Override
+    public List<TopOfIndicators> getTopOfIndicators(Long organizationId) {
+        return aggregateRepository.findByOrganizationId(keyOf(organizationId)).stream()
+                .map(aggregate -> {
+                    TopOfIndicators top = new TopOfIndicators();
+                    top.setIndicatorName(StringConverter.getNameFromCamelCase(aggregate.getIndicator()));
+                    top.setTotalRed(aggregate.getRedCount());
+                    top.setTotalYellow(aggregate.getYellowCount());
+                    top.setTotalGreen(aggregate.getGreenCount());
+                    return top;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public void rebuild() {
+        // snapshots saved meanwhile wait for the lock, and are added once the
+        // rebuild commits, or were committed before it and are scrolled
+        aggregateRepository.lock();
+        rebuildLocked();
+    }
+
+    @Override
+    @Transactional
+    public boolean rebuildIfEmpty() {
+        if (!aggregateRepository.tryLockBackfill()) {
+            return false;
+        }
+        aggregateRepository.lock();
+        if (aggregateRepository.count() > 0 || economicRepository.count() == 0) {
+            return false;
+        }
+        rebuildLocked();
+        return true;
+    }
+
+    @Override
+    @Scheduled(cron = "${application.stoplightAggregates.moveFamiliesCron:0 30 3 * * *}")
+    public int moveFamilies() {
+        List<Long> familyIds = aggregateRepository.findMovedFamilyIds();
+        for (Long familyId : familyIds) {
+            transactionTemplate.execute(status -> {
+                Map<Long, Map<String, StoplightAggregateEntity>> byOrganization = new HashMap<>();
+                Optional.ofNullable(familyRepository.findOne(familyId))
+                        .ifPresent(family -> moveFamily(byOrganization, family, Collections.emptySet()));
+                aggregateRepository.addCounts(flatten(byOrganization));
+                return null;
+            });
+        }
+        if (!familyIds.isEmpty()) {
+            LOG.info("Moved the stoplight aggregates of {} families to their new organization", familyIds.size());
+        }
+        return familyIds.size();
+    }
+
+    private void rebuildLocked() {
+        LOG.info("Rebuilding stoplight aggregates");
+        Map<Long, Map<String, StoplightAggregateEntity>> byOrganization = new HashMap<>();
+
+        economicRepository.scroll((root, query, cb) -> null, new Sort("id"), REBUILD_CHUNK_SIZE,
+                snapshot -> merge(byOrganization, countsOf(snapshot, organizationOf(snapshot), 1)));
+
+        aggregateRepository.deleteAllInBatch();
+        byOrganization.values().forEach(aggregates -> aggregateRepository.addCounts(aggregates.values()));
+        aggregateRepository.resetCountedOrganizations();
+        LOG.info("Rebuilt stoplight aggregates of {} organizations", byOrganization.size());
+    }
+
+    /**
+     * Adds to the counts the moves of the snapshots of the family, but those
+     * given, from the organization they are counted under to the current one of
+     * the family, which they are counted under from then on.
+     */
+    private void moveFamily(Map<Long, Map<String, StoplightAggregateEntity>> byOrganization, FamilyEntity family,
+            Set<Long> excludedSnapshotIds) {
+        Long organizationId = keyOf(organizationIdOf(family));
+        Long countedOrganizationId = aggregateRepository.findCountedOrganizationId(family.getFamilyId());
+        if (organizationId.equals(countedOrganizationId)) {
+            return;
+        }
+
+        // with no organization counted yet, none of the snapshots are either
+        if (countedOrganizationId != null) {
+            LOG.debug("Family {} moved from organization {} to {}", family.getFamilyId(), countedOrganizationId,
+                    organizationId);
+            for (SnapshotEconomicEntity snapshot : economicRepository.findByFamilyFamilyId(family.getFamilyId())) {
+                if (!excludedSnapshotIds.contains(snapshot.getId())) {
+                    merge(byOrganization, countsOf(snapshot, countedOrganizationId, -1));
+                    merge(byOrganization, countsOf(snapshot, organizationId, 1));
+                }
+            }
+        }
+        aggregateRepository.setCountedOrganizationId(family.getFamilyId(), organizationId);
+    }
+
+    private static void merge(Map<Long, Map<String, StoplightAggregateEntity>> byOrganization,
+            List<StoplightAggregateEntity> counts) {
+        for (StoplightAggregateEntity count : counts) {
+            StoplightAggregateEntity aggregate = byOrganization
+                    .computeIfAbsent(count.getOrganizationId(), id -> new HashMap<>())
+                    .computeIfAbsent(count.getIndicator(),
+                            indicator -> new StoplightAggregateEntity(count.getOrganizationId(), indicator));
+            aggregate.incrementSnapshots(count.getSnapshotCount());
+            aggregate.incrementRed(count.getRedCount());
+            aggregate.incrementYellow(count.getYellowCount());
+            aggregate.incrementGreen(count.getGreenCount());
+        }
+    }
+
+    private static List<StoplightAggregateEntity> flatten(
+            Map<Long, Map<String, StoplightAggregateEntity>> byOrganization) {
+        List<StoplightAggregateEntity> counts = new ArrayList<>();
+        byOrganization.values().forEach(aggregates -> counts.addAll(aggregates.values()));
+        return counts;
+    }
+
+    private static Collection<FamilyEntity> familiesOf(Collection<SnapshotEconomicEntity> snapshots) {
+        // in family id order, so concurrent batches lock the families in the same order
+        Map<Long, FamilyEntity> families = new LinkedHashMap<>();
+        snapshots.stream()
+                .map(SnapshotEconomicEntity::getFamily)
+                .filter(Objects::nonNull)
+                .sorted((a, b) -> a.getFamilyId().compareTo(b.getFamilyId()))
+                .forEach(family -> families.putIfAbsent(family.getFamilyId(), family));
+        return families.values();
+    }
+
+    private static Long organizationOf(SnapshotEconomicEntity snapshot) {
+        return keyOf(Optional.ofNullable(snapshot.getFamily())
+                .map(StoplightAggregateServiceImpl::organizationIdOf)
+                .orElse(null));
+    }
+
+    private static Long organizationIdOf(FamilyEntity family) {
+        return Optional.ofNullable(family.getOrganization())
+                .map(OrganizationEntity::getId)
+                .orElse(null);
+    }
+
+    private List<StoplightAggregateEntity> countsOf(SnapshotEconomicEntity snapshot, Long organizationId,
+            int delta) {
+        if (snapshot.getSnapshotIndicator() == null) {
+            return new ArrayList<>();
+        }
+
+        SurveyData indicators = indicatorMapper.entityToDto(snapshot.getSnapshotIndicator());
+
+        List<StoplightAggregateEntity> counts = new ArrayList<>(indicators.size());
+        indicators.forEach((indicator, value) -> {
+            StoplightAggregateEntity count = new StoplightAggregateEntity(organizationId, indicator);
+            count.incrementSnapshots(delta);
+            switch (Stoplight.parse(value)) {
+            case Stoplight.RED:
+                count.incrementRed(delta);
+                break;
+            case Stoplight.YELLOW:
+                count.incrementYellow(delta);
+                break;
+            case Stoplight.GREEN:
+                count.incrementGreen(delta);
+                break;
+            default:
+                break;
+            }
+            counts.add(count);
+        });
+        return counts;
+    }
+
+    private static Long keyOf(Long organizationId) {
+        return organizationId != null ? organizationId : StoplightAggregateEntity.NO_ORGANIZATION;
+    }
+}
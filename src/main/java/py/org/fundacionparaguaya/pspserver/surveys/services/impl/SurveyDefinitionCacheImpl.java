@@ -0,0 +1,131 @@
+package py.org.fundacionparaguaya.pspserver.surveys.services.impl;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.common.mapper.MappingView;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+import py.org.fundacionparaguaya.pspserver.network.entities.SurveyOrganizationEntity;
+import py.org.fundacionparaguaya.pspserver.network.mapper.ApplicationMapper;
+import py.org.fundacionparaguaya.pspserver.network.mapper.OrganizationMapper;
+import py.org.fundacionparaguaya.pspserver.network.repositories.SurveyOrganizationRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.CompiledSurveyDefinition;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SurveyRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.services.SurveyDefinitionCache;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link SurveyDefinitionCache} backed by a size bounded Guava cache, whose
+ * entries expire a while after they are compiled.
+ */
+@Service
+public class SurveyDefinitionCacheImpl implements SurveyDefinitionCache {
+
+    private final SurveyRepository surveyRepo;
+
+    private final SurveyOrganizationRepository surveyOrganizationRepo;
+
+    private final OrganizationMapper organizationMapper;
+
+    private final ApplicationMapper applicationMapper;
+
+    private final LoadingCache<Long, CompiledSurveyDefinition> cache;
+
+    public SurveyDefinitionCacheImpl(SurveyRepository surveyRepo,
+            SurveyOrganizationRepository surveyOrganizationRepo,
+            OrganizationMapper organizationMapper,
+            ApplicationMapper applicationMapper,
+            ApplicationProperties applicationProperties) {
+        this.surveyRepo = surveyRepo;
+        this.surveyOrganizationRepo = surveyOrganizationRepo;
+        this.organizationMapper = organizationMapper;
+        this.applicationMapper = applicationMapper;
+        ApplicationProperties.SurveyCache settings = applicationProperties.getSurveyCache();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtlSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .build(new CacheLoader<Long, CompiledSurveyDefinition>() {
+                    @Override
+                    public CompiledSurveyDefinition load(Long surveyId) {
+                        return compile(surveyId);
+                    }
+                });
+    }
+
+    @Override
+    public CompiledSurveyDefinition get(Long surveyId) {
+        try {
+            return cache.getUnchecked(surveyId);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private CompiledSurveyDefinition compile(Long surveyId) {
+        SurveyEntity entity = Optional.ofNullable(surveyRepo.findOne(surveyId))
+                .orElseThrow(() -> new UnknownResourceException("Survey definition does not exist"));
+
+        List<SurveyOrganizationEntity> surveyOrganizations = surveyOrganizationRepo.findBySurveyId(entity.getId());
+
+        SurveyDefinition definition = new SurveyDefinition().id(entity.getId())
+                .description(entity.getDescription())
+                .title(entity.getTitle())
+                .surveySchema(entity.getSurveyDefinition().getSurveySchema())
+                .surveyUiSchema(entity.getSurveyDefinition().getSurveyUISchema())
+                .organizations(organizationMapper.entityListToDtoList(surveyOrganizations.stream()
+                        .map(SurveyOrganizationEntity::getOrganization)
+                        .collect(Collectors.toList()), MappingView.SUMMARY))
+                .applications(applicationMapper.entityListToDtoList(surveyOrganizations.stream()
+                        .map(SurveyOrganizationEntity::getApplication)
+                        .collect(Collectors.toList()), MappingView.SUMMARY));
+
+        return CompiledSurveyDefinition.compile(definition, entity.getLastModifiedAt());
+    }
+
+    @Override
+    public void invalidate(Long surveyId) {
+        cache.invalidate(surveyId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        // a get before the commit compiles the survey as it was, so it is evicted again once it is visible
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(surveyId);
+            }
+        });
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
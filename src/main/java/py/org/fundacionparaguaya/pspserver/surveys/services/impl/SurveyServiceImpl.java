@@ -7,13 +7,12 @@ import static py.org.fundacionparaguaya.pspserver.network.specifications.SurveyO
 import static py.org.fundacionparaguaya.pspserver.network.specifications.SurveyOrganizationSpecification.byOrganization;
 import static py.org.fundacionparaguaya.pspserver.network.specifications.SurveyOrganizationSpecification.lastModifiedGt;
 import static py.org.fundacionparaguaya.pspserver.surveys.validation.MultipleSchemaValidator.all;
-import static py.org.fundacionparaguaya.pspserver.surveys.validation.PropertyValidator.validType;
 import static py.org.fundacionparaguaya.pspserver.surveys.validation.SchemaValidator.markedAsRequired;
 import static py.org.fundacionparaguaya.pspserver.surveys.validation.SchemaValidator.presentInSchema;
-import static py.org.fundacionparaguaya.pspserver.surveys.validation.SchemaValidator.requiredValue;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -24,10 +23,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import py.org.fundacionparaguaya.pspserver.common.exceptions.CustomParameterizedException;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.common.mapper.MappingView;
+import py.org.fundacionparaguaya.pspserver.common.utils.EntityTags;
 import py.org.fundacionparaguaya.pspserver.network.dtos.ApplicationDTO;
 import py.org.fundacionparaguaya.pspserver.network.dtos.OrganizationDTO;
 import py.org.fundacionparaguaya.pspserver.network.entities.SurveyOrganizationEntity;
-import py.org.fundacionparaguaya.pspserver.network.mapper.ApplicationMapper;
 import py.org.fundacionparaguaya.pspserver.network.mapper.OrganizationMapper;
 import py.org.fundacionparaguaya.pspserver.network.repositories.ApplicationRepository;
 import py.org.fundacionparaguaya.pspserver.network.repositories.OrganizationRepository;
@@ -35,9 +35,9 @@ import py.org.fundacionparaguaya.pspserver.network.repositories.SurveyOrganizati
 import py.org.fundacionparaguaya.pspserver.network.services.SurveyOrganizationService;
 import py.org.fundacionparaguaya.pspserver.security.constants.Role;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.CompiledSurveyDefinition;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSurveyDefinition;
-import py.org.fundacionparaguaya.pspserver.surveys.dtos.Property;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveySchema;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.StopLightType;
@@ -45,9 +45,9 @@ import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.PropertyAttributeSupport;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.SurveyMapper;
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SurveyRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.services.SurveyDefinitionCache;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SurveyService;
 import py.org.fundacionparaguaya.pspserver.surveys.validation.MultipleSchemaValidator;
-import py.org.fundacionparaguaya.pspserver.surveys.validation.ValidationResult;
 import py.org.fundacionparaguaya.pspserver.surveys.validation.ValidationResults;
 import py.org.fundacionparaguaya.pspserver.surveys.validation.ValidationSupport;
 
@@ -71,10 +71,10 @@ public class SurveyServiceImpl implements SurveyService {
 
     private final ApplicationRepository applicationRepo;
 
-    private final ApplicationMapper applicationMapper;
-
     private final SurveyOrganizationService surveyOrganizationService;
 
+    private final SurveyDefinitionCache surveyDefinitionCache;
+
     public SurveyServiceImpl(SurveyRepository repo,
             PropertyAttributeSupport propertyAttributeSupport,
             SurveyMapper mapper,
@@ -82,8 +82,8 @@ public class SurveyServiceImpl implements SurveyService {
             OrganizationRepository organizationRepo,
             OrganizationMapper organizationMapper,
             ApplicationRepository applicationRepo,
-            ApplicationMapper applicationMapper,
-            SurveyOrganizationService surveyOrganizationService) {
+            SurveyOrganizationService surveyOrganizationService,
+            SurveyDefinitionCache surveyDefinitionCache) {
         this.repo = repo;
         this.propertyAttributeSupport = propertyAttributeSupport;
         this.mapper = mapper;
@@ -91,8 +91,8 @@ public class SurveyServiceImpl implements SurveyService {
         this.organizationRepo = organizationRepo;
         this.organizationMapper = organizationMapper;
         this.applicationRepo = applicationRepo;
-        this.applicationMapper = applicationMapper;
         this.surveyOrganizationService = surveyOrganizationService;
+        this.surveyDefinitionCache = surveyDefinitionCache;
     }
 
     @Override
@@ -169,61 +169,27 @@ public class SurveyServiceImpl implements SurveyService {
 
     @Override
     public SurveyDefinition getSurveyDefinition(Long surveyId) {
+        return getCompiledSurveyDefinition(surveyId).getDefinition();
+    }
+
+    @Override
+    public CompiledSurveyDefinition getCompiledSurveyDefinition(Long surveyId) {
         checkNotNull(surveyId);
         checkArgument(surveyId > 0, "Argument was %s but expected nonnegative",
                 surveyId);
 
-        return Optional.ofNullable(repo.findOne(surveyId))
-                .map(entity -> new SurveyDefinition().id(entity.getId())
-                        .description(entity.getDescription())
-                        .title(entity.getTitle())
-                        .surveySchema(
-                                entity.getSurveyDefinition().getSurveySchema())
-                        .surveyUiSchema(entity.getSurveyDefinition()
-                                .getSurveyUISchema())
-                        .organizations(organizationMapper
-                                .entityListToDtoList(surveyOrganizationRepo
-                                        .findBySurveyId(entity.getId()).stream()
-                                        .map(o -> o.getOrganization())
-                                        .collect(Collectors.toList())))
-                        .applications(applicationMapper
-                                .entityListToDtoList(surveyOrganizationRepo
-                                        .findBySurveyId(
-                                                entity.getId())
-                                        .stream().map(o -> o.getApplication())
-                                        .collect(Collectors.toList()))))
-
-                .orElseThrow(() -> new UnknownResourceException(
-                        "Survey definition does not exist"));
+        return surveyDefinitionCache.get(surveyId);
+    }
 
+    @Override
+    public String getSurveyDefinitionTag(Long surveyId) {
+        return getCompiledSurveyDefinition(surveyId).getTag();
     }
 
     @Override
     public ValidationResults checkSchemaCompliance(NewSnapshot snapshot) {
-        SurveyDefinition surveyDefinition = this
-                .getSurveyDefinition(snapshot.getSurveyId());
-        SurveySchema schema = surveyDefinition.getSurveySchema();
-        ValidationResults results = ValidationSupport.validResults();
-
-        schema.getProperties().entrySet().stream().forEach(propertyEntry -> {
-            Property property = propertyEntry.getValue();
-            Object propertyValue = snapshot.getAllSurveyData()
-                    .get(propertyEntry.getKey());
-            results.add(
-                    propertyValue != null
-                            ? validType().apply(property,
-                                    propertyEntry.getKey(), propertyValue)
-                            : ValidationResult.valid());
-            results.add(requiredValue().apply(schema, propertyEntry.getKey(),
-                    propertyValue));
-        });
-
-        snapshot.getAllSurveyData().entrySet().stream().forEach(surveyData -> {
-            results.add(presentInSchema().apply(schema, surveyData.getKey(),
-                    surveyData.getValue()));
-        });
-
-        return results;
+        return getCompiledSurveyDefinition(snapshot.getSurveyId()).getValidator()
+                .validate(snapshot.getAllSurveyData());
     }
 
     @Override
@@ -232,12 +198,16 @@ public class SurveyServiceImpl implements SurveyService {
     }
 
     @Override
+    @Transactional
     public void deleteSurvey(Long surveyId) {
         try {
 
             Optional.ofNullable(repo.findOne(surveyId)).ifPresent(survey -> {
                 surveyOrganizationRepo.deleteBySurveyId(survey.getId());
                 repo.delete(survey);
+                // so a survey still in use fails here, and not on commit
+                repo.flush();
+                surveyDefinitionCache.invalidate(survey.getId());
             });
 
         } catch (Exception e) {
@@ -264,6 +234,7 @@ public class SurveyServiceImpl implements SurveyService {
             surveyOrganizationService
                     .crudSurveyOrganization(details, surveyId, surveyDefinition, survey);
             repo.save(survey);
+            surveyDefinitionCache.invalidate(surveyId);
             return survey;
 
         }).map(mapper::entityToDto).orElseThrow(
@@ -274,12 +245,6 @@ public class SurveyServiceImpl implements SurveyService {
     public List<SurveyDefinition> listSurveys(UserDetailsDTO userDetails,
             String lastModifiedGt) {
 
-        Long organizationId = Optional.ofNullable(userDetails.getOrganization())
-                .orElse(new OrganizationDTO()).getId();
-
-        Long applicationId = Optional.ofNullable(userDetails.getApplication())
-                .orElse(new ApplicationDTO()).getId();
-
         if (userHasRole(userDetails, Role.ROLE_ROOT)) {
             return mapper.entityListToDtoList(repo.findAll());
         }
@@ -287,9 +252,7 @@ public class SurveyServiceImpl implements SurveyService {
         List<SurveyDefinition> lista = mapper
                 .entityListToDtoList(
                         surveyOrganizationRepo
-                                .findAll(where(byApplication(applicationId))
-                                        .and(byOrganization(organizationId))
-                                        .and(lastModifiedGt(lastModifiedGt)))
+                                .findAll(byScope(userDetails, lastModifiedGt))
                                 .stream().map(e -> e.getSurvey())
                                 .collect(Collectors.toList()));
 
@@ -300,13 +263,41 @@ public class SurveyServiceImpl implements SurveyService {
             survey.setOrganizations(organizationMapper.entityListToDtoList(
                     surveyOrganizationRepo.findBySurveyId(survey.getId())
                             .stream().map(o -> o.getOrganization())
-                            .collect(Collectors.toList())));
+                            .collect(Collectors.toList()), MappingView.SUMMARY));
             toRet.add(survey);
         }
 
         return toRet;
     }
 
+    @Override
+    public String getSurveysTag(UserDetailsDTO userDetails, String lastModifiedGt) {
+        boolean root = userHasRole(userDetails, Role.ROLE_ROOT);
+        List<Object[]> surveys = root ? repo.findVersions()
+                : surveyOrganizationRepo.findSurveyVersions(byScope(userDetails, lastModifiedGt));
+        // the organizations listed with each survey come from its assignments
+        Object[] assignments = surveyOrganizationRepo.findAssignmentsVersion().get(0);
+
+        List<Object> parts = new ArrayList<>();
+        parts.add(root);
+        parts.add(assignments[0]);
+        parts.add(assignments[1]);
+        surveys.forEach(survey -> parts.addAll(Arrays.asList(survey)));
+        return EntityTags.of(parts.toArray());
+    }
+
+    private Specifications<SurveyOrganizationEntity> byScope(UserDetailsDTO userDetails, String lastModifiedGt) {
+        Long organizationId = Optional.ofNullable(userDetails.getOrganization())
+                .orElse(new OrganizationDTO()).getId();
+
+        Long applicationId = Optional.ofNullable(userDetails.getApplication())
+                .orElse(new ApplicationDTO()).getId();
+
+        return where(byApplication(applicationId))
+                .and(byOrganization(organizationId))
+                .and(lastModifiedGt(lastModifiedGt));
+    }
+
     @Override
     public List<SurveyDefinition> listSurveysByUser(UserDetailsDTO userDetails) {
         Specifications<SurveyOrganizationEntity> spec = where(byApplication(userDetails.getApplication().getId()));
@@ -1,18 +1,26 @@
 package py.org.fundacionparaguaya.pspserver.surveys.specifications;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.springframework.data.jpa.domain.Specification;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.IndicatorFilter;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.dialect.JSONBPostgreSQLDialect;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.IndicatorMatchEnum;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.PropertyAttributeSupport;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity_;
 
@@ -24,8 +32,6 @@ public class SnapshotEconomicSpecification {
 
     private static final String SHORT_DATE_FORMAT = "dd/MM/yyyy";
 
-    private static final long MONTH_AGO = 12;
-
     private SnapshotEconomicSpecification() {
         // not called
     }
@@ -63,21 +69,6 @@ public class SnapshotEconomicSpecification {
         };
     }
 
-    public static Specification<SnapshotEconomicEntity> createdAtLess2Months() {
-        return new Specification<SnapshotEconomicEntity>() {
-            @Override
-            public Predicate toPredicate(Root<SnapshotEconomicEntity> root, CriteriaQuery<?> query,
-                    CriteriaBuilder cb) {
-
-                LocalDateTime limit = LocalDateTime.now();
-                limit = limit.minusMonths(MONTH_AGO).withDayOfMonth(1);
-
-                return cb.and(cb.greaterThan(root.<LocalDateTime>get(SnapshotEconomicEntity_.getCreatedAt()), limit));
-
-            }
-        };
-    }
-
     public static Specification<SnapshotEconomicEntity> createdAtBetween2Dates(String dateFrom, String dateTo) {
         return new Specification<SnapshotEconomicEntity>() {
             @Override
@@ -116,4 +107,42 @@ public class SnapshotEconomicSpecification {
             return cb.equal(root.join("surveyDefinition").get("id"), surveyId);
         };
     }
+
+    /**
+     * Snapshots whose indicators have the colors of the filter. Indicators stored in
+     * their own column are compared there and the rest are looked up in the
+     * additional properties with a jsonb containment, so both can use an index.
+     * Colors are stored in upper or lower case, so both are matched as they are
+     * rather than lower casing the stored ones.
+     */
+    public static Specification<SnapshotEconomicEntity> byIndicators(IndicatorFilter filter,
+            PropertyAttributeSupport attributes) {
+        return (root, query, cb) -> {
+            if (filter == null || filter.isEmpty()) {
+                return null;
+            }
+
+            Join<SnapshotEconomicEntity, SnapshotIndicatorEntity> indicator = root.join("snapshotIndicator");
+            List<Predicate> predicates = new ArrayList<>();
+            filter.getIndicators().forEach((name, color) -> {
+                String systemName = attributes.propertySchemaToSystemName(name);
+                if (systemName != null && attributes.staticIndicator().test(systemName)) {
+                    predicates.add(indicator.get(systemName).in(color.name(), color.name().toLowerCase()));
+                } else {
+                    predicates.add(cb.or(
+                            containsJson(cb, indicator.get("additionalProperties"), name, color.name().toLowerCase()),
+                            containsJson(cb, indicator.get("additionalProperties"), name, color.name())));
+                }
+            });
+
+            Predicate[] array = predicates.toArray(new Predicate[predicates.size()]);
+            return filter.getMatch() == IndicatorMatchEnum.ANY ? cb.or(array) : cb.and(array);
+        };
+    }
+
+    private static Predicate containsJson(CriteriaBuilder cb, Expression<?> column, String name, String value) {
+        String json = JsonNodeFactory.instance.objectNode().put(name, value).toString();
+        return cb.isTrue(cb.function(JSONBPostgreSQLDialect.JSONB_CONTAINS_JSON, Boolean.class, column,
+                cb.literal(json)));
+    }
 }
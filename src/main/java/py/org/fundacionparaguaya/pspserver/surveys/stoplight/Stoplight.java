@@ -0,0 +1,76 @@
+package py.org.fundacionparaguaya.pspserver.surveys.stoplight;
+
+/**
+ * The values an indicator of a snapshot can have, as small int codes, and a
+ * parser for their names that neither allocates nor scans all of them.
+ *
+ * The codes fit in two bits, so the indicators of a snapshot can be packed
+ * in a {@link StoplightVector}. They are also the numbers the reports write
+ * for each value, from 0 for an unanswered indicator to 3 for a green one.
+ */
+public final class Stoplight {
+
+    /**
+     * An indicator that was not answered, written as <code>NONE</code>.
+     */
+    public static final int NONE = 0;
+
+    public static final int RED = 1;
+
+    public static final int YELLOW = 2;
+
+    public static final int GREEN = 3;
+
+    /**
+     * Any value which is not a stoplight color nor <code>NONE</code>.
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final String[] NAMES = {"NONE", "RED", "YELLOW", "GREEN"};
+
+    private static final String[] CODES = {"0", "1", "2", "3"};
+
+    private Stoplight() {
+    }
+
+    /**
+     * @return the code of the color or <code>NONE</code>, ignoring case, or
+     * {@link #UNKNOWN} for anything else, including values that are not strings.
+     */
+    public static int parse(Object value) {
+        if (!(value instanceof String)) {
+            return UNKNOWN;
+        }
+        String name = (String) value;
+        int code;
+        // the names have different lengths, so the length picks the only candidate
+        switch (name.length()) {
+        case 3:
+            code = RED;
+            break;
+        case 4:
+            code = NONE;
+            break;
+        case 5:
+            code = GREEN;
+            break;
+        case 6:
+            code = YELLOW;
+            break;
+        default:
+            return UNKNOWN;
+        }
+        return NAMES[code].equalsIgnoreCase(name) ? code : UNKNOWN;
+    }
+
+    public static boolean isColor(int code) {
+        return code >= RED && code <= GREEN;
+    }
+
+    /**
+     * @return the code as a string, without creating a new one.
+     */
+    public static String toCodeString(int code) {
+        return CODES[code];
+    }
+}
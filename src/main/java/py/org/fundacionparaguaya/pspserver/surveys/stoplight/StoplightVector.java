@@ -0,0 +1,73 @@
+package py.org.fundacionparaguaya.pspserver.surveys.stoplight;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The indicators of a snapshot packed two bits each, with the codes of
+ * {@link Stoplight}, so that the values of 32 indicators share a long and
+ * counting a color is a few bit operations per 32 indicators.
+ */
+public final class StoplightVector {
+
+    private static final int PER_WORD = 32;
+
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private final long[] words;
+
+    private final int size;
+
+    public StoplightVector(int size) {
+        Preconditions.checkArgument(size >= 0, "Expected a non negative size but got %s", size);
+        this.size = size;
+        this.words = new long[(size + PER_WORD - 1) / PER_WORD];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param code one of the codes of {@link Stoplight}, where {@link Stoplight#UNKNOWN}
+     *             is stored as {@link Stoplight#NONE}
+     */
+    public void set(int index, int code) {
+        Preconditions.checkElementIndex(index, size);
+        long bits = Stoplight.isColor(code) ? code : Stoplight.NONE;
+        int shift = (index % PER_WORD) * 2;
+        words[index / PER_WORD] = (words[index / PER_WORD] & ~(3L << shift)) | (bits << shift);
+    }
+
+    public int get(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return (int) (words[index / PER_WORD] >>> ((index % PER_WORD) * 2)) & 3;
+    }
+
+    /**
+     * @return the number of indicators with the given code
+     */
+    public int count(int code) {
+        Preconditions.checkArgument(code >= Stoplight.NONE && code <= Stoplight.GREEN, "Invalid code %s", code);
+        int count = 0;
+        for (long word : words) {
+            long high = (word >>> 1) & LOW_BITS;
+            long low = word & LOW_BITS;
+            switch (code) {
+            case Stoplight.RED:
+                count += Long.bitCount(low & ~high);
+                break;
+            case Stoplight.YELLOW:
+                count += Long.bitCount(high & ~low);
+                break;
+            case Stoplight.GREEN:
+                count += Long.bitCount(low & high);
+                break;
+            default:
+                // the unused slots of the last word are zero too, they are taken off below
+                count += Long.bitCount(~(low | high) & LOW_BITS);
+                break;
+            }
+        }
+        return code == Stoplight.NONE ? count - (words.length * PER_WORD - size) : count;
+    }
+}
@@ -0,0 +1,309 @@
+package py.org.fundacionparaguaya.pspserver.surveys.validation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.Property;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.Property.TypeEnum;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveySchema;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static py.org.fundacionparaguaya.pspserver.surveys.validation.DependencyValidation.ENUM;
+import static py.org.fundacionparaguaya.pspserver.surveys.validation.DependencyValidation.ONE_OF;
+import static py.org.fundacionparaguaya.pspserver.surveys.validation.DependencyValidation.PROPERTIES;
+import static py.org.fundacionparaguaya.pspserver.surveys.validation.DependencyValidation.REQUIRED;
+
+/**
+ * Validates snapshots against a survey schema, which is compiled once into the
+ * lookups the validation needs: an index and a type checker per property, a
+ * bitmap of the required ones, the allowed values of array items as hash sets
+ * and the <code>oneOf</code> dependency branches.
+ *
+ * It gives the same results as {@link PropertyValidator} and {@link SchemaValidator}
+ * applied to every property, in a single pass over the submitted values.
+ * Instances are immutable and shared between requests.
+ */
+public final class CompiledSurveyValidator {
+
+    private static final String ITEM_VALUE = "value";
+
+    private static final String TYPE = "type";
+
+    private final Map<String, Integer> indexes;
+
+    private final List<String> names;
+
+    private final List<Predicate<Object>> checkers;
+
+    private final List<TypeEnum> types;
+
+    private final BitSet required;
+
+    private final boolean hasRequired;
+
+    private final boolean hasProperties;
+
+    private final Map<String, List<DependencyBranch>> dependencies;
+
+    private CompiledSurveyValidator(SurveySchema schema) {
+        Map<String, Property> properties = schema.getProperties() != null
+                ? schema.getProperties() : Collections.emptyMap();
+        Collection<String> requiredNames = schema.getRequired() != null
+                ? ImmutableSet.copyOf(schema.getRequired()) : Collections.emptySet();
+
+        ImmutableMap.Builder<String, Integer> indexBuilder = ImmutableMap.builder();
+        ImmutableList.Builder<String> nameBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Predicate<Object>> checkerBuilder = ImmutableList.builder();
+        ImmutableList.Builder<TypeEnum> typeBuilder = ImmutableList.builder();
+        this.required = new BitSet(properties.size());
+
+        int index = 0;
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            indexBuilder.put(entry.getKey(), index);
+            nameBuilder.add(entry.getKey());
+            checkerBuilder.add(typeChecker(entry.getValue()));
+            typeBuilder.add(entry.getValue().getType());
+            if (requiredNames.contains(entry.getKey())) {
+                required.set(index);
+            }
+            index++;
+        }
+
+        this.indexes = indexBuilder.build();
+        this.names = nameBuilder.build();
+        this.checkers = checkerBuilder.build();
+        this.types = typeBuilder.build();
+        this.hasRequired = schema.getRequired() != null;
+        this.hasProperties = schema.getProperties() != null;
+        this.dependencies = compileDependencies(schema.getDependencies());
+    }
+
+    public static CompiledSurveyValidator compile(SurveySchema schema) {
+        return new CompiledSurveyValidator(schema);
+    }
+
+    /**
+     * Checks that every value has the type of its property and belongs to the
+     * schema, and that every required property has a value.
+     */
+    public ValidationResults validate(Map<String, Object> surveyData) {
+        ValidationResults results = ValidationSupport.validResults();
+        BitSet present = new BitSet(names.size());
+
+        for (Map.Entry<String, Object> entry : surveyData.entrySet()) {
+            Integer index = indexes.get(entry.getKey());
+            if (index == null) {
+                results.add(hasProperties
+                        ? ValidationResult.invalid(entry.getKey(),
+                                "Property '" + entry.getKey() + "' is not in survey schema")
+                        : ValidationResult.invalid("Properties don't exists"));
+                continue;
+            }
+            if (entry.getValue() == null) {
+                continue;
+            }
+            present.set(index);
+            if (!checkers.get(index).test(entry.getValue())) {
+                results.add(ValidationResult.invalid(entry.getKey(), "Property '" + entry.getKey()
+                        + "' is of invalid type. Required: '" + types.get(index) + "'"));
+            }
+        }
+
+        if (!hasRequired) {
+            for (int i = 0; i < names.size(); i++) {
+                results.add(ValidationResult.invalid("Required don't exists"));
+            }
+            return results;
+        }
+
+        BitSet missing = (BitSet) required.clone();
+        missing.andNot(present);
+        for (int i = missing.nextSetBit(0); i >= 0; i = missing.nextSetBit(i + 1)) {
+            results.add(ValidationResult.invalid(names.get(i), "Property '" + names.get(i) + "' is required"));
+        }
+        return results;
+    }
+
+    /**
+     * Checks the values of the dependencies of a snapshot. For every property
+     * with a <code>oneOf</code> dependency, its value selects the branch whose
+     * properties the rest of the values must be of, and whose required
+     * properties must all be given.
+     *
+     * @param formDependencies the values of each dependency, by the name of the property it depends on
+     */
+    public boolean dependenciesAreValid(Map<String, Object> formDependencies) {
+        if (formDependencies == null) {
+            return true;
+        }
+
+        for (Map.Entry<String, Object> entry : formDependencies.entrySet()) {
+            String key = entry.getKey();
+            if (!(entry.getValue() instanceof Map) || !((Map<?, ?>) entry.getValue()).containsKey(key)) {
+                continue;
+            }
+            Map<?, ?> values = (Map<?, ?>) entry.getValue();
+
+            List<DependencyBranch> branches = dependencies.get(key);
+            if (branches == null) {
+                return false;
+            }
+            if (branches.isEmpty()) {
+                // other kinds of dependency are not checked
+                continue;
+            }
+
+            DependencyBranch branch = findBranch(branches, values.get(key));
+            if (branch == null || !branch.accepts(key, values)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static DependencyBranch findBranch(List<DependencyBranch> branches, Object value) {
+        Object enumValue = normalize(value);
+        for (DependencyBranch branch : branches) {
+            if (branch.enumValues.contains(enumValue)) {
+                return branch;
+            }
+        }
+        return null;
+    }
+
+    private static Predicate<Object> typeChecker(Property property) {
+        TypeEnum type = property.getType();
+        if (type == null) {
+            return value -> false;
+        }
+        if (type != TypeEnum.ARRAY || property.getItems() == null) {
+            return type::apply;
+        }
+
+        Set<Object> itemValues = itemValues(property.getItems());
+        return value -> type.apply(value) || itemValues.contains(value);
+    }
+
+    private static Set<Object> itemValues(Property.Items items) {
+        List<Object> enumValues = items.getEnumValues();
+        if (enumValues == null) {
+            return Collections.emptySet();
+        }
+
+        ImmutableSet.Builder<Object> values = ImmutableSet.builder();
+        boolean objects = TypeEnum.OBJECT.equals(items.getType()) && !enumValues.isEmpty()
+                && enumValues.get(0) instanceof Map;
+        for (Object value : enumValues) {
+            // items of type object hold their value in the "value" property
+            Object itemValue = objects ? ((Map<?, ?>) value).get(ITEM_VALUE) : value;
+            if (itemValue != null) {
+                values.add(itemValue);
+            }
+        }
+        return values.build();
+    }
+
+    private static Map<String, List<DependencyBranch>> compileDependencies(Map<String, Object> schemaDependencies) {
+        if (schemaDependencies == null) {
+            return Collections.emptyMap();
+        }
+
+        ImmutableMap.Builder<String, List<DependencyBranch>> dependencies = ImmutableMap.builder();
+        for (Map.Entry<String, Object> entry : schemaDependencies.entrySet()) {
+            ImmutableList.Builder<DependencyBranch> branches = ImmutableList.builder();
+            Object oneOf = asMap(entry.getValue()).get(ONE_OF);
+            if (oneOf instanceof List) {
+                for (Object branch : (List<?>) oneOf) {
+                    branches.add(new DependencyBranch(entry.getKey(), asMap(branch)));
+                }
+            }
+            dependencies.put(entry.getKey(), branches.build());
+        }
+        return dependencies.build();
+    }
+
+    private static Map<?, ?> asMap(Object value) {
+        return value instanceof Map ? (Map<?, ?>) value : Collections.emptyMap();
+    }
+
+    /**
+     * Numbers are compared by value whatever their type, as they were when the
+     * schema and the values were compared as json.
+     */
+    private static Object normalize(Object value) {
+        return value instanceof Number ? (Object) ((Number) value).doubleValue() : value;
+    }
+
+    /**
+     * One of the <code>oneOf</code> options of a dependency: the values of the
+     * property that select it, and the types and required names of the values
+     * that come with it.
+     */
+    private static final class DependencyBranch {
+
+        private final Set<Object> enumValues;
+
+        private final Map<String, TypeEnum> types;
+
+        private final Set<String> required;
+
+        private DependencyBranch(String key, Map<?, ?> branch) {
+            Map<?, ?> properties = asMap(branch.get(PROPERTIES));
+
+            ImmutableSet.Builder<Object> enumBuilder = ImmutableSet.builder();
+            Object enumValues = asMap(properties.get(key)).get(ENUM);
+            if (enumValues instanceof List) {
+                ((List<?>) enumValues).stream()
+                        .filter(value -> value != null)
+                        .map(CompiledSurveyValidator::normalize)
+                        .forEach(enumBuilder::add);
+            }
+            this.enumValues = enumBuilder.build();
+
+            // a property without a known type is kept with a null type, which no value matches
+            Map<String, TypeEnum> typeMap = new HashMap<>();
+            properties.forEach((name, property) -> typeMap.put(String.valueOf(name),
+                    TypeEnum.fromValue(String.valueOf(asMap(property).get(TYPE)))));
+            this.types = Collections.unmodifiableMap(typeMap);
+
+            ImmutableSet.Builder<String> requiredBuilder = ImmutableSet.builder();
+            Object requiredNames = branch.get(REQUIRED);
+            if (requiredNames instanceof List) {
+                ((List<?>) requiredNames).forEach(name -> requiredBuilder.add(String.valueOf(name)));
+            }
+            this.required = requiredBuilder.build();
+        }
+
+        /**
+         * @param key the property the dependency is on, which is not one of its values
+         */
+        private boolean accepts(String key, Map<?, ?> values) {
+            for (Map.Entry<?, ?> value : values.entrySet()) {
+                if (key.equals(value.getKey())) {
+                    continue;
+                }
+                if (!types.containsKey(value.getKey())) {
+                    return false;
+                }
+                TypeEnum type = types.get(value.getKey());
+                if (type == null || !type.apply(value.getValue())) {
+                    return false;
+                }
+            }
+            for (String name : required) {
+                if (key.equals(name) || !values.containsKey(name)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package py.org.fundacionparaguaya.pspserver.surveys.validation;
 
-
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-
+/**
+ * Names of the json schema keywords used by the dependencies of a survey.
+ */
 public interface DependencyValidation {
 
      String SURVEY_SCHEMA = "survey_schema";
@@ -18,8 +17,4 @@ public interface DependencyValidation {
 
      String ENUM = "enum";
 
-    boolean checkDependency(JsonObject jsonDependencyData, JsonObject jsonDependenciesAndRequired);
-    JsonObject getDependenciesAndRequiredProperties(String keyProperty, JsonElement enumValue,
-                                                            JsonObject jsonSchemaDependency);
-
     }
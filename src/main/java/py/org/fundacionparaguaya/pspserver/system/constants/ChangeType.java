@@ -0,0 +1,9 @@
+package py.org.fundacionparaguaya.pspserver.system.constants;
+
+/**
+ * The kinds of data synchronized to mobile clients through the change log, as
+ * written by its triggers.
+ */
+public enum ChangeType {
+    SURVEY, FAMILY, SNAPSHOT, PRIORITY, DRAFT
+}
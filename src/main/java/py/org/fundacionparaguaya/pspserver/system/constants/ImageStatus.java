@@ -0,0 +1,9 @@
+package py.org.fundacionparaguaya.pspserver.system.constants;
+
+/**
+ * Where the upload of an image stands. The URL of an image that is still
+ * <code>PENDING</code> is already known, but it may not be served yet.
+ */
+public enum ImageStatus {
+    PENDING, READY, FAILED
+}
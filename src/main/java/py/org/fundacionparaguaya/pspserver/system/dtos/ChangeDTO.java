@@ -0,0 +1,65 @@
+package py.org.fundacionparaguaya.pspserver.system.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.google.common.base.MoreObjects;
+import py.org.fundacionparaguaya.pspserver.system.constants.ChangeType;
+
+/**
+ * A change for a mobile client to apply: the current state of something that
+ * was created or updated, or the tombstone of something that was deleted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeDTO {
+
+    private final ChangeType type;
+
+    private final Long id;
+
+    private final boolean deleted;
+
+    private final Object data;
+
+    private ChangeDTO(ChangeType type, Long id, boolean deleted, Object data) {
+        this.type = type;
+        this.id = id;
+        this.deleted = deleted;
+        this.data = data;
+    }
+
+    public static ChangeDTO upsert(ChangeType type, Long id, Object data) {
+        return new ChangeDTO(type, id, false, data);
+    }
+
+    public static ChangeDTO tombstone(ChangeType type, Long id) {
+        return new ChangeDTO(type, id, true, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return the DTO of the changed item, as its own endpoint returns it, or
+     * null for a tombstone.
+     */
+    public Object getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("type", type)
+                .add("id", id)
+                .add("deleted", deleted)
+                .toString();
+    }
+}
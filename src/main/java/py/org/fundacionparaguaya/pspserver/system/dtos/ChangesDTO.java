@@ -0,0 +1,39 @@
+package py.org.fundacionparaguaya.pspserver.system.dtos;
+
+import java.util.List;
+
+/**
+ * A page of the changes for a mobile client.
+ */
+public class ChangesDTO {
+
+    private final List<ChangeDTO> changes;
+
+    private final String watermark;
+
+    private final boolean more;
+
+    public ChangesDTO(List<ChangeDTO> changes, String watermark, boolean more) {
+        this.changes = changes;
+        this.watermark = watermark;
+        this.more = more;
+    }
+
+    public List<ChangeDTO> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the token to ask for the following changes with, never null
+     */
+    public String getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return whether there are more changes to read right away
+     */
+    public boolean isMore() {
+        return more;
+    }
+}
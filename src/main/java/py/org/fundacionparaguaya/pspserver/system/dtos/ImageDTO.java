@@ -1,22 +1,65 @@
 package py.org.fundacionparaguaya.pspserver.system.dtos;
 
+import com.google.common.io.ByteSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Files;
+
+/**
+ * An image to upload, read from its source as it is uploaded. Closing it
+ * deletes the temporary file it was copied to, if it was.
+ */
+public class ImageDTO implements Serializable, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageDTO.class);
+
+    private transient ByteSource content;
+
+    private long length;
 
-public class ImageDTO implements Serializable {
+    private String contentType;
 
-    private File file;
+    private transient File temporaryFile;
 
     private String format;
 
     private String imageDirectory;
 
-    public File getFile() {
-        return file;
+    public ByteSource getContent() {
+        return content;
     }
 
-    public void setFile(File file) {
-        this.file = file;
+    public void setContent(ByteSource content) {
+        this.content = content;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public File getTemporaryFile() {
+        return temporaryFile;
+    }
+
+    public void setTemporaryFile(File temporaryFile) {
+        this.temporaryFile = temporaryFile;
     }
 
     public String getFormat() {
@@ -34,4 +77,17 @@ public class ImageDTO implements Serializable {
     public void setImageDirectory(String imageDirectory) {
         this.imageDirectory = imageDirectory;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void close() {
+        if (temporaryFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporaryFile.toPath());
+        } catch (IOException e) {
+            LOG.warn("Could not delete {}", temporaryFile, e);
+        }
+        temporaryFile = null;
+    }
+}
@@ -2,22 +2,29 @@ package py.org.fundacionparaguaya.pspserver.system.dtos;
 
 import org.springframework.web.multipart.MultipartFile;
 
-import com.google.common.io.Files;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import py.org.fundacionparaguaya.pspserver.common.exceptions.InternalServerErrorException;
+import com.google.common.io.ByteSource;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Base64;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 public class ImageParser {
 
-    private static final Logger LOG = LoggerFactory.getLogger(ImageParser.class);
+    private static final int BASE64_QUANTUM = 4;
+
+    private static final int BYTES_PER_QUANTUM = 3;
 
     private ImageParser() {}
 
+    /**
+     * @return the image in the data URI, decoded from base64 as it is read, or
+     * null if the URI is not of an image
+     * @throws IllegalArgumentException if the data is not valid base64
+     */
     public static ImageDTO parse(String fileString, String imageDirectory) {
         ImageDTO image = null;
 
@@ -29,22 +36,12 @@ public class ImageParser {
             String type = contentType.substring(0, contentType.indexOf('/'));
             if ("image".equals(type)) {
                 String format = contentType.substring(contentType.indexOf('/') + 1);
-
-                String base64 = fileString.substring(fileString.indexOf(',') + 1);
-                Base64.Decoder decoder = Base64.getDecoder();
-                byte[] fileBytes = decoder.decode(base64);
-
-                File file;
-                try {
-                    file = File.createTempFile("file", ".tmp");
-                    Files.write(fileBytes, file);
-                } catch (IOException e) {
-                    LOG.error(e.getMessage(), e);
-                    throw new InternalServerErrorException(e);
-                }
+                int offset = fileString.indexOf(',') + 1;
 
                 image = new ImageDTO();
-                image.setFile(file);
+                image.setLength(decodedLength(fileString, offset));
+                image.setContent(new Base64Source(fileString, offset));
+                image.setContentType(contentType);
                 image.setFormat(format);
                 image.setImageDirectory(imageDirectory);
             }
@@ -53,21 +50,100 @@ public class ImageParser {
         return image;
     }
 
+    /**
+     * The part of a multipart request is deleted once the request ends, so the
+     * image is moved to a temporary file, deleted when the image is closed.
+     */
     public static ImageDTO parse(MultipartFile multipartFile, String imageDirectory)
             throws IOException {
 
-        File file = File.createTempFile("file", ".tmp");
-
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            fos.write(multipartFile.getBytes());
+        File file = File.createTempFile("image", ".tmp");
+        try {
+            multipartFile.transferTo(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file.toPath());
+            throw e;
         }
 
         String fileFormat = multipartFile.getContentType();
         ImageDTO image  = new ImageDTO();
-        image.setFile(file);
+        image.setContent(com.google.common.io.Files.asByteSource(file));
+        image.setLength(file.length());
+        image.setContentType(fileFormat);
+        image.setTemporaryFile(file);
         image.setFormat(fileFormat.substring(fileFormat.indexOf('/')+1, fileFormat.length()));
         image.setImageDirectory(imageDirectory);
 
         return  image;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the number of bytes the base64 from the offset decodes to, which
+     * the upload has to know up front
+     */
+    static long decodedLength(String base64, int offset) {
+        int padding = 0;
+        for (int i = base64.length() - 1; i >= offset && base64.charAt(i) == '=' && padding < 2; i--) {
+            padding++;
+        }
+
+        int end = base64.length() - padding;
+        for (int i = offset; i < end; i++) {
+            checkArgument(isBase64(base64.charAt(i)), "Invalid base64 image data at %s", i);
+        }
+
+        int chars = end - offset;
+        int remainder = chars % BASE64_QUANTUM;
+        checkArgument(remainder != 1, "Invalid base64 image data length");
+        return (long) chars / BASE64_QUANTUM * BYTES_PER_QUANTUM + (remainder == 0 ? 0 : remainder - 1);
+    }
+
+    private static boolean isBase64(char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '+' || c == '/';
+    }
+
+    /**
+     * Decodes the base64 of a data URI straight from the string, so neither the
+     * encoded nor the decoded image is copied.
+     */
+    private static final class Base64Source extends ByteSource {
+
+        private final String base64;
+
+        private final int offset;
+
+        Base64Source(String base64, int offset) {
+            this.base64 = base64;
+            this.offset = offset;
+        }
+
+        @Override
+        public InputStream openStream() {
+            return Base64.getDecoder().wrap(new InputStream() {
+
+                private int position = offset;
+
+                @Override
+                public int read() {
+                    return position < base64.length() ? base64.charAt(position++) : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (position >= base64.length()) {
+                        return -1;
+                    }
+                    int count = Math.min(len, base64.length() - position);
+                    for (int i = 0; i < count; i++) {
+                        // only ASCII is left once the length has been worked out
+                        b[off + i] = (byte) base64.charAt(position++);
+                    }
+                    return count;
+                }
+            });
+        }
+    }
+}
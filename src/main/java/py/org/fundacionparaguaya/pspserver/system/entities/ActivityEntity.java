@@ -31,7 +31,9 @@ public class ActivityEntity extends BaseEntity {
         @org.hibernate.annotations.Parameter(name =
                 SequenceStyleGenerator.INITIAL_PARAM, value = "1"),
         @org.hibernate.annotations.Parameter(name =
-                SequenceStyleGenerator.INCREMENT_PARAM, value = "1") })
+                SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+        @org.hibernate.annotations.Parameter(name =
+                SequenceStyleGenerator.OPT_PARAM, value = "pooled") })
     @GeneratedValue(generator = "activityFeedSequenceGenerator")
     @Column(name = "activity_id")
     private Long activityId;
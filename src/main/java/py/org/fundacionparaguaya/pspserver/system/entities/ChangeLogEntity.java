@@ -0,0 +1,113 @@
+package py.org.fundacionparaguaya.pspserver.system.entities;
+
+import com.google.common.base.MoreObjects;
+import org.hibernate.annotations.Immutable;
+import py.org.fundacionparaguaya.pspserver.common.entities.LocalDateTimeConverter;
+import py.org.fundacionparaguaya.pspserver.system.constants.ChangeType;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A change to synchronized data. Rows are only written by the database
+ * triggers on the synchronized tables, in the transaction of the change.
+ */
+@Entity
+@Immutable
+@Table(name = "change_log", schema = "system")
+public class ChangeLogEntity {
+
+    @Id
+    @Column(name = "change_id")
+    private Long changeId;
+
+    @Column(name = "txid")
+    private Long txid;
+
+    @Column(name = "entity_type")
+    @Enumerated(EnumType.STRING)
+    private ChangeType entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "deleted")
+    private boolean deleted;
+
+    @Column(name = "application_id")
+    private Long applicationId;
+
+    @Column(name = "organization_id")
+    private Long organizationId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "changed_at")
+    @Convert(converter = LocalDateTimeConverter.class)
+    private LocalDateTime changedAt;
+
+    public ChangeLogEntity() {
+    }
+
+    public ChangeLogEntity(Long changeId, Long txid, ChangeType entityType, Long entityId, boolean deleted) {
+        this.changeId = changeId;
+        this.txid = txid;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deleted = deleted;
+    }
+
+    public Long getChangeId() {
+        return changeId;
+    }
+
+    public Long getTxid() {
+        return txid;
+    }
+
+    public ChangeType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public Long getOrganizationId() {
+        return organizationId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("changeId", changeId)
+                .add("txid", txid)
+                .add("entityType", entityType)
+                .add("entityId", entityId)
+                .add("deleted", deleted)
+                .toString();
+    }
+}
@@ -0,0 +1,55 @@
+package py.org.fundacionparaguaya.pspserver.system.events;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
+
+import java.util.List;
+
+/**
+ * Activities for the feed, which are written once the transaction they were
+ * created in commits.
+ */
+public class ActivitiesCreatedEvent {
+
+    private final List<ActivityDTO> activities;
+
+    private ActivitiesCreatedEvent(List<ActivityDTO> activities) {
+        this.activities = activities;
+    }
+
+    public static ActivitiesCreatedEvent of(ActivityDTO... activities) {
+        return new ActivitiesCreatedEvent(ImmutableList.copyOf(activities));
+    }
+
+    public List<ActivityDTO> getActivities() {
+        return activities;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ActivitiesCreatedEvent that = (ActivitiesCreatedEvent) o;
+
+        return Objects.equal(this.activities, that.activities);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(activities);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("activities", activities)
+                .toString();
+    }
+}
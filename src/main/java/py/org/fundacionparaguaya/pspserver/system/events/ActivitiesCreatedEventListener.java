@@ -0,0 +1,30 @@
+package py.org.fundacionparaguaya.pspserver.system.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import py.org.fundacionparaguaya.pspserver.system.services.ActivityWriter;
+
+/**
+ * Hands the activities of a committed transaction to the {@link ActivityWriter},
+ * so they are written outside of it. Activities created without a transaction
+ * are handed over at once.
+ */
+@Component
+public class ActivitiesCreatedEventListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ActivitiesCreatedEventListener.class);
+
+    private final ActivityWriter activityWriter;
+
+    public ActivitiesCreatedEventListener(ActivityWriter activityWriter) {
+        this.activityWriter = activityWriter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void processActivitiesCreatedEvent(ActivitiesCreatedEvent event) {
+        LOG.debug("Event received: {}", event);
+        activityWriter.write(event.getActivities());
+    }
+}
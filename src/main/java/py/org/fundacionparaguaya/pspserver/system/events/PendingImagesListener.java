@@ -0,0 +1,75 @@
+package py.org.fundacionparaguaya.pspserver.system.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+import py.org.fundacionparaguaya.pspserver.families.repositories.FamilyRepository;
+import py.org.fundacionparaguaya.pspserver.network.repositories.OrganizationRepository;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
+import py.org.fundacionparaguaya.pspserver.system.services.ImageUploadService;
+import py.org.fundacionparaguaya.pspserver.system.services.ImageUploadService.ImageOwner;
+
+/**
+ * Settles the family images and organization logos a server left pending
+ * when it stopped, or crashed, before their uploads ended, so they are not
+ * pending forever. Done when the application starts, as the uploads of the
+ * previous run are gone by then.
+ */
+@Component
+public class PendingImagesListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PendingImagesListener.class);
+
+    private final ImageUploadService imageUploadService;
+
+    private final FamilyRepository familyRepository;
+
+    private final OrganizationRepository organizationRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    public PendingImagesListener(ImageUploadService imageUploadService, FamilyRepository familyRepository,
+            OrganizationRepository organizationRepository, ApplicationProperties applicationProperties) {
+        this.imageUploadService = imageUploadService;
+        this.familyRepository = familyRepository;
+        this.organizationRepository = organizationRepository;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void settlePendingImages() {
+        String familiesDirectory = applicationProperties.getAws().getFamiliesImageDirectory();
+        for (Object[] image : familyRepository.findImagesByStatus(ImageStatus.PENDING)) {
+            Long familyId = (Long) image[0];
+            settle("family", familyId, (String) image[1], familiesDirectory,
+                    (expectedUrl, url, status) -> familyRepository.updateImageStatus(familyId, expectedUrl,
+                            ImageStatus.PENDING, status) > 0);
+        }
+
+        String organizationsDirectory = applicationProperties.getAws().getOrgsImageDirectory();
+        for (Object[] logo : organizationRepository.findLogosByStatus(ImageStatus.PENDING)) {
+            Long organizationId = (Long) logo[0];
+            settle("organization", organizationId, (String) logo[1], organizationsDirectory,
+                    (expectedUrl, url, status) -> organizationRepository.updateLogoStatus(organizationId,
+                            expectedUrl, ImageStatus.PENDING, status) > 0);
+        }
+    }
+
+    private void settle(String ownerType, Long ownerId, String url, String imageDirectory, ImageOwner owner) {
+        if (url == null) {
+            return;
+        }
+        try {
+            ImageStatus status = imageUploadService.settlePendingImage(url, imageDirectory, owner);
+            if (status != null) {
+                LOG.info("Image {} of {} {} was left pending, set it as {}", url, ownerType, ownerId, status);
+            }
+        } catch (RuntimeException e) {
+            // left pending, to be settled on the next start
+            LOG.warn("Could not settle the pending image {} of {} {}", url, ownerType, ownerId, e);
+        }
+    }
+}
@@ -35,8 +35,13 @@ public class CityMapper implements BaseMapper<CityEntity, CityDTO> {
 
 	@Override
 	public CityDTO entityToDto(CityEntity entity) {
-		CityDTO dto = modelMapper.map(entity, CityDTO.class);
-	        return dto;
+		if (entity == null) {
+			return null;
+		}
+		CityDTO dto = new CityDTO();
+		dto.setId(entity.getId());
+		dto.setCity(entity.getCity());
+		return dto;
 	}
 
 	@Override
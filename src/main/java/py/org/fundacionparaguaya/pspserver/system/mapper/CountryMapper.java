@@ -34,8 +34,16 @@ public class CountryMapper implements BaseMapper<CountryEntity, CountryDTO> {
 
 	@Override
 	public CountryDTO entityToDto(CountryEntity entity) {
-		CountryDTO dto = modelMapper.map(entity, CountryDTO.class);
-	        return dto;
+		if (entity == null) {
+			return null;
+		}
+		CountryDTO dto = new CountryDTO();
+		dto.setId(entity.getId());
+		dto.setCountry(entity.getCountry());
+		dto.setNumericCode(entity.getNumericCode());
+		dto.setAlfa2Code(entity.getAlfa2Code());
+		dto.setAlfa3code(entity.getAlfa3Code());
+		return dto;
 	}
 
 	@Override
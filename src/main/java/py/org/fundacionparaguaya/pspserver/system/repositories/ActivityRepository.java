@@ -5,5 +5,5 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import py.org.fundacionparaguaya.pspserver.system.entities.ActivityEntity;
 
 public interface ActivityRepository extends JpaRepository<ActivityEntity, Long>,
-        JpaSpecificationExecutor<ActivityEntity> {
+        JpaSpecificationExecutor<ActivityEntity>, ActivityRepositoryCustom {
 }
@@ -0,0 +1,35 @@
+package py.org.fundacionparaguaya.pspserver.system.repositories;
+
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetCursor;
+import py.org.fundacionparaguaya.pspserver.system.entities.ActivityEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queries over activities that can not be expressed with the derived
+ * Spring Data methods.
+ */
+public interface ActivityRepositoryCustom {
+
+    /**
+     * Reads the activities matching the specification, newest first, seeking
+     * past the given cursor so that every page costs the same however long the
+     * history is.
+     *
+     * @param since when not null, only activities created after this date
+     * @param before the last activity of the previous page, or null for the first page
+     * @param limit the maximum number of activities to return
+     */
+    List<ActivityEntity> findBefore(Specification<ActivityEntity> spec, LocalDateTime since, KeysetCursor before,
+            int limit);
+
+    /**
+     * Moves up to {@code limit} activities created before the given date to
+     * <code>system.activity_archive</code>.
+     *
+     * @return the number of activities moved
+     */
+    int archiveBefore(LocalDateTime before, int limit);
+}
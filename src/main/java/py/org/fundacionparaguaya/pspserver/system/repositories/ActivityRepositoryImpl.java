@@ -0,0 +1,86 @@
+package py.org.fundacionparaguaya.pspserver.system.repositories;
+
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetCursor;
+import py.org.fundacionparaguaya.pspserver.system.entities.ActivityEntity;
+import py.org.fundacionparaguaya.pspserver.system.entities.ActivityEntity_;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link ActivityRepositoryCustom}, picked up by
+ * Spring Data through the <code>Impl</code> postfix.
+ */
+public class ActivityRepositoryImpl implements ActivityRepositoryCustom {
+
+    private static final String ID_ATTRIBUTE = "activityId";
+
+    // named, so a column added to only one of the tables fails here instead of shifting the others
+    private static final String ARCHIVE_COLUMNS = "activity_id, user_id, activity_type, organization_id, "
+            + "application_id, created_at, activity_key, activity_params, activity_role, family_id";
+
+    private static final String ARCHIVE_SQL = "WITH archived AS ("
+            + "DELETE FROM system.activity WHERE activity_id IN ("
+            + "SELECT activity_id FROM system.activity WHERE created_at < :before LIMIT :limit) "
+            + "RETURNING " + ARCHIVE_COLUMNS + ") "
+            + "INSERT INTO system.activity_archive (" + ARCHIVE_COLUMNS + ") "
+            + "SELECT " + ARCHIVE_COLUMNS + " FROM archived";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ActivityEntity> findBefore(Specification<ActivityEntity> spec, LocalDateTime since,
+            KeysetCursor before, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ActivityEntity> query = cb.createQuery(ActivityEntity.class);
+        Root<ActivityEntity> root = query.from(ActivityEntity.class);
+
+        Path<LocalDateTime> createdAt = root.get(ActivityEntity_.getCreatedAt());
+        Path<Long> id = root.get(ID_ATTRIBUTE);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate byDetails = spec.toPredicate(root, query, cb);
+        if (byDetails != null) {
+            predicates.add(byDetails);
+        }
+        // every activity gets its creation date on insert, rows without one are not part of the feed
+        predicates.add(cb.isNotNull(createdAt));
+        if (since != null) {
+            predicates.add(cb.greaterThan(createdAt, since));
+        }
+        if (before != null && before.getCreatedAt() != null) {
+            // (created_at, activity_id) < (:createdAt, :id), with the leading bound repeated
+            // on its own so the index scan starts at the cursor
+            predicates.add(cb.lessThanOrEqualTo(createdAt, before.getCreatedAt()));
+            predicates.add(cb.or(cb.lessThan(createdAt, before.getCreatedAt()),
+                    cb.lessThan(id, before.getId())));
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[predicates.size()]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int archiveBefore(LocalDateTime before, int limit) {
+        return entityManager.createNativeQuery(ARCHIVE_SQL)
+                .setParameter("before", Timestamp.valueOf(before))
+                .setParameter("limit", limit)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,8 @@
+package py.org.fundacionparaguaya.pspserver.system.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import py.org.fundacionparaguaya.pspserver.system.entities.ChangeLogEntity;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntity, Long>, ChangeLogRepositoryCustom {
+
+}
@@ -0,0 +1,30 @@
+package py.org.fundacionparaguaya.pspserver.system.repositories;
+
+import py.org.fundacionparaguaya.pspserver.common.pagination.SyncWatermark;
+import py.org.fundacionparaguaya.pspserver.system.entities.ChangeLogEntity;
+
+import java.util.List;
+
+/**
+ * Reads of the change log, which need the transaction ids of the database.
+ */
+public interface ChangeLogRepositoryCustom {
+
+    /**
+     * @return the oldest transaction still running. Every change of an older
+     * transaction is already committed, or rolled back, so it is safe to read.
+     */
+    long findHead();
+
+    /**
+     * Reads the changes after the watermark made by transactions older than the
+     * head, in the order they have to be applied.
+     *
+     * @param applicationId when not null, only the changes of the application
+     * @param organizationId when not null, only the changes of the organization
+     * @param userId the user whose drafts are read, drafts of others are never read
+     * @param limit the maximum number of changes to return
+     */
+    List<ChangeLogEntity> findAfter(SyncWatermark after, long head, Long applicationId, Long organizationId,
+            Long userId, int limit);
+}
@@ -0,0 +1,73 @@
+package py.org.fundacionparaguaya.pspserver.system.repositories;
+
+import py.org.fundacionparaguaya.pspserver.common.pagination.SyncWatermark;
+import py.org.fundacionparaguaya.pspserver.system.constants.ChangeType;
+import py.org.fundacionparaguaya.pspserver.system.entities.ChangeLogEntity;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * Implementation of {@link ChangeLogRepositoryCustom}, picked up by
+ * Spring Data through the <code>Impl</code> postfix.
+ */
+public class ChangeLogRepositoryImpl implements ChangeLogRepositoryCustom {
+
+    private static final String HEAD_SQL = "SELECT txid_snapshot_xmin(txid_current_snapshot())";
+
+    private static final String DRAFT = "'" + ChangeType.DRAFT.name() + "'";
+
+    private static final String SURVEY = "'" + ChangeType.SURVEY.name() + "'";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long findHead() {
+        return ((Number) entityManager.createNativeQuery(HEAD_SQL).getSingleResult()).longValue();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ChangeLogEntity> findAfter(SyncWatermark after, long head, Long applicationId,
+            Long organizationId, Long userId, int limit) {
+        String scopeColumn = null;
+        Long scopeId = null;
+        if (organizationId != null) {
+            scopeColumn = "organization_id";
+            scopeId = organizationId;
+        } else if (applicationId != null) {
+            scopeColumn = "application_id";
+            scopeId = applicationId;
+        }
+
+        // a row comparison, which the (txid, change_id) indexes are read from as a single range
+        StringBuilder sql = new StringBuilder("SELECT c.* FROM system.change_log c "
+                + "WHERE (c.txid, c.change_id) > (:txid, :changeId) "
+                + "AND c.txid < :head ");
+        sql.append("AND ((c.entity_type = " + DRAFT + " AND c.user_id = :userId) ");
+        if (scopeColumn == null) {
+            sql.append("OR c.entity_type <> " + DRAFT + ") ");
+        } else {
+            // changes to the survey itself have no scope, and go to where it is assigned
+            sql.append("OR (c.entity_type <> " + DRAFT + " AND c." + scopeColumn + " = :scopeId) "
+                    + "OR (c.entity_type = " + SURVEY + " AND c.application_id IS NULL "
+                    + "AND c.organization_id IS NULL AND EXISTS (SELECT 1 FROM ps_network.surveys_organizations so "
+                    + "WHERE so.survey_id = c.entity_id AND so." + scopeColumn + " = :scopeId))) ");
+        }
+        sql.append("ORDER BY c.txid, c.change_id");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), ChangeLogEntity.class)
+                .setParameter("txid", after.getTxid())
+                .setParameter("changeId", after.getChangeId())
+                .setParameter("head", head)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (scopeId != null) {
+            query.setParameter("scopeId", scopeId);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,18 @@
+package py.org.fundacionparaguaya.pspserver.system.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the feed table small by moving old activities out of it, so that
+ * reading the feed does not get slower as the history grows.
+ */
+public interface ActivityArchiveService {
+
+    /**
+     * Moves the activities created before the given date to
+     * <code>system.activity_archive</code>.
+     *
+     * @return the number of activities moved
+     */
+    long archiveActivitiesBefore(LocalDateTime before);
+}
@@ -1,10 +1,11 @@
 package py.org.fundacionparaguaya.pspserver.system.services;
 
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityFeedDTO;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 /**
  * Created by bsandoval on 05/05/18.
@@ -16,5 +17,6 @@ public interface ActivityFeedManager {
 
     /*void createRequestedReportActivity();*/
 
-    List<ActivityFeedDTO> showActivityFeedByUserDetails(UserDetailsDTO details);
+    KeysetPage<ActivityFeedDTO> showActivityFeedByUserDetails(UserDetailsDTO details, LocalDateTime since,
+            String cursor, int size);
 }
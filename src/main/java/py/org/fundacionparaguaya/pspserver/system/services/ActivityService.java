@@ -1,18 +1,31 @@
 package py.org.fundacionparaguaya.pspserver.system.services;
 
-import org.springframework.data.domain.Sort;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityFeedDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ActivityService {
+
+    int MAX_FEED_PAGE_SIZE = 200;
+
     ActivityDTO getActivityById(Long activityId);
 
     ActivityDTO addActivity(ActivityDTO activityDTO);
 
     List<ActivityDTO> getAllActivities();
 
-    List<ActivityFeedDTO> getActivitiesByUserDetails(UserDetailsDTO userDetails, Sort sortBy);
+    /**
+     * Reads the feed of the role, application and organization of the user one
+     * page at a time, newest first.
+     *
+     * @param since when not null, only activities created after this date
+     * @param cursor the token of the previous page, or null for the first one
+     * @param size the number of activities in the page, at most {@link #MAX_FEED_PAGE_SIZE}
+     */
+    KeysetPage<ActivityFeedDTO> getActivitiesByUserDetails(UserDetailsDTO userDetails, LocalDateTime since,
+            String cursor, int size);
 }
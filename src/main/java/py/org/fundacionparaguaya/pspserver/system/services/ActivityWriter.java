@@ -0,0 +1,27 @@
+package py.org.fundacionparaguaya.pspserver.system.services;
+
+import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
+
+import java.util.Collection;
+
+/**
+ * Writes the activities of the feed in batches, in the background.
+ */
+public interface ActivityWriter {
+
+    /**
+     * Queues the activities to be written. When the queue is full, this waits
+     * for room for a while and then writes them itself, which slows down
+     * producers instead of losing activities.
+     */
+    void write(Collection<ActivityDTO> activities);
+
+    int getQueueDepth();
+
+    long getWrittenCount();
+
+    /**
+     * @return the average time to write a batch, in milliseconds
+     */
+    double getAverageFlushMillis();
+}
@@ -0,0 +1,38 @@
+package py.org.fundacionparaguaya.pspserver.system.services;
+
+import java.io.InputStream;
+
+/**
+ * Where the images of families, organizations and applications are kept, under
+ * keys like <code>families/2018-08-11T10:00:00.png</code>, and the public URL
+ * they are served from.
+ *
+ * The content is streamed to the store as it is read, so an image is never
+ * held in memory as a whole.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores the content under the key, replacing whatever was there. The
+     * stream is read to the end but not closed.
+     *
+     * @param length the number of bytes in the stream
+     */
+    void put(String key, InputStream content, long length, String contentType);
+
+    /**
+     * Deletes the content under the key, if there is any.
+     */
+    void delete(String key);
+
+    /**
+     * @return whether there is content under the key
+     */
+    boolean exists(String key);
+
+    /**
+     * @return the URL the content under the key is served from, whether it has
+     * been stored yet or not
+     */
+    String getUrl(String key);
+}
@@ -1,10 +1,57 @@
 package py.org.fundacionparaguaya.pspserver.system.services;
 
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageDTO;
 
 public interface ImageUploadService {
 
+    /**
+     * Uploads the image on the calling thread, and closes it.
+     *
+     * @return the URL of the uploaded image
+     */
     String uploadImage(ImageDTO image);
 
+    /**
+     * Uploads the image in the background once the current transaction commits,
+     * or right away if there is none, and closes it. The owner of the image
+     * should be saved with the returned URL, as {@link ImageStatus#PENDING}, in
+     * that transaction.
+     *
+     * When the upload ends the owner is updated, in a transaction of its own,
+     * to the URL as {@link ImageStatus#READY}, and the replaced image is deleted;
+     * or back to the replaced URL as {@link ImageStatus#FAILED}. An owner that
+     * got another image in the meantime is left as it is.
+     *
+     * @param replacedUrl the URL of the image the owner had, if any
+     * @return the URL the image will be served from
+     */
+    String uploadImageInBackground(ImageDTO image, String replacedUrl, ImageOwner owner);
+
     void deleteImage(String logoUrl, String imageDirectory);
-}
\ No newline at end of file
+
+    /**
+     * Settles an image left {@link ImageStatus#PENDING} by a server that stopped
+     * before its upload ended: the owner is updated to {@link ImageStatus#READY}
+     * if the image got to the store, or else to {@link ImageStatus#FAILED}. The
+     * URL is kept, so an upload still running on another server can set it ready.
+     *
+     * @param owner the owner, updated only while its image is still pending
+     * @return the status the owner was updated to, or null if it was not
+     */
+    ImageStatus settlePendingImage(String url, String imageDirectory, ImageOwner owner);
+
+    /**
+     * The entity an image is uploaded for.
+     */
+    interface ImageOwner {
+
+        /**
+         * Sets the URL and status of the image of the owner, if its URL is still
+         * the expected one.
+         *
+         * @return whether the owner was updated
+         */
+        boolean updateImage(String expectedUrl, String url, ImageStatus status);
+    }
+}
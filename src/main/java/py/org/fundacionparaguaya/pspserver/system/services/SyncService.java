@@ -0,0 +1,23 @@
+package py.org.fundacionparaguaya.pspserver.system.services;
+
+import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ChangesDTO;
+
+public interface SyncService {
+
+    int MAX_SYNC_PAGE_SIZE = 500;
+
+    /**
+     * Reads the changes to the surveys, families, snapshots and priorities of
+     * the application and organization of the user, and to their own drafts,
+     * made after the watermark, oldest first.
+     *
+     * Without a watermark no changes are returned, only the watermark to start
+     * from: clients load everything once through the other endpoints after
+     * asking for it, and from then on only the changes.
+     *
+     * @param watermark the watermark of the previous call, or null for a client that has not synchronized yet
+     * @param size the number of changes read from the log, at most {@link #MAX_SYNC_PAGE_SIZE}
+     */
+    ChangesDTO getChanges(UserDetailsDTO userDetails, String watermark, int size);
+}
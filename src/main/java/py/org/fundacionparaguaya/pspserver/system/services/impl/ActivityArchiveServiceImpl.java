@@ -0,0 +1,59 @@
+package py.org.fundacionparaguaya.pspserver.system.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+import py.org.fundacionparaguaya.pspserver.system.repositories.ActivityRepository;
+import py.org.fundacionparaguaya.pspserver.system.services.ActivityArchiveService;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archives the activities older than <code>application.activityFeed.retentionDays</code>
+ * on the <code>application.activityFeed.archiveCron</code> schedule. They are
+ * moved in batches, each in a transaction of its own, so the feed is never
+ * locked for long.
+ */
+@Service
+public class ActivityArchiveServiceImpl implements ActivityArchiveService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ActivityArchiveServiceImpl.class);
+
+    private static final int ARCHIVE_BATCH_SIZE = 5000;
+
+    private final ActivityRepository activityRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    public ActivityArchiveServiceImpl(ActivityRepository activityRepository,
+            PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties) {
+        this.activityRepository = activityRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Scheduled(cron = "${application.activityFeed.archiveCron:0 0 3 * * *}")
+    public void archiveExpiredActivities() {
+        int retentionDays = applicationProperties.getActivityFeed().getRetentionDays();
+        long archived = archiveActivitiesBefore(LocalDateTime.now().minusDays(retentionDays));
+        LOG.info("Archived {} activities older than {} days", archived, retentionDays);
+    }
+
+    @Override
+    public long archiveActivitiesBefore(LocalDateTime before) {
+        long total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(
+                    status -> activityRepository.archiveBefore(before, ARCHIVE_BATCH_SIZE));
+            total += archived;
+        } while (archived == ARCHIVE_BATCH_SIZE);
+        return total;
+    }
+}
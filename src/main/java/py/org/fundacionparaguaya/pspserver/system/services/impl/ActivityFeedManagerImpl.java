@@ -1,18 +1,20 @@
 package py.org.fundacionparaguaya.pspserver.system.services.impl;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.security.constants.Role;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.system.constants.ActivityType;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityFeedDTO;
+import py.org.fundacionparaguaya.pspserver.system.events.ActivitiesCreatedEvent;
 import py.org.fundacionparaguaya.pspserver.system.mapper.ActivityParamMapper;
 import py.org.fundacionparaguaya.pspserver.system.services.ActivityFeedManager;
 import py.org.fundacionparaguaya.pspserver.system.services.ActivityService;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 import static py.org.fundacionparaguaya.pspserver.system.constants.ActivityMessage.*;
 
@@ -23,31 +25,44 @@ import static py.org.fundacionparaguaya.pspserver.system.constants.ActivityMessa
 public class ActivityFeedManagerImpl implements ActivityFeedManager {
 
     private final ActivityService activityService;
+    private final ApplicationEventPublisher publisher;
     private final ActivityParamMapper mapper = new ActivityParamMapper();
 
-    public ActivityFeedManagerImpl(ActivityService activityService) {
+    public ActivityFeedManagerImpl(ActivityService activityService, ApplicationEventPublisher publisher) {
         this.activityService = activityService;
+        this.publisher = publisher;
     }
 
     @Override
     public void createHouseholdFirstSnapshotActivity(UserDetailsDTO details, FamilyEntity family) {
-        ActivityDTO firstSnapshotActivity = ActivityDTO.builder()
-                .activityKey(HOUSEHOLD_FIRST_SNAPSHOT.getKey())
-                .activityRole(Role.ROLE_ROOT)
-                .activityType(ActivityType.SNAPSHOTS)
-                .addActivityParam(mapper.wrappedParam(family.getName()))
-                .addActivityParam(mapper.familyCityToParam(family.getCity()))
-                .build();
-
-        activityService.addActivity(firstSnapshotActivity);
-
-        firstSnapshotActivity.setActivityRole(Role.ROLE_HUB_ADMIN);
-        firstSnapshotActivity.setApplication(details.getApplication());
-        activityService.addActivity(firstSnapshotActivity);
+        String nameParam = mapper.wrappedParam(family.getName());
+        String cityParam = mapper.familyCityToParam(family.getCity());
 
-        firstSnapshotActivity.setActivityRole(Role.ROLE_APP_ADMIN);
-        firstSnapshotActivity.setOrganization(details.getOrganization());
-        activityService.addActivity(firstSnapshotActivity);
+        publisher.publishEvent(ActivitiesCreatedEvent.of(
+                ActivityDTO.builder()
+                        .activityKey(HOUSEHOLD_FIRST_SNAPSHOT.getKey())
+                        .activityRole(Role.ROLE_ROOT)
+                        .activityType(ActivityType.SNAPSHOTS)
+                        .addActivityParam(nameParam)
+                        .addActivityParam(cityParam)
+                        .build(),
+                ActivityDTO.builder()
+                        .activityKey(HOUSEHOLD_FIRST_SNAPSHOT.getKey())
+                        .activityRole(Role.ROLE_HUB_ADMIN)
+                        .activityType(ActivityType.SNAPSHOTS)
+                        .application(details.getApplication())
+                        .addActivityParam(nameParam)
+                        .addActivityParam(cityParam)
+                        .build(),
+                ActivityDTO.builder()
+                        .activityKey(HOUSEHOLD_FIRST_SNAPSHOT.getKey())
+                        .activityRole(Role.ROLE_APP_ADMIN)
+                        .activityType(ActivityType.SNAPSHOTS)
+                        .application(details.getApplication())
+                        .organization(details.getOrganization())
+                        .addActivityParam(nameParam)
+                        .addActivityParam(cityParam)
+                        .build()));
     }
 
     @Override
@@ -55,37 +70,36 @@ public class ActivityFeedManagerImpl implements ActivityFeedManager {
         String orgParam = mapper.organizationToParam(details.getOrganization());
         String cityParam = mapper.familyCityToParam(family.getCity());
 
-        activityService.addActivity(ActivityDTO.builder()
-                .activityKey(ADMIN_SNAPSHOTS.getKey())
-                .activityRole(Role.ROLE_ROOT)
-                .activityType(ActivityType.SNAPSHOTS)
-                .addActivityParam(orgParam)
-                .addActivityParam(mapper.applicationToParam(details.getApplication()))
-                .build());
-
-        activityService.addActivity(ActivityDTO.builder()
-                .activityKey(HUB_SNAPSHOTS.getKey())
-                .activityRole(Role.ROLE_HUB_ADMIN)
-                .activityType(ActivityType.SNAPSHOTS)
-                .application(details.getApplication())
-                .addActivityParam(orgParam)
-                .addActivityParam(cityParam)
-                .build());
-
-        activityService.addActivity(ActivityDTO.builder()
-                .activityKey(ORG_SNAPSHOTS.getKey())
-                .activityRole(Role.ROLE_APP_ADMIN)
-                .activityType(ActivityType.SNAPSHOTS)
-                .application(details.getApplication())
-                .organization(details.getOrganization())
-                .addActivityParam(mapper.wrappedParam(details.getUsername()))
-                .addActivityParam(cityParam)
-                .build());
+        publisher.publishEvent(ActivitiesCreatedEvent.of(
+                ActivityDTO.builder()
+                        .activityKey(ADMIN_SNAPSHOTS.getKey())
+                        .activityRole(Role.ROLE_ROOT)
+                        .activityType(ActivityType.SNAPSHOTS)
+                        .addActivityParam(orgParam)
+                        .addActivityParam(mapper.applicationToParam(details.getApplication()))
+                        .build(),
+                ActivityDTO.builder()
+                        .activityKey(HUB_SNAPSHOTS.getKey())
+                        .activityRole(Role.ROLE_HUB_ADMIN)
+                        .activityType(ActivityType.SNAPSHOTS)
+                        .application(details.getApplication())
+                        .addActivityParam(orgParam)
+                        .addActivityParam(cityParam)
+                        .build(),
+                ActivityDTO.builder()
+                        .activityKey(ORG_SNAPSHOTS.getKey())
+                        .activityRole(Role.ROLE_APP_ADMIN)
+                        .activityType(ActivityType.SNAPSHOTS)
+                        .application(details.getApplication())
+                        .organization(details.getOrganization())
+                        .addActivityParam(mapper.wrappedParam(details.getUsername()))
+                        .addActivityParam(cityParam)
+                        .build()));
     }
 
     @Override
-    public List<ActivityFeedDTO> showActivityFeedByUserDetails(UserDetailsDTO details) {
-        Sort sortByDate = new Sort(Sort.Direction.DESC, "createdAt");
-        return activityService.getActivitiesByUserDetails(details, sortByDate);
+    public KeysetPage<ActivityFeedDTO> showActivityFeedByUserDetails(UserDetailsDTO details, LocalDateTime since,
+            String cursor, int size) {
+        return activityService.getActivitiesByUserDetails(details, since, cursor, size);
     }
 }
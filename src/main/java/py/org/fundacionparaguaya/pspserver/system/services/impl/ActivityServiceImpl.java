@@ -1,9 +1,11 @@
 package py.org.fundacionparaguaya.pspserver.system.services.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetCursor;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityFeedDTO;
@@ -12,6 +14,7 @@ import py.org.fundacionparaguaya.pspserver.system.mapper.ActivityMapper;
 import py.org.fundacionparaguaya.pspserver.system.repositories.ActivityRepository;
 import py.org.fundacionparaguaya.pspserver.system.services.ActivityService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,9 +56,24 @@ public class ActivityServiceImpl implements ActivityService {
     }
 
     @Override
-    public List<ActivityFeedDTO> getActivitiesByUserDetails(UserDetailsDTO userDetails, Sort sortBy) {
-        List<ActivityEntity> activities = activityRepository.findAll(byDetails(userDetails), sortBy);
-        return activityMapper.entityListToActivityFeed(activities);
+    @Transactional(readOnly = true)
+    public KeysetPage<ActivityFeedDTO> getActivitiesByUserDetails(UserDetailsDTO userDetails, LocalDateTime since,
+            String cursor, int size) {
+        checkArgument(size > 0 && size <= MAX_FEED_PAGE_SIZE,
+                "The page size must be between 1 and %s", MAX_FEED_PAGE_SIZE);
+
+        // one extra row tells whether there is a page after this one
+        List<ActivityEntity> activities = activityRepository.findBefore(byDetails(userDetails), since,
+                KeysetCursor.decode(cursor), size + 1);
+
+        String next = null;
+        if (activities.size() > size) {
+            activities = activities.subList(0, size);
+            ActivityEntity last = activities.get(size - 1);
+            next = new KeysetCursor(last.getCreatedAt(), last.getActivityId()).encode();
+        }
+
+        return new KeysetPage<>(activityMapper.entityListToActivityFeed(activities), size, next);
     }
 
 }
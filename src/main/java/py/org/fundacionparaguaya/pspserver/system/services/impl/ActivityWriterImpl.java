@@ -0,0 +1,199 @@
+package py.org.fundacionparaguaya.pspserver.system.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
+import py.org.fundacionparaguaya.pspserver.system.entities.ActivityEntity;
+import py.org.fundacionparaguaya.pspserver.system.mapper.ActivityMapper;
+import py.org.fundacionparaguaya.pspserver.system.repositories.ActivityRepository;
+import py.org.fundacionparaguaya.pspserver.system.services.ActivityWriter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the activities from a bounded queue on a single background thread,
+ * which takes whatever is queued, up to {@link #BATCH_SIZE} activities, and
+ * saves it in a transaction of its own. When a batch cannot be saved, each of
+ * its activities is saved on its own, so only the activities that fail by
+ * themselves are lost.
+ *
+ * On shutdown it stops taking activities in the background and writes what is
+ * left in the queue before the application closes.
+ */
+@Service
+public class ActivityWriterImpl implements ActivityWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ActivityWriterImpl.class);
+
+    static final int QUEUE_CAPACITY = 10_000;
+
+    static final int BATCH_SIZE = 50;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 200;
+
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private final ActivityRepository activityRepository;
+
+    private final ActivityMapper activityMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<ActivityDTO> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private final AtomicLong flushCount = new AtomicLong();
+
+    private final AtomicLong flushNanos = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public ActivityWriterImpl(ActivityRepository activityRepository, ActivityMapper activityMapper,
+            PlatformTransactionManager transactionManager) {
+        this.activityRepository = activityRepository;
+        this.activityMapper = activityMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "activity-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        if (worker.isAlive()) {
+            LOG.warn("Activity writer did not finish in time, {} activities were not written", queue.size());
+            worker.interrupt();
+        } else if (!queue.isEmpty()) {
+            // queued by callers that were already past the check in write() when the worker ended
+            List<ActivityDTO> left = new ArrayList<>();
+            queue.drainTo(left);
+            flush(left);
+        }
+        LOG.info("Activity writer stopped after writing {} activities in {} batches, {} ms per batch",
+                getWrittenCount(), flushCount.get(), getAverageFlushMillis());
+    }
+
+    @Override
+    public void write(Collection<ActivityDTO> activities) {
+        List<ActivityDTO> rejected = new ArrayList<>();
+        for (ActivityDTO activity : activities) {
+            if (!running || !offer(activity)) {
+                rejected.add(activity);
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            // the queue is full or closed, so the caller pays for the write itself
+            LOG.debug("Writing {} activities on the calling thread, queue depth is {}", rejected.size(),
+                    queue.size());
+            flush(rejected);
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    @Override
+    public double getAverageFlushMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : flushNanos.get() / (flushes * 1_000_000d);
+    }
+
+    private boolean offer(ActivityDTO activity) {
+        try {
+            return queue.offer(activity, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run() {
+        List<ActivityDTO> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                ActivityDTO first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Could not write {} activities: {}", batch.size(), batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<ActivityDTO> activities) {
+        long start = System.nanoTime();
+        try {
+            save(activities);
+        } catch (RuntimeException e) {
+            if (activities.size() == 1) {
+                throw e;
+            }
+            LOG.warn("Could not write {} activities at once, writing them one by one", activities.size(), e);
+            for (ActivityDTO activity : activities) {
+                try {
+                    save(Collections.singletonList(activity));
+                } catch (RuntimeException rowError) {
+                    LOG.error("Could not write activity: {}", activity, rowError);
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        flushCount.incrementAndGet();
+        flushNanos.addAndGet(elapsed);
+        LOG.debug("Wrote {} activities in {} ms, queue depth is {}", activities.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), queue.size());
+    }
+
+    private void save(List<ActivityDTO> activities) {
+        List<ActivityEntity> entities = activities.stream()
+                .map(activityMapper::dtoToEntity)
+                .collect(Collectors.toList());
+        transactionTemplate.execute(status -> activityRepository.save(entities));
+        writtenCount.addAndGet(entities.size());
+    }
+}
@@ -0,0 +1,111 @@
+package py.org.fundacionparaguaya.pspserver.system.services.impl;
+
+import com.google.common.base.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import py.org.fundacionparaguaya.pspserver.common.exceptions.InternalServerErrorException;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+import py.org.fundacionparaguaya.pspserver.system.services.BlobStore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Keeps the blobs as files under a directory, for installations without S3 and
+ * for testing. The directory has to be served by the web server in front of
+ * the application, from the configured base URL.
+ *
+ * A blob is written to a temporary file next to its own and then moved in
+ * place, so a blob is never served half written.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.blobStore", name = "type", havingValue = "filesystem")
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+    private final Path directory;
+
+    private final String baseUrl;
+
+    @Autowired
+    public FileSystemBlobStore(ApplicationProperties applicationProperties) {
+        this(directoryOf(applicationProperties.getBlobStore()), applicationProperties.getBlobStore().getBaseUrl());
+    }
+
+    FileSystemBlobStore(Path directory, String baseUrl) {
+        this.directory = directory.toAbsolutePath().normalize();
+        String url = Strings.emptyToNull(baseUrl);
+        this.baseUrl = url == null || url.endsWith("/") ? url : url + "/";
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length, String contentType) {
+        Path file = resolve(key);
+        Path temporary = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temporary = Files.createTempFile(file.getParent(), ".upload", ".tmp");
+            Files.copy(content, temporary, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            throw new InternalServerErrorException(e);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            throw new InternalServerErrorException(e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public String getUrl(String key) {
+        return baseUrl != null ? baseUrl + key : resolve(key).toUri().toString();
+    }
+
+    private static Path directoryOf(ApplicationProperties.BlobStore blobStore) {
+        checkArgument(!Strings.isNullOrEmpty(blobStore.getDirectory()),
+                "application.blobStore.directory is required to keep the blobs in the filesystem");
+        return Paths.get(blobStore.getDirectory());
+    }
+
+    private Path resolve(String key) {
+        Path file = directory.resolve(key).normalize();
+        checkArgument(file.startsWith(directory) && !file.equals(directory), "Invalid blob key: %s", key);
+        return file;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            // already gone once it has been moved in place
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Could not delete {}", file, e);
+        }
+    }
+}
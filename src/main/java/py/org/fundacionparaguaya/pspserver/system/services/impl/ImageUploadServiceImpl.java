@@ -1,36 +1,79 @@
 package py.org.fundacionparaguaya.pspserver.system.services.impl;
 
-import com.amazonaws.SdkClientException;
-import com.amazonaws.regions.Regions;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
-import com.amazonaws.services.s3.model.CannedAccessControlList;
-import com.amazonaws.services.s3.model.DeleteObjectRequest;
-import com.amazonaws.services.s3.model.PutObjectRequest;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-
-import py.org.fundacionparaguaya.pspserver.common.exceptions.AWSS3RuntimeException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CustomizableThreadFactory;
+
+import py.org.fundacionparaguaya.pspserver.common.exceptions.InternalServerErrorException;
 import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ImageDTO;
+import py.org.fundacionparaguaya.pspserver.system.services.BlobStore;
 import py.org.fundacionparaguaya.pspserver.system.services.ImageUploadService;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads the images to the {@link BlobStore}, on the calling thread or on a
+ * bounded pool of upload threads. When every upload thread is busy and the
+ * queue is full, the caller uploads the image itself, which slows down the
+ * requests instead of losing images.
+ */
 @Service
 public class ImageUploadServiceImpl implements ImageUploadService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ImageUploadServiceImpl.class);
 
-    private final ApplicationProperties applicationProperties;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private final BlobStore blobStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolExecutor uploads;
 
     @Autowired
-    public ImageUploadServiceImpl(ApplicationProperties applicationProperties) {
-        this.applicationProperties = applicationProperties;
+    public ImageUploadServiceImpl(BlobStore blobStore, ApplicationProperties applicationProperties,
+            PlatformTransactionManager transactionManager) {
+        this.blobStore = blobStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        int threads = applicationProperties.getBlobStore().getUploadThreads();
+        this.uploads = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(applicationProperties.getBlobStore().getUploadQueueCapacity()),
+                new CustomizableThreadFactory("image-upload-"),
+                // also after shutdown, so every image is uploaded and closed
+                (upload, executor) -> upload.run());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        uploads.shutdown();
+        if (!uploads.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            List<Runnable> notStarted = uploads.shutdownNow();
+            LOG.warn("Image uploads did not finish in time, {} were not started", notStarted.size());
+            // so their temporary files are deleted and their owners are not left pending
+            for (Runnable upload : notStarted) {
+                ((Upload) upload).cancel();
+            }
+        }
     }
 
     @Override
@@ -39,36 +82,37 @@ public class ImageUploadServiceImpl implements ImageUploadService {
             return null;
         }
 
-        String url;
+        String keyName = newKey(imageDTO);
         try {
-            String strRegion = applicationProperties
-                    .getAws()
-                    .getStrRegion();
-            Regions region = Regions.valueOf(strRegion);
-
-            AmazonS3 s3Client = AmazonS3ClientBuilder.standard()
-                    .withRegion(region)
-                    .build();
-
-            String bucketName = applicationProperties
-                    .getAws()
-                    .getBucketName();
-
-            String imageDirectory = imageDTO.getImageDirectory();
-            String imageName = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            String fileName = imageName + "." + imageDTO.getFormat();
-            String keyName = imageDirectory + fileName;
-
-            s3Client.putObject(new PutObjectRequest(bucketName, keyName, imageDTO.getFile())
-                    .withCannedAcl(CannedAccessControlList.PublicRead));
-
-            url = "https://s3." + s3Client.getRegionName() + ".amazonaws.com/" + bucketName + "/" + keyName;
+            put(keyName, imageDTO);
+        } finally {
+            imageDTO.close();
+        }
+        return blobStore.getUrl(keyName);
+    }
 
-        } catch (SdkClientException sdkClientExc) {
-            LOG.error(sdkClientExc.getMessage(), sdkClientExc);
-            throw new AWSS3RuntimeException(sdkClientExc);
+    @Override
+    public String uploadImageInBackground(ImageDTO imageDTO, String replacedUrl, ImageOwner owner) {
+        String keyName = newKey(imageDTO);
+        String url = blobStore.getUrl(keyName);
+        Upload upload = new Upload(imageDTO, keyName, url, replacedUrl, owner);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            uploads.execute(upload);
+            return url;
         }
 
+        // the owner can only be updated once it has been saved with the URL
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    uploads.execute(upload);
+                } else {
+                    imageDTO.close();
+                }
+            }
+        });
         return url;
     }
 
@@ -78,28 +122,107 @@ public class ImageUploadServiceImpl implements ImageUploadService {
             return;
         }
 
+        String fileName = logoUrl.substring(logoUrl.lastIndexOf('/') + 1);
+        blobStore.delete(imageDirectory + fileName);
+    }
+
+    @Override
+    public ImageStatus settlePendingImage(String url, String imageDirectory, ImageOwner owner) {
+        String fileName = url.substring(url.lastIndexOf('/') + 1);
+        ImageStatus status = blobStore.exists(imageDirectory + fileName) ? ImageStatus.READY : ImageStatus.FAILED;
+        return updateOwner(owner, url, url, status) ? status : null;
+    }
+
+    private void upload(ImageDTO imageDTO, String keyName, String url, String replacedUrl, ImageOwner owner) {
+        try {
+            try {
+                put(keyName, imageDTO);
+            } finally {
+                imageDTO.close();
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Could not upload image {}", url, e);
+            updateOwner(owner, url, replacedUrl, ImageStatus.FAILED);
+            return;
+        }
+
+        // an image is only deleted once nothing points to it
+        if (!updateOwner(owner, url, url, ImageStatus.READY)) {
+            deleteUnused(url, imageDTO.getImageDirectory());
+        } else if (replacedUrl != null && !replacedUrl.equals(url)) {
+            deleteUnused(replacedUrl, imageDTO.getImageDirectory());
+        }
+    }
+
+    private void deleteUnused(String url, String imageDirectory) {
         try {
-            String strRegion = applicationProperties
-                    .getAws()
-                    .getStrRegion();
-            Regions region = Regions.valueOf(strRegion);
+            deleteImage(url, imageDirectory);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not delete unused image {}", url, e);
+        }
+    }
+
+    private boolean updateOwner(ImageOwner owner, String expectedUrl, String url, ImageStatus status) {
+        return Boolean.TRUE.equals(
+                transactionTemplate.execute(transaction -> owner.updateImage(expectedUrl, url, status)));
+    }
 
-            AmazonS3 s3Client = AmazonS3ClientBuilder.standard()
-                    .withRegion(region)
-                    .build();
+    private void put(String keyName, ImageDTO imageDTO) {
+        try (InputStream content = imageDTO.getContent().openStream()) {
+            blobStore.put(keyName, content, imageDTO.getLength(), imageDTO.getContentType());
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            throw new InternalServerErrorException(e);
+        }
+    }
+
+    private static String newKey(ImageDTO imageDTO) {
+        // the random part keeps the images uploaded in the same instant from replacing each other
+        String imageName = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "-" + UUID.randomUUID();
+        String fileName = imageName + "." + imageDTO.getFormat();
+        return imageDTO.getImageDirectory() + fileName;
+    }
+
+    /**
+     * An upload in the background, which is either run or, when the uploads
+     * are stopped before it starts, cancelled.
+     */
+    private final class Upload implements Runnable {
+
+        private final ImageDTO imageDTO;
 
-            String bucketName = applicationProperties
-                    .getAws()
-                    .getBucketName();
+        private final String keyName;
 
-            String fileName = logoUrl.substring(logoUrl.lastIndexOf('/') + 1);
-            String keyName = imageDirectory + fileName;
+        private final String url;
 
-            s3Client.deleteObject(new DeleteObjectRequest(bucketName, keyName));
+        private final String replacedUrl;
+
+        private final ImageOwner owner;
+
+        Upload(ImageDTO imageDTO, String keyName, String url, String replacedUrl, ImageOwner owner) {
+            this.imageDTO = imageDTO;
+            this.keyName = keyName;
+            this.url = url;
+            this.replacedUrl = replacedUrl;
+            this.owner = owner;
+        }
+
+        @Override
+        public void run() {
+            try {
+                upload(imageDTO, keyName, url, replacedUrl, owner);
+            } catch (RuntimeException e) {
+                LOG.error("Could not update the owner of image {}", url, e);
+            }
+        }
 
-        } catch (SdkClientException sdkClientExc) {
-            LOG.error(sdkClientExc.getMessage(), sdkClientExc);
-            throw new AWSS3RuntimeException(sdkClientExc);
+        void cancel() {
+            imageDTO.close();
+            try {
+                updateOwner(owner, url, replacedUrl, ImageStatus.FAILED);
+            } catch (RuntimeException e) {
+                LOG.error("Could not update the owner of image {}", url, e);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package py.org.fundacionparaguaya.pspserver.system.services.impl;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import py.org.fundacionparaguaya.pspserver.common.exceptions.AWSS3RuntimeException;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+import py.org.fundacionparaguaya.pspserver.system.services.BlobStore;
+
+import javax.annotation.PreDestroy;
+import java.io.InputStream;
+
+/**
+ * Keeps the blobs in the configured S3 bucket, publicly readable.
+ *
+ * The client, and the pool of connections it keeps to S3, is built once and
+ * shared by every upload.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.blobStore", name = "type", havingValue = "s3", matchIfMissing = true)
+public class S3BlobStore implements BlobStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(S3BlobStore.class);
+
+    private final AmazonS3 s3Client;
+
+    private final String bucketName;
+
+    private final String baseUrl;
+
+    public S3BlobStore(ApplicationProperties applicationProperties) {
+        Regions region = Regions.valueOf(applicationProperties.getAws().getStrRegion());
+        this.bucketName = applicationProperties.getAws().getBucketName();
+        this.baseUrl = "https://s3." + region.getName() + ".amazonaws.com/" + bucketName + "/";
+        this.s3Client = AmazonS3ClientBuilder.standard()
+                .withRegion(region)
+                .withClientConfiguration(new ClientConfiguration()
+                        .withMaxConnections(applicationProperties.getBlobStore().getMaxConnections()))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        s3Client.shutdown();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long length, String contentType) {
+        // without the length the client would read the whole content into memory to work it out
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(length);
+        metadata.setContentType(contentType);
+
+        try {
+            s3Client.putObject(new PutObjectRequest(bucketName, key, content, metadata)
+                    .withCannedAcl(CannedAccessControlList.PublicRead));
+        } catch (SdkClientException sdkClientExc) {
+            LOG.error(sdkClientExc.getMessage(), sdkClientExc);
+            throw new AWSS3RuntimeException(sdkClientExc);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            s3Client.deleteObject(new DeleteObjectRequest(bucketName, key));
+        } catch (SdkClientException sdkClientExc) {
+            LOG.error(sdkClientExc.getMessage(), sdkClientExc);
+            throw new AWSS3RuntimeException(sdkClientExc);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            return s3Client.doesObjectExist(bucketName, key);
+        } catch (SdkClientException sdkClientExc) {
+            LOG.error(sdkClientExc.getMessage(), sdkClientExc);
+            throw new AWSS3RuntimeException(sdkClientExc);
+        }
+    }
+
+    @Override
+    public String getUrl(String key) {
+        return baseUrl + key;
+    }
+}
@@ -0,0 +1,166 @@
+package py.org.fundacionparaguaya.pspserver.system.services.impl;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.common.pagination.SyncWatermark;
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+import py.org.fundacionparaguaya.pspserver.families.mapper.FamilyMapper;
+import py.org.fundacionparaguaya.pspserver.families.repositories.FamilyRepository;
+import py.org.fundacionparaguaya.pspserver.network.dtos.ApplicationDTO;
+import py.org.fundacionparaguaya.pspserver.network.dtos.OrganizationDTO;
+import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
+import py.org.fundacionparaguaya.pspserver.security.repositories.UserRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotDraftEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorPriorityEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotDraftMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotEconomicMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorPriorityMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SurveyMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotDraftRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomicRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotIndicatorPriorityRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SurveyRepository;
+import py.org.fundacionparaguaya.pspserver.system.constants.ChangeType;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ChangeDTO;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ChangesDTO;
+import py.org.fundacionparaguaya.pspserver.system.entities.ChangeLogEntity;
+import py.org.fundacionparaguaya.pspserver.system.repositories.ChangeLogRepository;
+import py.org.fundacionparaguaya.pspserver.system.services.SyncService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Reads the changes from the change log, keeping only the last change of each
+ * item in a page, and loads the current state of the created and updated items
+ * with one query per kind.
+ */
+@Service
+public class SyncServiceImpl implements SyncService {
+
+    private final ChangeLogRepository changeLogRepository;
+
+    private final UserRepository userRepository;
+
+    private final Map<ChangeType, Function<List<Long>, Map<Long, Object>>> loaders = new EnumMap<>(ChangeType.class);
+
+    public SyncServiceImpl(ChangeLogRepository changeLogRepository, UserRepository userRepository,
+            SurveyRepository surveyRepository, SurveyMapper surveyMapper,
+            FamilyRepository familyRepository, FamilyMapper familyMapper,
+            SnapshotEconomicRepository snapshotRepository, SnapshotEconomicMapper snapshotMapper,
+            SnapshotIndicatorPriorityRepository priorityRepository, SnapshotIndicatorPriorityMapper priorityMapper,
+            SnapshotDraftRepository draftRepository, SnapshotDraftMapper draftMapper) {
+        this.changeLogRepository = changeLogRepository;
+        this.userRepository = userRepository;
+        loaders.put(ChangeType.SURVEY, loader(surveyRepository, SurveyEntity::getId, surveyMapper::entityToDto));
+        loaders.put(ChangeType.FAMILY, loader(familyRepository, FamilyEntity::getFamilyId,
+                familyMapper::entityToDto));
+        loaders.put(ChangeType.SNAPSHOT, loader(snapshotRepository, SnapshotEconomicEntity::getId,
+                snapshotMapper::entityToDto));
+        loaders.put(ChangeType.PRIORITY, loader(priorityRepository, SnapshotIndicatorPriorityEntity::getId,
+                priorityMapper::entityToDto));
+        loaders.put(ChangeType.DRAFT, loader(draftRepository, SnapshotDraftEntity::getId,
+                draftMapper::entityToDto));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangesDTO getChanges(UserDetailsDTO userDetails, String watermark, int size) {
+        checkArgument(size > 0 && size <= MAX_SYNC_PAGE_SIZE,
+                "The page size must be between 1 and %s", MAX_SYNC_PAGE_SIZE);
+
+        SyncWatermark after = SyncWatermark.decode(watermark);
+        long head = changeLogRepository.findHead();
+        if (after == null) {
+            // the changes of the running transactions are the first ones the client has not seen
+            return new ChangesDTO(Collections.emptyList(), new SyncWatermark(head, 0).encode(), false);
+        }
+
+        Long userId = userRepository.findOneByUsername(userDetails.getUsername())
+                .map(UserEntity::getId)
+                .orElseThrow(() -> new UnknownResourceException("User does not exist"));
+        Long applicationId = Optional.ofNullable(userDetails.getApplication()).map(ApplicationDTO::getId)
+                .orElse(null);
+        Long organizationId = Optional.ofNullable(userDetails.getOrganization()).map(OrganizationDTO::getId)
+                .orElse(null);
+
+        // one extra change tells whether there are more to read
+        List<ChangeLogEntity> log = changeLogRepository.findAfter(after, head, applicationId, organizationId,
+                userId, size + 1);
+
+        SyncWatermark next;
+        boolean more = log.size() > size;
+        if (more) {
+            log = log.subList(0, size);
+            ChangeLogEntity last = log.get(size - 1);
+            next = new SyncWatermark(last.getTxid(), last.getChangeId());
+        } else if (head > after.getTxid()) {
+            // every change for the client before the head was read, so the next call
+            // can skip the changes for others in between
+            next = new SyncWatermark(head, 0);
+        } else {
+            next = after;
+        }
+
+        return new ChangesDTO(toChanges(log), next.encode(), more);
+    }
+
+    private List<ChangeDTO> toChanges(List<ChangeLogEntity> log) {
+        // only the last change of each item matters, in the order of those last changes
+        Map<String, ChangeLogEntity> lastChanges = new LinkedHashMap<>();
+        for (ChangeLogEntity change : log) {
+            String key = change.getEntityType() + ":" + change.getEntityId();
+            lastChanges.remove(key);
+            lastChanges.put(key, change);
+        }
+
+        Map<ChangeType, List<Long>> upserted = new EnumMap<>(ChangeType.class);
+        for (ChangeLogEntity change : lastChanges.values()) {
+            if (!change.isDeleted()) {
+                upserted.computeIfAbsent(change.getEntityType(), type -> new ArrayList<>())
+                        .add(change.getEntityId());
+            }
+        }
+        Map<ChangeType, Map<Long, Object>> current = new EnumMap<>(ChangeType.class);
+        upserted.forEach((type, ids) -> current.put(type, loaders.get(type).apply(ids)));
+
+        List<ChangeDTO> changes = new ArrayList<>(lastChanges.size());
+        for (ChangeLogEntity change : lastChanges.values()) {
+            if (change.isDeleted()) {
+                changes.add(ChangeDTO.tombstone(change.getEntityType(), change.getEntityId()));
+                continue;
+            }
+            Object data = current.get(change.getEntityType()).get(change.getEntityId());
+            // items gone since are skipped, their deletion comes later in the log
+            if (data != null) {
+                changes.add(ChangeDTO.upsert(change.getEntityType(), change.getEntityId(), data));
+            }
+        }
+        return changes;
+    }
+
+    private static <E> Function<List<Long>, Map<Long, Object>> loader(JpaRepository<E, Long> repository,
+            Function<E, Long> id, Function<E, ?> toDto) {
+        return ids -> {
+            Map<Long, Object> dtos = new HashMap<>();
+            for (E entity : repository.findAll(ids)) {
+                dtos.put(id.apply(entity), toDto.apply(entity));
+            }
+            return dtos;
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package py.org.fundacionparaguaya.pspserver.web.models;
+
+import com.google.common.cache.CacheStats;
+
+/**
+ * View Model object for the statistics of an in-memory cache.
+ */
+public class CacheStatsVM {
+
+    private final String name;
+
+    private final long size;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    public CacheStatsVM(String name, long size, CacheStats stats) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = stats.hitCount();
+        this.missCount = stats.missCount();
+        this.evictionCount = stats.evictionCount();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatsVM{" +
+                "name='" + name + '\'' +
+                ", size=" + size +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+}
@@ -1,8 +1,10 @@
 package py.org.fundacionparaguaya.pspserver.web.rest;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
 import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityFeedDTO;
@@ -12,6 +14,7 @@ import py.org.fundacionparaguaya.pspserver.system.services.ActivityService;
 import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -46,7 +49,21 @@ public class ActivityController {
     }
 
     @GetMapping("/feed")
-    public ResponseEntity<List<ActivityFeedDTO>> showActivityFeed(@AuthenticationPrincipal UserDetailsDTO details) {
-        return ResponseEntity.ok(activityFeedManager.showActivityFeedByUserDetails(details));
+    public ResponseEntity<List<ActivityFeedDTO>> showActivityFeed(@AuthenticationPrincipal UserDetailsDTO details,
+            @RequestParam(value = "since", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(value = "size", required = false, defaultValue = "50") int size) {
+        return ResponseEntity.ok(activityFeedManager.showActivityFeedByUserDetails(details, since, null, size)
+                .getList());
+    }
+
+    @GetMapping("/feed/page")
+    public ResponseEntity<KeysetPage<ActivityFeedDTO>> showActivityFeedPage(
+            @AuthenticationPrincipal UserDetailsDTO details,
+            @RequestParam(value = "since", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false, defaultValue = "50") int size) {
+        return ResponseEntity.ok(activityFeedManager.showActivityFeedByUserDetails(details, since, cursor, size));
     }
 }
@@ -24,6 +24,7 @@ import py.org.fundacionparaguaya.pspserver.network.dtos.OrganizationDTO;
 import py.org.fundacionparaguaya.pspserver.network.services.ApplicationService;
 import py.org.fundacionparaguaya.pspserver.network.services.OrganizationService;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotPeriodEnum;
 
 import javax.validation.Valid;
 import java.net.URI;
@@ -106,8 +107,12 @@ public class ApplicationController {
     @GetMapping("/dashboard")
     public ResponseEntity<ApplicationDTO> getApplicationDashboard(
                                             @RequestParam(value = "applicationId", required = false) Long applicationId,
+                                            @RequestParam(value = "period", required = false,
+                                                    defaultValue = "MONTH") SnapshotPeriodEnum period,
+                                            @RequestParam(value = "periods", required = false,
+                                                    defaultValue = "12") int periods,
                                             @AuthenticationPrincipal UserDetailsDTO details) {
-        ApplicationDTO dto = applicationService.getApplicationDashboard(applicationId, details);
+        ApplicationDTO dto = applicationService.getApplicationDashboard(applicationId, details, period, periods);
         return ResponseEntity.ok(dto);
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package py.org.fundacionparaguaya.pspserver.web.rest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.PropertyAttributeSupport;
+import py.org.fundacionparaguaya.pspserver.surveys.services.StoplightAggregateService;
+import py.org.fundacionparaguaya.pspserver.surveys.services.SurveyDefinitionCache;
+import py.org.fundacionparaguaya.pspserver.web.models.CacheStatsVM;
+
+import java.util.Collections;
+import java.util.List;
+
+@RestController
+@RequestMapping("/management")
+public class CachesController {
+
+    private static final String SURVEY_DEFINITIONS = "surveyDefinitions";
+
+    private static final String PROPERTY_ATTRIBUTES = "propertyAttributes";
+
+    private static final String STOPLIGHT_AGGREGATES = "stoplightAggregates";
+
+    private final SurveyDefinitionCache surveyDefinitionCache;
+
+    private final PropertyAttributeSupport propertyAttributeSupport;
+
+    private final StoplightAggregateService stoplightAggregateService;
+
+    public CachesController(SurveyDefinitionCache surveyDefinitionCache,
+            PropertyAttributeSupport propertyAttributeSupport,
+            StoplightAggregateService stoplightAggregateService) {
+        this.surveyDefinitionCache = surveyDefinitionCache;
+        this.propertyAttributeSupport = propertyAttributeSupport;
+        this.stoplightAggregateService = stoplightAggregateService;
+    }
+
+    @GetMapping("/caches")
+    public List<CacheStatsVM> getList() {
+        return Collections.singletonList(new CacheStatsVM(SURVEY_DEFINITIONS,
+                surveyDefinitionCache.size(), surveyDefinitionCache.stats()));
+    }
+
+    @DeleteMapping("/caches/{name}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clear(@PathVariable("name") String name) {
+        switch (name) {
+            case SURVEY_DEFINITIONS:
+                surveyDefinitionCache.invalidateAll();
+                break;
+            case PROPERTY_ATTRIBUTES:
+                propertyAttributeSupport.reload();
+                break;
+            case STOPLIGHT_AGGREGATES:
+                stoplightAggregateService.rebuild();
+                break;
+            default:
+                throw new UnknownResourceException("Cache does not exist");
+        }
+    }
+}
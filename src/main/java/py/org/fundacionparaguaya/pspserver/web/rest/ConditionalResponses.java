@@ -0,0 +1,64 @@
+package py.org.fundacionparaguaya.pspserver.web.rest;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GETs from the entity tag of a resource, which the
+ * services work out without building the resource, so that a client that
+ * already has the current version gets a 304 and the body is never built.
+ */
+final class ConditionalResponses {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * @param tag the entity tag of the resource, or null when it has none, in
+     *            which case the body is always built
+     * @return 304 Not Modified if the <code>If-None-Match</code> of the request
+     * has the tag, or else 200 with the body built by the supplier, in both cases
+     * with the tag and the given cache control
+     */
+    static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String tag, CacheControl cacheControl,
+            Supplier<T> body) {
+        if (tag == null) {
+            return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+        }
+
+        String quotedTag = "\"" + tag + "\"";
+        if (matches(request.getHeaderValues(HttpHeaders.IF_NONE_MATCH), quotedTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(quotedTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(quotedTag).cacheControl(cacheControl).body(body.get());
+    }
+
+    /**
+     * <code>If-None-Match</code> compares tags weakly, so a tag the client got
+     * marked as weak, e.g. by a proxy that compressed the response, still matches.
+     */
+    private static boolean matches(String[] ifNoneMatch, String quotedTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String clientTag = candidate.trim();
+                if (clientTag.startsWith(WEAK_PREFIX)) {
+                    clientTag = clientTag.substring(WEAK_PREFIX.length());
+                }
+                if ("*".equals(clientTag) || quotedTag.equals(clientTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
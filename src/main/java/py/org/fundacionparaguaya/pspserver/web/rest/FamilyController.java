@@ -2,6 +2,7 @@ package py.org.fundacionparaguaya.pspserver.web.rest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,7 +14,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.common.utils.ClientInfo;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyFilterDTO;
@@ -36,6 +39,12 @@ public class FamilyController {
     private static final Logger LOG = LoggerFactory
             .getLogger(FamilyController.class);
 
+    /**
+     * The family map changes with every snapshot and priority, so clients
+     * always ask again, and only get it back if it changed.
+     */
+    private static final CacheControl FAMILY_MAP_CACHE = CacheControl.noCache().cachePrivate();
+
     private FamilyService familyService;
 
     private FamilySnapshotsManager familyMapService;
@@ -76,9 +85,9 @@ public class FamilyController {
 
     @GetMapping("/{familyId}")
     public ResponseEntity<FamilyMapDTO> getFamilyMapById(
-            @PathVariable("familyId") Long familyId) {
-        FamilyMapDTO dto = familyMapService.getFamilyMapById(familyId);
-        return ResponseEntity.ok(dto);
+            @PathVariable("familyId") Long familyId, WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, familyMapService.getFamilyMapTag(familyId),
+                FAMILY_MAP_CACHE, () -> familyMapService.getFamilyMapById(familyId));
     }
 
     @DeleteMapping("/{familyId}")
@@ -116,6 +125,27 @@ public class FamilyController {
         return ResponseEntity.ok(families);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<KeysetPage<FamilyDTO>> searchFamilies(
+            @RequestParam(value = "q", required = false) String text,
+            @RequestParam(value = "organization_id", required = false)
+                    Long organizationId,
+            @RequestParam(value = "country_id", required = false)
+                    Long countryId,
+            @RequestParam(value = "city_id", required = false)
+                    Long cityId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false, defaultValue = "50") int size,
+            @AuthenticationPrincipal UserDetailsDTO user) {
+        FamilyFilterDTO filter = FamilyFilterDTO.builder()
+                .organizationId(organizationId)
+                .countryId(countryId)
+                .cityId(cityId)
+                .isActive(true)
+                .build();
+        return ResponseEntity.ok(familyService.searchFamilies(filter, text, user, cursor, size));
+    }
+
     @GetMapping("/counter")
     public ResponseEntity<Long> getFamiliesByFilter(
             @AuthenticationPrincipal UserDetailsDTO details) {
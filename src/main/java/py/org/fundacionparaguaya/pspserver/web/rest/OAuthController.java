@@ -24,7 +24,9 @@ public class OAuthController {
         if (authHeader != null) {
             String tokenValue = authHeader.replace("Bearer", "").trim();
             OAuth2AccessToken accessToken = tokenStore.readAccessToken(tokenValue);
-            tokenStore.removeAccessToken(accessToken);
+            if (accessToken != null) {
+                tokenStore.removeAccessToken(accessToken);
+            }
         }
     }
 }
@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -17,13 +18,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.annotations.ApiParam;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.NotFoundException;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.UnknownResourceException;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.IndicatorFilter;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.Snapshot;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotBatchResult;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotIndicators;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotService;
@@ -38,6 +43,12 @@ public class SnapshotController {
 
     private static final Logger LOG = LoggerFactory.getLogger(SnapshotController.class);
 
+    /**
+     * Indicators change with every priority set on them, so clients always ask
+     * again, and only get them back if they changed.
+     */
+    private static final CacheControl INDICATORS_CACHE = CacheControl.noCache().cachePrivate();
+
     private final SnapshotService snapshotService;
 
     public SnapshotController(SnapshotService snapshotService) {
@@ -60,6 +71,17 @@ public class SnapshotController {
         return ResponseEntity.ok(surveyDataList);
     }
 
+    @GetMapping(value = "/survey/{survey_id}/page", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @io.swagger.annotations.ApiOperation(value = "Retrieves a page of the snapshots of a survey", notes = "A `GET` request returns the snapshots of the survey in creation order, with a `next` token to request the following page with. The last page has no `next` token. The snapshots can be filtered by the colors of their indicators, given as `indicators=income:red,alimentation:2` with `match=all` or `match=any`.", response = KeysetPage.class, tags = {})
+    public ResponseEntity<KeysetPage<SurveyData>> getSnapshotsPageBySurvey(@PathVariable("survey_id") Long surveyId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false, defaultValue = "500") int size,
+            @RequestParam(value = "match", required = false) String match,
+            @RequestParam(value = "indicators", required = false) String indicators) {
+        return ResponseEntity.ok(snapshotService.findBySurveyId(surveyId, IndicatorFilter.parse(match, indicators),
+                cursor, size));
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
     @io.swagger.annotations.ApiOperation(value = "Create Snapshot", notes = "A `POST` request will create new snapshot for a particular survey.", response = Snapshot.class, tags = {})
     @io.swagger.annotations.ApiResponses(value = {
@@ -73,14 +95,22 @@ public class SnapshotController {
         return ResponseEntity.created(surveyLocation).body(data);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE,
+            produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    @io.swagger.annotations.ApiOperation(value = "Create Snapshots", notes = "A `POST` request with a list of snapshots, as synced by devices that took them offline, creates the valid ones and returns the outcome of each. A snapshot with a `client_key` that was already sent is not created again, so a failed batch can be sent again.", response = SnapshotBatchResult.class, responseContainer = "List", tags = {})
+    public ResponseEntity<List<SnapshotBatchResult>> addSnapshots(@AuthenticationPrincipal UserDetailsDTO details,
+            @ApiParam(value = "The snapshots", required = true) @RequestBody List<NewSnapshot> snapshots) {
+        LOG.debug("REST request to add {} Snapshots", snapshots.size());
+        return ResponseEntity.ok(snapshotService.addSurveySnapshots(details, snapshots));
+    }
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_UTF8_VALUE, path = "/indicators")
     @io.swagger.annotations.ApiOperation(value = "Retrieves all snapshots indicators for a  survery", notes = "A `GET` request with a survey parameter will return a list of snapshots indicators for the that survey.", response = List.class, tags = {})
     @io.swagger.annotations.ApiResponses(value = {
             @io.swagger.annotations.ApiResponse(code = 200, message = "List of available surveys", response = SnapshotIndicators.class) })
-    public ResponseEntity getSnapshotIndicators(@RequestParam("snapshot_id") Long snapshotId) {
-
-        SnapshotIndicators snapshot = snapshotService.getSnapshotIndicators(snapshotId);
-        return ResponseEntity.ok(snapshot);
+    public ResponseEntity getSnapshotIndicators(@RequestParam("snapshot_id") Long snapshotId, WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, snapshotService.getSnapshotIndicatorsTag(snapshotId),
+                INDICATORS_CACHE, () -> snapshotService.getSnapshotIndicators(snapshotId));
     }
     
     @GetMapping(produces = MediaType.APPLICATION_JSON_UTF8_VALUE, path="/family")
@@ -89,9 +119,10 @@ public class SnapshotController {
     @io.swagger.annotations.ApiResponses(value = {
             @io.swagger.annotations.ApiResponse(code = 200, message = "List of available snapshots", response = Snapshot.class, responseContainer="List")
     })
-    public ResponseEntity<List<SnapshotIndicators>> getSnapshotsIndicatorsByFamily(@RequestParam(value = "family_id", required = false) Long familiyId) {
-        List<SnapshotIndicators> snapshots = snapshotService.getSnapshotIndicatorsByFamily(familiyId);
-        return ResponseEntity.ok(snapshots);
+    public ResponseEntity<List<SnapshotIndicators>> getSnapshotsIndicatorsByFamily(@RequestParam(value = "family_id", required = false) Long familiyId,
+            WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, snapshotService.getSnapshotIndicatorsByFamilyTag(familiyId),
+                INDICATORS_CACHE, () -> snapshotService.getSnapshotIndicatorsByFamily(familiyId));
     }
     
     
@@ -27,6 +27,12 @@ import py.org.fundacionparaguaya.pspserver.reports.services.SnapshotReportManage
 @RequestMapping(value = "/api/v1/reports")
 public class SnapshotReportController {
 
+    /**
+     * The reports are sent as CSV, rather than as an opaque octet stream, so
+     * they are compressed for the clients that accept it.
+     */
+    private static final String CSV_CONTENT_TYPE = "text/csv;charset=UTF-8";
+
     private SnapshotReportManager familyReportService;
 
     public SnapshotReportController(SnapshotReportManager familyReportService) {
@@ -61,7 +67,7 @@ public class SnapshotReportController {
       return ResponseEntity.ok(snapshots);
     }
 
-    @GetMapping(path = "/family/indicators/csv", produces = "application/octet-stream")
+    @GetMapping(path = "/family/indicators/csv", produces = {"text/csv", "application/octet-stream"})
     public void generateCSVSnapshotByOrganizationAndCreatedDate(
             @RequestParam(value = "application_id", required = false) Long applicationId,
             @RequestParam(value = "organizations[]", required = false) List<Long> organizations,
@@ -73,13 +79,13 @@ public class SnapshotReportController {
         SnapshotFilterDTO filters =
                 new SnapshotFilterDTO(applicationId, organizations, familyId, dateFrom, dateTo, null);
         String csv = familyReportService.generateCSVSnapshotByOrganizationAndCreatedDate(filters);
-        response.setContentType("application/octet-stream");
+        response.setContentType(CSV_CONTENT_TYPE);
         response.setHeader("Content-Disposition", "attachment; filename=\"snapshots.csv\"");
         response.getWriter().write(csv);
         response.getWriter().close();
     }
 
-    @GetMapping(path = "/snapshots/csv", produces = "application/octet-stream")
+    @GetMapping(path = "/snapshots/csv", produces = {"text/csv", "application/octet-stream"})
     public void downloadSnapshotsCSV(
                                 @RequestParam(value = "date_from", required = true) String dateFrom,
                                 @RequestParam(value = "date_to", required = true) String dateTo,
@@ -90,11 +96,12 @@ public class SnapshotReportController {
 
         SnapshotFilterDTO filters =
                 new SnapshotFilterDTO(applicationId, organizations, null, dateFrom, dateTo, surveyId);
-        String csv = familyReportService.downloadSnapshotsCSV(filters);
-        response.setContentType("application/octet-stream");
+        response.setContentType(CSV_CONTENT_TYPE);
         response.setHeader("Content-Disposition", "attachment; filename=\"snapshots.csv\"");
-        response.getWriter().write(csv);
-        response.getWriter().close();
+        // No Content-Length is set, so the container sends the rows with
+        // chunked transfer encoding as the report is being generated
+        familyReportService.downloadSnapshotsCSV(filters, response.getOutputStream());
+        response.flushBuffer();
     }
 
     @GetMapping(path = "/family/indicators/json", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
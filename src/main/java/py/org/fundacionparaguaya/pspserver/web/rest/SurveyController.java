@@ -3,9 +3,11 @@ package py.org.fundacionparaguaya.pspserver.web.rest;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.websocket.server.PathParam;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.annotations.ApiParam;
 import py.org.fundacionparaguaya.pspserver.common.exceptions.NotFoundException;
@@ -35,6 +38,12 @@ import py.org.fundacionparaguaya.pspserver.surveys.services.SurveySnapshotsManag
 @io.swagger.annotations.Api(description = "The surveys resource returns surveys for various inputs")
 public class SurveyController {
 
+    /**
+     * Survey definitions change seldom, so clients may use them for a few
+     * minutes before asking again, and then only get them back if they changed.
+     */
+    private static final CacheControl SURVEYS_CACHE = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate();
+
     private final SurveyService surveyService;
     private final SurveySnapshotsManager surveySnapshotsManager;
 
@@ -53,9 +62,10 @@ public class SurveyController {
                     response = SurveyDefinition.class, responseContainer = "List")})
     public ResponseEntity getDefinitions(
             @AuthenticationPrincipal UserDetailsDTO details,
-            @RequestParam(name = "last_modified_gt", required = false) String lastModifiedGt) {
-        List<SurveyDefinition> list = surveyService.listSurveys(details, lastModifiedGt);
-        return ResponseEntity.ok(list);
+            @RequestParam(name = "last_modified_gt", required = false) String lastModifiedGt,
+            WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, surveyService.getSurveysTag(details, lastModifiedGt),
+                SURVEYS_CACHE, () -> surveyService.listSurveys(details, lastModifiedGt));
     }
 
     @GetMapping("/list")
@@ -100,10 +110,11 @@ public class SurveyController {
     public ResponseEntity<?> getSurveyDefinition(
             @ApiParam(value = "The survey id", required = true)
             @PathParam("survey_id")
-            @PathVariable("survey_id") Long surveyId)
+            @PathVariable("survey_id") Long surveyId,
+            WebRequest request)
             throws NotFoundException {
-        SurveyDefinition definition = surveyService.getSurveyDefinition(surveyId);
-        return ResponseEntity.ok(definition);
+        return ConditionalResponses.ifNoneMatch(request, surveyService.getSurveyDefinitionTag(surveyId),
+                SURVEYS_CACHE, () -> surveyService.getSurveyDefinition(surveyId));
     }
 
     @DeleteMapping(value = "/{survey_id}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
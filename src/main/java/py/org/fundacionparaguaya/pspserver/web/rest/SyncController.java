@@ -0,0 +1,29 @@
+package py.org.fundacionparaguaya.pspserver.web.rest;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ChangesDTO;
+import py.org.fundacionparaguaya.pspserver.system.services.SyncService;
+
+@RestController
+@RequestMapping(value = "/api/v1/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    @GetMapping()
+    public ResponseEntity<ChangesDTO> getChanges(@AuthenticationPrincipal UserDetailsDTO details,
+            @RequestParam(value = "watermark", required = false) String watermark,
+            @RequestParam(value = "size", required = false, defaultValue = "200") int size) {
+        return ResponseEntity.ok(syncService.getChanges(details, watermark, size));
+    }
+}
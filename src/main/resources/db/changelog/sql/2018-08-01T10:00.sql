@@ -0,0 +1,18 @@
+-- Stoplight counts per organization and indicator, kept up to date when
+-- snapshots are created or deleted. Families without organization are
+-- counted under organization_id 0.
+CREATE TABLE data_collect.stoplight_aggregates
+(
+    id bigint NOT NULL,
+    organization_id bigint NOT NULL,
+    indicator character varying(255) NOT NULL,
+    snapshot_count integer NOT NULL DEFAULT 0,
+    red_count integer NOT NULL DEFAULT 0,
+    yellow_count integer NOT NULL DEFAULT 0,
+    green_count integer NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT stoplight_aggregates_organization_indicator_key UNIQUE (organization_id, indicator)
+);
+
+CREATE SEQUENCE data_collect.stoplight_aggregates_id_seq;
+ALTER TABLE data_collect.stoplight_aggregates ALTER COLUMN id SET DEFAULT nextval('data_collect.stoplight_aggregates_id_seq');
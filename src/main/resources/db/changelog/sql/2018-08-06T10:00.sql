@@ -0,0 +1,10 @@
+-- Key generated by the device that took a snapshot, so syncing it again does not store it twice
+ALTER TABLE data_collect.snapshots_economics ADD COLUMN client_key character varying(100);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_snapshots_economics_client_key
+    ON data_collect.snapshots_economics (client_key);
+
+-- Hibernate reserves blocks of 50 ids with the pooled optimizer, so snapshots can be inserted in
+-- JDBC batches. Other writers calling nextval keep getting ids outside of the reserved blocks.
+ALTER SEQUENCE data_collect.snapshots_indicators_id_seq INCREMENT BY 50;
+ALTER SEQUENCE data_collect.snapshots_economics_id_seq INCREMENT BY 50;
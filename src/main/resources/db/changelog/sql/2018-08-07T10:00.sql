@@ -0,0 +1,23 @@
+-- Hibernate reserves blocks of 50 ids with the pooled optimizer, so these rows can be inserted in
+-- JDBC batches. Each sequence is first moved past the ids already used, so the first block handed
+-- out after the change can not overlap existing rows. Both statements only take a short lock on
+-- the sequence, and other writers calling nextval keep getting ids outside of the reserved blocks.
+SELECT setval('data_collect.snapshot_draft_id_seq', GREATEST(
+    (SELECT COALESCE(max(id), 1) FROM data_collect.snapshot_draft),
+    (SELECT last_value FROM data_collect.snapshot_draft_id_seq)));
+ALTER SEQUENCE data_collect.snapshot_draft_id_seq INCREMENT BY 50;
+
+SELECT setval('data_collect.snapshot_indicator_priorities_snapshot_indicator_priorities_seq', GREATEST(
+    (SELECT COALESCE(max(snapshot_indicator_priorities_id), 1) FROM data_collect.snapshot_indicator_priorities),
+    (SELECT last_value FROM data_collect.snapshot_indicator_priorities_snapshot_indicator_priorities_seq)));
+ALTER SEQUENCE data_collect.snapshot_indicator_priorities_snapshot_indicator_priorities_seq INCREMENT BY 50;
+
+SELECT setval('system.activity_activity_id_seq', GREATEST(
+    (SELECT COALESCE(max(activity_id), 1) FROM system.activity),
+    (SELECT last_value FROM system.activity_activity_id_seq)));
+ALTER SEQUENCE system.activity_activity_id_seq INCREMENT BY 50;
+
+SELECT setval('ps_families.family_family_id_seq', GREATEST(
+    (SELECT COALESCE(max(family_id), 1) FROM ps_families.family),
+    (SELECT last_value FROM ps_families.family_family_id_seq)));
+ALTER SEQUENCE ps_families.family_family_id_seq INCREMENT BY 50;
@@ -0,0 +1,6 @@
+-- Activities older than the retention period are moved here by a scheduled job.
+-- The columns are the same, in the same order, as those of system.activity.
+CREATE TABLE IF NOT EXISTS system.activity_archive (LIKE system.activity);
+ALTER TABLE system.activity_archive ADD PRIMARY KEY (activity_id);
+CREATE INDEX IF NOT EXISTS idx_activity_archive_created_at
+    ON system.activity_archive (created_at);
@@ -0,0 +1,156 @@
+-- Log of the changes to the data synchronized by mobile clients, written by
+-- triggers in the same transaction as the change itself. Clients read it in
+-- (txid, change_id) order: the log only serves the transactions older than
+-- every one still running, so a transaction that commits late can never land
+-- behind a position a client has already read past.
+CREATE TABLE IF NOT EXISTS system.change_log (
+    change_id bigserial PRIMARY KEY,
+    txid bigint NOT NULL DEFAULT txid_current(),
+    entity_type varchar(16) NOT NULL,
+    entity_id bigint NOT NULL,
+    deleted boolean NOT NULL DEFAULT false,
+    application_id bigint,
+    organization_id bigint,
+    user_id bigint,
+    changed_at timestamp NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_change_log_txid
+    ON system.change_log (txid, change_id);
+CREATE INDEX IF NOT EXISTS idx_change_log_application
+    ON system.change_log (application_id, txid, change_id);
+CREATE INDEX IF NOT EXISTS idx_change_log_organization
+    ON system.change_log (organization_id, txid, change_id);
+CREATE INDEX IF NOT EXISTS idx_change_log_user
+    ON system.change_log (user_id, txid, change_id);
+
+-- Families are deleted by deactivating them, which is logged as their deletion.
+-- A family moved to another organization is deleted from the old one.
+CREATE OR REPLACE FUNCTION system.log_family_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO system.change_log (entity_type, entity_id, deleted, application_id, organization_id)
+            VALUES ('FAMILY', OLD.family_id, true, OLD.application_id, OLD.organization_id);
+        RETURN OLD;
+    END IF;
+    IF TG_OP = 'UPDATE' AND (OLD.application_id IS DISTINCT FROM NEW.application_id
+            OR OLD.organization_id IS DISTINCT FROM NEW.organization_id) THEN
+        INSERT INTO system.change_log (entity_type, entity_id, deleted, application_id, organization_id)
+            VALUES ('FAMILY', OLD.family_id, true, OLD.application_id, OLD.organization_id);
+    END IF;
+    INSERT INTO system.change_log (entity_type, entity_id, deleted, application_id, organization_id)
+        VALUES ('FAMILY', NEW.family_id, NOT NEW.is_active, NEW.application_id, NEW.organization_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS family_change_log ON ps_families.family;
+CREATE TRIGGER family_change_log AFTER INSERT OR UPDATE OR DELETE ON ps_families.family
+    FOR EACH ROW EXECUTE PROCEDURE system.log_family_change();
+
+-- Snapshots are scoped by the application and organization of their family
+CREATE OR REPLACE FUNCTION system.log_snapshot_change() RETURNS trigger AS $$
+DECLARE
+    changed data_collect.snapshots_economics%ROWTYPE;
+    family ps_families.family%ROWTYPE;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    SELECT * INTO family FROM ps_families.family WHERE family_id = changed.family_id;
+    INSERT INTO system.change_log (entity_type, entity_id, deleted, application_id, organization_id, user_id)
+        VALUES ('SNAPSHOT', changed.id, TG_OP = 'DELETE', family.application_id, family.organization_id,
+            changed.user_id);
+    RETURN changed;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS snapshot_change_log ON data_collect.snapshots_economics;
+CREATE TRIGGER snapshot_change_log AFTER INSERT OR UPDATE OR DELETE ON data_collect.snapshots_economics
+    FOR EACH ROW EXECUTE PROCEDURE system.log_snapshot_change();
+
+-- Priorities are scoped by the family of their snapshot. Those deleted together
+-- with their snapshot may no longer find it, and are then logged without scope:
+-- clients drop them along with the snapshot.
+CREATE OR REPLACE FUNCTION system.log_priority_change() RETURNS trigger AS $$
+DECLARE
+    changed data_collect.snapshot_indicator_priorities%ROWTYPE;
+    family ps_families.family%ROWTYPE;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    SELECT f.* INTO family FROM data_collect.snapshots_economics s
+        JOIN ps_families.family f ON f.family_id = s.family_id
+        WHERE s.snapshot_indicator_id = changed.snapshot_indicator;
+    INSERT INTO system.change_log (entity_type, entity_id, deleted, application_id, organization_id)
+        VALUES ('PRIORITY', changed.snapshot_indicator_priorities_id, TG_OP = 'DELETE', family.application_id,
+            family.organization_id);
+    RETURN changed;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS priority_change_log ON data_collect.snapshot_indicator_priorities;
+CREATE TRIGGER priority_change_log AFTER INSERT OR UPDATE OR DELETE ON data_collect.snapshot_indicator_priorities
+    FOR EACH ROW EXECUTE PROCEDURE system.log_priority_change();
+
+-- Drafts are only synchronized to the user who is filling them
+CREATE OR REPLACE FUNCTION system.log_draft_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO system.change_log (entity_type, entity_id, deleted, user_id)
+            VALUES ('DRAFT', OLD.id, true, OLD.user_id);
+        RETURN OLD;
+    END IF;
+    INSERT INTO system.change_log (entity_type, entity_id, deleted, user_id)
+        VALUES ('DRAFT', NEW.id, false, NEW.user_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS draft_change_log ON data_collect.snapshot_draft;
+CREATE TRIGGER draft_change_log AFTER INSERT OR UPDATE OR DELETE ON data_collect.snapshot_draft
+    FOR EACH ROW EXECUTE PROCEDURE system.log_draft_change();
+
+-- Changes to a survey itself are logged without scope, and reach the clients of
+-- the organizations it is assigned to. Assigning or removing it logs it for the
+-- organization in question.
+CREATE OR REPLACE FUNCTION system.log_survey_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO system.change_log (entity_type, entity_id, deleted)
+            VALUES ('SURVEY', OLD.id, true);
+        RETURN OLD;
+    END IF;
+    INSERT INTO system.change_log (entity_type, entity_id, deleted)
+        VALUES ('SURVEY', NEW.id, false);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS survey_change_log ON data_collect.surveys;
+CREATE TRIGGER survey_change_log AFTER INSERT OR UPDATE OR DELETE ON data_collect.surveys
+    FOR EACH ROW EXECUTE PROCEDURE system.log_survey_change();
+
+CREATE OR REPLACE FUNCTION system.log_survey_organization_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        INSERT INTO system.change_log (entity_type, entity_id, deleted, application_id, organization_id)
+            VALUES ('SURVEY', OLD.survey_id, true, OLD.application_id, OLD.organization_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO system.change_log (entity_type, entity_id, deleted, application_id, organization_id)
+            VALUES ('SURVEY', NEW.survey_id, false, NEW.application_id, NEW.organization_id);
+        RETURN NEW;
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS survey_organization_change_log ON ps_network.surveys_organizations;
+CREATE TRIGGER survey_organization_change_log AFTER INSERT OR UPDATE OR DELETE ON ps_network.surveys_organizations
+    FOR EACH ROW EXECUTE PROCEDURE system.log_survey_organization_change();
@@ -0,0 +1,7 @@
+-- Images are uploaded in the background: the URL of an image is set right
+-- away, and its status tells whether it is served yet.
+ALTER TABLE ps_families.family ADD COLUMN image_status varchar(16);
+ALTER TABLE ps_network.organizations ADD COLUMN logo_status varchar(16);
+
+UPDATE ps_families.family SET image_status = 'READY' WHERE image_url IS NOT NULL;
+UPDATE ps_network.organizations SET logo_status = 'READY' WHERE logo_url IS NOT NULL;
@@ -0,0 +1,13 @@
+-- The organization the stoplight aggregates count the snapshots of each family
+-- under. A family whose organization is no longer this one has moved, and its
+-- snapshots still have to be moved to the aggregates of the new one.
+CREATE TABLE data_collect.stoplight_aggregate_families
+(
+    family_id bigint NOT NULL,
+    organization_id bigint NOT NULL,
+    PRIMARY KEY (family_id)
+);
+
+-- The existing aggregates count every family under its current organization
+INSERT INTO data_collect.stoplight_aggregate_families (family_id, organization_id)
+    SELECT family_id, COALESCE(organization_id, 0) FROM ps_families.family;
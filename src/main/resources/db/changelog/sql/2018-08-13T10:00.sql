@@ -0,0 +1,4 @@
+-- The entity tags of the snapshot indicators are worked out from the versions
+-- of their priorities instead of from the priorities themselves.
+ALTER TABLE data_collect.snapshot_indicator_priorities
+    ADD COLUMN last_modified_at timestamp NOT NULL DEFAULT now();
@@ -0,0 +1,46 @@
+package py.org.fundacionparaguaya.pspserver.common.utils;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.junit.Test;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PropertyAccessorsTest {
+
+    @Test
+    public void shouldReadSameValuesAsPropertyUtils() throws Exception {
+        SurveyData data = new SurveyData();
+        data.put("currency", "PYG");
+        data.put("householdMonthlyIncome", "1500.5");
+        SnapshotEconomicEntity economic = new SnapshotEconomicEntity().staticProperties(data);
+
+        PropertyAccessors<SnapshotEconomicEntity> accessors = PropertyAccessors.of(SnapshotEconomicEntity.class);
+
+        assertThat(accessors.get(economic, "householdMonthlyIncome")).isEqualTo(1500.5);
+        for (String property : accessors.getPropertyNames()) {
+            if (PropertyUtils.isReadable(economic, property)) {
+                assertThat(accessors.get(economic, property))
+                        .isEqualTo(PropertyUtils.getProperty(economic, property));
+            }
+        }
+    }
+
+    @Test
+    public void shouldWriteProperties() {
+        PropertyAccessors<SnapshotIndicatorEntity> accessors = PropertyAccessors.of(SnapshotIndicatorEntity.class);
+        SnapshotIndicatorEntity indicator = new SnapshotIndicatorEntity();
+
+        accessors.set(indicator, "income", "GREEN");
+
+        assertThat(indicator.getIncome()).isEqualTo("GREEN");
+        assertThat(accessors.getType("income")).isEqualTo(String.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnUnknownProperty() {
+        PropertyAccessors.of(SnapshotIndicatorEntity.class).get(new SnapshotIndicatorEntity(), "notAProperty");
+    }
+}
@@ -0,0 +1,114 @@
+package py.org.fundacionparaguaya.pspserver.config;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingTokenStoreTest {
+
+    private static final String TOKEN = "token";
+
+    @Mock
+    private TokenStore delegate;
+
+    private CachingTokenStore store;
+
+    private DefaultOAuth2AccessToken accessToken;
+
+    private OAuth2Authentication authentication;
+
+    @Before
+    public void setUp() {
+        store = new CachingTokenStore(delegate, 100, 60);
+        accessToken = new DefaultOAuth2AccessToken(TOKEN);
+        accessToken.setRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+        authentication = mock(OAuth2Authentication.class);
+        when(delegate.readAccessToken(TOKEN)).thenReturn(accessToken);
+        when(delegate.readAuthentication(TOKEN)).thenReturn(authentication);
+    }
+
+    @Test
+    public void shouldReadEachTokenFromTheStoreOnce() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.readAccessToken(TOKEN)).isSameAs(accessToken);
+            assertThat(store.readAuthentication(accessToken)).isSameAs(authentication);
+        }
+
+        verify(delegate, times(1)).readAccessToken(TOKEN);
+        verify(delegate, times(1)).readAuthentication(TOKEN);
+    }
+
+    @Test
+    public void shouldNotCacheMissingTokens() {
+        store.readAccessToken("unknown");
+        store.readAccessToken("unknown");
+
+        verify(delegate, times(2)).readAccessToken("unknown");
+    }
+
+    @Test
+    public void shouldEvictRemovedTokens() {
+        store.readAccessToken(TOKEN);
+        store.readAuthentication(TOKEN);
+
+        store.removeAccessToken(accessToken);
+        store.readAccessToken(TOKEN);
+        store.readAuthentication(TOKEN);
+
+        verify(delegate).removeAccessToken(accessToken);
+        verify(delegate, times(2)).readAccessToken(TOKEN);
+        verify(delegate, times(2)).readAuthentication(TOKEN);
+    }
+
+    @Test
+    public void shouldEvictTokensReadWhileTheyAreRemoved() {
+        store.readAccessToken(TOKEN);
+        doAnswer(invocation -> store.readAccessToken(TOKEN)).when(delegate).removeAccessToken(accessToken);
+
+        store.removeAccessToken(accessToken);
+        store.readAccessToken(TOKEN);
+
+        verify(delegate, times(3)).readAccessToken(TOKEN);
+    }
+
+    @Test
+    public void shouldNotCacheTokensRemovedAfterTheyWereRead() {
+        // the token is read from the store, then removed before the read caches it
+        doAnswer(invocation -> {
+            store.removeAccessToken(accessToken);
+            return accessToken;
+        }).doReturn(null).when(delegate).readAccessToken(TOKEN);
+
+        assertThat(store.readAccessToken(TOKEN)).isSameAs(accessToken);
+        assertThat(store.readAccessToken(TOKEN)).isNull();
+
+        verify(delegate, times(2)).readAccessToken(TOKEN);
+    }
+
+    @Test
+    public void shouldEvictTokensOfARemovedRefreshToken() {
+        store.readAccessToken(TOKEN);
+        store.readAuthentication(accessToken);
+
+        store.removeAccessTokenUsingRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+        store.readAccessToken(TOKEN);
+        store.readAuthentication(accessToken);
+
+        verify(delegate, times(2)).readAccessToken(TOKEN);
+        verify(delegate, times(2)).readAuthentication(TOKEN);
+    }
+}
@@ -0,0 +1,149 @@
+package py.org.fundacionparaguaya.pspserver.config;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks, without a database, that the liquibase changelog creates the indexes
+ * {@link QueryIndexesITest} expects the hot queries to use, and that the
+ * indexes built concurrently are built outside of a transaction.
+ */
+public class ChangelogIndexesTest {
+
+    private static final String CHANGELOG_DIRECTORY = "db/changelog/";
+
+    private static final String CHANGELOG = CHANGELOG_DIRECTORY + "db.changelog-evolution.xml";
+
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(?:CONCURRENTLY\\s+)?(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DROP_INDEX = Pattern.compile(
+            "DROP\\s+INDEX\\s+(?:CONCURRENTLY\\s+)?(?:IF\\s+EXISTS\\s+)?(?:\\w+\\.)?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private List<ChangeSet> changeSets;
+
+    @Before
+    public void setup() throws Exception {
+        changeSets = new ArrayList<>();
+        Document changelog;
+        try (InputStream in = resource(CHANGELOG)) {
+            changelog = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+        }
+
+        NodeList elements = changelog.getElementsByTagName("changeSet");
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            StringBuilder sql = new StringBuilder();
+            NodeList inline = element.getElementsByTagName("sql");
+            for (int j = 0; j < inline.getLength(); j++) {
+                sql.append(inline.item(j).getTextContent()).append('\n');
+            }
+            NodeList files = element.getElementsByTagName("sqlFile");
+            for (int j = 0; j < files.getLength(); j++) {
+                sql.append(read(CHANGELOG_DIRECTORY + ((Element) files.item(j)).getAttribute("path"))).append('\n');
+            }
+            changeSets.add(new ChangeSet(element.getAttribute("id"),
+                    !"false".equals(element.getAttribute("runInTransaction")),
+                    sql.toString().replaceAll("--[^\n]*", "")));
+        }
+    }
+
+    @Test
+    public void shouldCreateTheIndexesOfTheHotQueries() {
+        assertThat(indexes()).contains(
+                "idx_snapshots_economics_family_id",
+                "idx_family_code",
+                "idx_family_active_application_organization",
+                "idx_snapshot_indicator_priorities_snapshot_indicator",
+                "idx_activity_activity_role",
+                "idx_activity_feed_organization",
+                "idx_snapshots_economics_additional_properties",
+                "idx_family_name_trgm",
+                "idx_family_code_trgm");
+    }
+
+    @Test
+    public void shouldBuildConcurrentIndexesOutsideOfTransactions() {
+        for (ChangeSet changeSet : changeSets) {
+            if (changeSet.sql.toUpperCase().contains("CONCURRENTLY")) {
+                assertThat(changeSet.inTransaction).as(changeSet.id).isFalse();
+            }
+        }
+    }
+
+    /**
+     * @return the indexes left once every change set has run
+     */
+    private Set<String> indexes() {
+        Set<String> indexes = new LinkedHashSet<>();
+        for (ChangeSet changeSet : changeSets) {
+            // in statement order, as an index may be dropped and created again
+            Matcher create = CREATE_INDEX.matcher(changeSet.sql);
+            Matcher drop = DROP_INDEX.matcher(changeSet.sql);
+            int position = 0;
+            while (true) {
+                boolean created = create.find(position);
+                int createAt = created ? create.start() : Integer.MAX_VALUE;
+                boolean dropped = drop.find(position);
+                int dropAt = dropped ? drop.start() : Integer.MAX_VALUE;
+                if (!created && !dropped) {
+                    break;
+                }
+                if (createAt < dropAt) {
+                    indexes.add(create.group(1).toLowerCase());
+                    position = create.end();
+                } else {
+                    indexes.remove(drop.group(1).toLowerCase());
+                    position = drop.end();
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private static String read(String path) throws Exception {
+        try (InputStream in = resource(path);
+             Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+
+    private static InputStream resource(String path) {
+        InputStream in = ChangelogIndexesTest.class.getClassLoader().getResourceAsStream(path);
+        assertThat(in).as(path).isNotNull();
+        return in;
+    }
+
+    private static final class ChangeSet {
+
+        private final String id;
+
+        private final boolean inTransaction;
+
+        private final String sql;
+
+        ChangeSet(String id, boolean inTransaction, String sql) {
+            this.id = id;
+            this.inTransaction = inTransaction;
+            this.sql = sql;
+        }
+    }
+}
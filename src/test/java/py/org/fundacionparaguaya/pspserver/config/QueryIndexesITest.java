@@ -0,0 +1,121 @@
+package py.org.fundacionparaguaya.pspserver.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Checks with <code>EXPLAIN</code> that the hot queries can be answered from the
+ * indexes created by the liquibase changelog.
+ *
+ * It needs a migrated database, so it only runs when one is given with
+ * <code>-Dpsp.it.datasource.url</code> (and <code>.username</code>, <code>.password</code>).
+ * {@link ChangelogIndexesTest} checks on every build that the changelog still
+ * creates the indexes.
+ */
+public class QueryIndexesITest {
+
+    private static final String URL_PROPERTY = "psp.it.datasource.url";
+
+    private Connection connection;
+
+    @Before
+    public void setup() throws SQLException {
+        String url = System.getProperty(URL_PROPERTY);
+        assumeNotNull(url);
+        connection = DriverManager.getConnection(url,
+                System.getProperty("psp.it.datasource.username"),
+                System.getProperty("psp.it.datasource.password"));
+        try (Statement statement = connection.createStatement()) {
+            // small test databases would otherwise always be sequentially scanned
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void shouldUseIndexForSnapshotsOfFamily() throws SQLException {
+        assertThat(explain("SELECT * FROM data_collect.snapshots_economics WHERE family_id = 1 "
+                + "ORDER BY created_at DESC"))
+                .contains("idx_snapshots_economics_family_id")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    public void shouldUseIndexForActiveFamiliesOfOrganization() throws SQLException {
+        assertThat(explain("SELECT * FROM ps_families.family WHERE application_id = 1 "
+                + "AND organization_id = 1 AND is_active = true"))
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    public void shouldUseIndexForFamilyCode() throws SQLException {
+        assertThat(explain("SELECT * FROM ps_families.family WHERE code = 'foo.code'"))
+                .contains("idx_family_code");
+    }
+
+    @Test
+    public void shouldUseIndexForPrioritiesOfSnapshot() throws SQLException {
+        assertThat(explain("SELECT * FROM data_collect.snapshot_indicator_priorities "
+                + "WHERE snapshot_indicator IN (1, 2, 3)"))
+                .contains("idx_snapshot_indicator_priorities_snapshot_indicator");
+    }
+
+    @Test
+    public void shouldUseIndexForActivityFeed() throws SQLException {
+        assertThat(explain("SELECT * FROM system.activity WHERE activity_role = 'ROLE_ROOT' "
+                + "ORDER BY created_at DESC"))
+                .contains("idx_activity_activity_role");
+    }
+
+    @Test
+    public void shouldUseIndexForActivityFeedOfOrganization() throws SQLException {
+        assertThat(explain("SELECT * FROM system.activity WHERE activity_role = 'ROLE_APP_ADMIN' "
+                + "AND organization_id = 1 ORDER BY created_at DESC, activity_id DESC LIMIT 51"))
+                .contains("idx_activity_feed_organization")
+                .doesNotContain("Sort");
+    }
+
+    @Test
+    public void shouldUseIndexForAdditionalProperties() throws SQLException {
+        assertThat(explain("SELECT * FROM data_collect.snapshots_economics "
+                + "WHERE additional_properties @> '{\"foo\": \"bar\"}'"))
+                .contains("idx_snapshots_economics_additional_properties");
+    }
+
+    @Test
+    public void shouldUseTrigramIndexesForFamilySearch() throws SQLException {
+        assertThat(explain("SELECT * FROM ps_families.family WHERE lower(name) % 'juan perez' "
+                + "OR lower(code) % 'juan perez' OR lower(name) LIKE '%juan perez%' "
+                + "OR lower(code) LIKE '%juan perez%'"))
+                .contains("idx_family_name_trgm")
+                .contains("idx_family_code_trgm")
+                .doesNotContain("Seq Scan");
+    }
+
+    private String explain(String query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + query)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package py.org.fundacionparaguaya.pspserver.config.filters;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompressionFilterTest {
+
+    private static final String BODY = "{\"indicators\":\"" + new String(new char[4096]).replace('\0', 'x') + "\"}";
+
+    private CompressionFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        filter = new CompressionFilter(new ApplicationProperties.Compression());
+        request = new MockHttpServletRequest("GET", "/api/v1/surveys");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void shouldNegotiateTheEncoding() {
+        assertThat(CompressionFilter.negotiate(null)).isNull();
+        assertThat(CompressionFilter.negotiate("identity")).isNull();
+        assertThat(CompressionFilter.negotiate("gzip, deflate, br")).isEqualTo(CompressionFilter.GZIP);
+        assertThat(CompressionFilter.negotiate("gzip;q=0, deflate")).isEqualTo(CompressionFilter.DEFLATE);
+        assertThat(CompressionFilter.negotiate("*")).isEqualTo(CompressionFilter.GZIP);
+        assertThat(CompressionFilter.negotiate("*;q=0")).isNull();
+    }
+
+    @Test
+    public void shouldGzipJsonForClientsThatAcceptIt() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        filter.doFilter(request, response, chainWriting("application/json;charset=UTF-8", BODY));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(read(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))))
+                .isEqualTo(BODY);
+    }
+
+    @Test
+    public void shouldDeflateCsvWrittenWithTheWriter() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate");
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("text/csv;charset=UTF-8");
+                resp.getWriter().write(BODY);
+                resp.getWriter().close();
+            }
+        }));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("deflate");
+        assertThat(read(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))))
+                .isEqualTo(BODY);
+    }
+
+    @Test
+    public void shouldNotCompressOtherTypesOrSmallResponses() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        filter.doFilter(request, response, chainWriting("image/png", BODY));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+
+        MockHttpServletResponse small = new MockHttpServletResponse();
+        filter.doFilter(request, small, chainWriting("application/json", "{}"));
+
+        assertThat(small.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(small.getContentLength()).isEqualTo(2);
+        assertThat(small.getContentAsString()).isEqualTo("{}");
+    }
+
+    @Test
+    public void shouldNotCompressWhenTheClientDoesNotAcceptIt() throws Exception {
+        filter.doFilter(request, response, chainWriting("application/json", BODY));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(BODY);
+    }
+
+    @Test
+    public void shouldWeakenTheEntityTagOfResponsesThatMayBeCompressed() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                resp.setHeader(HttpHeaders.ETAG, "\"tag\"");
+                resp.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        }));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"tag\"");
+
+        MockHttpServletRequest identity = new MockHttpServletRequest("GET", "/api/v1/surveys");
+        MockHttpServletResponse uncompressed = new MockHttpServletResponse();
+        filter.doFilter(identity, uncompressed, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setHeader(HttpHeaders.ETAG, "\"tag\"");
+            }
+        }));
+
+        assertThat(uncompressed.getHeader(HttpHeaders.ETAG)).isEqualTo("\"tag\"");
+    }
+
+    private static MockFilterChain chainWriting(String contentType, String body) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                resp.setContentType(contentType);
+                resp.setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(bytes.length));
+                resp.getOutputStream().write(bytes);
+            }
+        });
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package py.org.fundacionparaguaya.pspserver.families.mapper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.modelmapper.ModelMapper;
+import py.org.fundacionparaguaya.pspserver.common.mapper.MappingView;
+import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+import py.org.fundacionparaguaya.pspserver.families.entities.PersonEntity;
+import py.org.fundacionparaguaya.pspserver.network.entities.ApplicationEntity;
+import py.org.fundacionparaguaya.pspserver.network.entities.OrganizationEntity;
+import py.org.fundacionparaguaya.pspserver.network.mapper.ApplicationMapper;
+import py.org.fundacionparaguaya.pspserver.network.mapper.OrganizationMapper;
+import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
+import py.org.fundacionparaguaya.pspserver.security.mapper.UserMapper;
+import py.org.fundacionparaguaya.pspserver.system.entities.CountryEntity;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CityMapper;
+import py.org.fundacionparaguaya.pspserver.system.mapper.CountryMapper;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FamilyMapperTest {
+
+    private FamilyMapper mapper;
+
+    private FamilyEntity family;
+
+    @Before
+    public void setUp() {
+        ModelMapper modelMapper = new ModelMapper();
+        CountryMapper countryMapper = new CountryMapper(modelMapper);
+        CityMapper cityMapper = new CityMapper(modelMapper);
+        ApplicationMapper applicationMapper = new ApplicationMapper(modelMapper, countryMapper, cityMapper);
+        mapper = new FamilyMapper(modelMapper, countryMapper, cityMapper,
+                new PersonMapper(modelMapper, null, null, countryMapper, cityMapper), applicationMapper,
+                new OrganizationMapper(modelMapper, countryMapper, applicationMapper),
+                new UserMapper(modelMapper, null));
+
+        CountryEntity country = new CountryEntity();
+        country.setId(1L);
+        country.setCountry("Paraguay");
+
+        ApplicationEntity application = new ApplicationEntity();
+        application.setId(2L);
+        application.setName("Hub");
+        application.setCountry(country);
+
+        OrganizationEntity organization = new OrganizationEntity();
+        organization.setId(3L);
+        organization.setName("Organization");
+        organization.setApplication(application);
+
+        PersonEntity person = new PersonEntity();
+        person.setPersonId(4L);
+        person.setFirstName("Juan");
+        person.setBirthdate(LocalDate.of(1980, 1, 31));
+        person.setCountryOfBirth(country);
+
+        UserEntity user = new UserEntity();
+        user.setId(5L);
+        user.setUsername("user");
+        user.setPass("hash");
+
+        family = new FamilyEntity();
+        family.setFamilyId(6L);
+        family.setName("Family");
+        family.setCode("PY.1");
+        family.setActive(true);
+        family.setCountry(country);
+        family.setPerson(person);
+        family.setApplication(application);
+        family.setOrganization(organization);
+        family.setUser(user);
+    }
+
+    @Test
+    public void shouldMapTheWholeFamilyInTheFullView() {
+        FamilyDTO dto = mapper.entityToDto(family);
+
+        assertThat(dto.getFamilyId()).isEqualTo(6L);
+        assertThat(dto.getCode()).isEqualTo("PY.1");
+        assertThat(dto.isActive()).isTrue();
+        assertThat(dto.getCountry().getCountry()).isEqualTo("Paraguay");
+        assertThat(dto.getPerson().getFirstName()).isEqualTo("Juan");
+        assertThat(dto.getPerson().getBirthdate()).isEqualTo("1980-01-31");
+        assertThat(dto.getPerson().getFamily()).isNull();
+        assertThat(dto.getOrganization().getApplication().getCountry().getId()).isEqualTo(1L);
+        assertThat(dto.getApplication().getName()).isEqualTo("Hub");
+        assertThat(dto.getUser().getUsername()).isEqualTo("user");
+        assertThat(dto.getUser().getPass()).isNull();
+    }
+
+    @Test
+    public void shouldLeaveOutRelationsInTheSummaryView() {
+        FamilyDTO dto = mapper.entityToDto(family, MappingView.SUMMARY);
+
+        assertThat(dto.getName()).isEqualTo("Family");
+        assertThat(dto.getOrganization().getName()).isEqualTo("Organization");
+        assertThat(dto.getOrganization().getApplication()).isNull();
+        assertThat(dto.getApplication().getCountry()).isNull();
+        assertThat(dto.getCountry()).isNull();
+        assertThat(dto.getPerson()).isNull();
+        assertThat(dto.getUser()).isNull();
+    }
+}
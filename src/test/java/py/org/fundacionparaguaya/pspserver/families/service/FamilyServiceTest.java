@@ -5,15 +5,20 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
+import py.org.fundacionparaguaya.pspserver.common.pagination.RankCursor;
 import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
 import py.org.fundacionparaguaya.pspserver.config.I18n;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
+import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyFilterDTO;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyLocationDTO;
 import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyOrganizationDTO;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.families.entities.PersonEntity;
 import py.org.fundacionparaguaya.pspserver.families.mapper.FamilyMapper;
 import py.org.fundacionparaguaya.pspserver.families.repositories.FamilyRepository;
+import py.org.fundacionparaguaya.pspserver.families.repositories.RankedFamily;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyLocationService;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyOrganizationService;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyService;
@@ -24,11 +29,14 @@ import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.system.services.ActivityFeedManager;
 import py.org.fundacionparaguaya.pspserver.system.services.ImageUploadService;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static py.org.fundacionparaguaya.pspserver.util.TestMockFactory.aFamily;
@@ -156,5 +164,29 @@ public class FamilyServiceTest {
 
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void searchFamiliesShouldGiveCursorOfLastFamilyWhenThereAreMore() {
+        FamilyEntity first = aFamily();
+        FamilyEntity second = aFamily();
+        second.setFamilyId(FAMILY_ID - 1);
+        when(familyRepository.search(any(Specification.class), eq("juan"), (RankCursor) isNull(), eq(3)))
+                .thenReturn(Arrays.asList(new RankedFamily(first, 0.8f), new RankedFamily(second, 0.5f),
+                        new RankedFamily(aFamily(), 0.5f)));
+        when(familyMapper.entityToDto(any(FamilyEntity.class))).thenReturn(mockFamilyDto);
+
+        KeysetPage<FamilyDTO> page = familyService.searchFamilies(FamilyFilterDTO.builder().build(), "juan",
+                userMock, null, 2);
+
+        assertThat(page.getList()).hasSize(2);
+        RankCursor next = RankCursor.decode(page.getNext());
+        assertThat(next.getRank()).isEqualTo(0.5f);
+        assertThat(next.getId()).isEqualTo(FAMILY_ID - 1);
+    }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void searchFamiliesShouldRejectTooLargePages() {
+        familyService.searchFamilies(FamilyFilterDTO.builder().build(), "juan", userMock, null,
+                FamilyService.MAX_SEARCH_PAGE_SIZE + 1);
+    }
 }
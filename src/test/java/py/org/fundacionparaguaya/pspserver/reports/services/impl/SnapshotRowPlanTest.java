@@ -0,0 +1,27 @@
+package py.org.fundacionparaguaya.pspserver.reports.services.impl;
+
+import org.junit.Test;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDataKeys;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotRowPlanTest {
+
+    @Test
+    public void shouldWriteTheCellsInTheOrderOfTheKeys() {
+        List<String> keys = Arrays.asList("familyName", "income", "housing", "water", "missing", "size");
+        SurveyData data = new SurveyData(SurveyDataKeys.of(keys));
+        data.put("size", 4);
+        data.put("water", "NONE");
+        data.put("housing", "green");
+        data.put("income", "RED");
+        data.put("familyName", "Perez, Gomez");
+
+        assertThat(SnapshotRowPlan.toRow(data, keys))
+                .containsExactly("Perez; Gomez", "1", "3", "0", "", "");
+    }
+}
@@ -0,0 +1,88 @@
+package py.org.fundacionparaguaya.pspserver.surveys.dtos;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SurveyDataTest {
+
+    private static final SurveyDataKeys KEYS = SurveyDataKeys.of(Arrays.asList("income", "housing", "water"));
+
+    @Test
+    public void shouldInternKeys() {
+        assertThat(SurveyDataKeys.of(Arrays.asList("income", "housing", "water", "income"))).isSameAs(KEYS);
+    }
+
+    @Test
+    public void shouldBehaveAsAHashMap() {
+        SurveyData data = new SurveyData(KEYS);
+        data.put("income", "red");
+        data.put("water", null);
+        data.put("lat", "-25.3");
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("income", "red");
+        expected.put("water", null);
+        expected.put("lat", "-25.3");
+
+        assertThat(data).isEqualTo(expected);
+        assertThat(data.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(data).hasSize(3).containsKey("water").doesNotContainKey("housing");
+        assertThat(data.getAsString("income")).isEqualTo("red");
+
+        assertThat(data.remove("income")).isEqualTo("red");
+        assertThat(data.remove("lat")).isEqualTo("-25.3");
+        assertThat(data).hasSize(1).containsOnlyKeys("water");
+    }
+
+    @Test
+    public void shouldRemoveAndSetThroughEntries() {
+        SurveyData data = new SurveyData(KEYS);
+        data.put("income", "red");
+        data.put("housing", "green");
+
+        Iterator<Map.Entry<String, Object>> entries = data.entrySet().iterator();
+        entries.next().setValue(0);
+        entries.next();
+        entries.remove();
+
+        assertThat(data).hasSize(1).containsEntry("income", 0);
+    }
+
+    @Test
+    public void shouldRemoveTheLastSlotOnceTheOtherKeysAreReached() {
+        SurveyData data = new SurveyData(KEYS);
+        data.put("income", "red");
+        data.put("housing", "green");
+        data.put("lat", "-25.3");
+
+        Iterator<Map.Entry<String, Object>> entries = data.entrySet().iterator();
+        entries.next();
+        assertThat(entries.next().getKey()).isEqualTo("housing");
+        assertThat(entries.hasNext()).isTrue();
+        entries.remove();
+        assertThat(entries.next().getKey()).isEqualTo("lat");
+        entries.remove();
+
+        assertThat(data).hasSize(1).containsOnlyKeys("income");
+    }
+
+    @Test
+    public void copiesShouldNotSeeEachOtherChanges() {
+        SurveyData data = new SurveyData(KEYS);
+        data.put("income", "red");
+
+        SurveyData copy = data.copy();
+        copy.put("income", "green");
+        copy.put("housing", "yellow");
+        data.put("water", "red");
+
+        assertThat(data).containsOnlyKeys("income", "water").containsEntry("income", "red");
+        assertThat(copy).containsOnlyKeys("income", "housing").containsEntry("income", "green");
+    }
+}
@@ -0,0 +1,92 @@
+package py.org.fundacionparaguaya.pspserver.surveys.entities.types;
+
+import org.junit.Test;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
+
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JSONBUserTypeTest {
+
+    @Test
+    public void shouldReadValuesOfTheGivenClass() throws SQLException {
+        JSONBUserType type = typeOf(SurveyData.class, null);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getCharacterStream("data"))
+                .thenReturn(new StringReader("{\"income\":\"red\",\"members\":[1,2]}"));
+
+        Object value = type.nullSafeGet(resultSet, new String[]{"data"}, null, null);
+
+        assertThat(value).isInstanceOf(SurveyData.class);
+        assertThat((SurveyData) value).containsEntry("income", "red")
+                .containsEntry("members", Arrays.asList(1, 2));
+    }
+
+    @Test
+    public void shouldWriteValuesAsJson() throws SQLException {
+        JSONBUserType type = typeOf(SurveyData.class, null);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        SurveyData data = new SurveyData();
+        data.put("income", "red");
+
+        type.nullSafeSet(statement, data, 1, null);
+        type.nullSafeSet(statement, null, 2, null);
+
+        verify(statement).setObject(1, "{\"income\":\"red\"}", Types.OTHER);
+        verify(statement).setNull(2, Types.OTHER);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldCopyMutableValuesSoChangesInPlaceAreDirty() {
+        JSONBUserType type = typeOf(SurveyData.class, null);
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("rent", 1500);
+        SurveyData data = new SurveyData();
+        data.put("housing", nested);
+        data.put("members", Arrays.asList("a", "b"));
+
+        SurveyData copy = (SurveyData) type.deepCopy(data);
+
+        assertThat(copy).isNotSameAs(data);
+        assertThat(type.equals(data, copy)).isTrue();
+        assertThat((List<Object>) copy.get("members")).containsExactly("a", "b");
+
+        nested.put("rent", 2000);
+        assertThat(type.equals(data, copy)).isFalse();
+    }
+
+    @Test
+    public void shouldNotCopyImmutableValues() {
+        JSONBUserType type = typeOf(SurveyDefinition.class, "false");
+        SurveyDefinition definition = new SurveyDefinition();
+
+        assertThat(type.isMutable()).isFalse();
+        assertThat(type.deepCopy(definition)).isSameAs(definition);
+    }
+
+    private static JSONBUserType typeOf(Class<?> type, String mutable) {
+        Properties parameters = new Properties();
+        parameters.setProperty(JSONBUserType.CLASS, type.getName());
+        if (mutable != null) {
+            parameters.setProperty(JSONBUserType.MUTABLE, mutable);
+        }
+        JSONBUserType userType = new JSONBUserType();
+        userType.setParameterValues(parameters);
+        return userType;
+    }
+}
@@ -3,40 +3,72 @@ package py.org.fundacionparaguaya.pspserver.surveys.service;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.jpa.domain.Specification;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetCursor;
+import py.org.fundacionparaguaya.pspserver.common.pagination.KeysetPage;
 import py.org.fundacionparaguaya.pspserver.config.I18n;
+import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
 import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
 import py.org.fundacionparaguaya.pspserver.families.entities.PersonEntity;
 import py.org.fundacionparaguaya.pspserver.families.mapper.PersonMapper;
 import py.org.fundacionparaguaya.pspserver.families.services.FamilyService;
+import py.org.fundacionparaguaya.pspserver.network.dtos.OrganizationDTO;
 import py.org.fundacionparaguaya.pspserver.network.mapper.OrganizationMapper;
 import py.org.fundacionparaguaya.pspserver.network.repositories.OrganizationRepository;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTO;
 import py.org.fundacionparaguaya.pspserver.security.dtos.UserDetailsDTOBuilder;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.CompiledSurveyDefinition;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.IndicatorFilter;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
 import py.org.fundacionparaguaya.pspserver.surveys.dtos.Snapshot;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotBatchResult;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SnapshotIndicators;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyUISchema;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotEconomicEntity;
 import py.org.fundacionparaguaya.pspserver.surveys.entities.SnapshotIndicatorEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.entities.SurveyEntity;
+import py.org.fundacionparaguaya.pspserver.surveys.enums.SnapshotBatchStatusEnum;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.PropertyAttributeSupport;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotEconomicMapper;
 import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorMapper;
 import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomicRepository;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotIndicatorPriorityService;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SnapshotService;
+import py.org.fundacionparaguaya.pspserver.surveys.services.StoplightAggregateService;
 import py.org.fundacionparaguaya.pspserver.surveys.services.SurveyService;
 import py.org.fundacionparaguaya.pspserver.surveys.services.impl.SnapshotServiceImpl;
 import py.org.fundacionparaguaya.pspserver.surveys.validation.ValidationResult;
 import py.org.fundacionparaguaya.pspserver.surveys.validation.ValidationResults;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static py.org.fundacionparaguaya.pspserver.util.TestMockFactory.ECONOMIC_ID;
 import static py.org.fundacionparaguaya.pspserver.util.TestMockFactory.FAMILY_ID;
+import static py.org.fundacionparaguaya.pspserver.util.TestMockFactory.SURVEY_ID;
 import static py.org.fundacionparaguaya.pspserver.util.TestMockFactory.aPerson;
 import static py.org.fundacionparaguaya.pspserver.util.TestMockFactory.aSnapshot;
 
@@ -78,14 +110,23 @@ public class SnapshotServiceTest {
     @Mock
     private OrganizationRepository organizationRepo;
 
+    @Mock
+    private StoplightAggregateService aggregateService;
+
+    @Mock
+    private PropertyAttributeSupport propertyAttributeSupport;
+
     private static final PersonEntity MOCK_PERSON = aPerson();
 
     private static final Snapshot MOCK_SNAPSHOT = aSnapshot();
 
+    private static final Long ORGANIZATION_ID = 555L;
+
     @Before
     public void setUp() {
         service = new SnapshotServiceImpl(economicRepo, economicMapper, surveyService, indicatorMapper, priorityService,
-                personMapper, familyService, organizationMapper, i18nService, organizationRepo);
+                personMapper, familyService, organizationMapper, i18nService, organizationRepo, aggregateService,
+                propertyAttributeSupport);
     }
 
     @Test
@@ -134,11 +175,194 @@ public class SnapshotServiceTest {
         verify(economicMapper).newSnapshotToIndicatorEntity(newSnapshot);
         verify(economicMapper).newSnapshotToEconomicEntity(newSnapshot, indicator);
         verify(economicRepo).save(mappedSnapshotEconomicWithoutId);
+        verify(aggregateService).addSnapshot(savedSnapshotEconomicEntity);
 
         verify(familyService).updateFamily(familyEntity.getFamilyId());
         verify(economicMapper).entityToDto(savedSnapshotEconomicEntity);
     }
 
+    @Test
+    public void getSnapshotIndicatorsByFamilyShouldNotQueryPerSnapshot() {
+        for (int snapshotCount : new int[] {1, 10, 50}) {
+            reset(economicRepo, priorityService, familyService, organizationRepo, surveyService, indicatorMapper);
+
+            // Given
+            givenAFamilyWithSnapshots(snapshotCount);
+
+            // Act
+            List<SnapshotIndicators> snapshots = service.getSnapshotIndicatorsByFamily(FAMILY_ID);
+
+            // Assert
+            assertThat(snapshots).hasSize(snapshotCount);
+
+            // Verify
+            verify(economicRepo, times(1)).findByFamilyFamilyId(FAMILY_ID);
+            verify(priorityService, times(1)).getSnapshotIndicatorPriorities(anyCollectionOf(Long.class));
+            verify(priorityService, never()).getSnapshotIndicatorPriorityList(anyLong());
+            verify(familyService, times(1)).getFamilyById(FAMILY_ID);
+            verify(organizationRepo, times(1)).findOne(ORGANIZATION_ID);
+            verify(surveyService, times(1)).getCompiledSurveyDefinition(SURVEY_ID);
+        }
+    }
+
+    @Test
+    public void findBySurveyIdShouldReturnCursorOfLastSnapshotWhenThereAreMore() {
+        LocalDateTime createdAt = LocalDateTime.of(2018, 8, 1, 10, 30, 15, 123000);
+        List<SnapshotEconomicEntity> snapshots = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            SnapshotEconomicEntity snapshot = aEconomicWithId(i);
+            snapshot.setCreatedAt(createdAt);
+            snapshots.add(snapshot);
+        }
+
+        // Given
+        when(economicRepo.findAfter(anySpecification(), any(KeysetCursor.class), eq(3))).thenReturn(snapshots);
+        when(economicMapper.entityToDto(any(SnapshotEconomicEntity.class))).thenReturn(aSurveySnapshot());
+
+        // Act
+        KeysetPage<SurveyData> page = service.findBySurveyId(SURVEY_ID, null, null, 2);
+
+        // Assert
+        assertThat(page.getList()).hasSize(2);
+        KeysetCursor next = KeysetCursor.decode(page.getNext());
+        assertThat(next.getId()).isEqualTo(2L);
+        assertThat(next.getCreatedAt()).isEqualTo(createdAt);
+    }
+
+    @Test
+    public void findBySurveyIdShouldNotReturnCursorOnLastPage() {
+        // Given
+        when(economicRepo.findAfter(anySpecification(), any(KeysetCursor.class), eq(3)))
+                .thenReturn(Collections.singletonList(aEconomicWithId(1L)));
+        when(economicMapper.entityToDto(any(SnapshotEconomicEntity.class))).thenReturn(aSurveySnapshot());
+
+        // Act
+        KeysetPage<SurveyData> page = service.findBySurveyId(SURVEY_ID, IndicatorFilter.parse("any", "income:red"),
+                new KeysetCursor(null, 10L).encode(), 2);
+
+        // Assert
+        assertThat(page.getList()).hasSize(1);
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void findBySurveyIdShouldRejectPagesOverTheMaximumSize() {
+        service.findBySurveyId(SURVEY_ID, null, null, SnapshotService.MAX_SNAPSHOT_PAGE_SIZE + 1);
+    }
+
+    @Test
+    public void addSurveySnapshotsShouldNotSaveAlreadySentClientKeys() {
+        UserDetailsDTO userDetails = new UserDetailsDTOBuilder().build();
+        NewSnapshot first = new NewSnapshot();
+        first.setClientKey("device-1:1");
+        NewSnapshot retried = new NewSnapshot();
+        retried.setClientKey("device-1:1");
+        SnapshotEconomicEntity saved = aEconomicWithId(ECONOMIC_ID);
+        saved.setClientKey("device-1:1");
+        when(economicRepo.findByClientKeyIn(anyCollectionOf(String.class)))
+                .thenReturn(Collections.singletonList(saved));
+
+        List<SnapshotBatchResult> results = service.addSurveySnapshots(userDetails, Arrays.asList(first, retried));
+
+        assertThat(results).extracting(SnapshotBatchResult::getStatus)
+                .containsExactly(SnapshotBatchStatusEnum.DUPLICATE, SnapshotBatchStatusEnum.DUPLICATE);
+        assertThat(results).extracting(SnapshotBatchResult::getSnapshotEconomicId)
+                .containsExactly(ECONOMIC_ID, ECONOMIC_ID);
+        verify(aggregateService, never()).addSnapshots(anyCollectionOf(SnapshotEconomicEntity.class));
+
+        InOrder inOrder = inOrder(economicRepo);
+        inOrder.verify(economicRepo).lockClientKeys(new HashSet<>(Collections.singletonList("device-1:1")));
+        inOrder.verify(economicRepo).findByClientKeyIn(anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void addSurveySnapshotsShouldRejectClientKeysLongerThanTheirColumn() {
+        NewSnapshot snapshot = new NewSnapshot();
+        snapshot.setClientKey(String.join("", Collections.nCopies(SnapshotService.MAX_CLIENT_KEY_LENGTH + 1, "k")));
+
+        List<SnapshotBatchResult> results = service.addSurveySnapshots(new UserDetailsDTOBuilder().build(),
+                Collections.singletonList(snapshot));
+
+        assertThat(results).extracting(SnapshotBatchResult::getStatus)
+                .containsExactly(SnapshotBatchStatusEnum.INVALID);
+        assertThat(results.get(0).getErrors()).containsKey("client_key");
+        verify(economicRepo, never()).findByClientKeyIn(anyCollectionOf(String.class));
+    }
+
+    @Test
+    public void addSurveySnapshotsShouldReportInvalidDependencies() {
+        NewSnapshot snapshot = new NewSnapshot();
+        snapshot.setSurveyId(SURVEY_ID);
+        snapshot.setPersonalSurveyData(new SurveyData());
+        snapshot.setEconomicSurveyData(new SurveyData());
+        snapshot.setIndicatorSurveyData(new SurveyData());
+        SurveyData dependencies = new SurveyData();
+        dependencies.put("gender", Collections.singletonMap("gender", "other"));
+        snapshot.setDependencies(dependencies);
+        when(surveyService.getCompiledSurveyDefinition(SURVEY_ID))
+                .thenReturn(CompiledSurveyDefinition.compile(aSurveyDefinition(), null));
+        when(i18nService.translate("snapshot.invalidDependencies")).thenReturn("Invalid dependencies");
+
+        List<SnapshotBatchResult> results = service.addSurveySnapshots(new UserDetailsDTOBuilder().build(),
+                Collections.singletonList(snapshot));
+
+        assertThat(results).extracting(SnapshotBatchResult::getStatus)
+                .containsExactly(SnapshotBatchStatusEnum.INVALID);
+        assertThat(results.get(0).getErrors())
+                .containsEntry("dependencies", Collections.singletonList("Invalid dependencies"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addSurveySnapshotsShouldRejectBatchesOverTheMaximumSize() {
+        service.addSurveySnapshots(new UserDetailsDTOBuilder().build(),
+                Collections.nCopies(SnapshotService.MAX_SNAPSHOT_BATCH_SIZE + 1, new NewSnapshot()));
+    }
+
+    private void givenAFamilyWithSnapshots(int snapshotCount) {
+        List<SnapshotEconomicEntity> snapshots = new ArrayList<>();
+        for (long i = 1; i <= snapshotCount; i++) {
+            SnapshotIndicatorEntity indicator = aIndicator();
+            indicator.setId(i);
+            SnapshotEconomicEntity snapshot = aEconomicWithId(i);
+            snapshot.setSnapshotIndicator(indicator);
+            snapshot.setFamily(aFamily(FAMILY_ID));
+            snapshot.setSurveyDefinition(new SurveyEntity(SURVEY_ID));
+            snapshot.setCreatedAt(LocalDateTime.now().minusDays(i));
+            snapshots.add(snapshot);
+        }
+
+        OrganizationDTO organization = new OrganizationDTO();
+        organization.setId(ORGANIZATION_ID);
+        FamilyDTO family = new FamilyDTO();
+        family.setOrganization(organization);
+
+        when(economicRepo.findByFamilyFamilyId(FAMILY_ID)).thenReturn(snapshots);
+        when(priorityService.getSnapshotIndicatorPriorities(anyCollectionOf(Long.class)))
+                .thenReturn(new HashMap<>());
+        when(familyService.getFamilyById(FAMILY_ID)).thenReturn(family);
+        when(surveyService.getCompiledSurveyDefinition(SURVEY_ID))
+                .thenReturn(CompiledSurveyDefinition.compile(aSurveyDefinition(), null));
+        when(indicatorMapper.entityToDto(any(SnapshotIndicatorEntity.class))).thenReturn(new SurveyData());
+    }
+
+    private static SurveyDefinition aSurveyDefinition() {
+        SurveyUISchema uiSchema = new SurveyUISchema();
+        uiSchema.setUiOrder(Collections.emptyList());
+        uiSchema.setGroupIndicators(Collections.emptyList());
+        return new SurveyDefinition().id(SURVEY_ID).surveyUiSchema(uiSchema);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Specification<SnapshotEconomicEntity> anySpecification() {
+        return any(Specification.class);
+    }
+
+    private static Snapshot aSurveySnapshot() {
+        return new Snapshot().surveyId(SURVEY_ID)
+                .economicSurveyData(new SurveyData())
+                .indicatorSurveyData(new SurveyData());
+    }
+
     private SnapshotEconomicEntity aEconomicWithoutId() {
         return new SnapshotEconomicEntity();
     }
@@ -0,0 +1,47 @@
+package py.org.fundacionparaguaya.pspserver.surveys.stoplight;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StoplightVectorTest {
+
+    @Test
+    public void shouldParseTheNamesIgnoringCase() {
+        assertThat(Stoplight.parse("RED")).isEqualTo(Stoplight.RED);
+        assertThat(Stoplight.parse("yellow")).isEqualTo(Stoplight.YELLOW);
+        assertThat(Stoplight.parse("Green")).isEqualTo(Stoplight.GREEN);
+        assertThat(Stoplight.parse("NONE")).isEqualTo(Stoplight.NONE);
+        assertThat(Stoplight.parse("ROD")).isEqualTo(Stoplight.UNKNOWN);
+        assertThat(Stoplight.parse("")).isEqualTo(Stoplight.UNKNOWN);
+        assertThat(Stoplight.parse(null)).isEqualTo(Stoplight.UNKNOWN);
+        assertThat(Stoplight.parse(2)).isEqualTo(Stoplight.UNKNOWN);
+    }
+
+    @Test
+    public void shouldCountEveryCodeAcrossWords() {
+        StoplightVector vector = new StoplightVector(70);
+        for (int i = 0; i < 70; i++) {
+            vector.set(i, i % 4 == 3 ? Stoplight.UNKNOWN : i % 4);
+        }
+
+        assertThat(vector.get(1)).isEqualTo(Stoplight.RED);
+        assertThat(vector.get(66)).isEqualTo(Stoplight.YELLOW);
+        assertThat(vector.get(67)).isEqualTo(Stoplight.NONE);
+        assertThat(vector.count(Stoplight.RED)).isEqualTo(18);
+        assertThat(vector.count(Stoplight.YELLOW)).isEqualTo(17);
+        assertThat(vector.count(Stoplight.GREEN)).isZero();
+        assertThat(vector.count(Stoplight.NONE)).isEqualTo(35);
+    }
+
+    @Test
+    public void shouldOverwriteAValue() {
+        StoplightVector vector = new StoplightVector(3);
+        vector.set(1, Stoplight.GREEN);
+        vector.set(1, Stoplight.RED);
+
+        assertThat(vector.get(1)).isEqualTo(Stoplight.RED);
+        assertThat(vector.count(Stoplight.GREEN)).isZero();
+        assertThat(vector.count(Stoplight.NONE)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,109 @@
+package py.org.fundacionparaguaya.pspserver.surveys.validation;
+
+import org.junit.Before;
+import org.junit.Test;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.NewSnapshot;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyData;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveyDefinition;
+import py.org.fundacionparaguaya.pspserver.surveys.dtos.SurveySchema;
+import py.org.fundacionparaguaya.pspserver.util.TestHelper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static py.org.fundacionparaguaya.pspserver.surveys.validation.PropertyValidator.validType;
+import static py.org.fundacionparaguaya.pspserver.surveys.validation.SchemaValidator.presentInSchema;
+import static py.org.fundacionparaguaya.pspserver.surveys.validation.SchemaValidator.requiredValue;
+
+public class CompiledSurveyValidatorTest {
+
+    private SurveySchema schema;
+
+    private CompiledSurveyValidator validator;
+
+    @Before
+    public void setUp() {
+        SurveyDefinition definition = (SurveyDefinition) TestHelper.mapToObjectFromFile("/survey.json",
+                SurveyDefinition.class);
+        schema = definition.getSurveySchema();
+        validator = CompiledSurveyValidator.compile(schema);
+    }
+
+    @Test
+    public void shouldGiveTheSameResultsAsThePropertyValidators() {
+        NewSnapshot snapshot = (NewSnapshot) TestHelper.mapToObjectFromFile("/snapshot.json", NewSnapshot.class);
+        SurveyData data = snapshot.getAllSurveyData();
+
+        ValidationResults results = validator.validate(data);
+
+        assertThat(results.isValid()).isEqualTo(validateProperties(data).isValid());
+        assertThat(results.asMap()).isEqualTo(validateProperties(data).asMap());
+    }
+
+    @Test
+    public void shouldReportMissingRequiredAndUnknownProperties() {
+        SurveyData data = new SurveyData();
+        data.put("notInSchema", "foo");
+
+        ValidationResults results = validator.validate(data);
+
+        assertThat(results.isValid()).isFalse();
+        assertThat(results.asMap()).containsKey("notInSchema");
+        assertThat(results.asMap().keySet()).containsAll(schema.getRequired().stream()
+                .filter(schema.getProperties()::containsKey)
+                .collect(Collectors.toList()));
+        assertThat(results.asMap()).isEqualTo(validateProperties(data).asMap());
+    }
+
+    @Test
+    public void shouldValidateDependenciesAgainstTheSelectedBranch() {
+        SurveyData dependencies = new SurveyData();
+        dependencies.put("housing", map(
+                "oneOf", Arrays.asList(
+                        map("properties", map(
+                                "housing", map("enum", Collections.singletonList("rented")),
+                                "rent", map("type", "number")),
+                            "required", Collections.singletonList("rent")),
+                        map("properties", map(
+                                "housing", map("enum", Collections.singletonList("owned"))))))));
+        SurveySchema dependentSchema = new SurveySchema();
+        dependentSchema.setDependencies(dependencies);
+        CompiledSurveyValidator dependentValidator = CompiledSurveyValidator.compile(dependentSchema);
+
+        assertThat(dependentValidator.dependenciesAreValid(
+                map("housing", map("housing", "rented", "rent", 1500)))).isTrue();
+        assertThat(dependentValidator.dependenciesAreValid(
+                map("housing", map("housing", "rented")))).isFalse();
+        assertThat(dependentValidator.dependenciesAreValid(
+                map("housing", map("housing", "rented", "rent", "a lot")))).isFalse();
+        assertThat(dependentValidator.dependenciesAreValid(
+                map("housing", map("housing", "owned")))).isTrue();
+        assertThat(dependentValidator.dependenciesAreValid(
+                map("housing", map("housing", "borrowed")))).isFalse();
+        assertThat(dependentValidator.dependenciesAreValid(
+                map("unknown", map("unknown", "foo")))).isFalse();
+    }
+
+    private ValidationResults validateProperties(SurveyData data) {
+        ValidationResults results = ValidationSupport.validResults();
+        schema.getProperties().forEach((name, property) -> {
+            Object value = data.get(name);
+            results.add(value != null ? validType().apply(property, name, value) : ValidationResult.valid());
+            results.add(requiredValue().apply(schema, name, value));
+        });
+        data.forEach((name, value) -> results.add(presentInSchema().apply(schema, name, value)));
+        return results;
+    }
+
+    private static Map<String, Object> map(Object... keysAndValues) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
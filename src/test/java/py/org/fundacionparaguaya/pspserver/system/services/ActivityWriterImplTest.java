@@ -0,0 +1,96 @@
+package py.org.fundacionparaguaya.pspserver.system.services;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ActivityDTO;
+import py.org.fundacionparaguaya.pspserver.system.entities.ActivityEntity;
+import py.org.fundacionparaguaya.pspserver.system.mapper.ActivityMapper;
+import py.org.fundacionparaguaya.pspserver.system.repositories.ActivityRepository;
+import py.org.fundacionparaguaya.pspserver.system.services.impl.ActivityWriterImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ActivityWriterImplTest {
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    @Mock
+    private ActivityMapper activityMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ActivityWriterImpl writer;
+
+    @Before
+    public void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(activityMapper.dtoToEntity(any(ActivityDTO.class))).thenReturn(new ActivityEntity());
+        writer = new ActivityWriterImpl(activityRepository, activityMapper, transactionManager);
+        writer.start();
+    }
+
+    @Test
+    public void shouldWriteEveryQueuedActivityBeforeStopping() throws InterruptedException {
+        List<ActivityDTO> activities = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            activities.add(ActivityDTO.builder().activityKey("key" + i).build());
+        }
+
+        writer.write(activities);
+        writer.stop();
+
+        assertThat(writer.getWrittenCount()).isEqualTo(120);
+        assertThat(writer.getQueueDepth()).isZero();
+        verify(activityMapper, times(120)).dtoToEntity(any(ActivityDTO.class));
+    }
+
+    @Test
+    public void shouldWriteOnTheCallingThreadOnceStopped() throws InterruptedException {
+        writer.stop();
+
+        writer.write(Collections.singletonList(ActivityDTO.builder().activityKey("key").build()));
+
+        assertThat(writer.getWrittenCount()).isEqualTo(1);
+        verify(activityRepository).save(anyListOf(ActivityEntity.class));
+    }
+
+    @Test
+    public void shouldWriteTheActivitiesOneByOneWhenTheBatchFails() throws InterruptedException {
+        ActivityDTO invalid = ActivityDTO.builder().activityKey("invalid").build();
+        ActivityEntity invalidEntity = new ActivityEntity();
+        when(activityMapper.dtoToEntity(invalid)).thenReturn(invalidEntity);
+        when(activityRepository.save(anyListOf(ActivityEntity.class))).thenAnswer(invocation -> {
+            List<?> entities = (List<?>) invocation.getArguments()[0];
+            if (entities.stream().anyMatch(entity -> entity == invalidEntity)) {
+                throw new IllegalStateException("invalid activity");
+            }
+            return entities;
+        });
+        writer.stop();
+
+        writer.write(Arrays.asList(ActivityDTO.builder().activityKey("key1").build(), invalid,
+                ActivityDTO.builder().activityKey("key2").build()));
+
+        assertThat(writer.getWrittenCount()).isEqualTo(2);
+        verify(activityRepository, times(4)).save(anyListOf(ActivityEntity.class));
+    }
+}
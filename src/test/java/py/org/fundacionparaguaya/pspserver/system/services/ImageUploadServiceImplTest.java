@@ -0,0 +1,158 @@
+package py.org.fundacionparaguaya.pspserver.system.services;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import py.org.fundacionparaguaya.pspserver.config.ApplicationProperties;
+import py.org.fundacionparaguaya.pspserver.system.constants.ImageStatus;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ImageDTO;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ImageParser;
+import py.org.fundacionparaguaya.pspserver.system.services.impl.FileSystemBlobStore;
+import py.org.fundacionparaguaya.pspserver.system.services.impl.ImageUploadServiceImpl;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ImageUploadServiceImplTest {
+
+    private static final String BASE_URL = "https://images.example.org/";
+
+    private static final byte[] IMAGE = {(byte) 0x89, 'P', 'N', 'G', 0, 1, 2, 3, 4, 5, (byte) 0xff};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ImageUploadService.ImageOwner owner;
+
+    private ApplicationProperties applicationProperties;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(owner.updateImage(anyString(), anyString(), any(ImageStatus.class))).thenReturn(true);
+
+        directory = folder.newFolder("blobs").toPath();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getBlobStore().setType("filesystem");
+        applicationProperties.getBlobStore().setDirectory(directory.toString());
+        applicationProperties.getBlobStore().setBaseUrl(BASE_URL);
+    }
+
+    @Test
+    public void shouldDecodeTheDataUriStraightIntoTheStore() throws Exception {
+        for (int length = 0; length < IMAGE.length; length++) {
+            byte[] image = Arrays.copyOf(IMAGE, length);
+            String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(image);
+            ImageUploadServiceImpl service = newService(new FileSystemBlobStore(applicationProperties));
+
+            ImageDTO imageDTO = ImageParser.parse(dataUri, "hubs/");
+            String url = service.uploadImage(imageDTO);
+
+            assertThat(imageDTO.getLength()).isEqualTo(length);
+            assertThat(url).startsWith(BASE_URL + "hubs/").endsWith(".png");
+            assertThat(Files.readAllBytes(directory.resolve(url.substring(BASE_URL.length())))).isEqualTo(image);
+        }
+    }
+
+    @Test
+    public void shouldKeepImagesUploadedAtOnceApart() throws Exception {
+        ImageUploadServiceImpl service = newService(new FileSystemBlobStore(applicationProperties));
+        byte[] other = Arrays.copyOf(IMAGE, 4);
+
+        String first = service.uploadImage(ImageParser.parse(
+                "data:image/png;base64," + Base64.getEncoder().encodeToString(IMAGE), "hubs/"));
+        String second = service.uploadImage(ImageParser.parse(
+                "data:image/png;base64," + Base64.getEncoder().encodeToString(other), "hubs/"));
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(Files.readAllBytes(directory.resolve(first.substring(BASE_URL.length())))).isEqualTo(IMAGE);
+        assertThat(Files.readAllBytes(directory.resolve(second.substring(BASE_URL.length())))).isEqualTo(other);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidBase64() {
+        ImageParser.parse("data:image/png;base64,iVBO%%%", "hubs/");
+    }
+
+    @Test
+    public void shouldUploadInTheBackgroundAndDeleteTheReplacedImage() throws Exception {
+        Path replaced = Files.createDirectories(directory.resolve("families")).resolve("old.png");
+        Files.write(replaced, IMAGE);
+        ImageUploadServiceImpl service = newService(new FileSystemBlobStore(applicationProperties));
+
+        ImageDTO imageDTO = ImageParser.parse(new MockMultipartFile("file", "family.png", "image/png", IMAGE),
+                "families/");
+        File temporaryFile = imageDTO.getTemporaryFile();
+        String url = service.uploadImageInBackground(imageDTO, BASE_URL + "families/old.png", owner);
+        service.shutdown();
+
+        verify(owner).updateImage(url, url, ImageStatus.READY);
+        assertThat(Files.readAllBytes(directory.resolve(url.substring(BASE_URL.length())))).isEqualTo(IMAGE);
+        assertThat(replaced).doesNotExist();
+        assertThat(temporaryFile).doesNotExist();
+    }
+
+    @Test
+    public void shouldGoBackToTheReplacedImageWhenTheUploadFails() throws Exception {
+        BlobStore blobStore = mock(BlobStore.class);
+        when(blobStore.getUrl(anyString())).thenAnswer(invocation -> BASE_URL + invocation.getArguments()[0]);
+        doThrow(new IllegalStateException("unavailable"))
+                .when(blobStore).put(anyString(), any(), anyLong(), anyString());
+        ImageUploadServiceImpl service = newService(blobStore);
+
+        ImageDTO imageDTO = ImageParser.parse(new MockMultipartFile("file", "family.png", "image/png", IMAGE),
+                "families/");
+        File temporaryFile = imageDTO.getTemporaryFile();
+        String url = service.uploadImageInBackground(imageDTO, BASE_URL + "families/old.png", owner);
+        service.shutdown();
+
+        verify(owner).updateImage(url, BASE_URL + "families/old.png", ImageStatus.FAILED);
+        assertThat(temporaryFile).doesNotExist();
+    }
+
+    @Test
+    public void shouldSettlePendingImagesByWhetherTheyWereUploaded() throws Exception {
+        Files.write(Files.createDirectories(directory.resolve("families")).resolve("uploaded.png"), IMAGE);
+        ImageUploadServiceImpl service = newService(new FileSystemBlobStore(applicationProperties));
+
+        assertThat(service.settlePendingImage(BASE_URL + "families/uploaded.png", "families/", owner))
+                .isEqualTo(ImageStatus.READY);
+        assertThat(service.settlePendingImage(BASE_URL + "families/lost.png", "families/", owner))
+                .isEqualTo(ImageStatus.FAILED);
+
+        verify(owner).updateImage(BASE_URL + "families/uploaded.png", BASE_URL + "families/uploaded.png",
+                ImageStatus.READY);
+        verify(owner).updateImage(BASE_URL + "families/lost.png", BASE_URL + "families/lost.png",
+                ImageStatus.FAILED);
+    }
+
+    private ImageUploadServiceImpl newService(BlobStore blobStore) {
+        return new ImageUploadServiceImpl(blobStore, applicationProperties, transactionManager);
+    }
+}
@@ -0,0 +1,147 @@
+package py.org.fundacionparaguaya.pspserver.system.services;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import py.org.fundacionparaguaya.pspserver.common.pagination.SyncWatermark;
+import py.org.fundacionparaguaya.pspserver.families.dtos.FamilyDTO;
+import py.org.fundacionparaguaya.pspserver.families.entities.FamilyEntity;
+import py.org.fundacionparaguaya.pspserver.families.mapper.FamilyMapper;
+import py.org.fundacionparaguaya.pspserver.families.repositories.FamilyRepository;
+import py.org.fundacionparaguaya.pspserver.security.entities.UserEntity;
+import py.org.fundacionparaguaya.pspserver.security.repositories.UserRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotDraftMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotEconomicMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SnapshotIndicatorPriorityMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.mapper.SurveyMapper;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotDraftRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotEconomicRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SnapshotIndicatorPriorityRepository;
+import py.org.fundacionparaguaya.pspserver.surveys.repositories.SurveyRepository;
+import py.org.fundacionparaguaya.pspserver.system.constants.ChangeType;
+import py.org.fundacionparaguaya.pspserver.system.dtos.ChangesDTO;
+import py.org.fundacionparaguaya.pspserver.system.entities.ChangeLogEntity;
+import py.org.fundacionparaguaya.pspserver.system.repositories.ChangeLogRepository;
+import py.org.fundacionparaguaya.pspserver.system.services.impl.SyncServiceImpl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static py.org.fundacionparaguaya.pspserver.util.TestMockFactory.aUser;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SyncServiceImplTest {
+
+    private static final long HEAD = 900L;
+
+    @Mock
+    private ChangeLogRepository changeLogRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SurveyRepository surveyRepository;
+
+    @Mock
+    private SurveyMapper surveyMapper;
+
+    @Mock
+    private FamilyRepository familyRepository;
+
+    @Mock
+    private FamilyMapper familyMapper;
+
+    @Mock
+    private SnapshotEconomicRepository snapshotRepository;
+
+    @Mock
+    private SnapshotEconomicMapper snapshotMapper;
+
+    @Mock
+    private SnapshotIndicatorPriorityRepository priorityRepository;
+
+    @Mock
+    private SnapshotIndicatorPriorityMapper priorityMapper;
+
+    @Mock
+    private SnapshotDraftRepository draftRepository;
+
+    @Mock
+    private SnapshotDraftMapper draftMapper;
+
+    private SyncService syncService;
+
+    @Before
+    public void setUp() {
+        UserEntity user = new UserEntity();
+        user.setId(7L);
+        when(userRepository.findOneByUsername(anyString())).thenReturn(Optional.of(user));
+        when(changeLogRepository.findHead()).thenReturn(HEAD);
+        syncService = new SyncServiceImpl(changeLogRepository, userRepository, surveyRepository, surveyMapper,
+                familyRepository, familyMapper, snapshotRepository, snapshotMapper, priorityRepository,
+                priorityMapper, draftRepository, draftMapper);
+    }
+
+    @Test
+    public void shouldStartFromTheHeadWithoutWatermark() {
+        ChangesDTO changes = syncService.getChanges(aUser(), null, 10);
+
+        assertThat(changes.getChanges()).isEmpty();
+        assertThat(SyncWatermark.decode(changes.getWatermark()).getTxid()).isEqualTo(HEAD);
+        verifyZeroInteractions(familyRepository);
+    }
+
+    @Test
+    public void shouldGiveTheLastChangeOfEachItem() {
+        FamilyEntity family = new FamilyEntity();
+        family.setFamilyId(2L);
+        FamilyDTO familyDto = new FamilyDTO();
+        when(changeLogRepository.findAfter(any(SyncWatermark.class), eq(HEAD), any(), any(), eq(7L), eq(11)))
+                .thenReturn(Arrays.asList(
+                        new ChangeLogEntity(1L, 500L, ChangeType.FAMILY, 1L, false),
+                        new ChangeLogEntity(2L, 500L, ChangeType.FAMILY, 2L, false),
+                        new ChangeLogEntity(3L, 501L, ChangeType.FAMILY, 1L, true),
+                        new ChangeLogEntity(4L, 502L, ChangeType.FAMILY, 3L, false)));
+        // family 3 was deleted after the head, its tombstone comes in a later call
+        when(familyRepository.findAll(Arrays.asList(2L, 3L))).thenReturn(Collections.singletonList(family));
+        when(familyMapper.entityToDto(family)).thenReturn(familyDto);
+
+        ChangesDTO changes = syncService.getChanges(aUser(), new SyncWatermark(400L, 0).encode(), 10);
+
+        assertThat(changes.getChanges())
+                .extracting("type", "id", "deleted", "data")
+                .containsExactly(
+                        tuple(ChangeType.FAMILY, 2L, false, familyDto),
+                        tuple(ChangeType.FAMILY, 1L, true, null));
+        assertThat(changes.isMore()).isFalse();
+        assertThat(SyncWatermark.decode(changes.getWatermark()).getTxid()).isEqualTo(HEAD);
+    }
+
+    @Test
+    public void shouldContinueAfterTheLastChangeOfAFullPage() {
+        when(changeLogRepository.findAfter(any(SyncWatermark.class), eq(HEAD), any(), any(), eq(7L), anyInt()))
+                .thenReturn(Arrays.asList(
+                        new ChangeLogEntity(1L, 500L, ChangeType.DRAFT, 1L, true),
+                        new ChangeLogEntity(2L, 501L, ChangeType.DRAFT, 2L, true)));
+
+        ChangesDTO changes = syncService.getChanges(aUser(), new SyncWatermark(400L, 0).encode(), 1);
+
+        assertThat(changes.getChanges()).hasSize(1);
+        assertThat(changes.isMore()).isTrue();
+        SyncWatermark next = SyncWatermark.decode(changes.getWatermark());
+        assertThat(next.getTxid()).isEqualTo(500L);
+        assertThat(next.getChangeId()).isEqualTo(1L);
+    }
+}
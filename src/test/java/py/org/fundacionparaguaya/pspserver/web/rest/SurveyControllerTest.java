@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.restdocs.AutoConfigureRestDocs;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders;
 import org.springframework.restdocs.payload.FieldDescriptor;
@@ -21,9 +22,12 @@ import py.org.fundacionparaguaya.pspserver.util.TestHelper;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.restdocs.operation.preprocess.Preprocessors.preprocessRequest;
@@ -37,6 +41,7 @@ import static org.springframework.restdocs.request.RequestDocumentation.pathPara
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -51,6 +56,7 @@ public class SurveyControllerTest {
     private static final Long SURVEY_ID = 1L;
     private static final String SURVEY_DEFAULTS = "/survey_defaults.json";
     public static final String LAST_MODIFIED = "2018-03-16T15:30";
+    private static final String SURVEY_TAG = "1f3e";
 
     @Autowired
     private MockMvc mockMvc;
@@ -108,6 +114,24 @@ public class SurveyControllerTest {
                         responseFields(survey)));
     }
 
+    @Test
+    public void shouldNotBuildTheSurveyDefinitionTheClientAlreadyHas() throws Exception {
+        when(surveyService.getSurveyDefinitionTag(eq(SURVEY_ID))).thenReturn(SURVEY_TAG);
+        when(surveyService.getSurveyDefinition(eq(SURVEY_ID))).thenReturn(getDefinition());
+
+        this.mockMvc.perform(get("/api/v1/surveys/{survey_id}", SURVEY_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + SURVEY_TAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + SURVEY_TAG + "\""));
+        verify(surveyService, never()).getSurveyDefinition(anyLong());
+
+        this.mockMvc.perform(get("/api/v1/surveys/{survey_id}", SURVEY_ID)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + SURVEY_TAG + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, private"));
+    }
+
     @Test
     public void shouldPostToCreateSurvey() throws Exception {
         SurveyDefinition definition = getDefinition();